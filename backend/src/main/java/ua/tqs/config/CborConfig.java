@@ -0,0 +1,26 @@
+package ua.tqs.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Serves {@code application/cbor} wherever a client asks for it, using the compact DTO shapes
+ * from {@link CompactCborModule}. JSON stays the default for every other Accept header.
+ */
+@Configuration
+public class CborConfig {
+
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper cborMapper = builder.factory(new CBORFactory())
+                .featuresToEnable(SerializationFeature.WRITE_ENUMS_USING_INDEX)
+                .build();
+        cborMapper.registerModule(new CompactCborModule());
+        return new MappingJackson2CborHttpMessageConverter(cborMapper);
+    }
+}
@@ -0,0 +1,129 @@
+package ua.tqs.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import ua.tqs.dto.ReservationResponseDTO;
+import ua.tqs.dto.SlotResponseDTO;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.ReservationStatus;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact wire shapes for the DTOs mobile clients read most, used only by the CBOR converter.
+ * Keys are shortened, enums are written as their ordinal, coordinates are packed into a
+ * {@code [latE6, lonE6]} integer pair, derived fields ({@code location}) are dropped, null
+ * fields are omitted and timestamps are epoch seconds (UTC).
+ *
+ * <p>Slot: {@code i} id, {@code n} name, {@code s} stationName, {@code ss} stationStatus,
+ * {@code r} reserved, {@code t} chargingType, {@code p} power, {@code c} coordinates,
+ * {@code k} pricePerKwh.
+ *
+ * <p>Reservation: {@code i} id, {@code u} userId, {@code un} userName, {@code ue} userEmail,
+ * {@code sl} slotId, {@code lb} slotLabel, {@code loc} stationLocation, {@code st} state,
+ * {@code t} chargingType, {@code e} consumptionKWh, {@code tc} totalCost, {@code pd} paid,
+ * {@code ca} createdAt, {@code s} startTime, {@code d} durationMinutes.
+ */
+public class CompactCborModule extends SimpleModule {
+
+    private static final double COORDINATE_SCALE = 1_000_000d;
+
+    public CompactCborModule() {
+        super("CompactCborModule");
+        addSerializer(SlotResponseDTO.class, new SlotSerializer());
+        addSerializer(ReservationResponseDTO.class, new ReservationSerializer());
+    }
+
+    static final class SlotSerializer extends StdSerializer<SlotResponseDTO> {
+
+        SlotSerializer() {
+            super(SlotResponseDTO.class);
+        }
+
+        @Override
+        public void serialize(SlotResponseDTO slot, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeNumber(gen, "i", slot.getId());
+            writeString(gen, "n", slot.getName());
+            writeString(gen, "s", slot.getStationName());
+            if (slot.getStationStatus() != null) {
+                gen.writeNumberField("ss", slot.getStationStatus().ordinal());
+            }
+            gen.writeBooleanField("r", slot.isReserved());
+            if (slot.getChargingType() != null) {
+                gen.writeNumberField("t", slot.getChargingType().ordinal());
+            }
+            writeString(gen, "p", slot.getPower());
+            if (slot.getLatitude() != null && slot.getLongitude() != null) {
+                gen.writeFieldName("c");
+                gen.writeArray(new int[] {
+                        (int) Math.round(slot.getLatitude() * COORDINATE_SCALE),
+                        (int) Math.round(slot.getLongitude() * COORDINATE_SCALE)
+                }, 0, 2);
+            }
+            gen.writeNumberField("k", (float) slot.getPricePerKwh());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class ReservationSerializer extends StdSerializer<ReservationResponseDTO> {
+
+        ReservationSerializer() {
+            super(ReservationResponseDTO.class);
+        }
+
+        @Override
+        public void serialize(ReservationResponseDTO reservation, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject();
+            writeNumber(gen, "i", reservation.getId());
+            writeNumber(gen, "u", reservation.getUserId());
+            writeString(gen, "un", reservation.getUserName());
+            writeString(gen, "ue", reservation.getUserEmail());
+            writeNumber(gen, "sl", reservation.getSlotId());
+            writeString(gen, "lb", reservation.getSlotLabel());
+            writeString(gen, "loc", reservation.getStationLocation());
+            if (reservation.getState() != null) {
+                gen.writeNumberField("st", ReservationStatus.valueOf(reservation.getState()).ordinal());
+            }
+            if (reservation.getChargingType() != null) {
+                gen.writeNumberField("t", ChargingType.valueOf(reservation.getChargingType()).ordinal());
+            }
+            if (reservation.getConsumptionKWh() != null) {
+                gen.writeNumberField("e", reservation.getConsumptionKWh().floatValue());
+            }
+            if (reservation.getTotalCost() != null) {
+                gen.writeNumberField("tc", reservation.getTotalCost().floatValue());
+            }
+            gen.writeBooleanField("pd", reservation.isPaid());
+            writeTime(gen, "ca", reservation.getCreatedAt());
+            writeTime(gen, "s", reservation.getStartTime());
+            if (reservation.getDurationMinutes() != null) {
+                gen.writeNumberField("d", reservation.getDurationMinutes());
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    private static void writeNumber(JsonGenerator gen, String field, Long value) throws IOException {
+        if (value != null) {
+            gen.writeNumberField(field, value);
+        }
+    }
+
+    private static void writeString(JsonGenerator gen, String field, String value) throws IOException {
+        if (value != null) {
+            gen.writeStringField(field, value);
+        }
+    }
+
+    private static void writeTime(JsonGenerator gen, String field, LocalDateTime value) throws IOException {
+        if (value != null) {
+            gen.writeNumberField(field, value.toEpochSecond(ZoneOffset.UTC));
+        }
+    }
+}
@@ -35,9 +35,12 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**", "/swagger-ui/**", "/v3/api-docs/**", "/actuator/health").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/slots/**").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/slots/dto").permitAll()
+                        // Bulk writes of up to hundreds of thousands of slots
+                        .requestMatchers(HttpMethod.POST, "/api/slots/import").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/slots/**").permitAll()
                         .requestMatchers(HttpMethod.PUT, "/api/slots/dto/**").permitAll()
                         .requestMatchers(HttpMethod.DELETE, "/api/slots/delete/**").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/quotes").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/reservations/all").permitAll()
                         .requestMatchers("/api/reservations/admin/stats").permitAll()
                         .requestMatchers("/api/users/**").permitAll()
@@ -63,7 +66,7 @@ public class SecurityConfig {
                 "Access-Control-Request-Method",
                 "Access-Control-Request-Headers"
         ));
-        configuration.setExposedHeaders(List.of(AUTHORIZATION_HEADER));
+        configuration.setExposedHeaders(List.of(AUTHORIZATION_HEADER, "X-Next-Cursor"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
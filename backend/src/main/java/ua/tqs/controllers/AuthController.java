@@ -36,13 +36,14 @@ public class AuthController {
         }
 
         UserDetails userDetails = userDetailsService.loadUserByUsername(request.getEmail());
+        Long userId = userDetailsService.getUserId(userDetails);
         String token = jwtUtil.generateToken(
                 userDetails.getUsername(),
-                userDetails.getAuthorities().iterator().next().getAuthority()
+                userDetails.getAuthorities().iterator().next().getAuthority(),
+                userId
         );
 
         String role = userDetails.getAuthorities().iterator().next().getAuthority().replace("ROLE_", "");
-        Long userId = userDetailsService.getUserId(userDetails);
 
         String name = userDetailsService.getUserName(userDetails);
         String email = userDetails.getUsername();
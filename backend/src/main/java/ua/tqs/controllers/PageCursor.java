@@ -0,0 +1,68 @@
+package ua.tqs.controllers;
+
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Opaque keyset cursors for the list endpoints. A cursor wraps the id of the last row of the
+ * previous page; the next page is read with {@code id > cursor order by id}, so every page costs
+ * the same index range scan however deep the client goes.
+ */
+final class PageCursor {
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 500;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String PREFIX = "id:";
+
+    private PageCursor() {
+    }
+
+    /** Id to continue after; 0 (before every generated id) when no cursor is given. */
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    /**
+     * The page as a plain JSON array; a full page carries the cursor of its last row in
+     * {@value #NEXT_CURSOR_HEADER}, a short page means there is nothing left.
+     */
+    static <T> ResponseEntity<Object> page(List<T> items, int limit, ToLongFunction<T> id) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (items.size() == limit) {
+            response.header(NEXT_CURSOR_HEADER, encode(id.applyAsLong(items.get(items.size() - 1))));
+        }
+        return response.body(items);
+    }
+}
@@ -0,0 +1,33 @@
+package ua.tqs.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ua.tqs.dto.QuoteDTO;
+import ua.tqs.dto.QuoteRequestDTO;
+import ua.tqs.services.TariffService;
+
+import java.util.List;
+
+@CrossOrigin(origins = "http://deti-tqs-05.ua.pt", allowCredentials = "true")
+@RestController
+@RequestMapping("/api/quotes")
+public class QuoteController {
+
+    private final TariffService tariffService;
+
+    @Autowired
+    public QuoteController(TariffService tariffService) {
+        this.tariffService = tariffService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Object> quote(@RequestBody List<QuoteRequestDTO> requests) {
+        try {
+            List<QuoteDTO> quotes = tariffService.quote(requests);
+            return ResponseEntity.ok(quotes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
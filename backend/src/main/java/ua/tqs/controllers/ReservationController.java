@@ -1,66 +1,145 @@
 package ua.tqs.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ua.tqs.dto.AdminStatsDTO;
+import ua.tqs.dto.BatchReservationRequestDTO;
+import ua.tqs.dto.BatchReservationResultDTO;
+import ua.tqs.dto.ReservationHoldDTO;
 import ua.tqs.dto.ReservationRequestDTO;
 import ua.tqs.dto.ReservationResponseDTO;
+import ua.tqs.enums.BatchMode;
+import ua.tqs.enums.ReservationStatus;
 import ua.tqs.login.JwtUtil;
 import ua.tqs.models.User;
 import ua.tqs.repositories.UserRepository;
+import ua.tqs.services.BatchReservationService;
+import ua.tqs.services.BookingQueue;
+import ua.tqs.services.IdempotentBookings;
+import ua.tqs.services.ReservationConflictException;
+import ua.tqs.services.ReservationExportService;
+import ua.tqs.services.ReservationHolds;
 import ua.tqs.services.ReservationService;
 
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @CrossOrigin(origins = "http://deti-tqs-05.ua.pt", allowCredentials = "true")
 @RestController
 @RequestMapping("/api/reservations")
 public class ReservationController {
     private static final String BEARER_PREFIX = "Bearer ";
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final String CSV_VALUE = "text/csv";
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final int MAX_TICKET_WAIT_SECONDS = 30;
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
 
     private final ReservationService reservationService;
+    private final ReservationExportService exportService;
+    private final BatchReservationService batchReservationService;
+    private final BookingQueue bookingQueue;
+    private final ReservationHolds reservationHolds;
+    private final IdempotentBookings idempotentBookings;
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
 
     @Autowired
-    public ReservationController(ReservationService reservationService, UserRepository userRepository, JwtUtil jwtUtil) {
+    public ReservationController(ReservationService reservationService, ReservationExportService exportService,
+                                 BatchReservationService batchReservationService, BookingQueue bookingQueue,
+                                 ReservationHolds reservationHolds, IdempotentBookings idempotentBookings,
+                                 UserRepository userRepository, JwtUtil jwtUtil) {
         this.reservationService = reservationService;
+        this.exportService = exportService;
+        this.batchReservationService = batchReservationService;
+        this.bookingQueue = bookingQueue;
+        this.reservationHolds = reservationHolds;
+        this.idempotentBookings = idempotentBookings;
         this.userRepository = userRepository;
         this.jwtUtil = jwtUtil;
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<ReservationResponseDTO>> getAllReservations() {
-        List<ReservationResponseDTO> reservations = reservationService.getAllReservations();
-        return ResponseEntity.ok(reservations);
+    public ResponseEntity<Object> getAllReservations(@RequestParam(required = false) String after,
+                                                     @RequestParam(required = false) Integer limit) {
+        try {
+            int pageSize = PageCursor.limit(limit);
+            List<ReservationResponseDTO> reservations =
+                    reservationService.getAllReservations(PageCursor.decode(after), pageSize);
+            return PageCursor.page(reservations, pageSize, ReservationResponseDTO::getId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/all", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportReservationsNdjson() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(exportService::writeNdjson);
     }
 
+    @GetMapping(value = "/all", produces = CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportReservationsCsv() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(CSV_VALUE + ";charset=UTF-8"))
+                .header("Content-Disposition", "attachment; filename=\"reservations.csv\"")
+                .body(exportService::writeCsv);
+    }
+
+    /**
+     * Books at once, or with {@code Prefer: respond-async} queues the booking and answers 202 with
+     * a ticket to poll at {@code /api/reservations/tickets/{ticketId}} (see {@link BookingQueue}).
+     * A synchronous booking with an {@code Idempotency-Key} is booked once, and retries get the
+     * first outcome with {@code Idempotent-Replayed: true} (see {@link IdempotentBookings}).
+     */
     @PostMapping("/create")
-    public ResponseEntity<ReservationResponseDTO> createReservation(
+    public ResponseEntity<Object> createReservation(
             @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
             @RequestBody ReservationRequestDTO dto) {
         try {
-            String token = authHeader.replace(BEARER_PREFIX, "");
-            String userEmail = jwtUtil.getUsername(token);
-            Optional<User> user = userRepository.findByEmail(userEmail);
+            Long tokenUserId = tokenUserId(authHeader);
 
-            if (user.isEmpty()) {
+            // Verify the user ID matches the token
+            if (tokenUserId == null || !tokenUserId.equals(dto.getUserId())) {
                 return ResponseEntity.status(403).build();
             }
 
-            // Verify the user ID matches the token
-            if (!user.get().getId().equals(dto.getUserId())) {
-                return ResponseEntity.status(403).build();
+            if (prefer != null && prefer.contains(RESPOND_ASYNC)) {
+                return bookingQueue.submit(dto)
+                        .<ResponseEntity<Object>>map(ticket -> ResponseEntity.accepted()
+                                .location(URI.create("/api/reservations/tickets/" + ticket.getTicketId()))
+                                .body(ticket))
+                        .orElseGet(() -> ResponseEntity.status(503).header("Retry-After", "1").build());
+            }
+
+            if (idempotencyKey != null) {
+                IdempotentBookings.Outcome outcome = idempotentBookings.book(tokenUserId, idempotencyKey, dto);
+                return ResponseEntity.status(outcome.status())
+                        .header("Idempotent-Replayed", String.valueOf(outcome.replayed()))
+                        .body(outcome.reservation() != null ? outcome.reservation() : outcome.error());
             }
 
             Optional<ReservationResponseDTO> reservation = reservationService.createReservation(dto);
             return reservation
-                    .map(ResponseEntity::ok)
+                    .<ResponseEntity<Object>>map(ResponseEntity::ok)
                     .orElseGet(() -> ResponseEntity.badRequest().build());
+        } catch (ReservationConflictException e) {
+            return ResponseEntity.status(409).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(500).build();
         }
@@ -68,6 +147,80 @@ public class ReservationController {
 
     }
 
+    /** The ticket of a queued booking; with {@code wait} seconds, answers as soon as it is final. */
+    @GetMapping("/tickets/{ticketId}")
+    public CompletableFuture<ResponseEntity<Object>> getTicket(@RequestHeader("Authorization") String authHeader,
+                                                               @PathVariable String ticketId,
+                                                               @RequestParam(defaultValue = "0") int wait) {
+        Duration timeout = Duration.ofSeconds(Math.max(0, Math.min(wait, MAX_TICKET_WAIT_SECONDS)));
+        return bookingQueue.find(ticketId, tokenUserId(authHeader), timeout)
+                .map(ticket -> ticket.<ResponseEntity<Object>>thenApply(ResponseEntity::ok))
+                .orElseGet(() -> CompletableFuture.completedFuture(ResponseEntity.notFound().build()));
+    }
+
+    /**
+     * Books many windows for the token's user in one transaction. All-or-nothing batches answer
+     * 409 when any item is rejected; best-effort ones answer 200 with whatever could be booked.
+     * Either way the body has one result per item.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createReservations(@RequestHeader("Authorization") String authHeader,
+                                                     @RequestBody BatchReservationRequestDTO dto) {
+        Long tokenUserId = tokenUserId(authHeader);
+        if (tokenUserId == null || !tokenUserId.equals(dto.getUserId())) {
+            return ResponseEntity.status(403).build();
+        }
+        try {
+            BatchReservationResultDTO result = batchReservationService.book(dto);
+            return result.getRejected() > 0 && result.getMode() == BatchMode.ALL_OR_NOTHING
+                    ? ResponseEntity.status(409).body(result)
+                    : ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (ReservationConflictException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Holds a window for a few minutes while the user completes the booking; 409 when it is
+     * reserved or held by someone else. Holding the same window again renews the hold.
+     */
+    @PostMapping("/holds")
+    public ResponseEntity<Object> holdReservation(@RequestHeader("Authorization") String authHeader,
+                                                  @RequestBody ReservationRequestDTO dto) {
+        Long tokenUserId = tokenUserId(authHeader);
+        if (tokenUserId == null || !tokenUserId.equals(dto.getUserId())) {
+            return ResponseEntity.status(403).build();
+        }
+        try {
+            Optional<ReservationHoldDTO> hold = reservationHolds.place(dto);
+            return hold
+                    .<ResponseEntity<Object>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(409).build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Void> releaseHold(@RequestHeader("Authorization") String authHeader,
+                                            @PathVariable String holdId) {
+        return reservationHolds.release(holdId, tokenUserId(authHeader))
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /** Tokens carry the user id; only older ones without it need the lookup by email. */
+    private Long tokenUserId(String authHeader) {
+        String token = authHeader.replace(BEARER_PREFIX, "");
+        Long userId = jwtUtil.getUserId(token);
+        if (userId == null) {
+            userId = userRepository.findByEmail(jwtUtil.getUsername(token)).map(User::getId).orElse(null);
+        }
+        return userId;
+    }
+
     @PutMapping("/{id}/cancel")
     public ResponseEntity<String> cancelReservation(@PathVariable Long id) {
         boolean success = reservationService.cancelReservation(id);
@@ -78,11 +231,25 @@ public class ReservationController {
         }
     }
 
+    /** The user's reservations, optionally by status and by start time in {@code [from, to)}. */
     @GetMapping("/myReservations")
-    public ResponseEntity<List<ReservationResponseDTO>> getMyReservations(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<Object> getMyReservations(@RequestHeader("Authorization") String authHeader,
+                                                    @RequestParam(required = false) ReservationStatus status,
+                                                    @RequestParam(required = false)
+                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                    @RequestParam(required = false)
+                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                    @RequestParam(required = false) String after,
+                                                    @RequestParam(required = false) Integer limit) {
         String token = authHeader.replace(BEARER_PREFIX, "");
-        List<ReservationResponseDTO> reservations = reservationService.getReservationsByToken(token);
-        return ResponseEntity.ok(reservations);
+        try {
+            int pageSize = PageCursor.limit(limit);
+            List<ReservationResponseDTO> reservations = reservationService.getReservationsByToken(
+                    token, status, from, to, PageCursor.decode(after), pageSize);
+            return PageCursor.page(reservations, pageSize, ReservationResponseDTO::getId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/revenue")
@@ -1,13 +1,26 @@
 package ua.tqs.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ua.tqs.dto.SlotClusterDTO;
 import ua.tqs.dto.SlotDTO;
-import ua.tqs.models.Slot;
+import ua.tqs.dto.SlotImportReportDTO;
+import ua.tqs.dto.SlotResponseDTO;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.index.SlotCatalog;
+import ua.tqs.services.SlotImportService;
 import ua.tqs.services.SlotService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,36 +29,193 @@ import java.util.Optional;
 
 @CrossOrigin(origins = "http://deti-tqs-05.ua.pt", allowCredentials = "true")
 @RestController
-@RequestMapping(value = "/api/slots", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(value = "/api/slots", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
 public class SlotController {
 
     private final SlotService slotService;
+    private final SlotImportService slotImportService;
 
     @Autowired
-    public SlotController(SlotService slotService) {
+    public SlotController(SlotService slotService, SlotImportService slotImportService) {
         this.slotService = slotService;
+        this.slotImportService = slotImportService;
     }
 
 
     @GetMapping
-    public ResponseEntity<List<Slot>> getAllSlots() {
-        return ResponseEntity.ok(slotService.getAllSlots());
+    public ResponseEntity<Object> getAllSlots(@RequestParam(required = false) String after,
+                                              @RequestParam(required = false) Integer limit) {
+        try {
+            int pageSize = PageCursor.limit(limit);
+            List<SlotResponseDTO> slots = slotService.getAllSlots(PageCursor.decode(after), pageSize);
+            return PageCursor.page(slots, pageSize, SlotResponseDTO::getId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * The whole catalog from a pre-serialized buffer. Clients revalidate with If-None-Match and
+     * get a 304 while nothing changed; gzip is served precompressed when accepted.
+     */
+    @GetMapping("/catalog")
+    public ResponseEntity<byte[]> getCatalog(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        SlotCatalog.Body body = slotService.getCatalog();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? body.gzipEtag() : body.etag();
+
+        boolean notModified = matchesEtag(ifNoneMatch, etag);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (notModified) {
+            return response.build();
+        }
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.contentType(MediaType.APPLICATION_JSON).body(gzip ? body.gzip() : body.json());
+    }
+
+    /**
+     * What changed in the catalog since {@code since}, the {@code version} of a previous reply or
+     * the ETag of the catalog the client holds, as it was served. Falls back to the full catalog
+     * ({@code full: true}) when that version is no longer known.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<Object> getCatalogChanges(@RequestParam(required = false) String since) {
+        try {
+            return ResponseEntity.ok(slotService.getCatalogChanges(since));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Server-Sent Events feed of availability changes, optionally narrowed to some slot ids
+     * and/or a bbox (minLat,minLon,maxLat,maxLon), so clients can stop polling single slots.
+     * {@code X-Accel-Buffering: no} keeps nginx from holding events back in its buffers.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(@RequestParam(required = false) List<Long> ids,
+                                                    @RequestParam(required = false) double[] bbox) {
+        try {
+            return ResponseEntity.ok()
+                    .header("X-Accel-Buffering", "no")
+                    .body(slotService.subscribeToChanges(ids, bbox));
+        } catch (IllegalArgumentException e) {
+            // An EventSource cannot read an error body, so only the status is reported
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/available")
-    public ResponseEntity<List<Slot>> getAvailableSlots() {
+    public ResponseEntity<List<SlotResponseDTO>> getAvailableSlots() {
         return ResponseEntity.ok(slotService.getAvailableSlots());
     }
 
+    @GetMapping("/within")
+    public ResponseEntity<Object> getSlotsWithin(@RequestParam double minLat,
+                                                 @RequestParam double minLon,
+                                                 @RequestParam double maxLat,
+                                                 @RequestParam double maxLon) {
+        try {
+            List<SlotResponseDTO> slots = slotService.getSlotsWithin(minLat, minLon, maxLat, maxLon);
+            return ResponseEntity.ok(slots);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/nearest")
+    public ResponseEntity<Object> getNearestAvailableSlots(@RequestParam double lat,
+                                                           @RequestParam double lon,
+                                                           @RequestParam(defaultValue = "5") int k,
+                                                           @RequestParam(required = false) ChargingType type) {
+        try {
+            List<SlotResponseDTO> slots = slotService.getNearestAvailableSlots(lat, lon, k, type);
+            return ResponseEntity.ok(slots);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /** Slots with no reservation between {@code from} and {@code to} (at most a day apart). */
+    @GetMapping("/free")
+    public ResponseEntity<Object> getFreeSlots(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) ChargingType type,
+            @RequestParam(required = false) Long stationId,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            List<SlotResponseDTO> slots = slotService.getFreeSlots(from, to, type, stationId, PageCursor.limit(limit));
+            return ResponseEntity.ok(slots);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/clusters")
+    public ResponseEntity<Object> getClusters(@RequestParam int zoom, @RequestParam double[] bbox) {
+        try {
+            List<SlotClusterDTO> clusters = slotService.getClusters(zoom, bbox);
+            return ResponseEntity.ok(clusters);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Slot> getSlotById(@PathVariable Long id) {
+    public ResponseEntity<SlotResponseDTO> getSlotById(@PathVariable Long id) {
         return slotService.getSlotById(id)
-                .map(slot -> ResponseEntity.ok()
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .body(slot))
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<Object> getSlotAvailability(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return slotService.getAvailability(id, from, to)
+                    .<ResponseEntity<Object>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PostMapping("/dto")
     public ResponseEntity<Object> createSlotFromDto(@RequestBody SlotDTO slotDTO) {
         if (slotDTO.getId() != null) {
@@ -53,15 +223,34 @@ public class SlotController {
         }
 
         try {
-            Slot created = slotService.saveOrUpdateSlotFromDTO(slotDTO);
+            SlotResponseDTO created = slotService.saveOrUpdateSlotFromDTO(slotDTO);
             return ResponseEntity.ok(created);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    /**
+     * Bulk onboarding: the upload is streamed, and rows that fail validation are listed in the
+     * report while the rest are still imported.
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<Object> importSlotsCsv(InputStream body) throws IOException {
+        try {
+            SlotImportReportDTO report = slotImportService.importCsv(body);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<Object> importSlotsNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(slotImportService.importNdjson(body));
+    }
+
     @GetMapping("/station/{stationId}")
-    public ResponseEntity<List<Slot>> getSlotsByStation(@PathVariable Long stationId) {
+    public ResponseEntity<List<SlotResponseDTO>> getSlotsByStation(@PathVariable Long stationId) {
         return ResponseEntity.ok(slotService.getSlotsByStationId(stationId));
     }
 
@@ -76,32 +265,36 @@ public class SlotController {
     }
 
     @GetMapping("/chargers")
-    public ResponseEntity<List<Slot>> getAllChargers() {
-        List<Slot> slots = slotService.getAllSlots();
-        return ResponseEntity.ok(slots);
+    public ResponseEntity<List<SlotResponseDTO>> getAllChargers() {
+        return ResponseEntity.ok(slotService.getAllChargers());
     }
 
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getChargerStats() {
+    public ResponseEntity<Map<String, Object>> getChargerStats(@RequestParam(required = false) Long stationId) {
         long totalChargers = slotService.getTotalChargers();
         long activeChargers = slotService.getActiveChargers();
 
         Map<String, Object> stats = new HashMap<>();
         stats.put("totalChargers", totalChargers);
         stats.put("activeChargers", activeChargers);
+        stats.put("activeReservations", slotService.getActiveReservations());
+        stats.put("byChargingType", slotService.getOccupancyByChargingType());
+        if (stationId != null) {
+            stats.put("station", slotService.getStationOccupancy(stationId));
+        }
 
         return ResponseEntity.ok(stats);
     }
 
     @PutMapping("/dto/{id}")
     public ResponseEntity<Object> updateSlotFromDto(@PathVariable Long id, @RequestBody SlotDTO slotDTO) {
-        Optional<Slot> existingSlot = slotService.getSlotById(id);
+        Optional<SlotResponseDTO> existingSlot = slotService.getSlotById(id);
         if (existingSlot.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         slotDTO.setId(id);
         try {
-            Slot updated = slotService.saveOrUpdateSlotFromDTO(slotDTO);
+            SlotResponseDTO updated = slotService.saveOrUpdateSlotFromDTO(slotDTO);
             return ResponseEntity.ok(updated);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -21,8 +21,15 @@ public class UserController {
     }
 
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<Object> getAllUsers(@RequestParam(required = false) String after,
+                                              @RequestParam(required = false) Integer limit) {
+        try {
+            int pageSize = PageCursor.limit(limit);
+            List<User> users = userService.getAllUsers(PageCursor.decode(after), pageSize);
+            return PageCursor.page(users, pageSize, User::getId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/total-users")
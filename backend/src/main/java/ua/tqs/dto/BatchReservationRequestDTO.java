@@ -0,0 +1,41 @@
+package ua.tqs.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+import ua.tqs.enums.BatchMode;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Many reservations for one user in a single request: explicit {@code items}, a
+ * {@code recurrence} expanded into items, or both. {@code mode} defaults to all-or-nothing.
+ */
+@Data
+public class BatchReservationRequestDTO {
+    private Long userId;
+    private BatchMode mode;
+    private List<Item> items;
+    private Recurrence recurrence;
+
+    @Data
+    public static class Item {
+        private Long slotId;
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        private LocalDateTime startTime;
+        private Integer durationMinutes;
+        private Double consumptionKWh;
+    }
+
+    /** {@code occurrences} windows on one slot, {@code intervalDays} apart (weekly by default). */
+    @Data
+    public static class Recurrence {
+        private Long slotId;
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        private LocalDateTime firstStart;
+        private Integer durationMinutes;
+        private Double consumptionKWh;
+        private Integer intervalDays;
+        private Integer occurrences;
+    }
+}
@@ -0,0 +1,35 @@
+package ua.tqs.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ua.tqs.enums.BatchMode;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Outcome of a batch, one result per item in request order (recurrence occurrences after the
+ * explicit items). A booked item has a {@code reservationId}; a rejected one an {@code error}.
+ * In all-or-nothing mode a single rejection leaves every item unbooked.
+ */
+@Data
+@AllArgsConstructor
+public class BatchReservationResultDTO {
+    private BatchMode mode;
+    private int booked;
+    private int rejected;
+    private List<ItemResult> results;
+
+    @Data
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private Long slotId;
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        private LocalDateTime startTime;
+        private Long reservationId;
+        private Double totalCost;
+        private String error;
+    }
+}
@@ -0,0 +1,32 @@
+package ua.tqs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.StationStatus;
+import ua.tqs.index.SlotSnapshot;
+
+/**
+ * What booking needs to know before it writes: the slot with its station, and whether the
+ * booking user exists. Read by a single JPQL constructor projection in {@code SlotRepository}.
+ */
+@Data
+@AllArgsConstructor
+public class BookingTargetDTO {
+    private Long id;
+    private String name;
+    private Long stationId;
+    private String stationName;
+    private StationStatus stationStatus;
+    private Double latitude;
+    private Double longitude;
+    private ChargingType chargingType;
+    private String power;
+    private boolean reserved;
+    private boolean userExists;
+
+    public SlotSnapshot toSnapshot(boolean reserved) {
+        return new SlotSnapshot(id, name, stationId, stationName, stationStatus, latitude, longitude, chargingType,
+                power, reserved);
+    }
+}
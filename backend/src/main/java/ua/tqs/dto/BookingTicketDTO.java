@@ -0,0 +1,18 @@
+package ua.tqs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ua.tqs.enums.TicketStatus;
+
+/**
+ * A queued booking. {@code reservation} is set once it is BOOKED; {@code error} says why it was
+ * REJECTED or ended in a CONFLICT.
+ */
+@Data
+@AllArgsConstructor
+public class BookingTicketDTO {
+    private String ticketId;
+    private TicketStatus status;
+    private ReservationResponseDTO reservation;
+    private String error;
+}
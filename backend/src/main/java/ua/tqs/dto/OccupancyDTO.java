@@ -0,0 +1,12 @@
+package ua.tqs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OccupancyDTO {
+    private long total;
+    private long reserved;
+    private long free;
+}
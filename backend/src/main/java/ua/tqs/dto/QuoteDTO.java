@@ -0,0 +1,27 @@
+package ua.tqs.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Price of one requested session. {@code discount} is the effective rate after weighing the
+ * station's discount by the share of the session inside its window. When the slot does not exist
+ * the prices are {@code null} and {@code error} says why.
+ */
+@Data
+@AllArgsConstructor
+public class QuoteDTO {
+    private Long slotId;
+    private Double consumptionKWh;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime startTime;
+    private Integer durationMinutes;
+    private Double pricePerKWh;
+    private Double discount;
+    private Double totalCost;
+    private String error;
+}
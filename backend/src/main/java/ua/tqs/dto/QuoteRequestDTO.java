@@ -0,0 +1,16 @@
+package ua.tqs.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class QuoteRequestDTO {
+    private Long slotId;
+    private Double consumptionKWh;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime startTime;
+    private Integer durationMinutes;
+}
@@ -0,0 +1,21 @@
+package ua.tqs.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/** A hold on a slot's window; booking that window before {@code expiresAt} consumes it. */
+@Data
+@AllArgsConstructor
+public class ReservationHoldDTO {
+    private String holdId;
+    private Long slotId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime startTime;
+    private Integer durationMinutes;
+    private Instant expiresAt;
+}
@@ -10,6 +10,7 @@ public class ReservationRequestDTO {
     private Long userId;
     private Long slotId;
     private Double consumptionKWh;
+    /** Ignored; the price comes from the server's tariffs (see {@code POST /api/quotes}). */
     private Double pricePerKWh;
 
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
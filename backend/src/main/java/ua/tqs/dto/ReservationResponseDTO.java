@@ -1,10 +1,14 @@
 package ua.tqs.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.ReservationStatus;
 
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class ReservationResponseDTO {
     private Long id;
     private Long userId;
@@ -24,4 +28,26 @@ public class ReservationResponseDTO {
 
     private LocalDateTime startTime;
     private Integer durationMinutes;
+
+    /** Used by the JPQL constructor projections in {@code ReservationRepository}. */
+    public ReservationResponseDTO(Long id, Long userId, String userEmail, String userName, Long slotId,
+                                  ReservationStatus status, Double consumptionKWh, Double totalCost, boolean paid,
+                                  String stationLocation, String slotLabel, ChargingType chargingType,
+                                  LocalDateTime createdAt, LocalDateTime startTime, Integer durationMinutes) {
+        this.id = id;
+        this.userId = userId;
+        this.userEmail = userEmail;
+        this.userName = userName;
+        this.slotId = slotId;
+        this.state = status != null ? status.name() : null;
+        this.consumptionKWh = consumptionKWh;
+        this.totalCost = totalCost;
+        this.paid = paid;
+        this.stationLocation = stationLocation;
+        this.slotLabel = slotLabel;
+        this.chargingType = chargingType != null ? chargingType.name() : null;
+        this.createdAt = createdAt;
+        this.startTime = startTime;
+        this.durationMinutes = durationMinutes;
+    }
 }
@@ -0,0 +1,25 @@
+package ua.tqs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Busy and free windows of one slot between {@code from} and {@code to}, both in time order. */
+@Data
+@AllArgsConstructor
+public class SlotAvailabilityDTO {
+    private Long slotId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<Window> busy;
+    private List<Window> free;
+
+    @Data
+    @AllArgsConstructor
+    public static class Window {
+        private LocalDateTime start;
+        private LocalDateTime end;
+    }
+}
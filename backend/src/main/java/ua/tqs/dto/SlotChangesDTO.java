@@ -0,0 +1,19 @@
+package ua.tqs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Slots changed since a catalog version. When {@code full} is set, the version asked for is no
+ * longer in the change log and {@code updated} holds the whole catalog instead of a delta.
+ */
+@Data
+@AllArgsConstructor
+public class SlotChangesDTO {
+    private String version;
+    private boolean full;
+    private List<SlotResponseDTO> updated;
+    private List<Long> deleted;
+}
@@ -0,0 +1,15 @@
+package ua.tqs.dto;
+
+import lombok.Data;
+import ua.tqs.enums.ChargingType;
+
+import java.util.Map;
+
+@Data
+public class SlotClusterDTO {
+    private int count;
+    private double latitude;
+    private double longitude;
+    private Map<ChargingType, Integer> free;
+    private Map<ChargingType, Integer> reserved;
+}
@@ -0,0 +1,26 @@
+package ua.tqs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk slot import. {@code errors} lists the first rejected rows by their line in
+ * the uploaded file; {@code failed} counts all of them.
+ */
+@Data
+@AllArgsConstructor
+public class SlotImportReportDTO {
+    private long imported;
+    private long failed;
+    private int stationsCreated;
+    private List<RowError> errors;
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
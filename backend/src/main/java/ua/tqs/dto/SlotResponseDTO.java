@@ -1,13 +1,17 @@
 package ua.tqs.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.StationStatus;
 
 @Data
+@NoArgsConstructor
 public class SlotResponseDTO {
     private Long id;
     private String name;
     private String stationName;
+    private StationStatus stationStatus;
     private boolean reserved;
     private ChargingType chargingType;
     private String power;
@@ -15,4 +19,20 @@ public class SlotResponseDTO {
     private Double longitude;
     private String location;
     private double pricePerKwh;
+
+    /** Used by the JPQL constructor projections in {@code SlotRepository}. */
+    public SlotResponseDTO(Long id, String name, String stationName, StationStatus stationStatus, boolean reserved,
+                           ChargingType chargingType, String power, Double latitude, Double longitude) {
+        this.id = id;
+        this.name = name;
+        this.stationName = stationName;
+        this.stationStatus = stationStatus;
+        this.reserved = reserved;
+        this.chargingType = chargingType;
+        this.power = power;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.location = latitude != null && longitude != null ? latitude + ", " + longitude : "Unknown";
+        this.pricePerKwh = chargingType != null ? chargingType.getPricePerKwh() : 0.0;
+    }
 }
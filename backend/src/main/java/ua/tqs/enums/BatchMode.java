@@ -0,0 +1,9 @@
+package ua.tqs.enums;
+
+/** How a batch of reservations treats items that cannot be booked. */
+public enum BatchMode {
+    /** Any failing item cancels the whole batch. */
+    ALL_OR_NOTHING,
+    /** Bookable items are booked; the others are reported. */
+    BEST_EFFORT
+}
@@ -0,0 +1,9 @@
+package ua.tqs.enums;
+
+/** Where a queued booking stands; every status but PENDING is final. */
+public enum TicketStatus {
+    PENDING,
+    BOOKED,
+    REJECTED,
+    CONFLICT
+}
@@ -0,0 +1,33 @@
+package ua.tqs.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.models.Reservation;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a reservation has been created or has changed status
+ * (canceled, finished). {@code status} is the new status.
+ */
+@Getter
+@AllArgsConstructor
+public class ReservationChangedEvent {
+    private final Long reservationId;
+    private final Long slotId;
+    private final Long userId;
+    private final LocalDateTime startTime;
+    private final Integer durationMinutes;
+    private final ReservationStatus status;
+
+    public static ReservationChangedEvent of(Reservation reservation) {
+        return new ReservationChangedEvent(
+                reservation.getId(),
+                reservation.getSlot() != null ? reservation.getSlot().getId() : null,
+                reservation.getUser() != null ? reservation.getUser().getId() : null,
+                reservation.getStartTime(),
+                reservation.getDurationMinutes(),
+                reservation.getStatus());
+    }
+}
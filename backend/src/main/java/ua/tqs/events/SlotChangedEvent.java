@@ -0,0 +1,29 @@
+package ua.tqs.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ua.tqs.index.SlotSnapshot;
+import ua.tqs.models.Slot;
+
+/**
+ * Published after a slot has been created, updated, reserved, released or deleted.
+ * {@code snapshot} holds the new state and is {@code null} when the slot was deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class SlotChangedEvent {
+    private final Long slotId;
+    private final SlotSnapshot snapshot;
+
+    public static SlotChangedEvent saved(Slot slot) {
+        return new SlotChangedEvent(slot.getId(), SlotSnapshot.of(slot));
+    }
+
+    public static SlotChangedEvent deleted(Long slotId) {
+        return new SlotChangedEvent(slotId, null);
+    }
+
+    public boolean isDeleted() {
+        return snapshot == null;
+    }
+}
@@ -0,0 +1,13 @@
+package ua.tqs.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after a station has been created or updated (name, status, discount, ...).
+ */
+@Getter
+@AllArgsConstructor
+public class StationChangedEvent {
+    private final Long stationId;
+}
@@ -0,0 +1,249 @@
+package ua.tqs.index;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.StationStatus;
+import ua.tqs.events.ReservationChangedEvent;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Fleet-wide "which slots are free between T1 and T2" over 15-minute buckets. Every slot gets a
+ * dense ordinal, and each bucket that has reservations holds a bitset of the busy ordinals. A
+ * search starts from the bitset of the requested charging type (or of every slot), intersects
+ * the station's slots when asked, and removes the busy bitset of each bucket in the range. That
+ * is a few word-wide AND/ANDNOT passes, whatever the number of reservations.
+ * <p>
+ * A bucket is busy when any reservation touches it, so a slot reported free can be booked for
+ * the whole range. Busy bits are recomputed from {@link ReservationIntervals} for the buckets a
+ * reservation change touches, which is why that index handles the event first.
+ */
+@Component
+public class AvailabilityBitmaps implements SlotReadModel {
+
+    static final long BUCKET_SECONDS = 15 * 60L;
+    static final int MAX_BUCKETS = 24 * 4 + 1;
+
+    private final ReservationIntervals reservationIntervals;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final List<SlotSnapshot> slots = new ArrayList<>();
+    private final List<Integer> freeOrdinals = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final Map<ChargingType, BitSet> byType = new EnumMap<>(ChargingType.class);
+    private final Map<Long, BitSet> byStation = new HashMap<>();
+    private final Map<Long, BitSet> busyByBucket = new HashMap<>();
+
+    @Autowired
+    public AvailabilityBitmaps(ReservationIntervals reservationIntervals) {
+        this.reservationIntervals = reservationIntervals;
+    }
+
+    @Override
+    public void rebuild(Collection<SlotSnapshot> snapshots) {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            slots.clear();
+            freeOrdinals.clear();
+            live.clear();
+            byType.clear();
+            byStation.clear();
+            busyByBucket.clear();
+            snapshots.forEach(this::index);
+            reservationIntervals.forEachSlotInterval((slotId, start, end) -> {
+                Integer ordinal = ordinals.get(slotId);
+                if (ordinal != null) {
+                    for (long bucket = bucket(start); bucket <= bucket(end); bucket++) {
+                        busyByBucket.computeIfAbsent(bucket, key -> new BitSet()).set(ordinal);
+                    }
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(SlotSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(snapshot.getId());
+            if (ordinal != null) {
+                unindex(ordinal, false);
+            }
+            index(snapshot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long slotId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(slotId);
+            if (ordinal != null) {
+                unindex(ordinal, true);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onReservationChanged(ReservationChangedEvent event) {
+        if (event.getSlotId() == null || event.getStartTime() == null) {
+            return;
+        }
+        LocalDateTime start = event.getStartTime();
+        LocalDateTime end = start.plusMinutes(event.getDurationMinutes() != null ? event.getDurationMinutes() : 0);
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(event.getSlotId());
+            if (ordinal == null) {
+                return;
+            }
+            // Other reservations may share these buckets, so ask the intervals rather than clear blindly
+            for (long bucket = bucket(start); bucket <= bucket(end); bucket++) {
+                boolean busy = reservationIntervals.slotOverlaps(event.getSlotId(), time(bucket * BUCKET_SECONDS),
+                        time(bucket * BUCKET_SECONDS + BUCKET_SECONDS - 1));
+                if (busy) {
+                    busyByBucket.computeIfAbsent(bucket, key -> new BitSet()).set(ordinal);
+                } else {
+                    clearBusy(bucket, ordinal);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Slots free for the whole of {@code [from, to]} (at most a day), optionally of one charging
+     * type and/or station, skipping unavailable stations; at most {@code limit}, in slot order.
+     */
+    public List<SlotSnapshot> free(LocalDateTime from, LocalDateTime to, ChargingType type, Long stationId, int limit) {
+        long first = bucket(from);
+        long last = bucket(to);
+        if (!from.isBefore(to) || last - first + 1 > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Search range must be positive and at most one day");
+        }
+
+        lock.readLock().lock();
+        try {
+            BitSet candidates = (BitSet) (type != null ? byType.getOrDefault(type, new BitSet()) : live).clone();
+            if (stationId != null) {
+                candidates.and(byStation.getOrDefault(stationId, new BitSet()));
+            }
+            for (long bucket = first; bucket <= last && !candidates.isEmpty(); bucket++) {
+                BitSet busy = busyByBucket.get(bucket);
+                if (busy != null) {
+                    candidates.andNot(busy);
+                }
+            }
+
+            List<SlotSnapshot> result = new ArrayList<>(Math.min(limit, candidates.cardinality()));
+            for (int ordinal = candidates.nextSetBit(0); ordinal >= 0 && result.size() < limit;
+                 ordinal = candidates.nextSetBit(ordinal + 1)) {
+                SlotSnapshot slot = slots.get(ordinal);
+                if (slot.getStationStatus() != StationStatus.UNAVAILABLE) {
+                    result.add(slot);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Buckets entirely in the past are never searched again; keep the last day for late queries. */
+    @Scheduled(fixedDelayString = "${slots.availability.prune-interval-ms:3600000}")
+    public void prunePastBuckets() {
+        long oldest = bucket(LocalDateTime.now().minusDays(1));
+        lock.writeLock().lock();
+        try {
+            busyByBucket.keySet().removeIf(bucket -> bucket < oldest);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(SlotSnapshot snapshot) {
+        Integer known = ordinals.get(snapshot.getId());
+        int ordinal;
+        if (known != null) {
+            ordinal = known;
+            slots.set(ordinal, snapshot);
+        } else if (!freeOrdinals.isEmpty()) {
+            ordinal = freeOrdinals.remove(freeOrdinals.size() - 1);
+            slots.set(ordinal, snapshot);
+        } else {
+            ordinal = slots.size();
+            slots.add(snapshot);
+        }
+        ordinals.put(snapshot.getId(), ordinal);
+        live.set(ordinal);
+        if (snapshot.getChargingType() != null) {
+            byType.computeIfAbsent(snapshot.getChargingType(), key -> new BitSet()).set(ordinal);
+        }
+        if (snapshot.getStationId() != null) {
+            byStation.computeIfAbsent(snapshot.getStationId(), key -> new BitSet()).set(ordinal);
+        }
+    }
+
+    /** Drops the slot from the filters; a deleted slot also loses its busy bits and its ordinal. */
+    private void unindex(int ordinal, boolean deleted) {
+        SlotSnapshot previous = slots.get(ordinal);
+        live.clear(ordinal);
+        if (previous.getChargingType() != null) {
+            byType.get(previous.getChargingType()).clear(ordinal);
+        }
+        if (previous.getStationId() != null) {
+            BitSet station = byStation.get(previous.getStationId());
+            station.clear(ordinal);
+            if (station.isEmpty()) {
+                byStation.remove(previous.getStationId());
+            }
+        }
+        if (deleted) {
+            for (Long bucket : new ArrayList<>(busyByBucket.keySet())) {
+                clearBusy(bucket, ordinal);
+            }
+            slots.set(ordinal, null);
+            freeOrdinals.add(ordinal);
+        }
+    }
+
+    private void clearBusy(long bucket, int ordinal) {
+        BitSet busy = busyByBucket.get(bucket);
+        if (busy != null) {
+            busy.clear(ordinal);
+            if (busy.isEmpty()) {
+                busyByBucket.remove(bucket);
+            }
+        }
+    }
+
+    private static long bucket(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), BUCKET_SECONDS);
+    }
+
+    private static LocalDateTime time(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
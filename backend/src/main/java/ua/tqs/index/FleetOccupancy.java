@@ -0,0 +1,215 @@
+package ua.tqs.index;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ua.tqs.dto.OccupancyDTO;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.events.ReservationChangedEvent;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Live slot occupancy per charging type and per station, plus the number of active
+ * reservations. Counters are {@link LongAdder}s adjusted by the delta between a slot's previous
+ * and new snapshot, so reads are O(1) and writers on different slots never contend. A rebuild
+ * excludes them, though: a write that landed between clearing the snapshots and resetting the
+ * counters would leave a snapshot whose contribution had been wiped, and undercount later.
+ */
+@Component
+public class FleetOccupancy implements SlotReadModel {
+
+    private static final ChargingType[] TYPES = ChargingType.values();
+
+    /** Last snapshot applied per slot, needed to undo its contribution on update or delete. */
+    private final Map<Long, SlotSnapshot> applied = new ConcurrentHashMap<>();
+    private final Counters fleet = new Counters();
+    private final Map<Long, Counters> stations = new ConcurrentHashMap<>();
+    private final LongAdder activeReservations = new LongAdder();
+    /** Shared by slot writers, which are safe among themselves; exclusive for a rebuild. */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public FleetOccupancy(MeterRegistry meterRegistry) {
+        for (ChargingType type : TYPES) {
+            Gauge.builder("slots.total", this, o -> o.total(type))
+                    .description("Number of charging slots")
+                    .tag("chargingType", type.name())
+                    .register(meterRegistry);
+            Gauge.builder("slots.reserved", this, o -> o.reserved(type))
+                    .description("Number of reserved charging slots")
+                    .tag("chargingType", type.name())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("reservations.active", activeReservations, LongAdder::sum)
+                .description("Number of active reservations")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void rebuild(Collection<SlotSnapshot> snapshots) {
+        lock.writeLock().lock();
+        try {
+            applied.clear();
+            stations.clear();
+            fleet.reset();
+            snapshots.forEach(this::apply);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(SlotSnapshot snapshot) {
+        lock.readLock().lock();
+        try {
+            apply(snapshot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long slotId) {
+        lock.readLock().lock();
+        try {
+            applied.computeIfPresent(slotId, (id, previous) -> {
+                adjust(previous, -1);
+                return null;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(SlotSnapshot snapshot) {
+        applied.compute(snapshot.getId(), (id, previous) -> {
+            if (previous != null) {
+                adjust(previous, -1);
+            }
+            adjust(snapshot, 1);
+            return snapshot;
+        });
+    }
+
+    private void adjust(SlotSnapshot slot, int delta) {
+        fleet.adjust(slot, delta);
+        if (slot.getStationId() != null) {
+            stations.computeIfAbsent(slot.getStationId(), id -> new Counters()).adjust(slot, delta);
+        }
+    }
+
+    @EventListener
+    public void onReservationChanged(ReservationChangedEvent event) {
+        if (event.getStatus() == ReservationStatus.ACTIVE) {
+            activeReservations.increment();
+        } else {
+            activeReservations.decrement();
+        }
+    }
+
+    public long total() {
+        return fleet.slots.sum();
+    }
+
+    public long reserved() {
+        return fleet.reservedSlots.sum();
+    }
+
+    public long free() {
+        return total() - reserved();
+    }
+
+    public long total(ChargingType type) {
+        return fleet.total[type.ordinal()].sum();
+    }
+
+    public long reserved(ChargingType type) {
+        return fleet.reserved[type.ordinal()].sum();
+    }
+
+    public long total(Long stationId, ChargingType type) {
+        Counters station = stations.get(stationId);
+        return station != null ? station.total[type.ordinal()].sum() : 0;
+    }
+
+    public long reserved(Long stationId, ChargingType type) {
+        Counters station = stations.get(stationId);
+        return station != null ? station.reserved[type.ordinal()].sum() : 0;
+    }
+
+    public Map<ChargingType, OccupancyDTO> byChargingType() {
+        return breakdown(fleet);
+    }
+
+    /** Per charging type occupancy of a single station; all zeros for an unknown station. */
+    public Map<ChargingType, OccupancyDTO> byChargingType(Long stationId) {
+        return breakdown(stations.getOrDefault(stationId, new Counters()));
+    }
+
+    public long activeReservations() {
+        return activeReservations.sum();
+    }
+
+    /** Overwrites the active reservation count, used at startup and by reconciliation. */
+    public void resetActiveReservations(long count) {
+        activeReservations.reset();
+        activeReservations.add(count);
+    }
+
+    private static Map<ChargingType, OccupancyDTO> breakdown(Counters counters) {
+        Map<ChargingType, OccupancyDTO> result = new EnumMap<>(ChargingType.class);
+        for (ChargingType type : TYPES) {
+            long total = counters.total[type.ordinal()].sum();
+            long reserved = counters.reserved[type.ordinal()].sum();
+            result.put(type, new OccupancyDTO(total, reserved, total - reserved));
+        }
+        return result;
+    }
+
+    private static final class Counters {
+        private final LongAdder slots = new LongAdder();
+        private final LongAdder reservedSlots = new LongAdder();
+        private final LongAdder[] total = adders();
+        private final LongAdder[] reserved = adders();
+
+        void adjust(SlotSnapshot slot, int delta) {
+            slots.add(delta);
+            if (slot.isReserved()) {
+                reservedSlots.add(delta);
+            }
+            if (slot.getChargingType() != null) {
+                total[slot.getChargingType().ordinal()].add(delta);
+                if (slot.isReserved()) {
+                    reserved[slot.getChargingType().ordinal()].add(delta);
+                }
+            }
+        }
+
+        void reset() {
+            slots.reset();
+            reservedSlots.reset();
+            for (int i = 0; i < TYPES.length; i++) {
+                total[i].reset();
+                reserved[i].reset();
+            }
+        }
+
+        private static LongAdder[] adders() {
+            LongAdder[] adders = new LongAdder[TYPES.length];
+            for (int i = 0; i < adders.length; i++) {
+                adders[i] = new LongAdder();
+            }
+            return adders;
+        }
+    }
+}
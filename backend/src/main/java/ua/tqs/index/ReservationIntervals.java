@@ -0,0 +1,266 @@
+package ua.tqs.index;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.events.ReservationChangedEvent;
+import ua.tqs.repositories.ReservationRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The time intervals of every ACTIVE reservation, kept per slot and per user as arrays sorted by
+ * start. An overlap check is a binary search plus one lookup in a running maximum of the end
+ * times, so it is O(log n) and allocates nothing, whatever the number of reservations.
+ * <p>
+ * Loaded once at startup and kept current by {@link ReservationChangedEvent}s: an ACTIVE
+ * reservation is (re)inserted and any other status removes it. Intervals are closed, as in the
+ * original check: a reservation ending at 10:00 overlaps one starting at 10:00.
+ */
+@Component
+public class ReservationIntervals {
+
+    private final ReservationRepository reservationRepository;
+    private final Map<Long, Timeline> bySlot = new ConcurrentHashMap<>();
+    private final Map<Long, Timeline> byUser = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReservationIntervals(ReservationRepository reservationRepository) {
+        this.reservationRepository = reservationRepository;
+    }
+
+    /** Runs before the other listeners, which may read the intervals (see {@link AvailabilityBitmaps}). */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        bySlot.clear();
+        byUser.clear();
+        List<ReservationRepository.ReservationInterval> active =
+                reservationRepository.findIntervalsByStatus(ReservationStatus.ACTIVE);
+        for (ReservationRepository.ReservationInterval interval : active) {
+            add(interval.getId(), interval.getSlotId(), interval.getUserId(),
+                    interval.getStartTime(), interval.getDurationMinutes());
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onReservationChanged(ReservationChangedEvent event) {
+        remove(event.getReservationId(), event.getSlotId(), event.getUserId());
+        if (event.getStatus() == ReservationStatus.ACTIVE) {
+            add(event.getReservationId(), event.getSlotId(), event.getUserId(),
+                    event.getStartTime(), event.getDurationMinutes());
+        }
+    }
+
+    public boolean slotOverlaps(Long slotId, LocalDateTime start, LocalDateTime end) {
+        return overlaps(bySlot.get(slotId), start, end);
+    }
+
+    public boolean userOverlaps(Long userId, LocalDateTime start, LocalDateTime end) {
+        return overlaps(byUser.get(userId), start, end);
+    }
+
+    /**
+     * Reports the busy windows of a slot that intersect {@code [from, to]}, clipped to it and with
+     * overlapping or touching reservations merged, in order.
+     */
+    public void forEachBusyWindow(Long slotId, LocalDateTime from, LocalDateTime to, BusyWindowConsumer consumer) {
+        Timeline timeline = bySlot.get(slotId);
+        if (timeline == null) {
+            return;
+        }
+        long lower = seconds(from);
+        long upper = seconds(to);
+        int end = timeline.upperBound(upper);
+        long windowStart = 0;
+        long windowEnd = Long.MIN_VALUE;
+        for (int i = timeline.firstReaching(lower); i < end; i++) {
+            if (timeline.ends[i] < lower) {
+                continue;
+            }
+            long start = Math.max(timeline.starts[i], lower);
+            long stop = Math.min(timeline.ends[i], upper);
+            if (windowEnd != Long.MIN_VALUE && start > windowEnd) {
+                consumer.accept(time(windowStart), time(windowEnd));
+                windowEnd = Long.MIN_VALUE;
+            }
+            if (windowEnd == Long.MIN_VALUE) {
+                windowStart = start;
+            }
+            windowEnd = Math.max(windowEnd, stop);
+        }
+        if (windowEnd != Long.MIN_VALUE) {
+            consumer.accept(time(windowStart), time(windowEnd));
+        }
+    }
+
+    /** Reports every indexed slot interval, in no particular order. */
+    public void forEachSlotInterval(SlotIntervalConsumer consumer) {
+        bySlot.forEach((slotId, timeline) -> {
+            for (int i = 0; i < timeline.ids.length; i++) {
+                consumer.accept(slotId, time(timeline.starts[i]), time(timeline.ends[i]));
+            }
+        });
+    }
+
+    @FunctionalInterface
+    public interface SlotIntervalConsumer {
+        void accept(Long slotId, LocalDateTime start, LocalDateTime end);
+    }
+
+    @FunctionalInterface
+    public interface BusyWindowConsumer {
+        void accept(LocalDateTime start, LocalDateTime end);
+    }
+
+    private static boolean overlaps(Timeline timeline, LocalDateTime start, LocalDateTime end) {
+        if (timeline == null) {
+            return false;
+        }
+        int candidates = timeline.upperBound(seconds(end));
+        return candidates > 0 && timeline.reach[candidates - 1] >= seconds(start);
+    }
+
+    private void add(Long id, Long slotId, Long userId, LocalDateTime startTime, Integer durationMinutes) {
+        if (id == null || startTime == null) {
+            return;
+        }
+        long start = seconds(startTime);
+        long end = start + 60L * (durationMinutes != null ? durationMinutes : 0);
+        if (slotId != null) {
+            bySlot.compute(slotId, (key, timeline) -> Timeline.with(timeline, id, start, end));
+        }
+        if (userId != null) {
+            byUser.compute(userId, (key, timeline) -> Timeline.with(timeline, id, start, end));
+        }
+    }
+
+    private void remove(Long id, Long slotId, Long userId) {
+        if (id == null) {
+            return;
+        }
+        if (slotId != null) {
+            bySlot.computeIfPresent(slotId, (key, timeline) -> timeline.without(id));
+        }
+        if (userId != null) {
+            byUser.computeIfPresent(userId, (key, timeline) -> timeline.without(id));
+        }
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime time(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Immutable intervals sorted by start; {@code reach[i]} is the latest end among the first
+     * {@code i + 1}, so it never decreases even when intervals overlap each other.
+     */
+    private static final class Timeline {
+        private final long[] ids;
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] reach;
+
+        private Timeline(long[] ids, long[] starts, long[] ends) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.reach = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                reach[i] = max;
+            }
+        }
+
+        static Timeline with(Timeline timeline, long id, long start, long end) {
+            int size = timeline == null ? 0 : timeline.ids.length;
+            int at = timeline == null ? 0 : timeline.upperBound(start);
+            long[] ids = new long[size + 1];
+            long[] starts = new long[size + 1];
+            long[] ends = new long[size + 1];
+            if (timeline != null) {
+                copyAround(timeline.ids, ids, at);
+                copyAround(timeline.starts, starts, at);
+                copyAround(timeline.ends, ends, at);
+            }
+            ids[at] = id;
+            starts[at] = start;
+            ends[at] = end;
+            return new Timeline(ids, starts, ends);
+        }
+
+        /** {@code null} once empty, which drops the map entry. */
+        Timeline without(long id) {
+            int at = -1;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    at = i;
+                    break;
+                }
+            }
+            if (at < 0) {
+                return this;
+            }
+            if (ids.length == 1) {
+                return null;
+            }
+            return new Timeline(removeAt(ids, at), removeAt(starts, at), removeAt(ends, at));
+        }
+
+        /** Number of intervals starting at or before {@code time}. */
+        int upperBound(long time) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] <= time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /** Index of the first interval from which some interval ends at or after {@code time}. */
+        int firstReaching(long time) {
+            int low = 0;
+            int high = reach.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (reach[mid] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static void copyAround(long[] source, long[] target, int gap) {
+            System.arraycopy(source, 0, target, 0, gap);
+            System.arraycopy(source, gap, target, gap + 1, source.length - gap);
+        }
+
+        private static long[] removeAt(long[] source, int index) {
+            long[] target = Arrays.copyOf(source, source.length - 1);
+            System.arraycopy(source, index + 1, target, index, source.length - index - 1);
+            return target;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package ua.tqs.index;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ua.tqs.dto.SlotChangesDTO;
+import ua.tqs.dto.SlotResponseDTO;
+import ua.tqs.events.ReservationChangedEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The public slot catalog as a ready-to-write JSON array, plus its gzip variant, tagged with a
+ * version that every slot, station or reservation change bumps. The body is rebuilt lazily on
+ * the first read after a change, so a burst of writes costs a single serialization and reads
+ * of an unchanged catalog only hand out the cached arrays.
+ * <p>
+ * The last slot mutations are also kept in a bounded change log, so a client that already holds
+ * the catalog can ask for what changed since its version instead of downloading it again.
+ */
+@Component
+public class SlotCatalog implements SlotReadModel {
+
+    /** Distinguishes versions across restarts, since the counter starts again from zero. */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    static final int DEFAULT_CHANGE_LOG_CAPACITY = 4096;
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentSkipListMap<Long, SlotSnapshot> slots = new ConcurrentSkipListMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final ChangeLog changes;
+    private volatile Body current;
+
+    public SlotCatalog(ObjectMapper objectMapper) {
+        this(objectMapper, DEFAULT_CHANGE_LOG_CAPACITY);
+    }
+
+    @Autowired
+    public SlotCatalog(ObjectMapper objectMapper,
+                       @Value("${slots.changes.capacity:" + DEFAULT_CHANGE_LOG_CAPACITY + "}") int changeLogCapacity) {
+        this.objectMapper = objectMapper;
+        this.changes = new ChangeLog(changeLogCapacity);
+    }
+
+    @Override
+    public void rebuild(Collection<SlotSnapshot> snapshots) {
+        synchronized (changes) {
+            slots.clear();
+            snapshots.forEach(snapshot -> slots.put(snapshot.getId(), snapshot));
+            changes.reset(version.incrementAndGet());
+        }
+    }
+
+    @Override
+    public void put(SlotSnapshot snapshot) {
+        synchronized (changes) {
+            slots.put(snapshot.getId(), snapshot);
+            changes.append(version.incrementAndGet(), snapshot.getId(), snapshot);
+        }
+    }
+
+    @Override
+    public void remove(Long slotId) {
+        synchronized (changes) {
+            if (slots.remove(slotId) != null) {
+                changes.append(version.incrementAndGet(), slotId, null);
+            }
+        }
+    }
+
+    @EventListener
+    public void onReservationChanged(ReservationChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    public boolean contains(Long slotId) {
+        return slots.containsKey(slotId);
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * The slots changed or deleted after {@code since}, a version previously returned by this
+     * method or either catalog ETag exactly as it was served. Without {@code since}, or when that
+     * version was compacted out of the log or belongs to an earlier run, the whole catalog is
+     * returned.
+     */
+    public SlotChangesDTO changesSince(String since) {
+        long sinceVersion = parseVersion(since);
+        synchronized (changes) {
+            long now = version.get();
+            String tag = epoch + "-" + now;
+            if (sinceVersion < changes.floor || sinceVersion > now) {
+                List<SlotResponseDTO> all = slots.values().stream().map(SlotCatalog::toResponse).toList();
+                return new SlotChangesDTO(tag, true, all, List.of());
+            }
+
+            // Only the last change of each slot matters, in the order the slots last changed
+            Map<Long, SlotSnapshot> latest = new LinkedHashMap<>();
+            changes.forEachAfter(sinceVersion, (slotId, snapshot) -> {
+                latest.remove(slotId);
+                latest.put(slotId, snapshot);
+            });
+            List<SlotResponseDTO> updated = new ArrayList<>();
+            List<Long> deleted = new ArrayList<>();
+            latest.forEach((slotId, snapshot) -> {
+                if (snapshot == null) {
+                    deleted.add(slotId);
+                } else {
+                    updated.add(toResponse(snapshot));
+                }
+            });
+            return new SlotChangesDTO(tag, false, updated, deleted);
+        }
+    }
+
+    /**
+     * {@code -1} (never in the log) for a missing version or one tagged by an earlier run. An ETag
+     * is accepted as sent: weak or not, quoted, and with the {@code -gzip} suffix of the gzip body.
+     */
+    private long parseVersion(String since) {
+        if (since == null || since.isBlank()) {
+            return -1;
+        }
+        since = since.strip();
+        if (since.startsWith("W/")) {
+            since = since.substring(2);
+        }
+        if (since.length() >= 2 && since.startsWith("\"") && since.endsWith("\"")) {
+            since = since.substring(1, since.length() - 1);
+        }
+        if (since.endsWith(GZIP_SUFFIX)) {
+            since = since.substring(0, since.length() - GZIP_SUFFIX.length());
+        }
+        int dash = since.lastIndexOf('-');
+        try {
+            long parsed = Long.parseLong(since.substring(dash + 1));
+            return dash > 0 && since.substring(0, dash).equals(epoch) ? parsed : -1;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid catalog version: " + since);
+        }
+    }
+
+    /** The catalog body for the current version, serializing it first if it changed. */
+    public Body body() {
+        Body body = current;
+        if (body != null && body.version() == version.get()) {
+            return body;
+        }
+        return build();
+    }
+
+    private synchronized Body build() {
+        // Read the version before the slots: a concurrent change then bumps past it and
+        // forces another rebuild instead of being hidden under an already-served tag.
+        long buildVersion = version.get();
+        if (current != null && current.version() == buildVersion) {
+            return current;
+        }
+        List<SlotResponseDTO> dtos = slots.values().stream()
+                .map(SlotCatalog::toResponse)
+                .toList();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(dtos);
+            String tag = epoch + "-" + buildVersion;
+            current = new Body(buildVersion, json, gzip(json), "\"" + tag + "\"", "\"" + tag + GZIP_SUFFIX + "\"");
+            return current;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize slot catalog", e);
+        }
+    }
+
+    private static SlotResponseDTO toResponse(SlotSnapshot slot) {
+        return new SlotResponseDTO(slot.getId(), slot.getName(), slot.getStationName(), slot.getStationStatus(),
+                slot.isReserved(), slot.getChargingType(), slot.getPower(), slot.getLatitude(), slot.getLongitude());
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Ring buffer of the most recent slot mutations. It holds every change made after
+     * {@code floor}; older ones have been overwritten or predate the last rebuild.
+     */
+    private static final class ChangeLog {
+        private final long[] versions;
+        private final Long[] slotIds;
+        private final SlotSnapshot[] snapshots;
+        private int start;
+        private int size;
+        private long floor;
+
+        private ChangeLog(int capacity) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("Change log capacity must be positive");
+            }
+            versions = new long[capacity];
+            slotIds = new Long[capacity];
+            snapshots = new SlotSnapshot[capacity];
+        }
+
+        private void reset(long version) {
+            start = 0;
+            size = 0;
+            floor = version;
+            Arrays.fill(snapshots, null);
+        }
+
+        private void append(long version, Long slotId, SlotSnapshot snapshot) {
+            int capacity = versions.length;
+            if (size == capacity) {
+                floor = versions[start];
+                start = (start + 1) % capacity;
+                size--;
+            }
+            int index = (start + size) % capacity;
+            versions[index] = version;
+            slotIds[index] = slotId;
+            snapshots[index] = snapshot;
+            size++;
+        }
+
+        private void forEachAfter(long since, BiConsumer<Long, SlotSnapshot> action) {
+            for (int i = 0; i < size; i++) {
+                int index = (start + i) % versions.length;
+                if (versions[index] > since) {
+                    action.accept(slotIds[index], snapshots[index]);
+                }
+            }
+        }
+    }
+
+    /** One immutable version of the catalog; {@code etag}s are already quoted. */
+    public record Body(long version, byte[] json, byte[] gzip, String etag, String gzipEtag) {
+    }
+}
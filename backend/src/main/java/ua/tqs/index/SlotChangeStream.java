@@ -0,0 +1,214 @@
+package ua.tqs.index;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes slot availability changes to Server-Sent Events subscribers, so clients watching a
+ * charger or a map viewport stop polling. A subscriber holds no request thread: each change is
+ * matched against the subscriptions on a single dispatcher thread and queued per subscriber,
+ * and a small pool of writers drains the queues. A subscriber whose queue backs up is dropped
+ * rather than allowed to hold the others back; its EventSource reconnects and refetches.
+ * <p>
+ * Events are {@code slot} ({@code {"id":1,"reserved":true}}) when a slot appears, moves or is
+ * reserved or released, {@code removed} ({@code {"id":1}}) when it is deleted, and {@code reset}
+ * when the whole catalog was reloaded and clients should refetch what they show.
+ */
+@Component
+public class SlotChangeStream implements SlotReadModel {
+
+    static final int MAX_PENDING = 256;
+    static final int MAX_IDS = 500;
+    private static final int WRITERS = 4;
+
+    private final Map<Long, SlotSnapshot> slots = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(daemon("slot-stream-dispatch"));
+    private final ExecutorService writers = Executors.newFixedThreadPool(WRITERS, daemon("slot-stream-writer"));
+
+    /**
+     * Opens a subscription limited to the given slot ids and/or bounding box
+     * ({@code minLat,minLon,maxLat,maxLon}); with neither, every change is delivered.
+     */
+    public SseEmitter subscribe(Collection<Long> ids, double[] bbox) {
+        if (ids != null && ids.size() > MAX_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_IDS + " slot ids can be watched");
+        }
+        if (bbox != null && (bbox.length != 4 || bbox[0] > bbox[2] || bbox[0] < -90 || bbox[2] > 90)) {
+            throw new IllegalArgumentException("bbox must be minLat,minLon,maxLat,maxLon");
+        }
+
+        // Idle connections are reaped by the heartbeat failing, not by an async timeout
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter, ids == null || ids.isEmpty() ? null : Set.copyOf(ids), bbox);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void rebuild(Collection<SlotSnapshot> snapshots) {
+        slots.clear();
+        snapshots.forEach(snapshot -> slots.put(snapshot.getId(), snapshot));
+        Set<DataWithMediaType> frame = SseEmitter.event().name("reset").data("{}").build();
+        dispatcher.execute(() -> subscribers.forEach(subscriber -> offer(subscriber, frame)));
+    }
+
+    @Override
+    public void put(SlotSnapshot snapshot) {
+        SlotSnapshot previous = slots.put(snapshot.getId(), snapshot);
+        if (previous != null && previous.isReserved() == snapshot.isReserved()
+                && Objects.equals(previous.getLatitude(), snapshot.getLatitude())
+                && Objects.equals(previous.getLongitude(), snapshot.getLongitude())) {
+            return;
+        }
+        Set<DataWithMediaType> frame = SseEmitter.event().name("slot")
+                .data("{\"id\":" + snapshot.getId() + ",\"reserved\":" + snapshot.isReserved() + "}")
+                .build();
+        dispatcher.execute(() -> fanOut(snapshot.getId(), previous, snapshot, frame));
+    }
+
+    @Override
+    public void remove(Long slotId) {
+        SlotSnapshot previous = slots.remove(slotId);
+        if (previous == null) {
+            return;
+        }
+        Set<DataWithMediaType> frame = SseEmitter.event().name("removed").data("{\"id\":" + slotId + "}").build();
+        dispatcher.execute(() -> fanOut(slotId, previous, null, frame));
+    }
+
+    /** Keeps proxies from closing idle streams and finds subscribers whose connection is gone. */
+    @Scheduled(fixedDelayString = "${slots.stream.heartbeat-ms:20000}")
+    public void heartbeat() {
+        Set<DataWithMediaType> frame = SseEmitter.event().comment("").build();
+        dispatcher.execute(() -> subscribers.forEach(subscriber -> offer(subscriber, frame)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        writers.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private void fanOut(Long slotId, SlotSnapshot previous, SlotSnapshot current, Set<DataWithMediaType> frame) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.matches(slotId, previous) || subscriber.matches(slotId, current)) {
+                offer(subscriber, frame);
+            }
+        }
+    }
+
+    private void offer(Subscriber subscriber, Set<DataWithMediaType> frame) {
+        if (subscriber.closed) {
+            return;
+        }
+        if (subscriber.size.incrementAndGet() > MAX_PENDING) {
+            drop(subscriber);
+            return;
+        }
+        subscriber.pending.add(frame);
+        if (subscriber.draining.compareAndSet(false, true)) {
+            writers.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            try {
+                Set<DataWithMediaType> frame;
+                while (!subscriber.closed && (frame = subscriber.pending.poll()) != null) {
+                    subscriber.size.decrementAndGet();
+                    subscriber.emitter.send(frame);
+                }
+            } catch (IOException | IllegalStateException e) {
+                subscriber.closed = true;
+            }
+            if (subscriber.closed) {
+                subscribers.remove(subscriber);
+                subscriber.pending.clear();
+                subscriber.emitter.complete();
+                return;
+            }
+            subscriber.draining.set(false);
+            // A frame queued between the last poll and the flag reset still needs a writer
+        } while (!subscriber.pending.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    /** Cuts off a subscriber that cannot keep up; the writer owning it completes the emitter. */
+    private void drop(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+        if (subscriber.draining.compareAndSet(false, true)) {
+            writers.execute(() -> drain(subscriber));
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<Long> ids;
+        private final double[] bbox;
+        private final Queue<Set<DataWithMediaType>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, Set<Long> ids, double[] bbox) {
+            this.emitter = emitter;
+            this.ids = ids;
+            this.bbox = bbox;
+        }
+
+        private boolean matches(Long slotId, SlotSnapshot snapshot) {
+            if (ids != null && !ids.contains(slotId)) {
+                return false;
+            }
+            if (bbox == null) {
+                return ids != null || snapshot != null;
+            }
+            if (snapshot == null || !snapshot.hasLocation()) {
+                return false;
+            }
+            double lat = snapshot.getLatitude();
+            double lon = snapshot.getLongitude();
+            boolean inLon = bbox[1] <= bbox[3]
+                    ? lon >= bbox[1] && lon <= bbox[3]
+                    : lon >= bbox[1] || lon <= bbox[3];
+            return lat >= bbox[0] && lat <= bbox[2] && inLon;
+        }
+    }
+}
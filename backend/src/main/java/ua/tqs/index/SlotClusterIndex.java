@@ -0,0 +1,198 @@
+package ua.tqs.index;
+
+import org.springframework.stereotype.Component;
+import ua.tqs.dto.SlotClusterDTO;
+import ua.tqs.enums.ChargingType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-aggregated map clusters for every zoom level from 0 to {@link #MAX_ZOOM}.
+ * <p>
+ * At zoom {@code z} the Web Mercator plane is split into {@code 2^(z+3)} columns and rows,
+ * i.e. 8x8 clusters per 256px map tile. Every slot contributes to exactly one cluster per
+ * zoom level, and a write only adjusts those contributions, so a query never looks at
+ * individual slots.
+ */
+@Component
+public class SlotClusterIndex implements SlotReadModel {
+
+    public static final int MAX_ZOOM = 14;
+    /** Upper bound on clusters per response; wider views are served from a coarser zoom. */
+    public static final int MAX_CLUSTERS = 256;
+
+    private static final int CELLS_PER_TILE_SHIFT = 3;
+    private static final double MAX_MERCATOR_LAT = 85.05112878;
+    private static final ChargingType[] TYPES = ChargingType.values();
+
+    private final Map<Long, SlotSnapshot> slotsById = new HashMap<>();
+    private final List<Map<Long, Cluster>> levels = new ArrayList<>(MAX_ZOOM + 1);
+
+    public SlotClusterIndex() {
+        for (int z = 0; z <= MAX_ZOOM; z++) {
+            levels.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public synchronized void rebuild(Collection<SlotSnapshot> snapshots) {
+        slotsById.clear();
+        levels.forEach(Map::clear);
+        snapshots.forEach(this::put);
+    }
+
+    @Override
+    public synchronized void put(SlotSnapshot snapshot) {
+        SlotSnapshot previous = snapshot.hasLocation()
+                ? slotsById.put(snapshot.getId(), snapshot)
+                : slotsById.remove(snapshot.getId());
+        if (previous != null) {
+            contribute(previous, -1);
+        }
+        if (snapshot.hasLocation()) {
+            contribute(snapshot, 1);
+        }
+    }
+
+    @Override
+    public synchronized void remove(Long slotId) {
+        SlotSnapshot previous = slotsById.remove(slotId);
+        if (previous != null) {
+            contribute(previous, -1);
+        }
+    }
+
+    /**
+     * Returns the clusters at {@code zoom} that intersect the bounding box. If the box spans
+     * more than {@link #MAX_CLUSTERS} cells the zoom is lowered until it does not, so the
+     * response size is bounded by the viewport and not by the number of chargers in it.
+     */
+    public List<SlotClusterDTO> clusters(int zoom, double minLat, double minLon, double maxLat, double maxLon) {
+        if (zoom < 0) {
+            throw new IllegalArgumentException("Zoom must not be negative");
+        }
+        if (minLat < -90 || maxLat > 90 || minLat > maxLat
+                || minLon < -180 || minLon > 180 || maxLon < -180 || maxLon > 180) {
+            throw new IllegalArgumentException("Invalid bounding box");
+        }
+
+        int z = Math.min(zoom, MAX_ZOOM);
+        while (z > 0 && cellsInBox(z, minLat, minLon, maxLat, maxLon) > MAX_CLUSTERS) {
+            z--;
+        }
+
+        List<SlotClusterDTO> result = new ArrayList<>();
+        if (minLon > maxLon) {
+            collect(z, minLat, minLon, maxLat, 180, result);
+            collect(z, minLat, -180, maxLat, maxLon, result);
+        } else {
+            collect(z, minLat, minLon, maxLat, maxLon, result);
+        }
+        return result;
+    }
+
+    private void collect(int z, double minLat, double minLon, double maxLat, double maxLon,
+                         List<SlotClusterDTO> result) {
+        long n = 1L << (z + CELLS_PER_TILE_SHIFT);
+        long minX = x(minLon, n);
+        long maxX = x(maxLon, n);
+        long minY = y(maxLat, n);
+        long maxY = y(minLat, n);
+        Map<Long, Cluster> level = levels.get(z);
+
+        for (long cy = minY; cy <= maxY; cy++) {
+            for (long cx = minX; cx <= maxX; cx++) {
+                Cluster cluster = level.get(cy * n + cx);
+                if (cluster != null) {
+                    SlotClusterDTO dto = cluster.toDTO();
+                    if (dto != null) {
+                        result.add(dto);
+                    }
+                }
+            }
+        }
+    }
+
+    private static long cellsInBox(int z, double minLat, double minLon, double maxLat, double maxLon) {
+        long n = 1L << (z + CELLS_PER_TILE_SHIFT);
+        long columns = minLon > maxLon
+                ? (n - x(minLon, n)) + x(maxLon, n) + 1
+                : x(maxLon, n) - x(minLon, n) + 1;
+        return columns * (y(minLat, n) - y(maxLat, n) + 1);
+    }
+
+    private void contribute(SlotSnapshot slot, int delta) {
+        for (int z = 0; z <= MAX_ZOOM; z++) {
+            long n = 1L << (z + CELLS_PER_TILE_SHIFT);
+            long key = y(slot.getLatitude(), n) * n + x(slot.getLongitude(), n);
+            Map<Long, Cluster> level = levels.get(z);
+            Cluster cluster = level.computeIfAbsent(key, k -> new Cluster());
+            cluster.add(slot, delta);
+            if (cluster.isEmpty()) {
+                level.remove(key);
+            }
+        }
+    }
+
+    static long x(double lon, long n) {
+        return Math.min((long) ((lon + 180) / 360 * n), n - 1);
+    }
+
+    static long y(double lat, long n) {
+        double clamped = Math.max(-MAX_MERCATOR_LAT, Math.min(MAX_MERCATOR_LAT, lat));
+        double sin = Math.sin(Math.toRadians(clamped));
+        double mercator = 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+        return Math.max(0, Math.min((long) (mercator * n), n - 1));
+    }
+
+    /**
+     * Running totals for one grid cell. Mutated only under the index lock; readers take a
+     * consistent copy through {@link #toDTO()}.
+     */
+    private static final class Cluster {
+        private int count;
+        private double latitudeSum;
+        private double longitudeSum;
+        private final int[] free = new int[TYPES.length];
+        private final int[] reserved = new int[TYPES.length];
+
+        synchronized void add(SlotSnapshot slot, int delta) {
+            count += delta;
+            latitudeSum += delta * slot.getLatitude();
+            longitudeSum += delta * slot.getLongitude();
+            if (slot.getChargingType() != null) {
+                int[] bucket = slot.isReserved() ? reserved : free;
+                bucket[slot.getChargingType().ordinal()] += delta;
+            }
+        }
+
+        boolean isEmpty() {
+            return count == 0;
+        }
+
+        synchronized SlotClusterDTO toDTO() {
+            if (count == 0) {
+                return null;
+            }
+            SlotClusterDTO dto = new SlotClusterDTO();
+            dto.setCount(count);
+            dto.setLatitude(latitudeSum / count);
+            dto.setLongitude(longitudeSum / count);
+            Map<ChargingType, Integer> freeByType = new EnumMap<>(ChargingType.class);
+            Map<ChargingType, Integer> reservedByType = new EnumMap<>(ChargingType.class);
+            for (ChargingType type : TYPES) {
+                freeByType.put(type, free[type.ordinal()]);
+                reservedByType.put(type, reserved[type.ordinal()]);
+            }
+            dto.setFree(freeByType);
+            dto.setReserved(reservedByType);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ua.tqs.index;
+
+import java.util.Collection;
+
+/**
+ * An in-memory view over the slot catalog. Implementations are seeded once at startup
+ * and then kept current, one slot at a time, by {@link SlotReadModelUpdater}.
+ */
+public interface SlotReadModel {
+
+    void rebuild(Collection<SlotSnapshot> snapshots);
+
+    void put(SlotSnapshot snapshot);
+
+    void remove(Long slotId);
+}
@@ -0,0 +1,57 @@
+package ua.tqs.index;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ua.tqs.events.SlotChangedEvent;
+import ua.tqs.events.StationChangedEvent;
+import ua.tqs.repositories.SlotRepository;
+
+import java.util.List;
+
+/**
+ * Loads the slot catalog once at startup and fans it out to every {@link SlotReadModel},
+ * then forwards each {@link SlotChangedEvent} so the models never query the database again.
+ */
+@Component
+public class SlotReadModelUpdater {
+
+    private final SlotRepository slotRepository;
+    private final List<SlotReadModel> readModels;
+
+    @Autowired
+    public SlotReadModelUpdater(SlotRepository slotRepository, List<SlotReadModel> readModels) {
+        this.slotRepository = slotRepository;
+        this.readModels = readModels;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<SlotSnapshot> snapshots = slotRepository.findAllWithStation().stream()
+                .map(SlotSnapshot::of)
+                .toList();
+        readModels.forEach(model -> model.rebuild(snapshots));
+    }
+
+    @EventListener
+    public void onSlotChanged(SlotChangedEvent event) {
+        for (SlotReadModel model : readModels) {
+            if (event.isDeleted()) {
+                model.remove(event.getSlotId());
+            } else {
+                model.put(event.getSnapshot());
+            }
+        }
+    }
+
+    /** Slot snapshots carry the station name and status, so they are re-taken on station edits. */
+    @EventListener
+    public void onStationChanged(StationChangedEvent event) {
+        for (SlotSnapshot snapshot : slotRepository.findByStation_Id(event.getStationId()).stream()
+                .map(SlotSnapshot::of)
+                .toList()) {
+            readModels.forEach(model -> model.put(snapshot));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ua.tqs.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.StationStatus;
+import ua.tqs.models.Slot;
+import ua.tqs.models.Station;
+
+/**
+ * Immutable, detached copy of the fields of a {@link Slot} that the in-memory
+ * read structures need. A new snapshot is taken on every write, so readers never
+ * see a half-updated slot and never touch the persistence context.
+ */
+@Getter
+@AllArgsConstructor
+public class SlotSnapshot {
+    private final Long id;
+    private final String name;
+    private final Long stationId;
+    private final String stationName;
+    private final StationStatus stationStatus;
+    private final Double latitude;
+    private final Double longitude;
+    private final ChargingType chargingType;
+    private final String power;
+    private final boolean reserved;
+
+    public static SlotSnapshot of(Slot slot) {
+        Station station = slot.getStation();
+        return new SlotSnapshot(
+                slot.getId(),
+                slot.getName(),
+                station != null ? station.getId() : null,
+                station != null ? station.getName() : null,
+                station != null ? station.getStatus() : null,
+                slot.getLatitude(),
+                slot.getLongitude(),
+                slot.getChargingType(),
+                slot.getPower(),
+                slot.isReserved());
+    }
+
+    public boolean hasLocation() {
+        return latitude != null && longitude != null;
+    }
+}
@@ -0,0 +1,259 @@
+package ua.tqs.index;
+
+import org.springframework.stereotype.Component;
+import ua.tqs.enums.ChargingType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory uniform lat/lon grid over the slot catalog. Each slot with coordinates
+ * lives in exactly one cell, so a viewport query only visits the cells it overlaps
+ * instead of the whole fleet.
+ * <p>
+ * Reads are lock-free; writes are rare (admin edits, reservations) and serialized.
+ */
+@Component
+public class SlotSpatialIndex implements SlotReadModel {
+
+    static final double CELL_SIZE_DEGREES = 0.1;
+    private static final long LON_CELLS = (long) Math.ceil(360 / CELL_SIZE_DEGREES);
+    private static final long LAT_CELLS = (long) Math.ceil(180 / CELL_SIZE_DEGREES);
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final Map<Long, SlotSnapshot> slotsById = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, SlotSnapshot>> cells = new ConcurrentHashMap<>();
+
+    @Override
+    public synchronized void rebuild(Collection<SlotSnapshot> snapshots) {
+        slotsById.clear();
+        cells.clear();
+        snapshots.forEach(this::put);
+    }
+
+    @Override
+    public synchronized void put(SlotSnapshot snapshot) {
+        remove(snapshot.getId());
+        if (!snapshot.hasLocation()) {
+            return;
+        }
+        slotsById.put(snapshot.getId(), snapshot);
+        cells.computeIfAbsent(cellKey(snapshot.getLatitude(), snapshot.getLongitude()),
+                        key -> new ConcurrentHashMap<>())
+                .put(snapshot.getId(), snapshot);
+    }
+
+    @Override
+    public synchronized void remove(Long slotId) {
+        SlotSnapshot previous = slotsById.remove(slotId);
+        if (previous == null) {
+            return;
+        }
+        long key = cellKey(previous.getLatitude(), previous.getLongitude());
+        Map<Long, SlotSnapshot> cell = cells.get(key);
+        if (cell != null) {
+            cell.remove(slotId);
+            if (cell.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    public int size() {
+        return slotsById.size();
+    }
+
+    /**
+     * Returns every indexed slot inside the bounding box (edges included). A box whose
+     * {@code minLon} is greater than its {@code maxLon} is taken to cross the antimeridian.
+     */
+    public List<SlotSnapshot> within(double minLat, double minLon, double maxLat, double maxLon) {
+        validateBox(minLat, minLon, maxLat, maxLon);
+
+        List<SlotSnapshot> result = new ArrayList<>();
+        if (minLon > maxLon) {
+            collect(minLat, minLon, maxLat, 180, result);
+            collect(minLat, -180, maxLat, maxLon, result);
+        } else {
+            collect(minLat, minLon, maxLat, maxLon, result);
+        }
+        return result;
+    }
+
+    private void collect(double minLat, double minLon, double maxLat, double maxLon, List<SlotSnapshot> result) {
+        long minRow = row(minLat);
+        long maxRow = row(maxLat);
+        long minCol = col(minLon);
+        long maxCol = col(maxLon);
+        long cellsInBox = (maxRow - minRow + 1) * (maxCol - minCol + 1);
+
+        // A continent-sized box covers more grid cells than are populated, so walking the
+        // populated cells is cheaper than probing every empty cell in the box.
+        if (cellsInBox > cells.size()) {
+            for (Map<Long, SlotSnapshot> cell : cells.values()) {
+                addInside(cell.values(), minLat, minLon, maxLat, maxLon, result);
+            }
+            return;
+        }
+
+        for (long r = minRow; r <= maxRow; r++) {
+            for (long c = minCol; c <= maxCol; c++) {
+                Map<Long, SlotSnapshot> cell = cells.get(r * LON_CELLS + c);
+                if (cell != null) {
+                    addInside(cell.values(), minLat, minLon, maxLat, maxLon, result);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns up to {@code k} unreserved slots closest to the given point, nearest first,
+     * optionally restricted to one charging type. The search grows ring by ring around the
+     * point's cell and stops as soon as no unvisited cell can hold anything closer than the
+     * current k-th candidate.
+     */
+    public List<SlotSnapshot> nearest(double lat, double lon, int k, ChargingType type) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            throw new IllegalArgumentException("Invalid coordinates");
+        }
+        if (k <= 0) {
+            return List.of();
+        }
+
+        // Max-heap on distance: the head is the worst of the current best k.
+        PriorityQueue<Candidate> best = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble(Candidate::distanceKm).reversed());
+        long row0 = row(lat);
+        long col0 = col(lon);
+
+        for (long r = 0; ; r++) {
+            if ((2 * r + 1) * (2 * r + 1) > cells.size()) {
+                // The ring would probe more cells than are populated: finish with a scan.
+                best.clear();
+                for (Map<Long, SlotSnapshot> cell : cells.values()) {
+                    offerAll(cell.values(), lat, lon, k, type, best);
+                }
+                break;
+            }
+            if (best.size() == k && best.peek().distanceKm() < ringLowerBoundKm(lat, r)) {
+                break;
+            }
+            if (r > LAT_CELLS) {
+                break;
+            }
+            visitRing(row0, col0, r, lat, lon, k, type, best);
+        }
+
+        List<Candidate> ordered = new ArrayList<>(best);
+        ordered.sort(Comparator.comparingDouble(Candidate::distanceKm));
+        return ordered.stream().map(Candidate::slot).toList();
+    }
+
+    private void visitRing(long row0, long col0, long r, double lat, double lon, int k,
+                           ChargingType type, PriorityQueue<Candidate> best) {
+        if (r == 0) {
+            visitCell(row0, col0, lat, lon, k, type, best);
+            return;
+        }
+        for (long c = col0 - r; c <= col0 + r; c++) {
+            visitCell(row0 - r, c, lat, lon, k, type, best);
+            visitCell(row0 + r, c, lat, lon, k, type, best);
+        }
+        for (long rr = row0 - r + 1; rr <= row0 + r - 1; rr++) {
+            visitCell(rr, col0 - r, lat, lon, k, type, best);
+            visitCell(rr, col0 + r, lat, lon, k, type, best);
+        }
+    }
+
+    private void visitCell(long row, long col, double lat, double lon, int k,
+                           ChargingType type, PriorityQueue<Candidate> best) {
+        if (row < 0 || row >= LAT_CELLS) {
+            return;
+        }
+        long wrappedCol = Math.floorMod(col, LON_CELLS);
+        Map<Long, SlotSnapshot> cell = cells.get(row * LON_CELLS + wrappedCol);
+        if (cell != null) {
+            offerAll(cell.values(), lat, lon, k, type, best);
+        }
+    }
+
+    private static void offerAll(Collection<SlotSnapshot> candidates, double lat, double lon, int k,
+                                 ChargingType type, PriorityQueue<Candidate> best) {
+        for (SlotSnapshot s : candidates) {
+            if (s.isReserved() || (type != null && s.getChargingType() != type)) {
+                continue;
+            }
+            double d = distanceKm(lat, lon, s.getLatitude(), s.getLongitude());
+            if (best.size() < k) {
+                best.add(new Candidate(s, d));
+            } else if (d < best.peek().distanceKm()) {
+                best.poll();
+                best.add(new Candidate(s, d));
+            }
+        }
+    }
+
+    /**
+     * Smallest possible distance from a point to any cell of ring {@code r}: at least
+     * {@code r - 1} whole cells lie in between, and a degree of longitude is shortest at the
+     * highest latitude the ring reaches.
+     */
+    private static double ringLowerBoundKm(double lat, long r) {
+        if (r <= 1) {
+            return 0;
+        }
+        double gapDegrees = (r - 1) * CELL_SIZE_DEGREES;
+        double farthestLat = Math.min(90, Math.abs(lat) + r * CELL_SIZE_DEGREES);
+        return gapDegrees * KM_PER_DEGREE * Math.cos(Math.toRadians(farthestLat));
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private record Candidate(SlotSnapshot slot, double distanceKm) {
+    }
+
+    private static void addInside(Collection<SlotSnapshot> candidates, double minLat, double minLon,
+                                  double maxLat, double maxLon, List<SlotSnapshot> result) {
+        for (SlotSnapshot s : candidates) {
+            double lat = s.getLatitude();
+            double lon = s.getLongitude();
+            if (lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon) {
+                result.add(s);
+            }
+        }
+    }
+
+    private static void validateBox(double minLat, double minLon, double maxLat, double maxLon) {
+        if (minLat < -90 || maxLat > 90 || minLat > maxLat) {
+            throw new IllegalArgumentException("Invalid latitude range");
+        }
+        if (minLon < -180 || minLon > 180 || maxLon < -180 || maxLon > 180) {
+            throw new IllegalArgumentException("Invalid longitude range");
+        }
+    }
+
+    static long row(double lat) {
+        return Math.min((long) ((lat + 90) / CELL_SIZE_DEGREES), LAT_CELLS - 1);
+    }
+
+    static long col(double lon) {
+        return Math.min((long) ((lon + 180) / CELL_SIZE_DEGREES), LON_CELLS - 1);
+    }
+
+    static long cellKey(double lat, double lon) {
+        return row(lat) * LON_CELLS + col(lon);
+    }
+}
@@ -0,0 +1,80 @@
+package ua.tqs.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Denormalized station -> slots view. Holds every slot (with or without coordinates) grouped
+ * by station, ordered by id, so the station and charger list endpoints never need a database
+ * round trip. Occupancy counts live in {@link FleetOccupancy}.
+ */
+@Component
+public class StationSlotReadModel implements SlotReadModel {
+
+    private final ConcurrentSkipListMap<Long, SlotSnapshot> slotsById = new ConcurrentSkipListMap<>();
+    private final Map<Long, StationSlots> stations = new ConcurrentHashMap<>();
+
+    @Override
+    public synchronized void rebuild(Collection<SlotSnapshot> snapshots) {
+        slotsById.clear();
+        stations.clear();
+        snapshots.forEach(this::put);
+    }
+
+    @Override
+    public synchronized void put(SlotSnapshot snapshot) {
+        remove(snapshot.getId());
+        slotsById.put(snapshot.getId(), snapshot);
+        if (snapshot.getStationId() != null) {
+            stations.computeIfAbsent(snapshot.getStationId(), id -> new StationSlots()).add(snapshot);
+        }
+    }
+
+    @Override
+    public synchronized void remove(Long slotId) {
+        SlotSnapshot previous = slotsById.remove(slotId);
+        if (previous == null) {
+            return;
+        }
+        if (previous.getStationId() != null) {
+            StationSlots station = stations.get(previous.getStationId());
+            if (station != null) {
+                station.remove(previous);
+                if (station.isEmpty()) {
+                    stations.remove(previous.getStationId());
+                }
+            }
+        }
+    }
+
+    public List<SlotSnapshot> getAllSlots() {
+        return new ArrayList<>(slotsById.values());
+    }
+
+    public List<SlotSnapshot> getSlotsByStation(Long stationId) {
+        StationSlots station = stations.get(stationId);
+        return station != null ? new ArrayList<>(station.slots.values()) : List.of();
+    }
+
+    private static final class StationSlots {
+        private final ConcurrentSkipListMap<Long, SlotSnapshot> slots = new ConcurrentSkipListMap<>();
+
+        void add(SlotSnapshot slot) {
+            slots.put(slot.getId(), slot);
+        }
+
+        void remove(SlotSnapshot slot) {
+            slots.remove(slot.getId());
+        }
+
+        boolean isEmpty() {
+            return slots.isEmpty();
+        }
+    }
+}
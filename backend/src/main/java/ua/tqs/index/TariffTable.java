@@ -0,0 +1,153 @@
+package ua.tqs.index;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.events.StationChangedEvent;
+import ua.tqs.models.Station;
+import ua.tqs.repositories.StationRepository;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prices charging sessions from tables compiled once per tariff change: the base price per
+ * {@link ChargingType}, and per station the discount rate plus a prefix count of discounted
+ * minutes over the day. The discounted share of any session is then two array lookups, so a
+ * quote costs the same whether it spans five minutes or a week.
+ * <p>
+ * A station's discount applies from {@code discountStartTime} (inclusive) to
+ * {@code discountEndTime} (exclusive), wrapping past midnight when the end is earlier; without
+ * both times, or with equal ones, it applies all day. The energy of a session is assumed to be
+ * drawn evenly over its duration, so only the share inside the window is discounted.
+ */
+@Component
+public class TariffTable implements SlotReadModel {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+    private static final double[] BASE_PRICES = basePrices();
+    private static final int[] ALL_DAY = compile(null, null);
+
+    private final StationRepository stationRepository;
+    private final Map<Long, SlotSnapshot> slots = new ConcurrentHashMap<>();
+    private final Map<Long, StationTariff> stations = new ConcurrentHashMap<>();
+    /** Stations mostly share a handful of windows, so each window is compiled only once. */
+    private final Map<Integer, int[]> windows = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TariffTable(StationRepository stationRepository) {
+        this.stationRepository = stationRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        stations.clear();
+        stationRepository.findAll().forEach(this::compile);
+    }
+
+    @EventListener
+    public void onStationChanged(StationChangedEvent event) {
+        stationRepository.findById(event.getStationId()).ifPresentOrElse(this::compile,
+                () -> stations.remove(event.getStationId()));
+    }
+
+    @Override
+    public void rebuild(Collection<SlotSnapshot> snapshots) {
+        slots.clear();
+        snapshots.forEach(this::put);
+    }
+
+    @Override
+    public void put(SlotSnapshot snapshot) {
+        slots.put(snapshot.getId(), snapshot);
+    }
+
+    @Override
+    public void remove(Long slotId) {
+        slots.remove(slotId);
+    }
+
+    /** The price of a session on a known slot, or {@code null} when the slot does not exist. */
+    public Price quote(Long slotId, LocalDateTime start, int durationMinutes, double consumptionKWh) {
+        SlotSnapshot slot = slots.get(slotId);
+        if (slot == null || slot.getChargingType() == null) {
+            return null;
+        }
+        return quote(slot.getChargingType(), slot.getStationId(), start, durationMinutes, consumptionKWh);
+    }
+
+    public Price quote(ChargingType type, Long stationId, LocalDateTime start, int durationMinutes,
+                       double consumptionKWh) {
+        double pricePerKWh = BASE_PRICES[type.ordinal()];
+        StationTariff tariff = stationId != null ? stations.get(stationId) : null;
+        double discount = tariff != null ? tariff.rate * tariff.share(start, durationMinutes) : 0.0;
+        return new Price(pricePerKWh, discount, pricePerKWh * consumptionKWh * (1 - discount));
+    }
+
+    private void compile(Station station) {
+        if (!station.isDiscountActive() || station.getDiscountValue() <= 0) {
+            stations.remove(station.getId());
+            return;
+        }
+        LocalTime from = station.getDiscountStartTime();
+        LocalTime to = station.getDiscountEndTime();
+        int[] discounted = from == null || to == null || from.equals(to)
+                ? ALL_DAY
+                : windows.computeIfAbsent(minuteOfDay(from) * MINUTES_PER_DAY + minuteOfDay(to),
+                        key -> compile(from, to));
+        stations.put(station.getId(), new StationTariff(station.getDiscountValue(), discounted));
+    }
+
+    /** {@code discounted[m]} is the number of discounted minutes in {@code [00:00, m)}. */
+    private static int[] compile(LocalTime from, LocalTime to) {
+        int start = from == null ? 0 : minuteOfDay(from);
+        int end = to == null ? 0 : minuteOfDay(to);
+        int[] discounted = new int[MINUTES_PER_DAY + 1];
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            boolean inside = start == end
+                    || (start < end ? minute >= start && minute < end : minute >= start || minute < end);
+            discounted[minute + 1] = discounted[minute] + (inside ? 1 : 0);
+        }
+        return discounted;
+    }
+
+    private static double[] basePrices() {
+        ChargingType[] types = ChargingType.values();
+        double[] prices = new double[types.length];
+        for (ChargingType type : types) {
+            prices[type.ordinal()] = type.getPricePerKwh();
+        }
+        return prices;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    public record Price(double pricePerKWh, double discount, double totalCost) {
+    }
+
+    private record StationTariff(double rate, int[] discounted) {
+
+        /** Share of {@code [start, start + minutes)} inside the window; the start minute alone if empty. */
+        double share(LocalDateTime start, int minutes) {
+            int first = minuteOfDay(start.toLocalTime());
+            if (minutes <= 0) {
+                return discounted[first + 1] - discounted[first];
+            }
+            long inside = (long) (minutes / MINUTES_PER_DAY) * discounted[MINUTES_PER_DAY];
+            int last = first + minutes % MINUTES_PER_DAY;
+            if (last <= MINUTES_PER_DAY) {
+                inside += discounted[last] - discounted[first];
+            } else {
+                inside += discounted[MINUTES_PER_DAY] - discounted[first] + discounted[last - MINUTES_PER_DAY];
+            }
+            return (double) inside / minutes;
+        }
+    }
+}
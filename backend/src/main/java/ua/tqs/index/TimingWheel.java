@@ -0,0 +1,122 @@
+package ua.tqs.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel: {@value #LEVELS} wheels of {@value #WHEEL_SIZE} buckets, the
+ * buckets of level {@code n} each spanning {@code 64^n} ticks, so four levels cover about
+ * 16.7 million ticks (32 years of minutes). Scheduling is O(1); advancing one tick expires one
+ * level-0 bucket and, every 64^n ticks, spreads one level-n bucket over the levels below. An
+ * entry is therefore moved at most {@value #LEVELS} times however far ahead it is due, and
+ * nothing is scanned that is not about to expire.
+ * <p>
+ * Entries cannot be removed; owners that need to cancel one check, when it expires, whether it
+ * is still wanted. Not thread-safe.
+ */
+public class TimingWheel<T> {
+
+    static final int WHEEL_BITS = 6;
+    static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    static final int LEVELS = 4;
+    private static final long MASK = WHEEL_SIZE - 1;
+    private static final long MAX_DELAY = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+    @SuppressWarnings("unchecked")
+    private final List<Entry<T>>[][] buckets = new List[LEVELS][WHEEL_SIZE];
+    /** Entries scheduled at or before the current tick, expired on the next advance. */
+    private List<Entry<T>> overdue = new ArrayList<>();
+    private long now;
+    private int size;
+
+    /** A wheel whose current tick is {@code now}; everything due by then is expired on the first advance. */
+    public TimingWheel(long now) {
+        this.now = now;
+    }
+
+    public long now() {
+        return now;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void schedule(long tick, T value) {
+        size++;
+        place(new Entry<>(tick, value));
+    }
+
+    /** Moves the wheel to {@code tick}, handing over every entry due by then, in no particular order. */
+    public void advance(long tick, Consumer<T> expired) {
+        expireOverdue(expired);
+        while (now < tick) {
+            if (size == 0) {
+                now = tick;
+                return;
+            }
+            now++;
+            // Entering a new span of a higher level: spread its bucket over the levels below
+            for (int level = 1; level < LEVELS && (now & ((1L << (WHEEL_BITS * level)) - 1)) == 0; level++) {
+                List<Entry<T>> bucket = take(level, index(now, level));
+                if (bucket != null) {
+                    bucket.forEach(this::place);
+                }
+            }
+            List<Entry<T>> due = take(0, index(now, 0));
+            if (due != null) {
+                expire(due, expired);
+            }
+            // Entries a cascade found due at this very tick
+            expireOverdue(expired);
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        long delay = entry.tick - now;
+        if (delay <= 0) {
+            overdue.add(entry);
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+        // Beyond the top wheel: park in its furthest bucket and re-place when that comes round
+        long tick = delay > MAX_DELAY ? now + MAX_DELAY : entry.tick;
+        int index = index(tick, level);
+        List<Entry<T>> bucket = buckets[level][index];
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            buckets[level][index] = bucket;
+        }
+        bucket.add(entry);
+    }
+
+    private List<Entry<T>> take(int level, int index) {
+        List<Entry<T>> bucket = buckets[level][index];
+        buckets[level][index] = null;
+        return bucket;
+    }
+
+    private void expireOverdue(Consumer<T> expired) {
+        if (!overdue.isEmpty()) {
+            List<Entry<T>> due = overdue;
+            overdue = new ArrayList<>();
+            expire(due, expired);
+        }
+    }
+
+    private void expire(List<Entry<T>> due, Consumer<T> expired) {
+        size -= due.size();
+        due.forEach(entry -> expired.accept(entry.value));
+    }
+
+    private static int index(long tick, int level) {
+        return (int) ((tick >>> (WHEEL_BITS * level)) & MASK);
+    }
+
+    private record Entry<T>(long tick, T value) {
+    }
+}
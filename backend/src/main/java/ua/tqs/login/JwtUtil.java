@@ -14,6 +14,7 @@ public class JwtUtil {
 
     private final SecretKey secretKey;
     private static final long JWT_EXPIRATION_MS = 86400000; // 1 dia
+    private static final String USER_ID_CLAIM = "uid";
 
     public JwtUtil(@Value("${jwt.secret}") String secret) {
         byte[] decodedKey = Base64.getDecoder().decode(secret);
@@ -21,9 +22,15 @@ public class JwtUtil {
     }
 
     public String generateToken(String username, String role) {
+        return generateToken(username, role, null);
+    }
+
+    /** The {@code uid} claim lets endpoints check ownership without looking the user up by email. */
+    public String generateToken(String username, String role, Long userId) {
         return Jwts.builder()
                 .setSubject(username)
                 .claim("role", role)
+                .claim(USER_ID_CLAIM, userId)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION_MS))
                 .signWith(secretKey, SignatureAlgorithm.HS256)
@@ -31,12 +38,21 @@ public class JwtUtil {
     }
 
     public String getUsername(String token) {
+        return claims(token).getSubject();
+    }
+
+    /** The user id carried by the token, or {@code null} for tokens issued without one. */
+    public Long getUserId(String token) {
+        Number userId = claims(token).get(USER_ID_CLAIM, Number.class);
+        return userId != null ? userId.longValue() : null;
+    }
+
+    private Claims claims(String token) {
         return Jwts.parserBuilder()
                 .setSigningKey(secretKey)
                 .build()
                 .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+                .getBody();
     }
 
     public boolean validateToken(String token) {
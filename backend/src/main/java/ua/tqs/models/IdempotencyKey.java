@@ -0,0 +1,48 @@
+package ua.tqs.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A client's {@code Idempotency-Key} for a booking. The row is claimed before booking, with no
+ * {@code statusCode}, and completed with the outcome; the unique key is what stops two instances
+ * from both booking the same request.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_keys_user_key",
+                columnNames = {"user_id", "idempotency_key"}),
+        indexes = @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at"))
+public class IdempotencyKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    /** SHA-256 of the request, so a key reused for a different booking is refused. */
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /** {@code null} while the first attempt is in progress. */
+    private Integer statusCode;
+
+    /** The stored {@code ReservationResponseDTO} as JSON, for successful bookings. */
+    @Column(length = 4000)
+    private String response;
+}
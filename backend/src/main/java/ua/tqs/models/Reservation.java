@@ -14,7 +14,9 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Data
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservations_user_id", columnList = "user_id, id")
+})
 public class Reservation {
     @Id
     @GeneratedValue
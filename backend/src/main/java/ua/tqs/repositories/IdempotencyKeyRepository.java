@@ -0,0 +1,28 @@
+package ua.tqs.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ua.tqs.models.IdempotencyKey;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+    Optional<IdempotencyKey> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    @Modifying
+    @Query("update IdempotencyKey k set k.statusCode = :statusCode, k.response = :response where k.id = :id")
+    int complete(Long id, int statusCode, String response);
+
+    /** Drops a claim whose attempt failed or was abandoned, unless it has been completed since. */
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.id = :id and k.statusCode is null")
+    int release(Long id);
+
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.createdAt < :before")
+    int deleteCreatedBefore(LocalDateTime before);
+}
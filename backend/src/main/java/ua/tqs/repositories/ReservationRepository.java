@@ -1,17 +1,84 @@
 package ua.tqs.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ua.tqs.dto.ReservationResponseDTO;
 import ua.tqs.models.Reservation;
 import ua.tqs.enums.ReservationStatus;
 import ua.tqs.models.User;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
     List<Reservation> findByUser(User user);
 
     List<Reservation> findBySlot_IdAndStatus(Long slotId, ReservationStatus status);
-    List<Reservation> findByUser_IdAndStatus(Long userId, ReservationStatus status);
+
+    boolean existsBySlot_IdAndStatusAndIdNot(Long slotId, ReservationStatus status, Long id);
+
+    long countByStatus(ReservationStatus status);
+
+    @Query("select r.id as id, r.slot.id as slotId, r.user.id as userId, r.startTime as startTime, "
+            + "r.durationMinutes as durationMinutes from Reservation r where r.status = :status")
+    List<ReservationInterval> findIntervalsByStatus(ReservationStatus status);
+
+    /** Moves the given reservations from one status to another; those in any other status are left alone. */
+    @Modifying
+    @Query("update Reservation r set r.status = :to where r.id in :ids and r.status = :from")
+    int updateStatus(Collection<Long> ids, ReservationStatus from, ReservationStatus to);
+
+    @Query("select r from Reservation r join fetch r.user join fetch r.slot s left join fetch s.station "
+            + "where r.id > :after order by r.id")
+    List<Reservation> findPageAfter(Long after, Limit limit);
+
+    /**
+     * A page of the user's reservations as response rows, slot and station joined in the same
+     * statement. {@code status}, {@code from} and {@code to} are optional; {@code from} and
+     * {@code to} bound the start time, the upper bound exclusive. Keyset-paged on the
+     * {@code (user_id, id)} index.
+     */
+    @Query("select new ua.tqs.dto.ReservationResponseDTO(r.id, u.id, u.email, u.name, s.id, r.status, "
+            + "r.consumptionKWh, r.totalCost, r.paid, st.name, s.name, s.chargingType, r.creationDate, "
+            + "r.startTime, r.durationMinutes) "
+            + "from Reservation r join r.user u join r.slot s left join s.station st "
+            + "where u.id = :userId and r.id > :after "
+            + "and (:status is null or r.status = :status) "
+            + "and (:from is null or r.startTime >= :from) "
+            + "and (:to is null or r.startTime < :to) "
+            + "order by r.id")
+    List<ReservationResponseDTO> findResponsesByUser(Long userId, Long after, ReservationStatus status,
+                                                     LocalDateTime from, LocalDateTime to, Limit limit);
+
+    /**
+     * Every reservation as a response row, read through a database cursor. Must be consumed
+     * inside a read-only transaction and closed; rows are projections, so nothing piles up in
+     * the persistence context.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new ua.tqs.dto.ReservationResponseDTO(r.id, u.id, u.email, u.name, s.id, r.status, "
+            + "r.consumptionKWh, r.totalCost, r.paid, st.name, s.name, s.chargingType, r.creationDate, "
+            + "r.startTime, r.durationMinutes) "
+            + "from Reservation r join r.user u join r.slot s left join s.station st order by r.id")
+    Stream<ReservationResponseDTO> streamAllResponses();
+
+    interface ReservationInterval {
+        Long getId();
+        Long getSlotId();
+        Long getUserId();
+        LocalDateTime getStartTime();
+        Integer getDurationMinutes();
+    }
 }
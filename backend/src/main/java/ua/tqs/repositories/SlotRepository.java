@@ -1,17 +1,82 @@
 package ua.tqs.repositories;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ua.tqs.dto.BookingTargetDTO;
+import ua.tqs.dto.SlotResponseDTO;
+import ua.tqs.enums.ChargingType;
 import ua.tqs.models.Slot;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SlotRepository extends JpaRepository<Slot, Long> {
+    String RESPONSE_PROJECTION = "select new ua.tqs.dto.SlotResponseDTO(s.id, s.name, st.name, st.status, "
+            + "s.reserved, s.chargingType, s.power, s.latitude, s.longitude) from Slot s left join s.station st ";
+    String BOOKING_PROJECTION = "select new ua.tqs.dto.BookingTargetDTO(s.id, s.name, st.id, st.name, st.status, "
+            + "s.latitude, s.longitude, s.chargingType, s.power, s.reserved, "
+            + "case when exists (select u.id from User u where u.id = :userId) then true else false end) "
+            + "from Slot s left join s.station st ";
+
     boolean existsByName(String name);
     boolean existsByNameAndIdNot(String name, Long id);
 
+    @Query("select s.name from Slot s")
+    List<String> findAllNames();
+
     List<Slot> findByReservedFalse();
 
+    List<Slot> findByStation_Id(Long stationId);
+
     boolean existsByIdAndReservedTrue(Long id);
+
+    @Query("select s from Slot s left join fetch s.station st left join fetch st.operator")
+    List<Slot> findAllWithStation();
+
+    @Query(RESPONSE_PROJECTION + "where s.id > :after order by s.id")
+    List<SlotResponseDTO> findResponsesAfter(Long after, Limit limit);
+
+    @Query(RESPONSE_PROJECTION + "where s.reserved = false order by s.id")
+    List<SlotResponseDTO> findAvailableResponses();
+
+    @Query(RESPONSE_PROJECTION + "where s.id = :id")
+    Optional<SlotResponseDTO> findResponseById(Long id);
+
+    /** Everything a booking reads, slot, station and whether the user exists, in one statement. */
+    @Query(BOOKING_PROJECTION + "where s.id = :slotId")
+    Optional<BookingTargetDTO> findBookingTarget(Long slotId, Long userId);
+
+    @Query(BOOKING_PROJECTION + "where s.id in :slotIds")
+    List<BookingTargetDTO> findBookingTargets(Collection<Long> slotIds, Long userId);
+
+    /** Marks the slot reserved unless it already is; returns the number of rows changed. */
+    @Modifying
+    @Query("update Slot s set s.reserved = true where s.id = :id and s.reserved = false")
+    int reserve(Long id);
+
+    @Modifying
+    @Query("update Slot s set s.reserved = true where s.id in :ids and s.reserved = false")
+    int reserveAll(Collection<Long> ids);
+
+    /** Frees the given slots that no ACTIVE reservation holds any more. */
+    @Modifying
+    @Query("update Slot s set s.reserved = false where s.id in :ids and s.reserved = true and not exists "
+            + "(select r.id from Reservation r where r.slot.id = s.id and r.status = ua.tqs.enums.ReservationStatus.ACTIVE)")
+    int releaseAll(Collection<Long> ids);
+
+    @Query("select st.id as stationId, s.chargingType as chargingType, s.reserved as reserved, count(s) as slots "
+            + "from Slot s left join s.station st group by st.id, s.chargingType, s.reserved")
+    List<OccupancyCount> countOccupancy();
+
+    interface OccupancyCount {
+        Long getStationId();
+        ChargingType getChargingType();
+        Boolean getReserved();
+        Long getSlots();
+    }
 }
@@ -1,11 +1,15 @@
 package ua.tqs.repositories;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ua.tqs.models.User;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String username);
+
+    List<User> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
 }
@@ -0,0 +1,286 @@
+package ua.tqs.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ua.tqs.dto.BatchReservationRequestDTO;
+import ua.tqs.dto.BatchReservationResultDTO;
+import ua.tqs.dto.BookingTargetDTO;
+import ua.tqs.enums.BatchMode;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.events.ReservationChangedEvent;
+import ua.tqs.events.SlotChangedEvent;
+import ua.tqs.index.ReservationIntervals;
+import ua.tqs.index.TariffTable;
+import ua.tqs.models.Reservation;
+import ua.tqs.repositories.ReservationRepository;
+import ua.tqs.repositories.SlotRepository;
+import ua.tqs.repositories.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Books many windows for one user, e.g. a fleet's vehicles or a weekly series, in a single
+ * transaction. The stripe locks of every slot involved are taken once, in ascending order (see
+ * {@link BookingLocks}), and the slots and the user are read in one statement. Every item is then
+ * checked in memory against {@link ReservationIntervals} and against the items accepted before
+ * it, and the reservations are inserted in JDBC batches.
+ * <p>
+ * As with {@link ReservationService}, a slot is booked per window: a slot that already has
+ * reservations takes more in other windows, and a batch may place several on one slot. An overlap
+ * that only the database's exclusion constraint sees fails the whole batch with
+ * {@link ReservationConflictException}, whatever the mode.
+ */
+@Service
+public class BatchReservationService {
+
+    static final int MAX_ITEMS = 500;
+    /** The reservation sequence hands out ids 50 at a time, so a batch of 50 needs no extra round trip. */
+    static final int JDBC_BATCH_SIZE = 50;
+    private static final int DEFAULT_INTERVAL_DAYS = 7;
+
+    private final ReservationRepository reservationRepository;
+    private final SlotRepository slotRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReservationIntervals reservationIntervals;
+    private final TariffTable tariffTable;
+    private final BookingLocks bookingLocks;
+    private final ReservationHolds reservationHolds;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public BatchReservationService(ReservationRepository reservationRepository, SlotRepository slotRepository,
+                                   UserRepository userRepository, ApplicationEventPublisher eventPublisher,
+                                   ReservationIntervals reservationIntervals, TariffTable tariffTable,
+                                   BookingLocks bookingLocks, ReservationHolds reservationHolds,
+                                   TransactionTemplate transactionTemplate) {
+        this.reservationRepository = reservationRepository;
+        this.slotRepository = slotRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.reservationIntervals = reservationIntervals;
+        this.tariffTable = tariffTable;
+        this.bookingLocks = bookingLocks;
+        this.reservationHolds = reservationHolds;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /** @throws IllegalArgumentException when the request is malformed; nothing is booked then */
+    public BatchReservationResultDTO book(BatchReservationRequestDTO request) {
+        if (request.getUserId() == null) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        BatchMode mode = request.getMode() != null ? request.getMode() : BatchMode.ALL_OR_NOTHING;
+        List<BatchReservationRequestDTO.Item> items = expand(request);
+        Collection<Long> slotIds = items.stream()
+                .map(BatchReservationRequestDTO.Item::getSlotId)
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        try {
+            return bookingLocks.withLocks(slotIds, request.getUserId(), () -> {
+                Batch batch = transactionTemplate.execute(
+                        status -> insert(request.getUserId(), mode, items, slotIds));
+                // Only committed changes reach the read models
+                batch.reservations().stream()
+                        .map(reservation -> reservation.getSlot().getId())
+                        .distinct()
+                        .forEach(slotId -> eventPublisher.publishEvent(
+                                new SlotChangedEvent(slotId, batch.targets().get(slotId).toSnapshot(true))));
+                batch.reservations().forEach(reservation -> {
+                    reservationHolds.consume(reservation.getSlot().getId(), request.getUserId(),
+                            reservation.getStartTime(),
+                            reservation.getStartTime().plusMinutes(reservation.getDurationMinutes()));
+                    eventPublisher.publishEvent(ReservationChangedEvent.of(reservation));
+                });
+                return result(mode, batch);
+            });
+        } catch (RuntimeException e) {
+            if (!(e instanceof ReservationConflictException) && ReservationService.isExclusionViolation(e)) {
+                throw new ReservationConflictException("A slot is already reserved for one of the windows");
+            }
+            throw e;
+        }
+    }
+
+    private Batch insert(Long userId, BatchMode mode, List<BatchReservationRequestDTO.Item> items,
+                         Collection<Long> slotIds) {
+        Map<Long, BookingTargetDTO> targets = slotRepository.findBookingTargets(slotIds, userId).stream()
+                .collect(Collectors.toMap(BookingTargetDTO::getId, Function.identity()));
+
+        String[] errors = new String[items.size()];
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            errors[i] = check(items, i, targets.get(items.get(i).getSlotId()), userId, accepted);
+            if (errors[i] == null) {
+                accepted.add(i);
+            }
+        }
+        Reservation[] reservations = new Reservation[items.size()];
+        if (accepted.isEmpty() || (mode == BatchMode.ALL_OR_NOTHING && accepted.size() < items.size())) {
+            return new Batch(items, reservations, errors, targets);
+        }
+
+        List<Long> unflagged = accepted.stream()
+                .map(i -> items.get(i).getSlotId())
+                .distinct()
+                .filter(slotId -> !targets.get(slotId).isReserved())
+                .toList();
+        if (!unflagged.isEmpty()) {
+            slotRepository.reserveAll(unflagged);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Reservation> pending = new ArrayList<>(accepted.size());
+        for (int i : accepted) {
+            BatchReservationRequestDTO.Item item = items.get(i);
+            BookingTargetDTO target = targets.get(item.getSlotId());
+            TariffTable.Price price = tariffTable.quote(target.getChargingType(), target.getStationId(),
+                    item.getStartTime(), item.getDurationMinutes(), item.getConsumptionKWh());
+
+            Reservation reservation = new Reservation();
+            reservation.setUser(userRepository.getReferenceById(userId));
+            reservation.setSlot(slotRepository.getReferenceById(item.getSlotId()));
+            reservation.setStatus(ReservationStatus.ACTIVE);
+            reservation.setCreationDate(now);
+            reservation.setStartTime(item.getStartTime());
+            reservation.setStartDate(item.getStartTime().toLocalDate());
+            reservation.setDurationMinutes(item.getDurationMinutes());
+            reservation.setConsumptionKWh(item.getConsumptionKWh());
+            reservation.setTotalCost(price.totalCost());
+            reservation.setPaid(false);
+            reservations[i] = reservation;
+            pending.add(reservation);
+        }
+
+        entityManager.unwrap(Session.class).setJdbcBatchSize(JDBC_BATCH_SIZE);
+        reservationRepository.saveAll(pending);
+        // Flush here so an exclusion violation is raised inside the locks, not at commit
+        reservationRepository.flush();
+        return new Batch(items, reservations, errors, targets);
+    }
+
+    /** Why item {@code i} cannot be booked, or {@code null} when it can. */
+    private String check(List<BatchReservationRequestDTO.Item> items, int i, BookingTargetDTO target, Long userId,
+                         List<Integer> accepted) {
+        if (target == null) {
+            return "Slot not found";
+        }
+        if (!target.isUserExists()) {
+            return "User not found";
+        }
+        BatchReservationRequestDTO.Item item = items.get(i);
+        LocalDateTime start = item.getStartTime();
+        LocalDateTime end = start.plusMinutes(item.getDurationMinutes());
+        if (reservationIntervals.slotOverlaps(item.getSlotId(), start, end)) {
+            return "Slot is already reserved for that time";
+        }
+        if (reservationIntervals.userOverlaps(userId, start, end)) {
+            return "You already have a reservation at that time";
+        }
+        if (reservationHolds.heldByOther(item.getSlotId(), userId, start, end)) {
+            return "Slot is held by another driver for that time";
+        }
+        // Every item belongs to the same user, so any two accepted items must be disjoint
+        for (int j : accepted) {
+            BatchReservationRequestDTO.Item other = items.get(j);
+            LocalDateTime otherEnd = other.getStartTime().plusMinutes(other.getDurationMinutes());
+            if (!start.isAfter(otherEnd) && !other.getStartTime().isAfter(end)) {
+                return "Overlaps item " + j;
+            }
+        }
+        return null;
+    }
+
+    /** The explicit items followed by the occurrences of the recurrence, validated. */
+    static List<BatchReservationRequestDTO.Item> expand(BatchReservationRequestDTO request) {
+        List<BatchReservationRequestDTO.Item> items = new ArrayList<>();
+        if (request.getItems() != null) {
+            items.addAll(request.getItems());
+        }
+        BatchReservationRequestDTO.Recurrence recurrence = request.getRecurrence();
+        if (recurrence != null) {
+            if (recurrence.getFirstStart() == null) {
+                throw new IllegalArgumentException("Recurrence firstStart is required");
+            }
+            int occurrences = recurrence.getOccurrences() != null ? recurrence.getOccurrences() : 0;
+            int intervalDays = recurrence.getIntervalDays() != null
+                    ? recurrence.getIntervalDays() : DEFAULT_INTERVAL_DAYS;
+            if (occurrences < 1 || items.size() + occurrences > MAX_ITEMS) {
+                throw new IllegalArgumentException("Recurrence occurrences must be between 1 and " + MAX_ITEMS);
+            }
+            if (intervalDays < 1) {
+                throw new IllegalArgumentException("Recurrence intervalDays must be at least 1");
+            }
+            for (int n = 0; n < occurrences; n++) {
+                BatchReservationRequestDTO.Item item = new BatchReservationRequestDTO.Item();
+                item.setSlotId(recurrence.getSlotId());
+                item.setStartTime(recurrence.getFirstStart().plusDays((long) n * intervalDays));
+                item.setDurationMinutes(recurrence.getDurationMinutes());
+                item.setConsumptionKWh(recurrence.getConsumptionKWh());
+                items.add(item);
+            }
+        }
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to book");
+        }
+        if (items.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("At most " + MAX_ITEMS + " items per batch");
+        }
+        for (int i = 0; i < items.size(); i++) {
+            BatchReservationRequestDTO.Item item = items.get(i);
+            if (item == null || item.getSlotId() == null || item.getStartTime() == null) {
+                throw new IllegalArgumentException("Item " + i + ": slotId and startTime are required");
+            }
+            if (item.getDurationMinutes() == null || item.getDurationMinutes() <= 0) {
+                throw new IllegalArgumentException("Item " + i + ": durationMinutes must be positive");
+            }
+            if (item.getConsumptionKWh() == null || item.getConsumptionKWh() < 0) {
+                throw new IllegalArgumentException("Item " + i + ": consumptionKWh must not be negative");
+            }
+        }
+        return items;
+    }
+
+    private static BatchReservationResultDTO result(BatchMode mode, Batch batch) {
+        List<BatchReservationResultDTO.ItemResult> results = new ArrayList<>(batch.items().size());
+        int booked = 0;
+        int rejected = 0;
+        for (int i = 0; i < batch.items().size(); i++) {
+            BatchReservationRequestDTO.Item item = batch.items().get(i);
+            Reservation reservation = batch.bookings()[i];
+            booked += reservation != null ? 1 : 0;
+            rejected += batch.errors()[i] != null ? 1 : 0;
+            results.add(new BatchReservationResultDTO.ItemResult(i, item.getSlotId(), item.getStartTime(),
+                    reservation != null ? reservation.getId() : null,
+                    reservation != null ? reservation.getTotalCost() : null,
+                    batch.errors()[i]));
+        }
+        return new BatchReservationResultDTO(mode, booked, rejected, results);
+    }
+
+    /** {@code bookings[i]} is the reservation of item {@code i}, {@code null} when it was not booked. */
+    private record Batch(List<BatchReservationRequestDTO.Item> items, Reservation[] bookings, String[] errors,
+                         Map<Long, BookingTargetDTO> targets) {
+
+        List<Reservation> reservations() {
+            return Arrays.stream(bookings).filter(Objects::nonNull).toList();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ua.tqs.services;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes bookings that could conflict, and only those: a booking holds the stripe of its slot
+ * and the stripe of its user. Bookings of different slots by different users almost always take
+ * different stripes and run in parallel. Slot stripes are always taken before user stripes, and
+ * several slot stripes in ascending order, so two bookings can never wait on each other.
+ * <p>
+ * The locks only cover this JVM; across instances the database has the final word.
+ */
+@Component
+public class BookingLocks {
+
+    static final int STRIPE_BITS = 10;
+    static final int STRIPES = 1 << STRIPE_BITS;
+
+    private final ReentrantLock[] slotLocks = locks();
+    private final ReentrantLock[] userLocks = locks();
+
+    public <T> T withLocks(Long slotId, Long userId, Supplier<T> action) {
+        ReentrantLock slotLock = slotLocks[stripe(slotId)];
+        ReentrantLock userLock = userLocks[stripe(userId)];
+        slotLock.lock();
+        try {
+            userLock.lock();
+            try {
+                return action.get();
+            } finally {
+                userLock.unlock();
+            }
+        } finally {
+            slotLock.unlock();
+        }
+    }
+
+    /** For batches: every distinct slot stripe in ascending order, then the user's stripe. */
+    public <T> T withLocks(Collection<Long> slotIds, Long userId, Supplier<T> action) {
+        return withSlotLocks(slotIds, () -> {
+            ReentrantLock userLock = userLocks[stripe(userId)];
+            userLock.lock();
+            try {
+                return action.get();
+            } finally {
+                userLock.unlock();
+            }
+        });
+    }
+
+    /** Every distinct slot stripe in ascending order, for work on slots that involves no user. */
+    public <T> T withSlotLocks(Collection<Long> slotIds, Supplier<T> action) {
+        int[] stripes = slotIds.stream().mapToInt(BookingLocks::stripe).sorted().distinct().toArray();
+        int locked = 0;
+        try {
+            for (int stripe : stripes) {
+                slotLocks[stripe].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                slotLocks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    private static int stripe(Long id) {
+        // Fibonacci hashing: the top bits of id * 2^64/phi scatter sequential ids over the stripes
+        return (int) ((id != null ? id : 0L) * 0x9E3779B97F4A7C15L >>> (64 - STRIPE_BITS));
+    }
+
+    private static ReentrantLock[] locks() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
@@ -0,0 +1,182 @@
+package ua.tqs.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ua.tqs.dto.BookingTicketDTO;
+import ua.tqs.dto.ReservationRequestDTO;
+import ua.tqs.dto.ReservationResponseDTO;
+import ua.tqs.enums.TicketStatus;
+import ua.tqs.index.ReservationIntervals;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queued booking for peak-hour bursts. A request is put on the queue of its slot's shard and
+ * answered at once with a ticket; each shard has a single writer thread that drains its queue in
+ * batches and books through {@link ReservationService}. However many clients arrive, at most one
+ * booking per shard is in flight, so they no longer compete for the same rows, locks and pooled
+ * connections.
+ * <p>
+ * Requests that overlap a reservation this instance already knows of, including one booked
+ * earlier in the same drained batch, end in conflict without touching the database; at a peak
+ * these are most of the requests for a popular window. A full shard refuses new tickets instead
+ * of letting the backlog grow. Finished tickets are kept for {@link #TICKET_TTL}.
+ */
+@Service
+public class BookingQueue {
+
+    static final int DRAIN_BATCH = 64;
+    static final Duration TICKET_TTL = Duration.ofMinutes(10);
+
+    private final ReservationService reservationService;
+    private final ReservationIntervals reservationIntervals;
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final List<BlockingQueue<Ticket>> shards = new ArrayList<>();
+    private final List<Thread> writers = new ArrayList<>();
+
+    @Autowired
+    public BookingQueue(ReservationService reservationService, ReservationIntervals reservationIntervals,
+                        MeterRegistry meterRegistry,
+                        @Value("${reservations.queue.writers:8}") int writerCount,
+                        @Value("${reservations.queue.capacity:10000}") int capacity) {
+        this.reservationService = reservationService;
+        this.reservationIntervals = reservationIntervals;
+        for (int i = 0; i < writerCount; i++) {
+            BlockingQueue<Ticket> shard = new ArrayBlockingQueue<>(Math.max(1, capacity / writerCount));
+            Thread writer = new Thread(() -> drain(shard), "booking-writer-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            shards.add(shard);
+            writers.add(writer);
+        }
+        Gauge.builder("reservations.queue.depth", shards, queues -> queues.stream().mapToInt(BlockingQueue::size).sum())
+                .description("Bookings waiting for a writer")
+                .register(meterRegistry);
+    }
+
+    /** The PENDING ticket of the queued request, or empty when its shard is full. */
+    public Optional<BookingTicketDTO> submit(ReservationRequestDTO dto) {
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), dto);
+        tickets.put(ticket.id, ticket);
+        if (!shards.get(shard(dto.getSlotId())).offer(ticket)) {
+            tickets.remove(ticket.id);
+            return Optional.empty();
+        }
+        return Optional.of(ticket.pending());
+    }
+
+    /**
+     * The ticket as soon as it is final, or as it stands after {@code wait}; empty when there is
+     * no such ticket for that user.
+     */
+    public Optional<CompletableFuture<BookingTicketDTO>> find(String ticketId, Long userId, Duration wait) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null || !ticket.request.getUserId().equals(userId)) {
+            return Optional.empty();
+        }
+        if (wait.isZero() || ticket.done.isDone()) {
+            return Optional.of(CompletableFuture.completedFuture(ticket.view()));
+        }
+        // A copy, so that timing out one waiter does not complete the ticket
+        return Optional.of(ticket.done.copy()
+                .completeOnTimeout(ticket.pending(), wait.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    @Scheduled(fixedDelayString = "${reservations.queue.prune-interval-ms:60000}")
+    public void pruneTickets() {
+        long expired = System.nanoTime() - TICKET_TTL.toNanos();
+        tickets.values().removeIf(ticket -> ticket.done.isDone() && ticket.finishedAt - expired < 0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.forEach(Thread::interrupt);
+    }
+
+    private void drain(BlockingQueue<Ticket> shard) {
+        List<Ticket> batch = new ArrayList<>(DRAIN_BATCH);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(shard.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            shard.drainTo(batch, DRAIN_BATCH - 1);
+            apply(batch);
+            batch.clear();
+        }
+    }
+
+    private void apply(List<Ticket> batch) {
+        for (Ticket ticket : batch) {
+            Long slotId = ticket.request.getSlotId();
+            // A booking updates the intervals before it returns, so later tickets of the batch see it
+            LocalDateTime start = ticket.request.getStartTime();
+            if (start != null && ticket.request.getDurationMinutes() != null && reservationIntervals.slotOverlaps(
+                    slotId, start, start.plusMinutes(ticket.request.getDurationMinutes()))) {
+                ticket.finish(TicketStatus.CONFLICT, null, "Slot is already reserved for that time");
+                continue;
+            }
+            try {
+                Optional<ReservationResponseDTO> reservation = reservationService.createReservation(ticket.request);
+                if (reservation.isPresent()) {
+                    ticket.finish(TicketStatus.BOOKED, reservation.get(), null);
+                } else {
+                    ticket.finish(TicketStatus.REJECTED, null, "Slot or user not found");
+                }
+            } catch (ReservationConflictException e) {
+                ticket.finish(TicketStatus.CONFLICT, null, e.getMessage());
+            } catch (RuntimeException e) {
+                ticket.finish(TicketStatus.REJECTED, null, "Booking failed");
+            }
+        }
+    }
+
+    private int shard(Long slotId) {
+        // Fibonacci hashing, as in BookingLocks, so sequential slot ids spread over the writers
+        long hash = (slotId != null ? slotId : 0L) * 0x9E3779B97F4A7C15L;
+        return (int) Long.remainderUnsigned(hash >>> 32, shards.size());
+    }
+
+    private static final class Ticket {
+        private final String id;
+        private final ReservationRequestDTO request;
+        private final CompletableFuture<BookingTicketDTO> done = new CompletableFuture<>();
+        private volatile long finishedAt;
+
+        private Ticket(String id, ReservationRequestDTO request) {
+            this.id = id;
+            this.request = request;
+        }
+
+        private void finish(TicketStatus status, ReservationResponseDTO reservation, String error) {
+            finishedAt = System.nanoTime();
+            done.complete(new BookingTicketDTO(id, status, reservation, error));
+        }
+
+        private BookingTicketDTO pending() {
+            return new BookingTicketDTO(id, TicketStatus.PENDING, null, null);
+        }
+
+        private BookingTicketDTO view() {
+            return done.getNow(pending());
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package ua.tqs.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ua.tqs.dto.ReservationRequestDTO;
+import ua.tqs.dto.ReservationResponseDTO;
+import ua.tqs.models.IdempotencyKey;
+import ua.tqs.repositories.IdempotencyKeyRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bookings made with an {@code Idempotency-Key}: the first request with a key books, and every
+ * later one with the same key and user gets the stored outcome without reaching
+ * {@link ReservationService}. A request that arrives while the first is still booking waits for
+ * it, on this instance through the in-flight attempt and on others by polling the claimed row.
+ * <p>
+ * Outcomes are kept in a bounded LRU cache and in the {@code idempotency_keys} table for
+ * {@link #RETENTION}. A key reused for a different booking is refused. Only definite outcomes are
+ * stored; when the attempt itself fails, its claim is dropped and the client may retry. A booked
+ * outcome is stored in the transaction that inserts the reservation, so a claim left without an
+ * outcome never has a reservation behind it and can be taken over once stale.
+ */
+@Service
+public class IdempotentBookings {
+
+    public static final int OK = 200;
+    public static final int BAD_REQUEST = 400;
+    public static final int CONFLICT = 409;
+    public static final int UNPROCESSABLE = 422;
+
+    static final int MAX_KEY_LENGTH = 255;
+    static final Duration RETENTION = Duration.ofHours(24);
+    static final Duration IN_PROGRESS_WAIT = Duration.ofSeconds(30);
+    /** A claim this old belongs to an attempt that died with its instance. */
+    static final Duration STALE_CLAIM = Duration.ofMinutes(2);
+    private static final long POLL_MILLIS = 50;
+
+    private final ReservationService reservationService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Outcome> cache;
+    private final Map<String, CompletableFuture<Outcome>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotentBookings(ReservationService reservationService, IdempotencyKeyRepository idempotencyKeyRepository,
+                              TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                              @Value("${reservations.idempotency.cache-size:10000}") int cacheSize) {
+        this.reservationService = reservationService;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Outcome> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * The outcome of booking {@code dto} under the key: {@link #OK} with the reservation,
+     * {@link #BAD_REQUEST} or {@link #CONFLICT} as for a plain booking, {@link #UNPROCESSABLE}
+     * when the key was used for another request, or {@link #CONFLICT} with an error when the
+     * first attempt is still running after {@link #IN_PROGRESS_WAIT}.
+     *
+     * @throws IllegalArgumentException when the key is blank or too long
+     */
+    public Outcome book(Long userId, String key, ReservationRequestDTO dto) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must have 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String hash = hash(dto);
+        String cacheKey = userId + ":" + key;
+        long deadline = System.nanoTime() + IN_PROGRESS_WAIT.toNanos();
+        while (true) {
+            Outcome cached = cached(cacheKey);
+            if (cached != null) {
+                return cached.replayedFor(hash);
+            }
+            CompletableFuture<Outcome> mine = new CompletableFuture<>();
+            CompletableFuture<Outcome> first = inFlight.putIfAbsent(cacheKey, mine);
+            if (first == null) {
+                try {
+                    Outcome outcome = bookOnce(userId, key, hash, dto, deadline);
+                    mine.complete(outcome);
+                    return outcome;
+                } catch (RuntimeException e) {
+                    mine.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlight.remove(cacheKey, mine);
+                }
+            }
+            try {
+                return first.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS).replayedFor(hash);
+            } catch (ExecutionException e) {
+                // The first attempt failed and stored nothing; this one may book instead
+            } catch (TimeoutException e) {
+                return Outcome.inProgress();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Outcome.inProgress();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reservations.idempotency.prune-interval-ms:3600000}")
+    public void prune() {
+        LocalDateTime before = LocalDateTime.now().minus(RETENTION);
+        transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.deleteCreatedBefore(before));
+    }
+
+    private Outcome bookOnce(Long userId, String key, String hash, ReservationRequestDTO dto, long deadline) {
+        while (true) {
+            Optional<IdempotencyKey> existing = idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, key);
+            if (existing.isEmpty()) {
+                Long claim = claim(userId, key, hash);
+                if (claim != null) {
+                    return bookClaimed(claim, userId + ":" + key, hash, dto);
+                }
+                // Another instance claimed it first
+                continue;
+            }
+            IdempotencyKey row = existing.get();
+            if (row.getStatusCode() != null) {
+                Outcome outcome = outcome(row);
+                remember(userId + ":" + key, outcome);
+                return outcome.replayedFor(hash);
+            }
+            if (row.getCreatedAt().isBefore(LocalDateTime.now().minus(STALE_CLAIM))) {
+                transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.release(row.getId()));
+            } else if (System.nanoTime() - deadline > 0 || !pause()) {
+                return Outcome.inProgress();
+            }
+        }
+    }
+
+    /** The id of the new claim, or {@code null} when the key is already claimed. */
+    private Long claim(Long userId, String key, String hash) {
+        IdempotencyKey row = new IdempotencyKey();
+        row.setUserId(userId);
+        row.setIdempotencyKey(key);
+        row.setRequestHash(hash);
+        row.setCreatedAt(LocalDateTime.now());
+        try {
+            return transactionTemplate.execute(status -> idempotencyKeyRepository.saveAndFlush(row).getId());
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    private Outcome bookClaimed(Long claim, String cacheKey, String hash, ReservationRequestDTO dto) {
+        Outcome outcome;
+        try {
+            outcome = reservationService.createReservation(dto,
+                            reservation -> idempotencyKeyRepository.complete(claim, OK, json(reservation)))
+                    .map(reservation -> new Outcome(OK, reservation, null, hash, false))
+                    .orElseGet(() -> new Outcome(BAD_REQUEST, null, null, hash, false));
+        } catch (ReservationConflictException e) {
+            outcome = new Outcome(CONFLICT, null, null, hash, false);
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.release(claim));
+            throw e;
+        }
+        if (outcome.status() != OK) {
+            int statusCode = outcome.status();
+            transactionTemplate.executeWithoutResult(
+                    status -> idempotencyKeyRepository.complete(claim, statusCode, null));
+        }
+        remember(cacheKey, outcome);
+        return outcome;
+    }
+
+    private synchronized Outcome cached(String cacheKey) {
+        return cache.get(cacheKey);
+    }
+
+    private synchronized void remember(String cacheKey, Outcome outcome) {
+        cache.put(cacheKey, outcome);
+    }
+
+    private Outcome outcome(IdempotencyKey row) {
+        try {
+            ReservationResponseDTO reservation = row.getResponse() != null
+                    ? objectMapper.readValue(row.getResponse(), ReservationResponseDTO.class) : null;
+            return new Outcome(row.getStatusCode(), reservation, null, row.getRequestHash(), false);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable stored response for idempotency key " + row.getId(), e);
+        }
+    }
+
+    private String json(ReservationResponseDTO reservation) {
+        try {
+            return reservation != null ? objectMapper.writeValueAsString(reservation) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store the reservation response", e);
+        }
+    }
+
+    private static boolean pause() {
+        try {
+            Thread.sleep(POLL_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** Identifies what is booked; the client's price is ignored anyway, so it is left out. */
+    private static String hash(ReservationRequestDTO dto) {
+        String request = dto.getUserId() + "|" + dto.getSlotId() + "|" + dto.getStartTime() + "|"
+                + dto.getDurationMinutes() + "|" + dto.getConsumptionKWh();
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * How a keyed booking ended. {@code replayed} is set when it was answered from a stored
+     * outcome; {@code error} explains the outcomes a plain booking does not have.
+     */
+    public record Outcome(int status, ReservationResponseDTO reservation, String error, String requestHash,
+                          boolean replayed) {
+
+        static Outcome inProgress() {
+            return new Outcome(CONFLICT, null, "A request with this Idempotency-Key is still in progress",
+                    null, false);
+        }
+
+        /** This stored outcome as the answer to a request with {@code hash}. */
+        Outcome replayedFor(String hash) {
+            if (requestHash == null) {
+                return this;
+            }
+            if (!requestHash.equals(hash)) {
+                return new Outcome(UNPROCESSABLE, null,
+                        "Idempotency-Key was already used for a different request", hash, false);
+            }
+            return new Outcome(status, reservation, error, requestHash, true);
+        }
+    }
+}
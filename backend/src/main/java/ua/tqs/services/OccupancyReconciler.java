@@ -0,0 +1,128 @@
+package ua.tqs.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.index.FleetOccupancy;
+import ua.tqs.index.SlotReadModelUpdater;
+import ua.tqs.repositories.ReservationRepository;
+import ua.tqs.repositories.SlotRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Periodically compares the live {@link FleetOccupancy} counters with the database. A write
+ * that has committed but whose event is still in flight looks like drift for a moment, so the
+ * counters are only corrected when the same mismatch is seen on two consecutive runs.
+ */
+@Service
+public class OccupancyReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(OccupancyReconciler.class);
+    private static final String FLEET = "fleet";
+    private static final String TOTAL = "total";
+    private static final String RESERVED = "reserved";
+
+    private final SlotRepository slotRepository;
+    private final ReservationRepository reservationRepository;
+    private final FleetOccupancy occupancy;
+    private final SlotReadModelUpdater readModelUpdater;
+
+    private Map<String, Long> pendingSlotDrift = Map.of();
+    private Long pendingReservationDrift;
+
+    @Autowired
+    public OccupancyReconciler(SlotRepository slotRepository,
+                               ReservationRepository reservationRepository,
+                               FleetOccupancy occupancy,
+                               SlotReadModelUpdater readModelUpdater) {
+        this.slotRepository = slotRepository;
+        this.reservationRepository = reservationRepository;
+        this.occupancy = occupancy;
+        this.readModelUpdater = readModelUpdater;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveReservations() {
+        occupancy.resetActiveReservations(reservationRepository.countByStatus(ReservationStatus.ACTIVE));
+    }
+
+    @Scheduled(initialDelayString = "${occupancy.reconcile.interval-ms:300000}",
+            fixedDelayString = "${occupancy.reconcile.interval-ms:300000}")
+    public synchronized void reconcile() {
+        reconcileSlots();
+        reconcileReservations();
+    }
+
+    private void reconcileSlots() {
+        Map<String, Long> expected = new HashMap<>();
+        for (ChargingType type : ChargingType.values()) {
+            expected.put(key(null, type, TOTAL), 0L);
+            expected.put(key(null, type, RESERVED), 0L);
+        }
+        for (SlotRepository.OccupancyCount row : slotRepository.countOccupancy()) {
+            if (row.getChargingType() == null) {
+                continue;
+            }
+            long reserved = Boolean.TRUE.equals(row.getReserved()) ? row.getSlots() : 0;
+            expected.merge(key(null, row.getChargingType(), TOTAL), row.getSlots(), Long::sum);
+            expected.merge(key(null, row.getChargingType(), RESERVED), reserved, Long::sum);
+            if (row.getStationId() != null) {
+                expected.merge(key(row.getStationId(), row.getChargingType(), TOTAL), row.getSlots(), Long::sum);
+                expected.merge(key(row.getStationId(), row.getChargingType(), RESERVED), reserved, Long::sum);
+            }
+        }
+
+        // Fleet-wide keys also catch counters left behind for stations that no longer have slots
+        Map<String, Long> drift = new HashMap<>();
+        for (Map.Entry<String, Long> entry : expected.entrySet()) {
+            String[] parts = entry.getKey().split(":");
+            Long stationId = FLEET.equals(parts[0]) ? null : Long.valueOf(parts[0]);
+            ChargingType type = ChargingType.valueOf(parts[1]);
+            long actual = TOTAL.equals(parts[2]) ? total(stationId, type) : reserved(stationId, type);
+            if (actual != entry.getValue()) {
+                drift.put(entry.getKey(), actual - entry.getValue());
+            }
+        }
+
+        if (!drift.isEmpty() && drift.equals(pendingSlotDrift)) {
+            log.warn("Slot occupancy drifted from the database {}, reloading read models", drift);
+            readModelUpdater.load();
+            pendingSlotDrift = Map.of();
+        } else {
+            pendingSlotDrift = drift;
+        }
+    }
+
+    private long total(Long stationId, ChargingType type) {
+        return stationId == null ? occupancy.total(type) : occupancy.total(stationId, type);
+    }
+
+    private long reserved(Long stationId, ChargingType type) {
+        return stationId == null ? occupancy.reserved(type) : occupancy.reserved(stationId, type);
+    }
+
+    private void reconcileReservations() {
+        long expected = reservationRepository.countByStatus(ReservationStatus.ACTIVE);
+        Long drift = occupancy.activeReservations() != expected ? occupancy.activeReservations() - expected : null;
+        if (drift != null && Objects.equals(drift, pendingReservationDrift)) {
+            log.warn("Active reservation count drifted from the database by {}, resetting to {}", drift, expected);
+            occupancy.resetActiveReservations(expected);
+            pendingReservationDrift = null;
+        } else {
+            pendingReservationDrift = drift;
+        }
+    }
+
+    private static String key(Long stationId, ChargingType type, String counter) {
+        return (stationId == null ? FLEET : stationId.toString()) + ":" + type + ":" + counter;
+    }
+}
@@ -0,0 +1,13 @@
+package ua.tqs.services;
+
+/**
+ * The requested reservation overlaps an active one on the same slot, or one of the same user.
+ * Raised by the in-memory check or, across backend instances, by the database's exclusion
+ * constraint.
+ */
+public class ReservationConflictException extends RuntimeException {
+
+    public ReservationConflictException(String message) {
+        super(message);
+    }
+}
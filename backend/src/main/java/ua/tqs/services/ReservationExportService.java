@@ -0,0 +1,109 @@
+package ua.tqs.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ua.tqs.dto.ReservationResponseDTO;
+import ua.tqs.repositories.ReservationRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Full reservation exports written row by row while the database cursor advances, so memory
+ * use does not depend on how many reservations there are. Both methods open their own read-only
+ * transaction and are meant to be called from a {@code StreamingResponseBody}.
+ */
+@Service
+public class ReservationExportService {
+
+    private static final String CSV_HEADER = "id,userId,userEmail,userName,slotId,state,consumptionKWh,totalCost,paid,"
+            + "stationLocation,slotLabel,chargingType,createdAt,startTime,durationMinutes";
+
+    private final ReservationRepository reservationRepository;
+    private final ObjectWriter rowWriter;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ReservationExportService(ReservationRepository reservationRepository, ObjectMapper objectMapper) {
+        this.reservationRepository = reservationRepository;
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writerFor(ReservationResponseDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+    }
+
+    /** One JSON object per line (application/x-ndjson). */
+    @Transactional(readOnly = true)
+    public void writeNdjson(OutputStream out) throws IOException {
+        try (Stream<ReservationResponseDTO> rows = reservationRepository.streamAllResponses();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<ReservationResponseDTO> iterator = rows.iterator();
+            boolean any = false;
+            while (iterator.hasNext()) {
+                rowWriter.writeValue(generator, iterator.next());
+                any = true;
+            }
+            if (any) {
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    /** RFC 4180 CSV with a header row. */
+    @Transactional(readOnly = true)
+    public void writeCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        try (Stream<ReservationResponseDTO> rows = reservationRepository.streamAllResponses()) {
+            rows.forEach(row -> writeCsvRow(writer, row));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvRow(Writer writer, ReservationResponseDTO row) {
+        Object[] values = {
+                row.getId(), row.getUserId(), row.getUserEmail(), row.getUserName(), row.getSlotId(),
+                row.getState(), row.getConsumptionKWh(), row.getTotalCost(), row.isPaid(),
+                row.getStationLocation(), row.getSlotLabel(), row.getChargingType(), row.getCreatedAt(),
+                row.getStartTime(), row.getDurationMinutes()
+        };
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvField(values[i]));
+            }
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,205 @@
+package ua.tqs.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ua.tqs.dto.ReservationHoldDTO;
+import ua.tqs.dto.ReservationRequestDTO;
+import ua.tqs.index.ReservationIntervals;
+import ua.tqs.index.TimingWheel;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Short holds on a (slot, window), taken while a driver fills in the booking form so that nobody
+ * else books the window meanwhile. A hold lasts {@code reservations.holds.ttl-seconds}; holding
+ * the same window again renews it under the same id, so a retried request is harmless. Booking
+ * the window consumes the user's hold, and bookings by anyone else that overlap a live hold are
+ * refused as a conflict.
+ * <p>
+ * Holds live in this instance only and expire through a {@link TimingWheel} of seconds, so a
+ * sweep touches only the holds that are due. Placing one takes the slot's booking lock, the same
+ * lock under which bookings check the holds.
+ */
+@Service
+public class ReservationHolds {
+
+    static final int MAX_HOLDS_PER_USER = 3;
+
+    private final ReservationIntervals reservationIntervals;
+    private final BookingLocks bookingLocks;
+    private final Duration ttl;
+
+    /** Guarded by {@code this}, as are the wheel and the per-slot and per-user lists. */
+    private final Map<String, Hold> byId = new HashMap<>();
+    private final Map<Long, List<Hold>> bySlot = new HashMap<>();
+    private final Map<Long, List<Hold>> byUser = new HashMap<>();
+    private final TimingWheel<Hold> wheel = new TimingWheel<>(Instant.now().getEpochSecond());
+
+    @Autowired
+    public ReservationHolds(ReservationIntervals reservationIntervals, BookingLocks bookingLocks,
+                            @Value("${reservations.holds.ttl-seconds:300}") long ttlSeconds) {
+        this.reservationIntervals = reservationIntervals;
+        this.bookingLocks = bookingLocks;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    /**
+     * Holds the window for the user, or renews the user's hold on it; empty when the window is
+     * reserved or held by someone else.
+     *
+     * @throws IllegalArgumentException when the request is incomplete or the user has too many holds
+     */
+    public Optional<ReservationHoldDTO> place(ReservationRequestDTO dto) {
+        return place(dto, Instant.now());
+    }
+
+    public Optional<ReservationHoldDTO> place(ReservationRequestDTO dto, Instant now) {
+        if (dto.getSlotId() == null || dto.getUserId() == null || dto.getStartTime() == null
+                || dto.getDurationMinutes() == null || dto.getDurationMinutes() <= 0) {
+            throw new IllegalArgumentException("slotId, userId, startTime and a positive durationMinutes are required");
+        }
+        LocalDateTime start = dto.getStartTime();
+        LocalDateTime end = start.plusMinutes(dto.getDurationMinutes());
+        return bookingLocks.withSlotLocks(List.of(dto.getSlotId()), () -> {
+            if (reservationIntervals.slotOverlaps(dto.getSlotId(), start, end)) {
+                return Optional.empty();
+            }
+            return hold(dto.getSlotId(), dto.getUserId(), start, end, now).map(Hold::view);
+        });
+    }
+
+    /** Drops the user's hold; false when there is no such hold for that user. */
+    public synchronized boolean release(String holdId, Long userId) {
+        Hold hold = byId.get(holdId);
+        if (hold == null || !hold.userId.equals(userId)) {
+            return false;
+        }
+        remove(hold);
+        return true;
+    }
+
+    /** Whether a live hold by another user overlaps the window; call under the slot's booking lock. */
+    public boolean heldByOther(Long slotId, Long userId, LocalDateTime start, LocalDateTime end) {
+        return heldByOther(slotId, userId, seconds(start), seconds(end), Instant.now().getEpochSecond());
+    }
+
+    /** Drops the user's holds on the slot that overlap the booked window. */
+    public synchronized void consume(Long slotId, Long userId, LocalDateTime start, LocalDateTime end) {
+        List<Hold> holds = bySlot.get(slotId);
+        if (holds == null) {
+            return;
+        }
+        long from = seconds(start);
+        long to = seconds(end);
+        for (Hold hold : List.copyOf(holds)) {
+            if (hold.userId.equals(userId) && hold.overlaps(from, to)) {
+                remove(hold);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reservations.holds.sweep-ms:1000}")
+    public void sweep() {
+        expireDue(Instant.now());
+    }
+
+    /** Drops every hold expired by {@code now}; returns how many. */
+    public synchronized int expireDue(Instant now) {
+        List<Hold> due = new ArrayList<>();
+        wheel.advance(now.getEpochSecond(), hold -> {
+            // A renewed or released hold leaves its old entry behind
+            if (byId.get(hold.id) == hold) {
+                due.add(hold);
+            }
+        });
+        due.forEach(this::remove);
+        return due.size();
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    private synchronized Optional<Hold> hold(Long slotId, Long userId, LocalDateTime start, LocalDateTime end,
+                                             Instant now) {
+        long from = seconds(start);
+        long to = seconds(end);
+        long nowSeconds = now.getEpochSecond();
+        if (heldByOther(slotId, userId, from, to, nowSeconds)) {
+            return Optional.empty();
+        }
+        String id = null;
+        for (Hold mine : byUser.getOrDefault(userId, List.of())) {
+            if (mine.slotId.equals(slotId) && mine.start == from && mine.end == to) {
+                id = mine.id;
+                remove(mine);
+                break;
+            }
+        }
+        if (id == null && byUser.getOrDefault(userId, List.of()).size() >= MAX_HOLDS_PER_USER) {
+            throw new IllegalArgumentException("At most " + MAX_HOLDS_PER_USER + " holds at a time");
+        }
+        Hold hold = new Hold(id != null ? id : UUID.randomUUID().toString(), slotId, userId, start, from, to,
+                nowSeconds + ttl.toSeconds());
+        byId.put(hold.id, hold);
+        bySlot.computeIfAbsent(slotId, key -> new ArrayList<>()).add(hold);
+        byUser.computeIfAbsent(userId, key -> new ArrayList<>()).add(hold);
+        wheel.schedule(hold.expiresAt, hold);
+        return Optional.of(hold);
+    }
+
+    /** Holds past their expiry count as gone even before the sweep has dropped them. */
+    private synchronized boolean heldByOther(Long slotId, Long userId, long from, long to, long now) {
+        for (Hold hold : bySlot.getOrDefault(slotId, List.of())) {
+            if (!hold.userId.equals(userId) && hold.expiresAt > now && hold.overlaps(from, to)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void remove(Hold hold) {
+        byId.remove(hold.id);
+        removeFrom(bySlot, hold.slotId, hold);
+        removeFrom(byUser, hold.userId, hold);
+    }
+
+    private static void removeFrom(Map<Long, List<Hold>> index, Long key, Hold hold) {
+        List<Hold> holds = index.get(key);
+        if (holds != null) {
+            holds.remove(hold);
+            if (holds.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /** Times in epoch seconds; the window is closed, as in {@link ReservationIntervals}. */
+    private record Hold(String id, Long slotId, Long userId, LocalDateTime startTime, long start, long end,
+                        long expiresAt) {
+
+        boolean overlaps(long from, long to) {
+            return start <= to && from <= end;
+        }
+
+        ReservationHoldDTO view() {
+            return new ReservationHoldDTO(id, slotId, startTime, (int) ((end - start) / 60),
+                    Instant.ofEpochSecond(expiresAt));
+        }
+    }
+}
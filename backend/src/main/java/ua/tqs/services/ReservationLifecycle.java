@@ -0,0 +1,177 @@
+package ua.tqs.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.events.ReservationChangedEvent;
+import ua.tqs.events.SlotChangedEvent;
+import ua.tqs.index.TimingWheel;
+import ua.tqs.models.Slot;
+import ua.tqs.repositories.ReservationRepository;
+import ua.tqs.repositories.SlotRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Ends reservations when their window is over: each ACTIVE reservation is scheduled at its end
+ * minute in a {@link TimingWheel}, and a periodic tick marks the expired ones FINISHED and frees
+ * their slots, a batch at a time, with one bulk update each instead of a scan of the table. A slot
+ * stays reserved while another ACTIVE reservation holds it.
+ * <p>
+ * The schedule is loaded at startup from the ACTIVE reservations, through the partial index on
+ * them, and then follows {@link ReservationChangedEvent}s: a canceled or rescheduled reservation
+ * is simply dropped when its old entry expires. Several instances may finish the same
+ * reservation; the updates are guarded by status, so only the first one changes anything.
+ */
+@Service
+public class ReservationLifecycle {
+
+    static final int BATCH_SIZE = 500;
+
+    private final ReservationRepository reservationRepository;
+    private final SlotRepository slotRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingLocks bookingLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter finishedReservations;
+
+    /** The live entry of each scheduled reservation; guarded by {@code this}, as is the wheel. */
+    private final Map<Long, Ending> scheduled = new HashMap<>();
+    private TimingWheel<Ending> wheel = new TimingWheel<>(minute(LocalDateTime.now()));
+
+    @Autowired
+    public ReservationLifecycle(ReservationRepository reservationRepository, SlotRepository slotRepository,
+                                ApplicationEventPublisher eventPublisher, BookingLocks bookingLocks,
+                                TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.reservationRepository = reservationRepository;
+        this.slotRepository = slotRepository;
+        this.eventPublisher = eventPublisher;
+        this.bookingLocks = bookingLocks;
+        this.transactionTemplate = transactionTemplate;
+        this.finishedReservations = Counter.builder("reservations.finished")
+                .description("Number of reservations finished at the end of their window")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        scheduled.clear();
+        wheel = new TimingWheel<>(minute(LocalDateTime.now()));
+        for (ReservationRepository.ReservationInterval interval
+                : reservationRepository.findIntervalsByStatus(ReservationStatus.ACTIVE)) {
+            schedule(new Ending(interval.getId(), interval.getSlotId(), interval.getUserId(),
+                    interval.getStartTime(), interval.getDurationMinutes()));
+        }
+    }
+
+    @EventListener
+    public synchronized void onReservationChanged(ReservationChangedEvent event) {
+        if (event.getStatus() == ReservationStatus.ACTIVE) {
+            schedule(new Ending(event.getReservationId(), event.getSlotId(), event.getUserId(),
+                    event.getStartTime(), event.getDurationMinutes()));
+        } else {
+            scheduled.remove(event.getReservationId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reservations.lifecycle.tick-ms:15000}")
+    public void tick() {
+        finishDue(LocalDateTime.now());
+    }
+
+    /** Finishes every reservation that has ended by {@code now}; returns how many. */
+    public int finishDue(LocalDateTime now) {
+        List<Ending> due = expire(now);
+        int finished = 0;
+        for (int from = 0; from < due.size(); from += BATCH_SIZE) {
+            finished += finish(due.subList(from, Math.min(from + BATCH_SIZE, due.size())));
+        }
+        return finished;
+    }
+
+    public synchronized int scheduledCount() {
+        return scheduled.size();
+    }
+
+    private void schedule(Ending ending) {
+        if (ending.startTime() == null) {
+            return;
+        }
+        scheduled.put(ending.reservationId(), ending);
+        wheel.schedule(ending.tick(), ending);
+    }
+
+    private synchronized List<Ending> expire(LocalDateTime now) {
+        List<Ending> due = new ArrayList<>();
+        wheel.advance(minute(now), ending -> {
+            if (scheduled.get(ending.reservationId()) == ending) {
+                due.add(ending);
+            }
+        });
+        return due;
+    }
+
+    /** Under the locks of the slots, so no booking or cancel of them runs in between. */
+    private int finish(List<Ending> batch) {
+        Collection<Long> slotIds = batch.stream().map(Ending::slotId).collect(Collectors.toCollection(TreeSet::new));
+        return bookingLocks.withSlotLocks(slotIds, () -> {
+            // A cancel may have got in since the wheel handed them over
+            List<Ending> ending = stillScheduled(batch);
+            if (ending.isEmpty()) {
+                return 0;
+            }
+            List<Long> ids = ending.stream().map(Ending::reservationId).toList();
+            List<Slot> released = transactionTemplate.execute(status -> {
+                reservationRepository.updateStatus(ids, ReservationStatus.ACTIVE, ReservationStatus.FINISHED);
+                if (slotRepository.releaseAll(slotIds) == 0) {
+                    return List.<Slot>of();
+                }
+                return slotRepository.findAllById(slotIds).stream().filter(slot -> !slot.isReserved()).toList();
+            });
+            // Only committed changes reach the read models
+            released.forEach(slot -> eventPublisher.publishEvent(SlotChangedEvent.saved(slot)));
+            ending.forEach(end -> eventPublisher.publishEvent(end.finished()));
+            finishedReservations.increment(ending.size());
+            return ending.size();
+        });
+    }
+
+    private synchronized List<Ending> stillScheduled(List<Ending> batch) {
+        return batch.stream().filter(ending -> scheduled.get(ending.reservationId()) == ending).toList();
+    }
+
+    /** Minutes since the epoch, rounded down; reservation times carry no zone, so UTC is as good as any. */
+    private static long minute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private record Ending(Long reservationId, Long slotId, Long userId, LocalDateTime startTime,
+                          Integer durationMinutes) {
+
+        /** The first minute at or after the end of the window. */
+        long tick() {
+            LocalDateTime end = startTime.plusMinutes(durationMinutes != null ? durationMinutes : 0);
+            return Math.floorDiv(end.toEpochSecond(ZoneOffset.UTC) + 59, 60);
+        }
+
+        ReservationChangedEvent finished() {
+            return new ReservationChangedEvent(reservationId, slotId, userId, startTime, durationMinutes,
+                    ReservationStatus.FINISHED);
+        }
+    }
+}
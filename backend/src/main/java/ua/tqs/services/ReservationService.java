@@ -4,8 +4,16 @@ import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ua.tqs.dto.BookingTargetDTO;
 import ua.tqs.dto.ClientStatsDTO;
+import ua.tqs.events.ReservationChangedEvent;
+import ua.tqs.events.SlotChangedEvent;
+import ua.tqs.index.ReservationIntervals;
+import ua.tqs.index.TariffTable;
 import ua.tqs.login.JwtUtil;
 import ua.tqs.models.*;
 import ua.tqs.enums.ReservationStatus;
@@ -15,23 +23,33 @@ import ua.tqs.repositories.UserRepository;
 import ua.tqs.dto.ReservationRequestDTO;
 import ua.tqs.dto.ReservationResponseDTO;
 
+import java.sql.SQLException;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.temporal.WeekFields;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import java.time.LocalDateTime;
 
 @Service
 public class ReservationService {
+        /** PostgreSQL's SQLSTATE for a violated exclusion constraint. */
+        private static final String EXCLUSION_VIOLATION = "23P01";
+
         private final MeterRegistry meterRegistry;
         private final ReservationRepository reservationRepository;
         private final SlotRepository slotRepository;
         private final UserRepository userRepository;
         private final JwtUtil jwtUtil;
-        private final Counter activeReservations;
+        private final ApplicationEventPublisher eventPublisher;
+        private final ReservationIntervals reservationIntervals;
+        private final TariffTable tariffTable;
+        private final BookingLocks bookingLocks;
+        private final ReservationHolds reservationHolds;
+        private final TransactionTemplate transactionTemplate;
         private final Counter canceledReservations;
         private final Timer reservationCreationTimer;
 
@@ -40,18 +58,26 @@ public class ReservationService {
                         ReservationRepository reservationRepository,
                         SlotRepository slotRepository,
                         UserRepository userRepository,
-                        JwtUtil jwtUtil) {
+                        JwtUtil jwtUtil,
+                        ApplicationEventPublisher eventPublisher,
+                        ReservationIntervals reservationIntervals,
+                        TariffTable tariffTable,
+                        BookingLocks bookingLocks,
+                        ReservationHolds reservationHolds,
+                        TransactionTemplate transactionTemplate) {
                 this.meterRegistry = meterRegistry;
                 this.reservationRepository = reservationRepository;
                 this.slotRepository = slotRepository;
                 this.userRepository = userRepository;
                 this.jwtUtil = jwtUtil;
+                this.eventPublisher = eventPublisher;
+                this.reservationIntervals = reservationIntervals;
+                this.tariffTable = tariffTable;
+                this.bookingLocks = bookingLocks;
+                this.reservationHolds = reservationHolds;
+                this.transactionTemplate = transactionTemplate;
 
 
-                this.activeReservations = Counter.builder("reservations.active")
-                                .description("Number of active reservations")
-                                .register(meterRegistry);
-
                 this.canceledReservations = Counter.builder("reservations.canceled")
                                 .description("Number of canceled reservations")
                                 .register(meterRegistry);
@@ -61,29 +87,7 @@ public class ReservationService {
                                 .register(meterRegistry);
         }
 
-        private Optional<ReservationResponseDTO> validateAndGetEntities(ReservationRequestDTO dto) {
-                Optional<User> userOpt = userRepository.findById(dto.getUserId());
-                if (userOpt.isEmpty()) {
-                        return Optional.empty();
-                }
-
-                Optional<Slot> slotOpt = slotRepository.findById(dto.getSlotId());
-                if (slotOpt.isEmpty() || slotRepository.existsByIdAndReservedTrue(dto.getSlotId())) {
-                        return Optional.empty();
-                }
-
-                return Optional.of(new ReservationResponseDTO());
-        }
-
-        private boolean checkTimeOverlap(List<Reservation> reservations, LocalDateTime newStart, LocalDateTime newEnd) {
-                return reservations.stream().anyMatch(r -> {
-                        LocalDateTime existingStart = r.getStartTime();
-                        LocalDateTime existingEnd = existingStart.plusMinutes(r.getDurationMinutes());
-                        return !(existingEnd.isBefore(newStart) || existingStart.isAfter(newEnd));
-                });
-        }
-
-        private ReservationResponseDTO createResponseDTO(Reservation saved, Slot slot) {
+        private ReservationResponseDTO createResponseDTO(Reservation saved, BookingTargetDTO slot) {
                 ReservationResponseDTO response = new ReservationResponseDTO();
                 response.setId(saved.getId());
                 response.setUserId(saved.getUser().getId());
@@ -94,69 +98,145 @@ public class ReservationService {
                 response.setPaid(saved.isPaid());
                 response.setStartTime(saved.getStartTime());
                 response.setDurationMinutes(saved.getDurationMinutes());
-                response.setStationLocation(slot.getStation().getName());
+                response.setStationLocation(slot.getStationName());
                 response.setSlotLabel(slot.getName());
                 response.setChargingType(slot.getChargingType().name());
                 response.setCreatedAt(saved.getCreationDate());
                 return response;
         }
 
+        /**
+         * Books under the stripe locks of the slot and the user, in one transaction that commits
+         * before the locks are released, so the overlap check and the insert are atomic with
+         * respect to any other booking of the same slot or by the same user on this instance.
+         * Across instances the {@code reservations_no_overlap} exclusion constraint rejects the
+         * insert instead. Either way an overlap surfaces as {@link ReservationConflictException}, as
+         * does a window held by another user (see {@link ReservationHolds}); the user's own hold on
+         * the window is consumed by the booking. Empty when the request is incomplete or the slot or
+         * the user does not exist; any other failure is counted and rethrown.
+         */
         public Optional<ReservationResponseDTO> createReservation(ReservationRequestDTO dto) {
+                return createReservation(dto, reservation -> {
+                });
+        }
+
+        /**
+         * As {@link #createReservation(ReservationRequestDTO)}, running {@code onBooked} with the
+         * response inside the booking's transaction, so what it writes commits or rolls back with
+         * the reservation.
+         */
+        public Optional<ReservationResponseDTO> createReservation(ReservationRequestDTO dto,
+                        Consumer<ReservationResponseDTO> onBooked) {
+                if (dto.getSlotId() == null || dto.getUserId() == null || dto.getStartTime() == null
+                                || dto.getDurationMinutes() == null || dto.getConsumptionKWh() == null) {
+                        return Optional.empty();
+                }
                 return reservationCreationTimer.record(() -> {
                         try {
-                                if (validateAndGetEntities(dto).isEmpty()) {
-                                        return Optional.empty();
+                                return bookingLocks.withLocks(dto.getSlotId(), dto.getUserId(), () -> {
+                                        Booking booking = transactionTemplate.execute(status -> {
+                                                Booking booked = book(dto);
+                                                if (booked != null) {
+                                                        onBooked.accept(booked.response());
+                                                }
+                                                return booked;
+                                        });
+                                        if (booking == null) {
+                                                return Optional.<ReservationResponseDTO>empty();
+                                        }
+                                        Reservation saved = booking.reservation();
+                                        reservationHolds.consume(dto.getSlotId(), dto.getUserId(), saved.getStartTime(),
+                                                        saved.getStartTime().plusMinutes(saved.getDurationMinutes()));
+                                        // Only committed changes reach the read models
+                                        eventPublisher.publishEvent(new SlotChangedEvent(booking.slot().getId(),
+                                                        booking.slot().toSnapshot(true)));
+                                        eventPublisher.publishEvent(ReservationChangedEvent.of(booking.reservation()));
+                                        return Optional.of(booking.response());
+                                });
+                        } catch (ReservationConflictException e) {
+                                throw e;
+                        } catch (RuntimeException e) {
+                                if (isExclusionViolation(e)) {
+                                        throw new ReservationConflictException("Slot is already reserved for that time");
                                 }
+                                meterRegistry.counter("reservations.errors").increment();
+                                throw e;
+                        }
+                });
+        }
 
-                                Optional<Slot> slotOpt = slotRepository.findById(dto.getSlotId());
-                                Slot slot = slotOpt.get();
-                                Optional<User> userOpt = userRepository.findById(dto.getUserId());
+        /**
+         * At most three statements: one select for the slot, its station and the user's existence,
+         * an update that flags the slot reserved unless it already is, and the insert. The user and
+         * the slot are attached as references, so neither is loaded. A slot is booked per window,
+         * so the flag only says it has active reservations and never refuses a booking. {@code null}
+         * when the slot or the user does not exist.
+         */
+        private Booking book(ReservationRequestDTO dto) {
+                Optional<BookingTargetDTO> targetOpt = slotRepository.findBookingTarget(dto.getSlotId(), dto.getUserId());
+                if (targetOpt.isEmpty() || !targetOpt.get().isUserExists()) {
+                        return null;
+                }
+                BookingTargetDTO target = targetOpt.get();
 
-                                LocalDateTime newStart = dto.getStartTime();
-                                LocalDateTime newEnd = newStart.plusMinutes(dto.getDurationMinutes());
+                LocalDateTime newStart = dto.getStartTime();
+                LocalDateTime newEnd = newStart.plusMinutes(dto.getDurationMinutes());
 
-                                // Check slot availability
-                                List<Reservation> slotReservations = reservationRepository.findBySlot_IdAndStatus(
-                                        dto.getSlotId(), ReservationStatus.ACTIVE);
-                                if (checkTimeOverlap(slotReservations, newStart, newEnd)) {
-                                        return Optional.empty();
-                                }
+                // Fast path for conflicts this instance already knows about; the database has the final word
+                if (reservationIntervals.slotOverlaps(dto.getSlotId(), newStart, newEnd)) {
+                        throw new ReservationConflictException("Slot is already reserved for that time");
+                }
+                if (reservationIntervals.userOverlaps(dto.getUserId(), newStart, newEnd)) {
+                        throw new ReservationConflictException("You already have a reservation at that time");
+                }
+                if (reservationHolds.heldByOther(dto.getSlotId(), dto.getUserId(), newStart, newEnd)) {
+                        throw new ReservationConflictException("Slot is held by another driver for that time");
+                }
 
-                                // Check user availability
-                                List<Reservation> userReservations = reservationRepository.findByUser_IdAndStatus(
-                                        dto.getUserId(), ReservationStatus.ACTIVE);
-                                if (checkTimeOverlap(userReservations, newStart, newEnd)) {
-                                        return Optional.empty();
-                                }
+                if (!target.isReserved()) {
+                        // Zero rows when another booking flagged it since the read, which is as good
+                        slotRepository.reserve(dto.getSlotId());
+                }
 
-                                slot.setReserved(true);
-                                slotRepository.save(slot);
-
-                                Station station = slot.getStation();
-                                double discount = station.isDiscountActive() ? station.getDiscountValue() : 0.0;
-                                double basePrice = dto.getPricePerKWh() * dto.getConsumptionKWh();
-
-                                Reservation reservation = new Reservation();
-                                reservation.setUser(userOpt.get());
-                                reservation.setSlot(slot);
-                                reservation.setStatus(ReservationStatus.ACTIVE);
-                                reservation.setCreationDate(LocalDateTime.now());
-                                reservation.setStartTime(dto.getStartTime());
-                                reservation.setStartDate(dto.getStartTime().toLocalDate());
-                                reservation.setDurationMinutes(dto.getDurationMinutes());
-                                reservation.setConsumptionKWh(dto.getConsumptionKWh());
-                                reservation.setTotalCost(basePrice * (1 - discount));
-                                reservation.setPaid(false);
-
-                                Reservation saved = reservationRepository.save(reservation);
-                                return Optional.of(createResponseDTO(saved, slot));
-                        } catch (Exception e) {
-                                meterRegistry.counter("reservations.errors").increment();
-                                return Optional.empty();
+                // Priced from the tariff tables; the client's pricePerKWh is not trusted
+                TariffTable.Price price = tariffTable.quote(target.getChargingType(), target.getStationId(),
+                                newStart, dto.getDurationMinutes(), dto.getConsumptionKWh());
+
+                Reservation reservation = new Reservation();
+                reservation.setUser(userRepository.getReferenceById(dto.getUserId()));
+                reservation.setSlot(slotRepository.getReferenceById(dto.getSlotId()));
+                reservation.setStatus(ReservationStatus.ACTIVE);
+                reservation.setCreationDate(LocalDateTime.now());
+                reservation.setStartTime(dto.getStartTime());
+                reservation.setStartDate(dto.getStartTime().toLocalDate());
+                reservation.setDurationMinutes(dto.getDurationMinutes());
+                reservation.setConsumptionKWh(dto.getConsumptionKWh());
+                reservation.setTotalCost(price.totalCost());
+                reservation.setPaid(false);
+
+                Reservation saved = reservationRepository.save(reservation);
+                // Flush here so an exclusion violation is raised inside the locks, not at commit
+                reservationRepository.flush();
+                return new Booking(saved, target, createResponseDTO(saved, target));
+        }
+
+        private record Booking(Reservation reservation, BookingTargetDTO slot, ReservationResponseDTO response) {
+        }
+
+        /** Also follows {@link SQLException#getNextException()}, where JDBC batches report the failed row. */
+        static boolean isExclusionViolation(Throwable error) {
+                for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+                        for (SQLException sql = cause instanceof SQLException e ? e : null; sql != null;
+                                        sql = sql.getNextException()) {
+                                if (EXCLUSION_VIOLATION.equals(sql.getSQLState())) {
+                                        return true;
+                                }
                         }
-                });
+                }
+                return false;
         }
 
+        /** Takes the same locks as booking, so a cancel never undoes a concurrent booking's slot flag. */
         public boolean cancelReservation(Long reservationId) {
                 Optional<Reservation> reservationOpt = reservationRepository.findById(reservationId);
 
@@ -165,47 +245,57 @@ public class ReservationService {
                         return false;
                 }
 
+                Reservation found = reservationOpt.get();
+                return bookingLocks.withLocks(found.getSlot().getId(), found.getUser().getId(), () -> {
+                        Reservation canceled = transactionTemplate.execute(status -> cancel(reservationId));
+                        if (canceled == null) {
+                                return false;
+                        }
+                        eventPublisher.publishEvent(SlotChangedEvent.saved(canceled.getSlot()));
+                        eventPublisher.publishEvent(ReservationChangedEvent.of(canceled));
+                        canceledReservations.increment();
+                        return true;
+                });
+        }
+
+        private Reservation cancel(Long reservationId) {
+                // Re-read under the lock: another cancel may have won the race
+                Optional<Reservation> reservationOpt = reservationRepository.findById(reservationId);
+                if (reservationOpt.isEmpty() ||
+                                reservationOpt.get().getStatus() != ReservationStatus.ACTIVE) {
+                        return null;
+                }
+
                 Reservation reservation = reservationOpt.get();
                 Slot slot = reservation.getSlot();
-                slot.setReserved(false);
+                // A slot booked for a series stays reserved until its last active reservation goes
+                slot.setReserved(reservationRepository.existsBySlot_IdAndStatusAndIdNot(
+                                slot.getId(), ReservationStatus.ACTIVE, reservationId));
                 slotRepository.save(slot);
 
                 reservation.setStatus(ReservationStatus.CANCELED);
                 reservationRepository.save(reservation);
-
-                activeReservations.increment(-1);
-                canceledReservations.increment();
-
-                return true;
+                return reservation;
         }
 
-        public List<ReservationResponseDTO> getReservationsByToken(String token) {
-                String email = jwtUtil.getUsername(token);
-                Optional<User> userOpt = userRepository.findByEmail(email);
-
-                if (userOpt.isEmpty()) {
+        /**
+         * A keyset page of the token user's reservations, optionally only those with
+         * {@code status} and starting in {@code [from, to)}; one statement for the page.
+         */
+        public List<ReservationResponseDTO> getReservationsByToken(String token, ReservationStatus status,
+                        LocalDateTime from, LocalDateTime to, long after, int limit) {
+                if (from != null && to != null && !from.isBefore(to)) {
+                        throw new IllegalArgumentException("from must be before to");
+                }
+                // Tokens carry the user id; only older ones without it need the lookup by email
+                Long userId = jwtUtil.getUserId(token);
+                if (userId == null) {
+                        userId = userRepository.findByEmail(jwtUtil.getUsername(token)).map(User::getId).orElse(null);
+                }
+                if (userId == null) {
                         return List.of();
                 }
-
-                List<Reservation> reservations = reservationRepository.findByUser(userOpt.get());
-
-                return reservations.stream().map(reservation -> {
-                        ReservationResponseDTO dto = new ReservationResponseDTO();
-                        dto.setId(reservation.getId());
-                        dto.setUserId(reservation.getUser().getId());
-                        dto.setSlotId(reservation.getSlot().getId());
-                        dto.setState(reservation.getStatus().name());
-                        dto.setConsumptionKWh(reservation.getConsumptionKWh());
-                        dto.setTotalCost(reservation.getTotalCost());
-                        dto.setPaid(reservation.isPaid());
-                        dto.setStationLocation(reservation.getSlot().getStation().getName());
-                        dto.setSlotLabel(reservation.getSlot().getName());
-                        dto.setChargingType(reservation.getSlot().getChargingType().name());
-                        dto.setStartTime(reservation.getStartTime());
-                        dto.setDurationMinutes(reservation.getDurationMinutes());
-
-                        return dto;
-                }).toList();
+                return reservationRepository.findResponsesByUser(userId, after, status, from, to, Limit.of(limit));
         }
 
         public double getTotalRevenue() {
@@ -214,8 +304,8 @@ public class ReservationService {
                                 .sum();
         }
 
-        public List<ReservationResponseDTO> getAllReservations() {
-                return reservationRepository.findAll().stream().map(reservation -> {
+        public List<ReservationResponseDTO> getAllReservations(long after, int limit) {
+                return reservationRepository.findPageAfter(after, Limit.of(limit)).stream().map(reservation -> {
                         ReservationResponseDTO dto = new ReservationResponseDTO();
                         dto.setId(reservation.getId());
                         dto.setUserId(reservation.getUser().getId());
@@ -0,0 +1,332 @@
+package ua.tqs.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ua.tqs.dto.SlotDTO;
+import ua.tqs.dto.SlotImportReportDTO;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.index.SlotReadModelUpdater;
+import ua.tqs.models.Station;
+import ua.tqs.repositories.SlotRepository;
+import ua.tqs.repositories.StationRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk slot onboarding from CSV or NDJSON. The upload is read line by line. Name uniqueness is
+ * checked against an in-memory set of the existing names, and stations are resolved from a map
+ * loaded once, with missing ones created on first sight. Valid rows are written with plain JDBC
+ * batches, one transaction per chunk, because the {@code IDENTITY} ids of {@link ua.tqs.models.Slot}
+ * rule out Hibernate's insert batching. A bad row is reported by line and does not stop the import.
+ * <p>
+ * The read models are reloaded once at the end instead of receiving one event per slot.
+ */
+@Service
+public class SlotImportService {
+
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_SLOT = "insert into slots "
+            + "(name, station_id, reserved, charging_type, power, latitude, longitude) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final List<String> CSV_COLUMNS =
+            List.of("name", "stationname", "chargingtype", "power", "latitude", "longitude", "reserved");
+
+    private final SlotRepository slotRepository;
+    private final StationRepository stationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SlotReadModelUpdater readModelUpdater;
+    private final ObjectReader rowReader;
+
+    @Autowired
+    public SlotImportService(SlotRepository slotRepository, StationRepository stationRepository,
+                             JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             SlotReadModelUpdater readModelUpdater, ObjectMapper objectMapper) {
+        this.slotRepository = slotRepository;
+        this.stationRepository = stationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.readModelUpdater = readModelUpdater;
+        this.rowReader = objectMapper.readerFor(SlotDTO.class);
+    }
+
+    /**
+     * CSV with a header row naming the columns: name, stationName, chargingType, power, latitude,
+     * longitude and an optional reserved.
+     */
+    public SlotImportReportDTO importCsv(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV header is missing");
+        }
+        int[] columns = csvColumns(parseCsvLine(stripBom(header)));
+
+        Import run = new Import();
+        String line;
+        long lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                run.add(lineNumber, csvRow(parseCsvLine(line), columns));
+            } catch (IllegalArgumentException e) {
+                run.reject(lineNumber, e.getMessage());
+            }
+        }
+        return run.finish();
+    }
+
+    /** One JSON object per line, with the fields of {@link SlotDTO}. */
+    public SlotImportReportDTO importNdjson(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Import run = new Import();
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                run.add(lineNumber, rowReader.readValue(line));
+            } catch (JsonProcessingException e) {
+                run.reject(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        return run.finish();
+    }
+
+    /** State of one import: the names and stations seen so far, the pending chunk and the report. */
+    private final class Import {
+        private final Set<String> names = new HashSet<>(slotRepository.findAllNames());
+        private final Map<String, Long> stations = new HashMap<>();
+        private final List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final List<SlotImportReportDTO.RowError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+        private int stationsCreated;
+
+        private Import() {
+            for (Station station : stationRepository.findAll()) {
+                stations.putIfAbsent(station.getName(), station.getId());
+            }
+        }
+
+        void add(long line, SlotDTO slot) {
+            String error = validate(slot);
+            if (error != null) {
+                reject(line, error);
+                return;
+            }
+            names.add(slot.getName());
+            chunk.add(new Row(line, slot));
+            if (chunk.size() == CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void reject(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new SlotImportReportDTO.RowError(line, message));
+            }
+        }
+
+        SlotImportReportDTO finish() {
+            flush();
+            if (imported > 0) {
+                readModelUpdater.load();
+            }
+            return new SlotImportReportDTO(imported, failed, stationsCreated, errors);
+        }
+
+        private String validate(SlotDTO slot) {
+            if (slot == null) {
+                return "Row must be a JSON object";
+            }
+            if (slot.getId() != null) {
+                return "ID should not be provided when creating a new slot.";
+            }
+            if (slot.getName() == null || slot.getName().isBlank()) {
+                return "name is required";
+            }
+            if (slot.getStationName() == null || slot.getStationName().isBlank()) {
+                return "stationName is required";
+            }
+            if (slot.getChargingType() == null) {
+                return "chargingType is required";
+            }
+            if ((slot.getLatitude() == null) != (slot.getLongitude() == null)) {
+                return "latitude and longitude must be given together";
+            }
+            if (slot.getLatitude() != null && (Math.abs(slot.getLatitude()) > 90 || Math.abs(slot.getLongitude()) > 180)) {
+                return "Invalid coordinates";
+            }
+            if (names.contains(slot.getName())) {
+                return "Slot name already exists";
+            }
+            return null;
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            Set<String> newStations = new LinkedHashSet<>();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<Station> created = new ArrayList<>();
+                    for (Row row : chunk) {
+                        String stationName = row.slot().getStationName();
+                        if (!stations.containsKey(stationName) && newStations.add(stationName)) {
+                            Station station = new Station();
+                            station.setName(stationName);
+                            created.add(station);
+                        }
+                    }
+                    for (Station station : stationRepository.saveAllAndFlush(created)) {
+                        stations.put(station.getName(), station.getId());
+                    }
+                    jdbcTemplate.batchUpdate(INSERT_SLOT, chunk, CHUNK_SIZE, (statement, row) -> {
+                        SlotDTO slot = row.slot();
+                        statement.setString(1, slot.getName());
+                        statement.setLong(2, stations.get(slot.getStationName()));
+                        statement.setBoolean(3, slot.isReserved());
+                        statement.setString(4, slot.getChargingType().name());
+                        statement.setString(5, slot.getPower());
+                        statement.setObject(6, slot.getLatitude(), Types.DOUBLE);
+                        statement.setObject(7, slot.getLongitude(), Types.DOUBLE);
+                    });
+                });
+                imported += chunk.size();
+                stationsCreated += newStations.size();
+            } catch (DataAccessException e) {
+                newStations.forEach(stations::remove);
+                for (Row row : chunk) {
+                    names.remove(row.slot().getName());
+                    reject(row.line(), "Not imported: " + e.getMostSpecificCause().getMessage());
+                }
+            }
+            chunk.clear();
+        }
+    }
+
+    private record Row(long line, SlotDTO slot) {
+    }
+
+    private static int[] csvColumns(List<String> header) {
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = -1;
+            for (int j = 0; j < header.size(); j++) {
+                if (header.get(j).trim().toLowerCase(Locale.ROOT).equals(CSV_COLUMNS.get(i))) {
+                    columns[i] = j;
+                }
+            }
+        }
+        if (columns[0] < 0 || columns[1] < 0 || columns[2] < 0) {
+            throw new IllegalArgumentException("CSV header must name at least name, stationName and chargingType");
+        }
+        return columns;
+    }
+
+    private static SlotDTO csvRow(List<String> fields, int[] columns) {
+        SlotDTO slot = new SlotDTO();
+        slot.setName(emptyToNull(field(fields, columns[0])));
+        slot.setStationName(emptyToNull(field(fields, columns[1])));
+        String type = emptyToNull(field(fields, columns[2]));
+        if (type != null) {
+            try {
+                slot.setChargingType(ChargingType.valueOf(type.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown chargingType: " + type);
+            }
+        }
+        slot.setPower(emptyToNull(field(fields, columns[3])));
+        slot.setLatitude(number(field(fields, columns[4]), "latitude"));
+        slot.setLongitude(number(field(fields, columns[5]), "longitude"));
+        slot.setReserved(Boolean.parseBoolean(field(fields, columns[6])));
+        return slot;
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : null;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static Double number(String value, String column) {
+        if (emptyToNull(value) == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    /**
+     * Splits one RFC 4180 record; quoted fields may contain commas and doubled quotes but not line
+     * breaks.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
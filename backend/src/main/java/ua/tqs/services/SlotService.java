@@ -1,67 +1,204 @@
 package ua.tqs.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ua.tqs.dto.OccupancyDTO;
+import ua.tqs.dto.SlotAvailabilityDTO;
+import ua.tqs.dto.SlotChangesDTO;
+import ua.tqs.dto.SlotClusterDTO;
 import ua.tqs.dto.SlotDTO;
 import ua.tqs.dto.SlotResponseDTO;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.events.SlotChangedEvent;
+import ua.tqs.index.AvailabilityBitmaps;
+import ua.tqs.index.FleetOccupancy;
+import ua.tqs.index.ReservationIntervals;
+import ua.tqs.index.SlotCatalog;
+import ua.tqs.index.SlotChangeStream;
+import ua.tqs.index.SlotClusterIndex;
+import ua.tqs.index.SlotSnapshot;
+import ua.tqs.index.SlotSpatialIndex;
+import ua.tqs.index.StationSlotReadModel;
 import ua.tqs.models.Slot;
 import ua.tqs.models.Station;
 import ua.tqs.repositories.SlotRepository;
 import ua.tqs.repositories.StationRepository;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class SlotService {
 
+    static final int MAX_NEAREST_RESULTS = 50;
+    static final Duration MAX_AVAILABILITY_RANGE = Duration.ofDays(31);
+
     private final SlotRepository slotRepository;
     private final StationRepository stationRepository;
+    private final SlotSpatialIndex spatialIndex;
+    private final SlotClusterIndex clusterIndex;
+    private final StationSlotReadModel stationSlots;
+    private final FleetOccupancy occupancy;
+    private final SlotCatalog catalog;
+    private final SlotChangeStream changeStream;
+    private final ReservationIntervals reservationIntervals;
+    private final AvailabilityBitmaps availabilityBitmaps;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public SlotService(SlotRepository slotRepository, StationRepository stationRepository) {
+    public SlotService(SlotRepository slotRepository, StationRepository stationRepository,
+                       SlotSpatialIndex spatialIndex, SlotClusterIndex clusterIndex,
+                       StationSlotReadModel stationSlots, FleetOccupancy occupancy, SlotCatalog catalog,
+                       SlotChangeStream changeStream, ReservationIntervals reservationIntervals,
+                       AvailabilityBitmaps availabilityBitmaps, ApplicationEventPublisher eventPublisher) {
         this.slotRepository = slotRepository;
         this.stationRepository = stationRepository;
+        this.spatialIndex = spatialIndex;
+        this.clusterIndex = clusterIndex;
+        this.stationSlots = stationSlots;
+        this.occupancy = occupancy;
+        this.catalog = catalog;
+        this.changeStream = changeStream;
+        this.reservationIntervals = reservationIntervals;
+        this.availabilityBitmaps = availabilityBitmaps;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public List<SlotResponseDTO> getAllSlots(long after, int limit) {
+        return slotRepository.findResponsesAfter(after, Limit.of(limit));
+    }
+
+    public SlotCatalog.Body getCatalog() {
+        return catalog.body();
+    }
+
+    public SlotChangesDTO getCatalogChanges(String since) {
+        return catalog.changesSince(since);
+    }
+
+    /** Empty when the slot does not exist. */
+    public Optional<SlotAvailabilityDTO> getAvailability(Long slotId, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (Duration.between(from, to).compareTo(MAX_AVAILABILITY_RANGE) > 0) {
+            throw new IllegalArgumentException("Availability range cannot exceed " + MAX_AVAILABILITY_RANGE.toDays() + " days");
+        }
+        if (!catalog.contains(slotId)) {
+            return Optional.empty();
+        }
+
+        List<SlotAvailabilityDTO.Window> busy = new ArrayList<>();
+        reservationIntervals.forEachBusyWindow(slotId, from, to,
+                (start, end) -> busy.add(new SlotAvailabilityDTO.Window(start, end)));
+
+        List<SlotAvailabilityDTO.Window> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (SlotAvailabilityDTO.Window window : busy) {
+            if (cursor.isBefore(window.getStart())) {
+                free.add(new SlotAvailabilityDTO.Window(cursor, window.getStart()));
+            }
+            cursor = window.getEnd();
+        }
+        if (cursor.isBefore(to)) {
+            free.add(new SlotAvailabilityDTO.Window(cursor, to));
+        }
+        return Optional.of(new SlotAvailabilityDTO(slotId, from, to, busy, free));
+    }
+
+    public List<SlotResponseDTO> getFreeSlots(LocalDateTime from, LocalDateTime to, ChargingType type,
+                                              Long stationId, int limit) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("from and to are required");
+        }
+        return availabilityBitmaps.free(from, to, type, stationId, limit).stream()
+                .map(this::convertToResponseDTO)
+                .toList();
     }
 
-    public List<Slot> getAllSlots() {
-        return slotRepository.findAll();
+    public SseEmitter subscribeToChanges(List<Long> ids, double[] bbox) {
+        return changeStream.subscribe(ids, bbox);
+    }
+
+    public List<SlotResponseDTO> getAvailableSlots() {
+        return slotRepository.findAvailableResponses();
+    }
+
+    public Optional<SlotResponseDTO> getSlotById(Long id) {
+        return slotRepository.findResponseById(id);
+    }
+
+    public List<SlotResponseDTO> getSlotsByStationId(Long stationId) {
+        return stationSlots.getSlotsByStation(stationId).stream()
+                .map(this::convertToResponseDTO)
+                .toList();
     }
 
-    public List<Slot> getAvailableSlots() {
-        return slotRepository.findByReservedFalse();
+    public List<SlotResponseDTO> getAllChargers() {
+        return stationSlots.getAllSlots().stream()
+                .map(this::convertToResponseDTO)
+                .toList();
     }
 
-    public Optional<Slot> getSlotById(Long id) {
-        return slotRepository.findById(id);
+    public List<SlotResponseDTO> getSlotsWithin(double minLat, double minLon, double maxLat, double maxLon) {
+        return spatialIndex.within(minLat, minLon, maxLat, maxLon).stream()
+                .map(this::convertToResponseDTO)
+                .toList();
     }
 
-    public List<Slot> getSlotsByStationId(Long stationId) {
-        return slotRepository.findAll()
-                .stream()
-                .filter(slot -> slot.getStation().getId().equals(stationId))
+    public List<SlotResponseDTO> getNearestAvailableSlots(double lat, double lon, int k, ChargingType type) {
+        if (k < 1 || k > MAX_NEAREST_RESULTS) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_NEAREST_RESULTS);
+        }
+        return spatialIndex.nearest(lat, lon, k, type).stream()
+                .map(this::convertToResponseDTO)
                 .toList();
     }
 
+    public List<SlotClusterDTO> getClusters(int zoom, double[] bbox) {
+        if (bbox == null || bbox.length != 4) {
+            throw new IllegalArgumentException("bbox must be minLat,minLon,maxLat,maxLon");
+        }
+        return clusterIndex.clusters(zoom, bbox[0], bbox[1], bbox[2], bbox[3]);
+    }
+
     public boolean deleteSlot(Long id) {
         if (slotRepository.existsById(id)) {
             slotRepository.deleteById(id);
+            eventPublisher.publishEvent(SlotChangedEvent.deleted(id));
             return true;
         }
         return false;
     }
 
     public long getTotalChargers() {
-        return slotRepository.count();
+        return occupancy.total();
     }
 
     public long getActiveChargers() {
-        return slotRepository.findAll().stream()
-                .filter(slot -> !slot.isReserved())
-                .count();
+        return occupancy.free();
+    }
+
+    public long getActiveReservations() {
+        return occupancy.activeReservations();
+    }
+
+    public Map<ChargingType, OccupancyDTO> getOccupancyByChargingType() {
+        return occupancy.byChargingType();
     }
 
-    public Slot saveOrUpdateSlotFromDTO(SlotDTO dto) {
+    public Map<ChargingType, OccupancyDTO> getStationOccupancy(Long stationId) {
+        return occupancy.byChargingType(stationId);
+    }
+
+    public SlotResponseDTO saveOrUpdateSlotFromDTO(SlotDTO dto) {
         if (dto.getId() != null) {
             if (slotRepository.existsByNameAndIdNot(dto.getName(), dto.getId())) {
                 throw new IllegalArgumentException("Slot name already exists");
@@ -98,7 +235,9 @@ public class SlotService {
         slot.setLatitude(dto.getLatitude());
         slot.setLongitude(dto.getLongitude());
 
-        return slotRepository.save(slot);
+        Slot saved = slotRepository.save(slot);
+        eventPublisher.publishEvent(SlotChangedEvent.saved(saved));
+        return convertToResponseDTO(saved);
     }
 
     public SlotResponseDTO convertToResponseDTO(Slot slot) {
@@ -106,6 +245,7 @@ public class SlotService {
         dto.setId(slot.getId());
         dto.setName(slot.getName());
         dto.setStationName(slot.getStation().getName());
+        dto.setStationStatus(slot.getStation().getStatus());
         dto.setReserved(slot.isReserved());
         dto.setChargingType(slot.getChargingType());
         dto.setPower(slot.getPower());
@@ -119,4 +259,26 @@ public class SlotService {
 
         return dto;
     }
+
+    public SlotResponseDTO convertToResponseDTO(SlotSnapshot slot) {
+        SlotResponseDTO dto = new SlotResponseDTO();
+        dto.setId(slot.getId());
+        dto.setName(slot.getName());
+        dto.setStationName(slot.getStationName());
+        dto.setStationStatus(slot.getStationStatus());
+        dto.setReserved(slot.isReserved());
+        dto.setChargingType(slot.getChargingType());
+        dto.setPower(slot.getPower());
+        dto.setLatitude(slot.getLatitude());
+        dto.setLongitude(slot.getLongitude());
+        dto.setLocation(
+                slot.hasLocation()
+                        ? slot.getLatitude() + ", " + slot.getLongitude()
+                        : "Unknown");
+        if (slot.getChargingType() != null) {
+            dto.setPricePerKwh(slot.getChargingType().getPricePerKwh());
+        }
+
+        return dto;
+    }
 }
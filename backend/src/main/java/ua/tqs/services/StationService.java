@@ -1,7 +1,9 @@
 package ua.tqs.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import ua.tqs.events.StationChangedEvent;
 import ua.tqs.models.Station;
 import ua.tqs.repositories.StationRepository;
 
@@ -12,10 +14,12 @@ import java.util.Optional;
 public class StationService {
 
     private final StationRepository stationRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public StationService(StationRepository stationRepository) {
+    public StationService(StationRepository stationRepository, ApplicationEventPublisher eventPublisher) {
         this.stationRepository = stationRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<Station> getAllStations() {
@@ -27,7 +31,9 @@ public class StationService {
     }
 
     public Station saveOrUpdateStation(Station station) {
-        return stationRepository.save(station);
+        Station saved = stationRepository.save(station);
+        eventPublisher.publishEvent(new StationChangedEvent(saved.getId()));
+        return saved;
     }
 
     public boolean toggleDiscount(Long stationId, boolean active, double value) {
@@ -38,6 +44,7 @@ public class StationService {
         station.setDiscount(active);
         station.setDiscountValue(value);
         stationRepository.save(station);
+        eventPublisher.publishEvent(new StationChangedEvent(stationId));
         return true;
     }
 }
\ No newline at end of file
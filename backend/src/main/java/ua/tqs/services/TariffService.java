@@ -0,0 +1,58 @@
+package ua.tqs.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import ua.tqs.dto.QuoteDTO;
+import ua.tqs.dto.QuoteRequestDTO;
+import ua.tqs.index.TariffTable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class TariffService {
+
+    public static final int MAX_QUOTES = 1000;
+
+    private final TariffTable tariffTable;
+
+    @Autowired
+    public TariffService(TariffTable tariffTable) {
+        this.tariffTable = tariffTable;
+    }
+
+    /** Prices every request in order; a malformed request rejects the whole batch. */
+    public List<QuoteDTO> quote(List<QuoteRequestDTO> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one quote request is required");
+        }
+        if (requests.size() > MAX_QUOTES) {
+            throw new IllegalArgumentException("At most " + MAX_QUOTES + " quotes per request");
+        }
+        List<QuoteDTO> quotes = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            QuoteRequestDTO request = requests.get(i);
+            validate(i, request);
+            TariffTable.Price price = tariffTable.quote(request.getSlotId(), request.getStartTime(),
+                    request.getDurationMinutes(), request.getConsumptionKWh());
+            quotes.add(price == null
+                    ? new QuoteDTO(request.getSlotId(), request.getConsumptionKWh(), request.getStartTime(),
+                            request.getDurationMinutes(), null, null, null, "Slot not found")
+                    : new QuoteDTO(request.getSlotId(), request.getConsumptionKWh(), request.getStartTime(),
+                            request.getDurationMinutes(), price.pricePerKWh(), price.discount(), price.totalCost(),
+                            null));
+        }
+        return quotes;
+    }
+
+    private static void validate(int index, QuoteRequestDTO request) {
+        if (request == null || request.getSlotId() == null || request.getStartTime() == null
+                || request.getDurationMinutes() == null || request.getConsumptionKWh() == null) {
+            throw new IllegalArgumentException(
+                    "Quote " + index + ": slotId, startTime, durationMinutes and consumptionKWh are required");
+        }
+        if (request.getDurationMinutes() < 0 || request.getConsumptionKWh() < 0) {
+            throw new IllegalArgumentException("Quote " + index + ": duration and consumption must not be negative");
+        }
+    }
+}
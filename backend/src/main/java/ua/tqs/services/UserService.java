@@ -1,6 +1,7 @@
 package ua.tqs.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import ua.tqs.models.User;
 import ua.tqs.repositories.UserRepository;
@@ -17,8 +18,8 @@ public class UserService {
         this.userRepository = userRepository;
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public List<User> getAllUsers(long after, int limit) {
+        return userRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit));
     }
 
     public long getTotalUsers() {
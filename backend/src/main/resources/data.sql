@@ -3,4 +3,23 @@ INSERT INTO users (id, email, password, name, role) VALUES
     (2, 'tiago@gmail.com', 'password', 'Tiago', 'USER')
     ON CONFLICT (id) DO NOTHING;
 
-SELECT setval('users_id_seq', (SELECT MAX(id) FROM users));
\ No newline at end of file
+SELECT setval('users_id_seq', (SELECT MAX(id) FROM users));
+
+-- No two ACTIVE reservations of a slot may overlap, whichever backend instance books them.
+-- Closed ranges, as in the in-memory check: one ending at 10:00 overlaps one starting at 10:00.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE reservations ADD COLUMN IF NOT EXISTS period tsrange
+    GENERATED ALWAYS AS (tsrange(start_time, start_time + coalesce(duration_minutes, 0) * interval '1 minute', '[]')) STORED;
+
+DO 'BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''reservations_no_overlap'') THEN
+        ALTER TABLE reservations ADD CONSTRAINT reservations_no_overlap
+            EXCLUDE USING gist (slot_id WITH =, period WITH &&) WHERE (status = ''ACTIVE'');
+    END IF;
+END';
+
+-- Startup loads every ACTIVE reservation (intervals, lifecycle schedule); the growing history of
+-- finished and canceled ones stays out of this index, and the included columns make it index-only.
+CREATE INDEX IF NOT EXISTS idx_reservations_active ON reservations (id)
+    INCLUDE (slot_id, user_id, start_time, duration_minutes) WHERE status = 'ACTIVE';
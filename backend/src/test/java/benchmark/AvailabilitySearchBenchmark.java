@@ -0,0 +1,99 @@
+package benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.events.ReservationChangedEvent;
+import ua.tqs.index.AvailabilityBitmaps;
+import ua.tqs.index.ReservationIntervals;
+import ua.tqs.index.SlotSnapshot;
+import ua.tqs.repositories.ReservationRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * "Free between T1 and T2" over a busy fleet: bitmap search vs. an overlap check per slot.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class AvailabilitySearchBenchmark {
+
+    private static final int FLEET = 100_000;
+    private static final int RESERVATIONS_PER_SLOT = 8;
+    private static final int QUERIES = 200;
+    private static final ChargingType[] TYPES = ChargingType.values();
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 6, 3, 0, 0);
+
+    @Test
+    void freeSearch() {
+        Random random = new Random(42);
+        ReservationIntervals intervals = new ReservationIntervals(mock(ReservationRepository.class));
+        List<SlotSnapshot> fleet = new ArrayList<>(FLEET);
+        long reservationId = 1;
+        for (long id = 1; id <= FLEET; id++) {
+            fleet.add(new SlotSnapshot(id, "Slot-" + id, id % 5000, "Station", null, 40.0, -8.0,
+                    TYPES[(int) (id % TYPES.length)], "50", false));
+            for (int i = 0; i < RESERVATIONS_PER_SLOT; i++) {
+                intervals.onReservationChanged(new ReservationChangedEvent(reservationId++, id, id,
+                        DAY.plusMinutes(random.nextInt(24 * 60)), 30 + random.nextInt(60), ReservationStatus.ACTIVE));
+            }
+        }
+        AvailabilityBitmaps bitmaps = new AvailabilityBitmaps(intervals);
+        long buildStart = System.nanoTime();
+        bitmaps.rebuild(fleet);
+        long buildNanos = System.nanoTime() - buildStart;
+
+        LocalDateTime[] starts = new LocalDateTime[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            starts[i] = DAY.plusMinutes(random.nextInt(20 * 60));
+        }
+
+        long scanHits = 0;
+        long bitmapHits = 0;
+        for (int warmup = 0; warmup < 2; warmup++) {
+            scanHits = runScan(fleet, intervals, starts);
+            bitmapHits = runBitmaps(bitmaps, starts);
+        }
+
+        long scanStart = System.nanoTime();
+        runScan(fleet, intervals, starts);
+        double scanMs = (System.nanoTime() - scanStart) / 1e6 / QUERIES;
+
+        long bitmapStart = System.nanoTime();
+        runBitmaps(bitmaps, starts);
+        double bitmapMs = (System.nanoTime() - bitmapStart) / 1e6 / QUERIES;
+
+        System.out.printf("[free] %,d slots, %,d reservations: build %.0f ms, scan %.2f ms/query, bitmaps %.3f ms/query%n",
+                FLEET, reservationId - 1, buildNanos / 1e6, scanMs, bitmapMs);
+        // Bitmaps work on whole buckets, so they may report fewer free slots, never more.
+        assertThat(bitmapHits).isPositive().isLessThanOrEqualTo(scanHits);
+    }
+
+    private static long runScan(List<SlotSnapshot> fleet, ReservationIntervals intervals, LocalDateTime[] starts) {
+        long hits = 0;
+        for (LocalDateTime from : starts) {
+            LocalDateTime to = from.plusMinutes(90);
+            for (SlotSnapshot slot : fleet) {
+                if (slot.getChargingType() == ChargingType.FAST && !intervals.slotOverlaps(slot.getId(), from, to)) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    private static long runBitmaps(AvailabilityBitmaps bitmaps, LocalDateTime[] starts) {
+        long hits = 0;
+        for (LocalDateTime from : starts) {
+            hits += bitmaps.free(from, from.plusMinutes(90), ChargingType.FAST, null, Integer.MAX_VALUE).size();
+        }
+        return hits;
+    }
+}
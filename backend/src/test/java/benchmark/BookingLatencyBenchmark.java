@@ -0,0 +1,250 @@
+package benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ua.tqs.dto.BookingTargetDTO;
+import ua.tqs.dto.ReservationRequestDTO;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.enums.UserRole;
+import ua.tqs.models.Reservation;
+import ua.tqs.models.Slot;
+import ua.tqs.models.Station;
+import ua.tqs.models.User;
+import ua.tqs.repositories.ReservationRepository;
+import ua.tqs.repositories.SlotRepository;
+import ua.tqs.repositories.StationRepository;
+import ua.tqs.repositories.UserRepository;
+import ua.tqs.services.ReservationService;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Booking latency of the three-statement path against the entity path it replaced (load the
+ * user, load the slot with its station, update the slot, insert), one booking at a time. The
+ * in-memory database answers without a network hop, so each statement can also be charged a
+ * simulated round trip, as is the commit. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(classes = ua.tqs.EletricNET_BackendApplication.class, properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+@Import(BookingLatencyBenchmark.RoundTripConfig.class)
+class BookingLatencyBenchmark {
+
+    private static final int WARMUP = 6_000;
+    private static final int BOOKINGS = 3_000;
+    private static final long[] ROUND_TRIP_NANOS = {0, 250_000};
+    private static final LocalDateTime START = LocalDateTime.of(2030, 3, 4, 18, 0);
+
+    /** Also set by {@link BookingQueueBenchmark}, which reuses {@link RoundTripConfig}. */
+    static volatile long roundTripNanos;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StationRepository stationRepository;
+
+    @Autowired
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private List<Long> userIds;
+    private List<Long> slotIds;
+    private int next;
+
+    @Test
+    void bookOneSlotAfterAnother() {
+        // A driver and a slot per booking, so no read model or timeline grows unrealistically long
+        int bookings = WARMUP + 3 * BOOKINGS * ROUND_TRIP_NANOS.length;
+        List<User> drivers = new ArrayList<>();
+        List<Slot> slots = new ArrayList<>();
+        Station station = new Station();
+        station.setName("Latency");
+        station = stationRepository.save(station);
+        for (int i = 0; i < bookings; i++) {
+            drivers.add(new User(null, "driver" + i + "@test.com", "hash", "Driver " + i, UserRole.USER));
+            Slot slot = new Slot();
+            slot.setName("L" + i);
+            slot.setStation(station);
+            slot.setChargingType(ChargingType.FAST);
+            slots.add(slot);
+        }
+        userIds = userRepository.saveAll(drivers).stream().map(User::getId).toList();
+        slotIds = slotRepository.saveAll(slots).stream().map(Slot::getId).toList();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < WARMUP / 3; i++) {
+            entityPath(next++);
+            fastPath(next++);
+            assertThat(reservationService.createReservation(request(next++))).isPresent();
+        }
+
+        for (long roundTrip : ROUND_TRIP_NANOS) {
+            roundTripNanos = roundTrip;
+            long[] entity = new long[BOOKINGS];
+            long[] fast = new long[BOOKINGS];
+            long[] service = new long[BOOKINGS];
+            long entityStatements = 0;
+            long fastStatements = 0;
+            for (int i = 0; i < BOOKINGS; i++) {
+                statistics.clear();
+                long begin = System.nanoTime();
+                entityPath(next++);
+                entity[i] = System.nanoTime() - begin;
+                entityStatements += statistics.getPrepareStatementCount();
+
+                statistics.clear();
+                begin = System.nanoTime();
+                fastPath(next++);
+                fast[i] = System.nanoTime() - begin;
+                fastStatements += statistics.getPrepareStatementCount();
+
+                ReservationRequestDTO dto = request(next++);
+                begin = System.nanoTime();
+                assertThat(reservationService.createReservation(dto)).isPresent();
+                service[i] = System.nanoTime() - begin;
+            }
+
+            System.out.printf("[booking] %,d bookings, %.2f ms per round trip | entity path: %.1f statements,"
+                            + " p50 %.3f ms, p99 %.3f ms | three-statement path: %.1f statements, p50 %.3f ms,"
+                            + " p99 %.3f ms | createReservation end to end: p50 %.3f ms%n",
+                    BOOKINGS, roundTrip / 1e6, (double) entityStatements / BOOKINGS, percentile(entity, 50),
+                    percentile(entity, 99), (double) fastStatements / BOOKINGS, percentile(fast, 50),
+                    percentile(fast, 99), percentile(service, 50));
+            assertThat(fastStatements).isLessThan(entityStatements);
+        }
+        roundTripNanos = 0;
+    }
+
+    /** The previous booking transaction, without the in-memory checks both paths share. */
+    private void entityPath(int booking) {
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.findById(userIds.get(booking)).orElseThrow();
+            Slot slot = slotRepository.findById(slotIds.get(booking)).orElseThrow();
+            slot.getStation().getName();
+            slot.setReserved(true);
+            slotRepository.save(slot);
+            reservationRepository.save(reservation(user, slot));
+            reservationRepository.flush();
+        });
+    }
+
+    /** The statements {@link ReservationService#createReservation} issues, on their own. */
+    private void fastPath(int booking) {
+        transactionTemplate.executeWithoutResult(status -> {
+            BookingTargetDTO target = slotRepository.findBookingTarget(slotIds.get(booking), userIds.get(booking))
+                    .orElseThrow();
+            assertThat(target.isUserExists() && !target.isReserved()).isTrue();
+            assertThat(slotRepository.reserve(slotIds.get(booking))).isEqualTo(1);
+            reservationRepository.save(reservation(userRepository.getReferenceById(userIds.get(booking)),
+                    slotRepository.getReferenceById(slotIds.get(booking))));
+            reservationRepository.flush();
+        });
+    }
+
+    private static Reservation reservation(User user, Slot slot) {
+        Reservation reservation = new Reservation();
+        reservation.setUser(user);
+        reservation.setSlot(slot);
+        reservation.setStatus(ReservationStatus.ACTIVE);
+        reservation.setCreationDate(LocalDateTime.now());
+        reservation.setStartTime(START);
+        reservation.setStartDate(START.toLocalDate());
+        reservation.setDurationMinutes(30);
+        reservation.setConsumptionKWh(15.0);
+        reservation.setTotalCost(4.5);
+        reservation.setPaid(false);
+        return reservation;
+    }
+
+    private ReservationRequestDTO request(int booking) {
+        ReservationRequestDTO dto = new ReservationRequestDTO();
+        dto.setSlotId(slotIds.get(booking));
+        dto.setUserId(userIds.get(booking));
+        dto.setStartTime(START);
+        dto.setDurationMinutes(30);
+        dto.setConsumptionKWh(15.0);
+        return dto;
+    }
+
+    private static double percentile(long[] nanos, int percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)] / 1e6;
+    }
+
+    /** Charges every executed statement, and every commit, one simulated network round trip. */
+    @TestConfiguration
+    static class RoundTripConfig {
+
+        @Bean
+        static BeanPostProcessor roundTripDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? delayed(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+
+        private static <T> T delayed(Class<T> type, T target) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                boolean roundTrip = method.getName().startsWith("execute") || method.getName().equals("commit");
+                if (roundTrip && roundTripNanos > 0) {
+                    LockSupport.parkNanos(roundTripNanos);
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof Connection connection) {
+                    return delayed(Connection.class, connection);
+                }
+                if (result instanceof PreparedStatement statement) {
+                    return delayed(PreparedStatement.class, statement);
+                }
+                return result;
+            }));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import ua.tqs.dto.ReservationRequestDTO;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.TicketStatus;
+import ua.tqs.enums.UserRole;
+import ua.tqs.index.ReservationIntervals;
+import ua.tqs.models.Slot;
+import ua.tqs.models.Station;
+import ua.tqs.models.User;
+import ua.tqs.repositories.ReservationRepository;
+import ua.tqs.repositories.SlotRepository;
+import ua.tqs.repositories.StationRepository;
+import ua.tqs.repositories.UserRepository;
+import ua.tqs.services.BookingQueue;
+import ua.tqs.services.ReservationConflictException;
+import ua.tqs.services.ReservationService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A commute peak: many clients at once, most of them after a handful of popular slots, each
+ * booking either directly on its request thread or through the {@link BookingQueue}. Every
+ * statement and commit is charged a simulated network round trip. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(classes = ua.tqs.EletricNET_BackendApplication.class, properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@Import(BookingLatencyBenchmark.RoundTripConfig.class)
+class BookingQueueBenchmark {
+
+    private static final int CLIENTS = 200;
+    private static final int ATTEMPTS = 4_000;
+    private static final int HOT_SLOTS = 8;
+    private static final int SLOTS = 2 * ATTEMPTS;
+    private static final long ROUND_TRIP_NANOS = 250_000;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 3, 4, 18, 0);
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private BookingQueue bookingQueue;
+
+    @Autowired
+    private ReservationIntervals reservationIntervals;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StationRepository stationRepository;
+
+    @Autowired
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private List<Long> userIds;
+    private List<Long> slotIds;
+
+    @Test
+    void peakHourBurst() throws Exception {
+        List<User> drivers = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            drivers.add(new User(null, "peak" + i + "@test.com", "hash", "Peak " + i, UserRole.USER));
+        }
+        userIds = userRepository.saveAll(drivers).stream().map(User::getId).toList();
+
+        // Warm up both paths before measuring either
+        run(false, 0);
+        run(true, 0);
+        BookingLatencyBenchmark.roundTripNanos = ROUND_TRIP_NANOS;
+        try {
+            for (boolean queued : new boolean[]{false, true}) {
+                run(queued, ROUND_TRIP_NANOS);
+            }
+        } finally {
+            BookingLatencyBenchmark.roundTripNanos = 0;
+        }
+    }
+
+    /** Half the attempts go to a few hot slots, the rest to slots nobody else wants. */
+    private void run(boolean queued, long roundTrip) throws Exception {
+        reservationRepository.deleteAll();
+        slotRepository.deleteAll();
+        stationRepository.deleteAll();
+        reservationIntervals.load();
+        Station station = new Station();
+        station.setName("Peak");
+        station = stationRepository.save(station);
+        List<Slot> slots = new ArrayList<>();
+        for (int i = 0; i < SLOTS; i++) {
+            Slot slot = new Slot();
+            slot.setName("P" + i);
+            slot.setStation(station);
+            slot.setChargingType(ChargingType.FAST);
+            slots.add(slot);
+        }
+        slotIds = slotRepository.saveAll(slots).stream().map(Slot::getId).toList();
+
+        Random random = new Random(3);
+        List<ReservationRequestDTO> attempts = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            Long slotId = i % 2 == 0 ? slotIds.get(random.nextInt(HOT_SLOTS)) : slotIds.get(HOT_SLOTS + i);
+            attempts.add(request(slotId, userIds.get(i)));
+        }
+
+        AtomicInteger booked = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            int first = c;
+            futures.add(clients.submit(() -> {
+                go.await();
+                for (int i = first; i < ATTEMPTS; i += CLIENTS) {
+                    if (queued ? bookQueued(attempts.get(i)) : bookDirectly(attempts.get(i))) {
+                        booked.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        go.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        clients.shutdown();
+
+        System.out.printf("[booking] %s, %d clients, %.2f ms per round trip: %,d attempts (half on %d hot slots),"
+                        + " %,d booked in %.2f s, %.0f attempts/s%n",
+                queued ? "queued" : "direct", CLIENTS, roundTrip / 1e6, ATTEMPTS, HOT_SLOTS, booked.get(), seconds,
+                ATTEMPTS / seconds);
+        assertThat(booked.get()).isEqualTo(ATTEMPTS / 2 + HOT_SLOTS);
+    }
+
+    private boolean bookDirectly(ReservationRequestDTO dto) {
+        try {
+            return reservationService.createReservation(dto).isPresent();
+        } catch (ReservationConflictException e) {
+            return false;
+        }
+    }
+
+    /** Submits and waits for the outcome, as a client polling its ticket would. */
+    private boolean bookQueued(ReservationRequestDTO dto) throws Exception {
+        String ticketId = bookingQueue.submit(dto).orElseThrow().getTicketId();
+        return bookingQueue.find(ticketId, dto.getUserId(), Duration.ofSeconds(60)).orElseThrow().get()
+                .getStatus() == TicketStatus.BOOKED;
+    }
+
+    private static ReservationRequestDTO request(Long slotId, Long userId) {
+        ReservationRequestDTO dto = new ReservationRequestDTO();
+        dto.setSlotId(slotId);
+        dto.setUserId(userId);
+        dto.setStartTime(START);
+        dto.setDurationMinutes(30);
+        dto.setConsumptionKWh(15.0);
+        return dto;
+    }
+}
@@ -0,0 +1,74 @@
+package benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ua.tqs.dto.SlotImportReportDTO;
+import ua.tqs.services.SlotImportService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk CSV import throughput against the in-memory test database.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(classes = ua.tqs.EletricNET_BackendApplication.class, properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+class SlotImportBenchmark {
+
+    private static final int ROWS = 200_000;
+    private static final int STATIONS = 2_000;
+
+    @Autowired
+    private SlotImportService importService;
+
+    @Test
+    void importCsv() throws IOException {
+        long start = System.nanoTime();
+        SlotImportReportDTO report = importService.importCsv(new GeneratedCsv(ROWS));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("[import] %,d slots, %,d stations: %.1f s (%,.0f rows/s)%n",
+                report.getImported(), report.getStationsCreated(), seconds, report.getImported() / seconds);
+        assertThat(report.getImported()).isEqualTo(ROWS);
+    }
+
+    /** Produces the CSV lazily, so the upload is never held in memory as a whole. */
+    private static final class GeneratedCsv extends InputStream {
+        private final int rows;
+        private int row = -1;
+        private byte[] line = new byte[0];
+        private int position;
+
+        private GeneratedCsv(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length) {
+                if (row == rows) {
+                    return -1;
+                }
+                String text = row < 0
+                        ? "name,stationName,chargingType,power,latitude,longitude\n"
+                        : "Bench-" + row + ",Station-" + (row % STATIONS) + ",FAST,50,"
+                                + (36 + row % 24) + "." + row % 997 + "," + (-10 + row % 40) + ".5\n";
+                line = text.getBytes(StandardCharsets.UTF_8);
+                position = 0;
+                row++;
+            }
+            return line[position++];
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ua.tqs.config.CompactCborModule;
+import ua.tqs.dto.SlotResponseDTO;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.StationStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Slot list payload: JSON vs. compact CBOR, raw and gzipped, plus encode and decode time.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SlotPayloadBenchmark {
+
+    private static final int ROUNDS = 20;
+    private static final ChargingType[] TYPES = ChargingType.values();
+
+    @ParameterizedTest(name = "{0} slots")
+    @ValueSource(ints = {100, 10_000})
+    void slotList(int fleetSize) throws IOException {
+        Random random = new Random(42);
+        List<SlotResponseDTO> slots = new ArrayList<>(fleetSize);
+        for (long id = 1; id <= fleetSize; id++) {
+            slots.add(new SlotResponseDTO(id, "Slot-" + id, "Station " + (id % 1000), StationStatus.AVAILABLE,
+                    random.nextBoolean(), TYPES[(int) (id % TYPES.length)], "50",
+                    36 + random.nextDouble() * 24, -10 + random.nextDouble() * 40));
+        }
+
+        ObjectMapper json = new ObjectMapper();
+        ObjectMapper cbor = new CBORMapper().enable(SerializationFeature.WRITE_ENUMS_USING_INDEX);
+        cbor.registerModule(new CompactCborModule());
+
+        byte[] jsonBytes = json.writeValueAsBytes(slots);
+        byte[] cborBytes = cbor.writeValueAsBytes(slots);
+
+        for (int warmup = 0; warmup < 3; warmup++) {
+            roundTrip(json, slots);
+            roundTrip(cbor, slots);
+        }
+        long jsonNanos = roundTrip(json, slots);
+        long cborNanos = roundTrip(cbor, slots);
+
+        System.out.printf("[payload] %,d slots: json %,d B (gzip %,d B) | cbor %,d B (gzip %,d B) | %.0f%% of json"
+                        + " | encode+decode json %.2f ms, cbor %.2f ms%n",
+                fleetSize, jsonBytes.length, gzip(jsonBytes).length, cborBytes.length, gzip(cborBytes).length,
+                100.0 * cborBytes.length / jsonBytes.length,
+                jsonNanos / 1_000_000.0 / ROUNDS, cborNanos / 1_000_000.0 / ROUNDS);
+
+        assertThat(cborBytes.length).isLessThan(jsonBytes.length);
+    }
+
+    private static long roundTrip(ObjectMapper mapper, List<SlotResponseDTO> slots) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            byte[] bytes = mapper.writeValueAsBytes(slots);
+            // Clients decode into generic trees, so do the same here.
+            assertThat(mapper.readTree(bytes).size()).isEqualTo(slots.size());
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+}
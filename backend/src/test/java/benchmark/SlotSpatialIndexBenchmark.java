@@ -0,0 +1,132 @@
+package benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.index.SlotSnapshot;
+import ua.tqs.index.SlotSpatialIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Viewport query: grid index vs. full scan of the catalog.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SlotSpatialIndexBenchmark {
+
+    private static final int QUERIES = 500;
+    private static final ChargingType[] TYPES = ChargingType.values();
+
+    @ParameterizedTest(name = "{0} slots")
+    @ValueSource(ints = {10_000, 1_000_000})
+    void viewportQuery(int fleetSize) {
+        Random random = new Random(42);
+        List<SlotSnapshot> fleet = new ArrayList<>(fleetSize);
+        for (long id = 1; id <= fleetSize; id++) {
+            // Spread over continental Europe.
+            double lat = 36 + random.nextDouble() * 24;
+            double lon = -10 + random.nextDouble() * 40;
+            fleet.add(new SlotSnapshot(id, "Slot-" + id, id % 1000, "Station", null, lat, lon,
+                    TYPES[(int) (id % TYPES.length)], "50", false));
+        }
+
+        SlotSpatialIndex index = new SlotSpatialIndex();
+        long buildStart = System.nanoTime();
+        index.rebuild(fleet);
+        long buildNanos = System.nanoTime() - buildStart;
+
+        double[][] boxes = new double[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            // City-sized viewport, roughly 20 km x 25 km.
+            double lat = 36 + random.nextDouble() * 23.8;
+            double lon = -10 + random.nextDouble() * 39.7;
+            boxes[i] = new double[]{lat, lon, lat + 0.2, lon + 0.3};
+        }
+
+        long scanHits = 0;
+        long indexHits = 0;
+        for (int warmup = 0; warmup < 2; warmup++) {
+            scanHits = runScan(fleet, boxes);
+            indexHits = runIndex(index, boxes);
+        }
+
+        long scanStart = System.nanoTime();
+        runScan(fleet, boxes);
+        long scanNanos = System.nanoTime() - scanStart;
+
+        long indexStart = System.nanoTime();
+        runIndex(index, boxes);
+        long indexNanos = System.nanoTime() - indexStart;
+
+        System.out.printf("[spatial] %,d slots: build %d ms | full scan %.1f us/query | grid index %.1f us/query | %.0fx%n",
+                fleetSize, buildNanos / 1_000_000,
+                scanNanos / 1_000.0 / QUERIES, indexNanos / 1_000.0 / QUERIES,
+                (double) scanNanos / indexNanos);
+
+        assertThat(indexHits).isEqualTo(scanHits);
+    }
+
+    @ParameterizedTest(name = "{0} slots")
+    @ValueSource(ints = {10_000, 1_000_000})
+    void nearestAvailable(int fleetSize) {
+        Random random = new Random(42);
+        List<SlotSnapshot> fleet = new ArrayList<>(fleetSize);
+        for (long id = 1; id <= fleetSize; id++) {
+            fleet.add(new SlotSnapshot(id, "Slot-" + id, id % 1000, "Station", null,
+                    36 + random.nextDouble() * 24, -10 + random.nextDouble() * 40,
+                    TYPES[(int) (id % TYPES.length)], "50", id % 3 == 0));
+        }
+        SlotSpatialIndex index = new SlotSpatialIndex();
+        index.rebuild(fleet);
+
+        double[][] points = new double[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            points[i] = new double[]{36 + random.nextDouble() * 24, -10 + random.nextDouble() * 40};
+        }
+
+        long found = 0;
+        for (int warmup = 0; warmup < 3; warmup++) {
+            for (double[] p : points) {
+                found += index.nearest(p[0], p[1], 5, ChargingType.FAST).size();
+            }
+        }
+
+        long start = System.nanoTime();
+        for (double[] p : points) {
+            index.nearest(p[0], p[1], 5, ChargingType.FAST);
+        }
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("[spatial] %,d slots: 5 nearest free FAST %.1f us/query%n",
+                fleetSize, nanos / 1_000.0 / QUERIES);
+
+        assertThat(found).isPositive();
+    }
+
+    private static long runScan(List<SlotSnapshot> fleet, double[][] boxes) {
+        long hits = 0;
+        for (double[] b : boxes) {
+            for (SlotSnapshot s : fleet) {
+                if (s.getLatitude() >= b[0] && s.getLatitude() <= b[2]
+                        && s.getLongitude() >= b[1] && s.getLongitude() <= b[3]) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    private static long runIndex(SlotSpatialIndex index, double[][] boxes) {
+        long hits = 0;
+        for (double[] b : boxes) {
+            hits += index.within(b[0], b[1], b[2], b[3]).size();
+        }
+        return hits;
+    }
+}
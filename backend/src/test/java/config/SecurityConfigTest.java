@@ -72,7 +72,7 @@ class SecurityConfigTest {
         CorsConfiguration corsConfiguration = configSource.getCorsConfiguration(new MockHttpServletRequest());
 
         assertThat(corsConfiguration.getExposedHeaders())
-            .containsExactly("Authorization");
+            .containsExactly("Authorization", "X-Next-Cursor");
     }
 
     @Test
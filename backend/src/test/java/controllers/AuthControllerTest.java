@@ -63,7 +63,7 @@ class AuthControllerTest {
                 List.of(new SimpleGrantedAuthority("ROLE_USER")));
 
         when(userDetailsService.loadUserByUsername("test@example.com")).thenReturn(userDetails);
-        when(jwtUtil.generateToken(anyString(), anyString())).thenReturn("test-token");
+        when(jwtUtil.generateToken(anyString(), anyString(), any())).thenReturn("test-token");
         when(userDetailsService.getUserId(any())).thenReturn(1L);
         when(userDetailsService.getUserName(any())).thenReturn("Test User");
 
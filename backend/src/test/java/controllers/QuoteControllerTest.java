@@ -0,0 +1,50 @@
+package controllers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ua.tqs.controllers.QuoteController;
+import ua.tqs.dto.QuoteDTO;
+import ua.tqs.dto.QuoteRequestDTO;
+import ua.tqs.services.TariffService;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteControllerTest {
+
+    @Mock
+    private TariffService tariffService;
+
+    @InjectMocks
+    private QuoteController quoteController;
+
+    @Test
+    void quote_ReturnsQuotes() {
+        List<QuoteRequestDTO> requests = List.of(new QuoteRequestDTO());
+        List<QuoteDTO> quotes = List.of(new QuoteDTO(1L, 10.0, null, 60, 0.30, 0.0, 3.0, null));
+        when(tariffService.quote(requests)).thenReturn(quotes);
+
+        ResponseEntity<Object> response = quoteController.quote(requests);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(quotes);
+    }
+
+    @Test
+    void quote_WhenInvalid_ReturnsBadRequest() {
+        when(tariffService.quote(List.of())).thenThrow(new IllegalArgumentException("At least one quote request is required"));
+
+        ResponseEntity<Object> response = quoteController.quote(List.of());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isEqualTo("At least one quote request is required");
+    }
+}
@@ -8,24 +8,54 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ua.tqs.controllers.ReservationController;
+import ua.tqs.dto.BatchReservationRequestDTO;
+import ua.tqs.dto.BatchReservationResultDTO;
+import ua.tqs.dto.ReservationHoldDTO;
+import ua.tqs.dto.BookingTicketDTO;
 import ua.tqs.dto.ReservationRequestDTO;
 import ua.tqs.dto.ReservationResponseDTO;
+import ua.tqs.enums.BatchMode;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.enums.TicketStatus;
 import ua.tqs.login.JwtUtil;
 import ua.tqs.models.User;
 import ua.tqs.repositories.UserRepository;
+import ua.tqs.services.BatchReservationService;
+import ua.tqs.services.IdempotentBookings;
+import ua.tqs.services.ReservationHolds;
+import ua.tqs.services.BookingQueue;
+import ua.tqs.services.ReservationExportService;
+import ua.tqs.services.ReservationConflictException;
 import ua.tqs.services.ReservationService;
 import ua.tqs.dto.ClientStatsDTO;
 
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static io.restassured.module.mockmvc.RestAssuredMockMvc.given;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class ReservationControllerTest {
@@ -33,6 +63,21 @@ class ReservationControllerTest {
     @Mock
     private ReservationService reservationService;
 
+    @Mock
+    private ReservationExportService exportService;
+
+    @Mock
+    private BatchReservationService batchReservationService;
+
+    @Mock
+    private BookingQueue bookingQueue;
+
+    @Mock
+    private ReservationHolds reservationHolds;
+
+    @Mock
+    private IdempotentBookings idempotentBookings;
+
     @Mock
     private UserRepository userRepository;
 
@@ -45,15 +90,21 @@ class ReservationControllerTest {
     private ReservationResponseDTO testReservationResponse;
     private ReservationRequestDTO testReservationRequest;
     private User testUser;
+    private MockMvc mockMvc;
 
     @BeforeEach
     void setup() {
         ReservationController reservationController = new ReservationController(
             reservationService,
+            exportService,
+            batchReservationService,
+            bookingQueue,
+            reservationHolds,
+            idempotentBookings,
             userRepository,
             jwtUtil
         );
-        MockMvc mockMvc = MockMvcBuilders
+        mockMvc = MockMvcBuilders
                 .standaloneSetup(reservationController)
                 .build();
         RestAssuredMockMvc.mockMvc(mockMvc);
@@ -83,7 +134,7 @@ class ReservationControllerTest {
 
     @Test
     void getAllReservations_shouldReturn200() {
-        when(reservationService.getAllReservations())
+        when(reservationService.getAllReservations(0L, 100))
             .thenReturn(List.of(testReservationResponse));
 
         given()
@@ -98,7 +149,8 @@ class ReservationControllerTest {
     }
 
     @Test
-    void createReservation_whenValidRequest_shouldReturn200() {
+    void createReservation_whenTokenHasNoUserId_shouldFallBackToEmailLookup() {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(null);
         when(jwtUtil.getUsername("valid.jwt.token")).thenReturn(USER_EMAIL);
         when(userRepository.findByEmail(USER_EMAIL)).thenReturn(Optional.of(testUser));
         when(reservationService.createReservation(any(ReservationRequestDTO.class)))
@@ -116,8 +168,289 @@ class ReservationControllerTest {
             .body("state", equalTo("ACTIVE"));
     }
 
+    @Test
+    void createReservation_whenTokenCarriesUserId_shouldSkipUserLookup() {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(testReservationRequest.getUserId());
+        when(reservationService.createReservation(any(ReservationRequestDTO.class)))
+            .thenReturn(Optional.of(testReservationResponse));
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .header("Authorization", VALID_TOKEN)
+            .body(testReservationRequest)
+        .when()
+            .post("/api/reservations/create")
+        .then()
+            .statusCode(200);
+
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    void createReservation_whenTokenUserIdDiffers_shouldReturn403() {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(testReservationRequest.getUserId() + 1);
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .header("Authorization", VALID_TOKEN)
+            .body(testReservationRequest)
+        .when()
+            .post("/api/reservations/create")
+        .then()
+            .statusCode(403);
+
+        verify(reservationService, never()).createReservation(any());
+    }
+
+    @Test
+    void createReservation_whenAsyncPreferred_shouldQueueAndReturn202WithTicket() {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(1L);
+        when(bookingQueue.submit(any(ReservationRequestDTO.class)))
+            .thenReturn(Optional.of(new BookingTicketDTO("t-1", TicketStatus.PENDING, null, null)));
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .header("Authorization", VALID_TOKEN)
+            .header("Prefer", "respond-async")
+            .body(testReservationRequest)
+        .when()
+            .post("/api/reservations/create")
+        .then()
+            .statusCode(202)
+            .header("Location", "/api/reservations/tickets/t-1")
+            .body("ticketId", equalTo("t-1"))
+            .body("status", equalTo("PENDING"));
+
+        verify(reservationService, never()).createReservation(any());
+    }
+
+    @Test
+    void createReservation_whenQueueIsFull_shouldReturn503() {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(1L);
+        when(bookingQueue.submit(any(ReservationRequestDTO.class))).thenReturn(Optional.empty());
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .header("Authorization", VALID_TOKEN)
+            .header("Prefer", "respond-async")
+            .body(testReservationRequest)
+        .when()
+            .post("/api/reservations/create")
+        .then()
+            .statusCode(503)
+            .header("Retry-After", "1");
+    }
+
+    @Test
+    void getTicket_whenBooked_shouldReturnTheReservation() throws Exception {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(1L);
+        when(bookingQueue.find("t-1", 1L, Duration.ofSeconds(5))).thenReturn(Optional.of(CompletableFuture
+                .completedFuture(new BookingTicketDTO("t-1", TicketStatus.BOOKED, testReservationResponse, null))));
+
+        MvcResult pending = mockMvc.perform(get("/api/reservations/tickets/t-1?wait=5")
+                        .header("Authorization", VALID_TOKEN))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"status\":\"BOOKED\"")));
+    }
+
+    @Test
+    void getTicket_whenUnknown_shouldReturn404() throws Exception {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(1L);
+        when(bookingQueue.find("t-2", 1L, Duration.ZERO)).thenReturn(Optional.empty());
+
+        MvcResult pending = mockMvc.perform(get("/api/reservations/tickets/t-2")
+                        .header("Authorization", VALID_TOKEN))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void createReservations_bestEffort_shouldReturn200WithPerItemResults() {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(1L);
+        when(batchReservationService.book(any(BatchReservationRequestDTO.class)))
+            .thenReturn(batchResult(BatchMode.BEST_EFFORT));
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .header("Authorization", VALID_TOKEN)
+            .body(batchRequest(BatchMode.BEST_EFFORT))
+        .when()
+            .post("/api/reservations/batch")
+        .then()
+            .statusCode(200)
+            .body("booked", equalTo(1))
+            .body("results", hasSize(2))
+            .body("results[0].reservationId", equalTo(10))
+            .body("results[1].error", equalTo("Slot is already reserved for that time"));
+    }
+
+    @Test
+    void createReservations_allOrNothingWithRejectedItem_shouldReturn409WithResults() {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(1L);
+        when(batchReservationService.book(any(BatchReservationRequestDTO.class)))
+            .thenReturn(batchResult(BatchMode.ALL_OR_NOTHING));
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .header("Authorization", VALID_TOKEN)
+            .body(batchRequest(BatchMode.ALL_OR_NOTHING))
+        .when()
+            .post("/api/reservations/batch")
+        .then()
+            .statusCode(409)
+            .body("results", hasSize(2));
+    }
+
+    @Test
+    void createReservations_whenMalformed_shouldReturn400() {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(1L);
+        when(batchReservationService.book(any(BatchReservationRequestDTO.class)))
+            .thenThrow(new IllegalArgumentException("Nothing to book"));
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .header("Authorization", VALID_TOKEN)
+            .body(batchRequest(BatchMode.BEST_EFFORT))
+        .when()
+            .post("/api/reservations/batch")
+        .then()
+            .statusCode(400)
+            .body(equalTo("Nothing to book"));
+    }
+
+    @Test
+    void createReservations_whenTokenUserIdDiffers_shouldReturn403() {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(2L);
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .header("Authorization", VALID_TOKEN)
+            .body(batchRequest(BatchMode.BEST_EFFORT))
+        .when()
+            .post("/api/reservations/batch")
+        .then()
+            .statusCode(403);
+
+        verify(batchReservationService, never()).book(any());
+    }
+
+    @Test
+    void createReservation_withIdempotencyKey_shouldAnswerWithTheStoredOutcome() {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(testReservationRequest.getUserId());
+        when(idempotentBookings.book(eq(1L), eq("retry-1"), any(ReservationRequestDTO.class)))
+            .thenReturn(new IdempotentBookings.Outcome(200, testReservationResponse, null, "hash", true));
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .header("Authorization", VALID_TOKEN)
+            .header("Idempotency-Key", "retry-1")
+            .body(testReservationRequest)
+        .when()
+            .post("/api/reservations/create")
+        .then()
+            .statusCode(200)
+            .header("Idempotent-Replayed", "true")
+            .body("id", equalTo(testReservationResponse.getId().intValue()));
+
+        verify(reservationService, never()).createReservation(any());
+    }
+
+    @Test
+    void createReservation_withIdempotencyKeyOfAnotherRequest_shouldReturn422() {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(testReservationRequest.getUserId());
+        when(idempotentBookings.book(eq(1L), eq("retry-1"), any(ReservationRequestDTO.class)))
+            .thenReturn(new IdempotentBookings.Outcome(422, null, "Idempotency-Key was already used", "hash", false));
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .header("Authorization", VALID_TOKEN)
+            .header("Idempotency-Key", "retry-1")
+            .body(testReservationRequest)
+        .when()
+            .post("/api/reservations/create")
+        .then()
+            .statusCode(422)
+            .header("Idempotent-Replayed", "false");
+    }
+
+    @Test
+    void holdReservation_shouldReturnTheHold() {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(testReservationRequest.getUserId());
+        when(reservationHolds.place(any(ReservationRequestDTO.class))).thenReturn(Optional.of(new ReservationHoldDTO(
+            "h-1", 1L, testReservationRequest.getStartTime(), 60, Instant.parse("2030-03-04T18:05:00Z"))));
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .header("Authorization", VALID_TOKEN)
+            .body(testReservationRequest)
+        .when()
+            .post("/api/reservations/holds")
+        .then()
+            .statusCode(200)
+            .body("holdId", equalTo("h-1"))
+            .body("durationMinutes", equalTo(60));
+    }
+
+    @Test
+    void holdReservation_whenHeldByAnotherDriver_shouldReturn409() {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(testReservationRequest.getUserId());
+        when(reservationHolds.place(any(ReservationRequestDTO.class))).thenReturn(Optional.empty());
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .header("Authorization", VALID_TOKEN)
+            .body(testReservationRequest)
+        .when()
+            .post("/api/reservations/holds")
+        .then()
+            .statusCode(409);
+    }
+
+    @Test
+    void releaseHold_shouldOnlyReleaseTheUsersOwnHold() {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(1L);
+        when(reservationHolds.release("h-1", 1L)).thenReturn(true);
+
+        given()
+            .header("Authorization", VALID_TOKEN)
+        .when()
+            .delete("/api/reservations/holds/h-1")
+        .then()
+            .statusCode(204);
+
+        given()
+            .header("Authorization", VALID_TOKEN)
+        .when()
+            .delete("/api/reservations/holds/h-2")
+        .then()
+            .statusCode(404);
+    }
+
+    @Test
+    void createReservation_whenSlotTaken_shouldReturn409() {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(null);
+        when(jwtUtil.getUsername("valid.jwt.token")).thenReturn(USER_EMAIL);
+        when(userRepository.findByEmail(USER_EMAIL)).thenReturn(Optional.of(testUser));
+        when(reservationService.createReservation(any(ReservationRequestDTO.class)))
+            .thenThrow(new ReservationConflictException("Slot is already reserved for that time"));
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .header("Authorization", VALID_TOKEN)
+            .body(testReservationRequest)
+        .when()
+            .post("/api/reservations/create")
+        .then()
+            .statusCode(409);
+    }
+
     @Test
     void createReservation_whenUserNotFound_shouldReturn403() {
+        when(jwtUtil.getUserId("valid.jwt.token")).thenReturn(null);
         when(jwtUtil.getUsername("valid.jwt.token")).thenReturn(USER_EMAIL);
         when(userRepository.findByEmail(USER_EMAIL)).thenReturn(Optional.empty());
 
@@ -157,9 +490,39 @@ class ReservationControllerTest {
             .body(equalTo("Reservation not found or already cancelled."));
     }
 
+    @Test
+    void getAllReservations_acceptNdjson_shouldStreamExport() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write("{\"id\":1}\n".getBytes());
+            return null;
+        }).when(exportService).writeNdjson(any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/reservations/all").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"id\":1}\n"));
+        verify(reservationService, never()).getAllReservations(anyLong(), anyInt());
+    }
+
+    @Test
+    void getAllReservations_acceptCsv_shouldStreamAttachment() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/reservations/all").accept("text/csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("reservations.csv")));
+        verify(exportService).writeCsv(any(OutputStream.class));
+    }
+
     @Test
     void getMyReservations_shouldReturn200() {
-        when(reservationService.getReservationsByToken("valid.jwt.token"))
+        when(reservationService.getReservationsByToken("valid.jwt.token", null, null, null, 0L, 100))
             .thenReturn(List.of(testReservationResponse));
 
         given()
@@ -173,6 +536,36 @@ class ReservationControllerTest {
             .body("[0].id", equalTo(1));
     }
 
+    @Test
+    void getMyReservations_shouldPassTheFilters() {
+        when(reservationService.getReservationsByToken("valid.jwt.token", ReservationStatus.ACTIVE,
+                LocalDateTime.of(2030, 3, 1, 0, 0), LocalDateTime.of(2030, 4, 1, 0, 0), 0L, 20))
+            .thenReturn(List.of(testReservationResponse));
+
+        given()
+            .header("Authorization", VALID_TOKEN)
+            .queryParam("status", "ACTIVE")
+            .queryParam("from", "2030-03-01T00:00:00")
+            .queryParam("to", "2030-04-01T00:00:00")
+            .queryParam("limit", 20)
+        .when()
+            .get("/api/reservations/myReservations")
+        .then()
+            .statusCode(200)
+            .body("$", hasSize(1));
+    }
+
+    @Test
+    void getMyReservations_withUnknownStatus_shouldReturn400() {
+        given()
+            .header("Authorization", VALID_TOKEN)
+            .queryParam("status", "LOST")
+        .when()
+            .get("/api/reservations/myReservations")
+        .then()
+            .statusCode(400);
+    }
+
     @Test
     void getRevenue_shouldReturn200() {
         when(reservationService.getTotalRevenue()).thenReturn(100.0);
@@ -274,4 +667,20 @@ class ReservationControllerTest {
             .statusCode(200)
             .body("currentMonthRevenue", equalTo(150.0f));
     }
-}
\ No newline at end of file
+
+    private static BatchReservationRequestDTO batchRequest(BatchMode mode) {
+        BatchReservationRequestDTO request = new BatchReservationRequestDTO();
+        request.setUserId(1L);
+        request.setMode(mode);
+        return request;
+    }
+
+    private static BatchReservationResultDTO batchResult(BatchMode mode) {
+        LocalDateTime start = LocalDateTime.of(2030, 3, 4, 18, 0);
+        boolean booked = mode == BatchMode.BEST_EFFORT;
+        return new BatchReservationResultDTO(mode, booked ? 1 : 0, 1, List.of(
+                new BatchReservationResultDTO.ItemResult(0, 2L, start, booked ? 10L : null, booked ? 4.5 : null, null),
+                new BatchReservationResultDTO.ItemResult(1, 3L, start, null, null,
+                        "Slot is already reserved for that time")));
+    }
+}
@@ -8,26 +8,45 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import ua.tqs.config.CompactCborModule;
 import ua.tqs.controllers.SlotController;
+import ua.tqs.dto.OccupancyDTO;
+import ua.tqs.dto.SlotAvailabilityDTO;
+import ua.tqs.dto.SlotChangesDTO;
+import ua.tqs.dto.SlotClusterDTO;
 import ua.tqs.dto.SlotDTO;
+import ua.tqs.dto.SlotImportReportDTO;
+import ua.tqs.dto.SlotResponseDTO;
 import ua.tqs.enums.ChargingType;
-import ua.tqs.models.Slot;
-import ua.tqs.models.Station;
+import ua.tqs.enums.StationStatus;
+import ua.tqs.index.SlotCatalog;
+import ua.tqs.services.SlotImportService;
 import ua.tqs.services.SlotService;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static io.restassured.module.mockmvc.RestAssuredMockMvc.given;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 import io.restassured.config.DecoderConfig;
 import io.restassured.config.EncoderConfig;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class SlotControllerTest {
@@ -35,12 +54,15 @@ class SlotControllerTest {
     @Mock
     private SlotService slotService;
 
-    private Slot testSlot;
+    @Mock
+    private SlotImportService slotImportService;
+
+    private SlotResponseDTO testSlot;
     private SlotDTO testSlotDTO;
 
     @BeforeEach
     void setup() {
-        SlotController slotController = new SlotController(slotService);
+        SlotController slotController = new SlotController(slotService, slotImportService);
         MockMvc mockMvc = MockMvcBuilders
                 .standaloneSetup(slotController)
                 .defaultRequest(get("/")
@@ -55,19 +77,8 @@ class SlotControllerTest {
                 .decoderConfig(DecoderConfig.decoderConfig()
                         .defaultContentCharset("UTF-8"));
 
-        Station station = new Station();
-        station.setId(1L);
-        station.setName("Test Station");
-
-        testSlot = new Slot();
-        testSlot.setId(1L);
-        testSlot.setName("Test Slot");
-        testSlot.setStation(station);
-        testSlot.setReserved(false);
-        testSlot.setChargingType(ChargingType.FAST);
-        testSlot.setPower("50.0");
-        testSlot.setLatitude(40.6405);
-        testSlot.setLongitude(-8.6538);
+        testSlot = new SlotResponseDTO(1L, "Test Slot", "Test Station", StationStatus.AVAILABLE, false,
+                ChargingType.FAST, "50.0", 40.6405, -8.6538);
 
         testSlotDTO = new SlotDTO();
         testSlotDTO.setName("Test Slot");
@@ -81,7 +92,7 @@ class SlotControllerTest {
 
     @Test
     void getAllSlots_shouldReturn200() {
-        when(slotService.getAllSlots()).thenReturn(List.of(testSlot));
+        when(slotService.getAllSlots(0L, 100)).thenReturn(List.of(testSlot));
 
         given()
             .contentType(MediaType.APPLICATION_JSON_VALUE)
@@ -90,7 +101,194 @@ class SlotControllerTest {
         .then()
             .statusCode(200)
             .body("$", hasSize(1))
+            .body("[0].name", equalTo("Test Slot"))
+            .body("[0].stationName", equalTo("Test Station"))
+            .body("[0]", not(hasKey("station")));
+    }
+
+    @Test
+    void getAllSlots_fullPage_shouldReturnNextCursor() {
+        when(slotService.getAllSlots(0L, 1)).thenReturn(List.of(testSlot));
+        String cursor = given()
+        .when()
+            .get("/api/slots?limit=1")
+        .then()
+            .statusCode(200)
+            .header("X-Next-Cursor", notNullValue())
+            .extract().header("X-Next-Cursor");
+
+        when(slotService.getAllSlots(1L, 1)).thenReturn(List.of());
+        given()
+        .when()
+            .get("/api/slots?limit=1&after=" + cursor)
+        .then()
+            .statusCode(200)
+            .header("X-Next-Cursor", nullValue())
+            .body("$", hasSize(0));
+    }
+
+    @Test
+    void getAllSlots_invalidCursorOrLimit_shouldReturn400() {
+        given().when().get("/api/slots?after=not-a-cursor").then().statusCode(400);
+        given().when().get("/api/slots?limit=501").then().statusCode(400);
+        given().when().get("/api/slots?limit=0").then().statusCode(400);
+    }
+
+    @Test
+    void getCatalog_shouldServeEtagAndAnswerRevalidationWith304() {
+        when(slotService.getCatalog()).thenReturn(catalogBody());
+
+        given()
+        .when()
+            .get("/api/slots/catalog")
+        .then()
+            .statusCode(200)
+            .header("ETag", "\"abc-1\"")
+            .header("Cache-Control", "no-cache")
             .body("[0].name", equalTo("Test Slot"));
+
+        given()
+            .header("If-None-Match", "\"abc-0\", \"abc-1\"")
+        .when()
+            .get("/api/slots/catalog")
+        .then()
+            .statusCode(304);
+    }
+
+    @Test
+    void getCatalog_whenGzipAccepted_shouldServePrecompressedBody() {
+        when(slotService.getCatalog()).thenReturn(catalogBody());
+
+        byte[] body = given()
+            .header("Accept-Encoding", "br, gzip;q=0.8")
+        .when()
+            .get("/api/slots/catalog")
+        .then()
+            .statusCode(200)
+            .header("Content-Encoding", "gzip")
+            .header("ETag", "\"abc-1-gzip\"")
+            .extract().asByteArray();
+        assertThat(body).isEqualTo(new byte[] {1, 2, 3});
+
+        given()
+            .header("Accept-Encoding", "gzip;q=0")
+        .when()
+            .get("/api/slots/catalog")
+        .then()
+            .statusCode(200)
+            .header("Content-Encoding", nullValue());
+    }
+
+    @Test
+    void getCatalogChanges_shouldReturnDelta() {
+        when(slotService.getCatalogChanges("e-4"))
+                .thenReturn(new SlotChangesDTO("e-6", false, List.of(testSlot), List.of(7L)));
+
+        given()
+        .when()
+            .get("/api/slots/changes?since=e-4")
+        .then()
+            .statusCode(200)
+            .body("version", equalTo("e-6"))
+            .body("full", equalTo(false))
+            .body("updated[0].name", equalTo("Test Slot"))
+            .body("deleted", contains(7));
+    }
+
+    @Test
+    void getCatalogChanges_withMalformedVersion_shouldReturn400() {
+        when(slotService.getCatalogChanges("x")).thenThrow(new IllegalArgumentException("Invalid catalog version: x"));
+
+        given()
+        .when()
+            .get("/api/slots/changes?since=x")
+        .then()
+            .statusCode(400)
+            .body(equalTo("Invalid catalog version: x"));
+    }
+
+    @Test
+    void importSlotsCsv_shouldReturnReport() throws Exception {
+        when(slotImportService.importCsv(any())).thenReturn(new SlotImportReportDTO(2, 1, 1,
+                List.of(new SlotImportReportDTO.RowError(3, "Slot name already exists"))));
+
+        given()
+            .contentType("text/csv")
+            .body("name,stationName,chargingType\nA,S,FAST\nB,S,FAST\nA,S,FAST\n")
+        .when()
+            .post("/api/slots/import")
+        .then()
+            .statusCode(200)
+            .body("imported", equalTo(2))
+            .body("failed", equalTo(1))
+            .body("errors[0].line", equalTo(3))
+            .body("errors[0].message", equalTo("Slot name already exists"));
+    }
+
+    @Test
+    void importSlotsCsv_withBadHeader_shouldReturn400() throws Exception {
+        when(slotImportService.importCsv(any()))
+                .thenThrow(new IllegalArgumentException("CSV header must name at least name, stationName and chargingType"));
+
+        given()
+            .contentType("text/csv")
+            .body("foo,bar\n")
+        .when()
+            .post("/api/slots/import")
+        .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void importSlotsNdjson_shouldReturnReport() throws Exception {
+        when(slotImportService.importNdjson(any())).thenReturn(new SlotImportReportDTO(1, 0, 0, List.of()));
+
+        given()
+            .contentType("application/x-ndjson")
+            .body("{\"name\":\"A\",\"stationName\":\"S\",\"chargingType\":\"FAST\"}\n")
+        .when()
+            .post("/api/slots/import")
+        .then()
+            .statusCode(200)
+            .body("imported", equalTo(1));
+    }
+
+    private static SlotCatalog.Body catalogBody() {
+        byte[] json = "[{\"id\":1,\"name\":\"Test Slot\"}]".getBytes();
+        return new SlotCatalog.Body(1L, json, new byte[] {1, 2, 3}, "\"abc-1\"", "\"abc-1-gzip\"");
+    }
+
+    @Test
+    void getAllSlots_acceptCbor_shouldReturnCompactEncoding() throws Exception {
+        when(slotService.getAllSlots(0L, 100)).thenReturn(List.of(testSlot));
+        MockMvc mockMvc = negotiatingMockMvc();
+
+        byte[] body = mockMvc.perform(get("/api/slots").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<Map<String, Object>> slots = new CBORMapper().readValue(body, new TypeReference<>() { });
+        assertThat(slots).singleElement().satisfies(slot -> {
+            assertThat(slot).containsEntry("n", "Test Slot")
+                    .containsEntry("t", ChargingType.FAST.ordinal())
+                    .containsEntry("c", List.of(40640500, -8653800))
+                    .doesNotContainKeys("location", "name");
+        });
+
+        mockMvc.perform(get("/api/slots").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    /** Standalone MockMvc with the JSON and CBOR converters the application registers. */
+    private MockMvc negotiatingMockMvc() {
+        CBORMapper cborMapper = new CBORMapper();
+        cborMapper.registerModule(new CompactCborModule());
+        return MockMvcBuilders.standaloneSetup(new SlotController(slotService, slotImportService))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(),
+                        new MappingJackson2CborHttpMessageConverter(cborMapper))
+                .build();
     }
 
     @Test
@@ -107,6 +305,82 @@ class SlotControllerTest {
             .body("[0].name", equalTo("Test Slot"));
     }
 
+    @Test
+    void getSlotsWithin_shouldReturn200() {
+        SlotResponseDTO dto = new SlotResponseDTO();
+        dto.setId(1L);
+        dto.setName("Test Slot");
+        when(slotService.getSlotsWithin(40.0, -9.0, 41.0, -8.0)).thenReturn(List.of(dto));
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .queryParam("minLat", 40.0)
+            .queryParam("minLon", -9.0)
+            .queryParam("maxLat", 41.0)
+            .queryParam("maxLon", -8.0)
+        .when()
+            .get("/api/slots/within")
+        .then()
+            .statusCode(200)
+            .body("$", hasSize(1))
+            .body("[0].name", equalTo("Test Slot"));
+    }
+
+    @Test
+    void getSlotsWithin_whenBoxInvalid_shouldReturn400() {
+        when(slotService.getSlotsWithin(41.0, -9.0, 40.0, -8.0))
+                .thenThrow(new IllegalArgumentException("Invalid latitude range"));
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .queryParam("minLat", 41.0)
+            .queryParam("minLon", -9.0)
+            .queryParam("maxLat", 40.0)
+            .queryParam("maxLon", -8.0)
+        .when()
+            .get("/api/slots/within")
+        .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void getNearestAvailableSlots_shouldReturn200() {
+        SlotResponseDTO dto = new SlotResponseDTO();
+        dto.setId(1L);
+        dto.setName("Test Slot");
+        when(slotService.getNearestAvailableSlots(40.64, -8.65, 5, ChargingType.FAST)).thenReturn(List.of(dto));
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .queryParam("lat", 40.64)
+            .queryParam("lon", -8.65)
+            .queryParam("type", "FAST")
+        .when()
+            .get("/api/slots/nearest")
+        .then()
+            .statusCode(200)
+            .body("$", hasSize(1))
+            .body("[0].name", equalTo("Test Slot"));
+    }
+
+    @Test
+    void getClusters_shouldReturn200() {
+        SlotClusterDTO cluster = new SlotClusterDTO();
+        cluster.setCount(3);
+        when(slotService.getClusters(eq(6), any(double[].class))).thenReturn(List.of(cluster));
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .queryParam("zoom", 6)
+            .queryParam("bbox", "40.0,-9.0,41.0,-8.0")
+        .when()
+            .get("/api/slots/clusters")
+        .then()
+            .statusCode(200)
+            .body("$", hasSize(1))
+            .body("[0].count", equalTo(3));
+    }
+
     @Test
     void getSlotById_whenExists_shouldReturn200() {
         when(slotService.getSlotById(1L)).thenReturn(Optional.of(testSlot));
@@ -122,6 +396,75 @@ class SlotControllerTest {
                 .body("name", equalTo("Test Slot"));
     }
 
+    @Test
+    void getSlotAvailability_shouldReturnWindows() {
+        LocalDateTime from = LocalDateTime.of(2025, 6, 2, 8, 0);
+        LocalDateTime to = from.plusHours(4);
+        when(slotService.getAvailability(1L, from, to)).thenReturn(Optional.of(new SlotAvailabilityDTO(1L, from, to,
+                List.of(new SlotAvailabilityDTO.Window(from, from.plusHours(1))),
+                List.of(new SlotAvailabilityDTO.Window(from.plusHours(1), to)))));
+
+        given()
+        .when()
+            .get("/api/slots/1/availability?from=2025-06-02T08:00:00&to=2025-06-02T12:00:00")
+        .then()
+            .statusCode(200)
+            .body("busy", hasSize(1))
+            .body("free", hasSize(1));
+    }
+
+    @Test
+    void getSlotAvailability_whenRangeInvalid_shouldReturn400() {
+        when(slotService.getAvailability(eq(1L), any(), any())).thenThrow(new IllegalArgumentException("from must be before to"));
+
+        given()
+        .when()
+            .get("/api/slots/1/availability?from=2025-06-02T12:00:00&to=2025-06-02T08:00:00")
+        .then()
+            .statusCode(400)
+            .body(equalTo("from must be before to"));
+    }
+
+    @Test
+    void getSlotAvailability_whenSlotUnknown_shouldReturn404() {
+        when(slotService.getAvailability(eq(9L), any(), any())).thenReturn(Optional.empty());
+
+        given()
+        .when()
+            .get("/api/slots/9/availability?from=2025-06-02T08:00:00&to=2025-06-02T12:00:00")
+        .then()
+            .statusCode(404);
+    }
+
+    @Test
+    void getFreeSlots_shouldPassFiltersAndLimit() {
+        LocalDateTime from = LocalDateTime.of(2025, 6, 3, 18, 0);
+        SlotResponseDTO free = new SlotResponseDTO();
+        free.setId(1L);
+        when(slotService.getFreeSlots(from, from.plusMinutes(90), ChargingType.FAST, 7L, 20)).thenReturn(List.of(free));
+
+        given()
+        .when()
+            .get("/api/slots/free?from=2025-06-03T18:00:00&to=2025-06-03T19:30:00&type=FAST&stationId=7&limit=20")
+        .then()
+            .statusCode(200)
+            .body("$", hasSize(1))
+            .body("[0].id", equalTo(1));
+    }
+
+    @Test
+    void getFreeSlots_whenRangeTooLong_shouldReturn400() {
+        when(slotService.getFreeSlots(any(), any(), any(), any(), anyInt()))
+                .thenThrow(new IllegalArgumentException("Search range must be positive and at most one day"));
+
+        given()
+        .when()
+            .get("/api/slots/free?from=2025-06-03T18:00:00&to=2025-06-05T18:00:00")
+        .then()
+            .statusCode(400)
+            .body(equalTo("Search range must be positive and at most one day"));
+    }
+
     @Test
     void getSlotById_whenNotExists_shouldReturn404() {
         when(slotService.getSlotById(999L)).thenReturn(Optional.empty());
@@ -163,7 +506,11 @@ class SlotControllerTest {
 
     @Test
     void getSlotsByStation_shouldReturn200() {
-        when(slotService.getSlotsByStationId(1L)).thenReturn(List.of(testSlot));
+        SlotResponseDTO dto = new SlotResponseDTO();
+        dto.setId(1L);
+        dto.setName("Test Slot");
+        dto.setStationName("Test Station");
+        when(slotService.getSlotsByStationId(1L)).thenReturn(List.of(dto));
 
         given()
             .contentType(MediaType.APPLICATION_JSON_VALUE)
@@ -175,6 +522,24 @@ class SlotControllerTest {
             .body("[0].name", equalTo("Test Slot"));
     }
 
+    @Test
+    void getAllChargers_shouldReturn200() {
+        SlotResponseDTO dto = new SlotResponseDTO();
+        dto.setId(1L);
+        dto.setName("Test Slot");
+        dto.setStationName("Test Station");
+        when(slotService.getAllChargers()).thenReturn(List.of(dto));
+
+        given()
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .when()
+            .get("/api/slots/chargers")
+        .then()
+            .statusCode(200)
+            .body("$", hasSize(1))
+            .body("[0].stationName", equalTo("Test Station"));
+    }
+
     @Test
     void deleteSlot_whenExists_shouldReturn200() {
         when(slotService.deleteSlot(1L)).thenReturn(true);
@@ -216,6 +581,24 @@ class SlotControllerTest {
             .body("activeChargers", equalTo(5));
     }
 
+    @Test
+    void getChargerStats_withStation_shouldIncludeBreakdowns() {
+        when(slotService.getActiveReservations()).thenReturn(3L);
+        when(slotService.getOccupancyByChargingType())
+                .thenReturn(Map.of(ChargingType.FAST, new OccupancyDTO(4, 3, 1)));
+        when(slotService.getStationOccupancy(1L))
+                .thenReturn(Map.of(ChargingType.FAST, new OccupancyDTO(2, 1, 1)));
+
+        given()
+        .when()
+            .get("/api/slots/stats?stationId=1")
+        .then()
+            .statusCode(200)
+            .body("activeReservations", equalTo(3))
+            .body("byChargingType.FAST.reserved", equalTo(3))
+            .body("station.FAST.free", equalTo(1));
+    }
+
     @Test
     void updateSlotFromDto_whenExists_shouldReturn200() {
         when(slotService.getSlotById(1L)).thenReturn(Optional.of(testSlot));
@@ -39,7 +39,7 @@ class UserControllerTest {
     @Test
     void getAllUsers_shouldReturn200() {
         User user = new User(1L, "test@example.com", "123", "Test User", UserRole.USER);
-        when(userService.getAllUsers()).thenReturn(List.of(user));
+        when(userService.getAllUsers(0L, 100)).thenReturn(List.of(user));
 
         given()
             .contentType(MediaType.APPLICATION_JSON_VALUE)
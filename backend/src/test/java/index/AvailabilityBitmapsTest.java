@@ -0,0 +1,126 @@
+package index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.enums.StationStatus;
+import ua.tqs.events.ReservationChangedEvent;
+import ua.tqs.index.AvailabilityBitmaps;
+import ua.tqs.index.ReservationIntervals;
+import ua.tqs.index.SlotSnapshot;
+import ua.tqs.repositories.ReservationRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class AvailabilityBitmapsTest {
+
+    private static final LocalDateTime SIX_PM = LocalDateTime.of(2025, 6, 3, 18, 0);
+
+    private ReservationIntervals intervals;
+    private AvailabilityBitmaps bitmaps;
+
+    @BeforeEach
+    void setUp() {
+        intervals = new ReservationIntervals(mock(ReservationRepository.class));
+        bitmaps = new AvailabilityBitmaps(intervals);
+        bitmaps.rebuild(List.of(
+                snapshot(1L, 100L, ChargingType.FAST, StationStatus.AVAILABLE),
+                snapshot(2L, 100L, ChargingType.FAST, StationStatus.AVAILABLE),
+                snapshot(3L, 200L, ChargingType.NORMAL, StationStatus.AVAILABLE),
+                snapshot(4L, 300L, ChargingType.FAST, StationStatus.UNAVAILABLE)));
+    }
+
+    @Test
+    void free_shouldFilterByTypeStationAndStationStatus() {
+        assertThat(ids(bitmaps.free(SIX_PM, SIX_PM.plusMinutes(90), ChargingType.FAST, null, 10))).containsExactly(1L, 2L);
+        assertThat(ids(bitmaps.free(SIX_PM, SIX_PM.plusMinutes(90), null, 200L, 10))).containsExactly(3L);
+        assertThat(ids(bitmaps.free(SIX_PM, SIX_PM.plusMinutes(90), ChargingType.NORMAL, 100L, 10))).isEmpty();
+        assertThat(bitmaps.free(SIX_PM, SIX_PM.plusMinutes(90), null, null, 2)).hasSize(2);
+    }
+
+    @Test
+    void free_shouldExcludeSlotsWithReservationsTouchingTheRange() {
+        reserve(1L, 1L, SIX_PM.plusMinutes(80), 30);      // 19:20-19:50
+        reserve(2L, 2L, SIX_PM.minusHours(1), 30);        // 17:00-17:30
+
+        assertThat(ids(bitmaps.free(SIX_PM, SIX_PM.plusMinutes(90), ChargingType.FAST, null, 10))).containsExactly(2L);
+        assertThat(ids(bitmaps.free(SIX_PM.plusHours(2), SIX_PM.plusHours(3), ChargingType.FAST, null, 10)))
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void free_shouldListABookedSlotForADisjointRange() {
+        reserve(1L, 1L, SIX_PM.minusHours(8), 60);       // 10:00-11:00
+        bitmaps.put(new SlotSnapshot(1L, "Slot-1", 100L, "Station-100", StationStatus.AVAILABLE, 40.0, -8.0,
+                ChargingType.FAST, "50", true));
+
+        assertThat(ids(bitmaps.free(SIX_PM, SIX_PM.plusHours(1), ChargingType.FAST, null, 10))).containsExactly(1L, 2L);
+        assertThat(ids(bitmaps.free(SIX_PM.minusHours(8), SIX_PM.minusHours(7), ChargingType.FAST, null, 10)))
+                .containsExactly(2L);
+    }
+
+    @Test
+    void cancel_shouldFreeOnlyBucketsNoOtherReservationUses() {
+        reserve(1L, 1L, SIX_PM, 5);                       // 18:00-18:05
+        reserve(2L, 1L, SIX_PM.plusMinutes(10), 3);       // 18:10-18:13, same bucket
+
+        intervals.onReservationChanged(new ReservationChangedEvent(1L, 1L, 9L, SIX_PM, 5, ReservationStatus.CANCELED));
+        bitmaps.onReservationChanged(new ReservationChangedEvent(1L, 1L, 9L, SIX_PM, 5, ReservationStatus.CANCELED));
+        assertThat(ids(bitmaps.free(SIX_PM, SIX_PM.plusMinutes(14), ChargingType.FAST, null, 10))).containsExactly(2L);
+
+        intervals.onReservationChanged(new ReservationChangedEvent(2L, 1L, 9L, SIX_PM.plusMinutes(10), 3,
+                ReservationStatus.FINISHED));
+        bitmaps.onReservationChanged(new ReservationChangedEvent(2L, 1L, 9L, SIX_PM.plusMinutes(10), 3,
+                ReservationStatus.FINISHED));
+        assertThat(ids(bitmaps.free(SIX_PM, SIX_PM.plusMinutes(14), ChargingType.FAST, null, 10))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void rebuild_shouldSeedBusyBucketsFromTheIntervals() {
+        reserve(1L, 3L, SIX_PM, 60);
+
+        bitmaps.rebuild(List.of(snapshot(3L, 200L, ChargingType.NORMAL, StationStatus.AVAILABLE)));
+
+        assertThat(bitmaps.free(SIX_PM.plusMinutes(30), SIX_PM.plusMinutes(45), null, null, 10)).isEmpty();
+    }
+
+    @Test
+    void putAndRemove_shouldKeepFiltersCurrentAndReuseOrdinals() {
+        reserve(1L, 2L, SIX_PM, 60);
+        bitmaps.put(snapshot(1L, 200L, ChargingType.NORMAL, StationStatus.AVAILABLE));
+        bitmaps.remove(2L);
+        bitmaps.put(snapshot(5L, 100L, ChargingType.FAST, StationStatus.AVAILABLE));
+
+        assertThat(ids(bitmaps.free(SIX_PM, SIX_PM.plusMinutes(30), null, 200L, 10))).containsExactly(1L, 3L);
+        assertThat(ids(bitmaps.free(SIX_PM, SIX_PM.plusMinutes(30), ChargingType.FAST, 100L, 10))).containsExactly(5L);
+    }
+
+    @Test
+    void free_withInvalidRange_shouldThrow() {
+        assertThatThrownBy(() -> bitmaps.free(SIX_PM, SIX_PM, null, null, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> bitmaps.free(SIX_PM, SIX_PM.plusHours(25), null, null, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void reserve(Long reservationId, Long slotId, LocalDateTime start, int minutes) {
+        ReservationChangedEvent event = new ReservationChangedEvent(reservationId, slotId, 9L, start, minutes,
+                ReservationStatus.ACTIVE);
+        intervals.onReservationChanged(event);
+        bitmaps.onReservationChanged(event);
+    }
+
+    private static List<Long> ids(List<SlotSnapshot> slots) {
+        return slots.stream().map(SlotSnapshot::getId).toList();
+    }
+
+    private static SlotSnapshot snapshot(Long id, Long stationId, ChargingType type, StationStatus status) {
+        return new SlotSnapshot(id, "Slot-" + id, stationId, "Station-" + stationId, status, 40.0, -8.0, type, "50", false);
+    }
+}
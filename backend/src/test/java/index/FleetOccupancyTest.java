@@ -0,0 +1,109 @@
+package index;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ua.tqs.dto.OccupancyDTO;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.events.ReservationChangedEvent;
+import ua.tqs.index.FleetOccupancy;
+import ua.tqs.index.SlotSnapshot;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FleetOccupancyTest {
+
+    private MeterRegistry meterRegistry;
+    private FleetOccupancy occupancy;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        occupancy = new FleetOccupancy(meterRegistry);
+        occupancy.rebuild(List.of(
+                snapshot(1L, 1L, ChargingType.FAST, true),
+                snapshot(2L, 1L, ChargingType.NORMAL, false),
+                snapshot(3L, 1L, ChargingType.FAST, false),
+                snapshot(4L, 2L, ChargingType.ULTRA_FAST, false)));
+    }
+
+    @Test
+    void rebuild_shouldCountPerTypeAndStation() {
+        assertThat(occupancy.total()).isEqualTo(4);
+        assertThat(occupancy.free()).isEqualTo(3);
+        assertThat(occupancy.total(ChargingType.FAST)).isEqualTo(2);
+        assertThat(occupancy.reserved(ChargingType.FAST)).isEqualTo(1);
+        assertThat(occupancy.byChargingType(1L))
+                .containsEntry(ChargingType.FAST, new OccupancyDTO(2, 1, 1))
+                .containsEntry(ChargingType.NORMAL, new OccupancyDTO(1, 0, 1))
+                .containsEntry(ChargingType.ULTRA_FAST, new OccupancyDTO(0, 0, 0));
+        assertThat(occupancy.byChargingType(99L)).containsEntry(ChargingType.FAST, new OccupancyDTO(0, 0, 0));
+    }
+
+    @Test
+    void put_shouldApplyOnlyTheDeltaFromThePreviousSnapshot() {
+        occupancy.put(snapshot(3L, 2L, ChargingType.FAST, true));
+        occupancy.put(snapshot(3L, 2L, ChargingType.FAST, true));
+
+        assertThat(occupancy.total()).isEqualTo(4);
+        assertThat(occupancy.reserved()).isEqualTo(2);
+        assertThat(occupancy.total(1L, ChargingType.FAST)).isEqualTo(1);
+        assertThat(occupancy.reserved(2L, ChargingType.FAST)).isEqualTo(1);
+    }
+
+    @Test
+    void remove_shouldSubtractSlotAndIgnoreUnknownIds() {
+        occupancy.remove(1L);
+        occupancy.remove(1L);
+        occupancy.remove(42L);
+
+        assertThat(occupancy.total()).isEqualTo(3);
+        assertThat(occupancy.reserved()).isZero();
+        assertThat(occupancy.total(1L, ChargingType.FAST)).isEqualTo(1);
+    }
+
+    @Test
+    void gauges_shouldReflectCounters() {
+        occupancy.onReservationChanged(reservation(ReservationStatus.ACTIVE));
+        occupancy.onReservationChanged(reservation(ReservationStatus.ACTIVE));
+        occupancy.onReservationChanged(reservation(ReservationStatus.CANCELED));
+
+        assertThat(meterRegistry.get("slots.total").tag("chargingType", "FAST").gauge().value()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("slots.reserved").tag("chargingType", "FAST").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("reservations.active").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void concurrentToggles_shouldNotLoseUpdates() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            long slotId = 100L + i;
+            executor.submit(() -> {
+                for (int round = 0; round < 1_000; round++) {
+                    occupancy.put(snapshot(slotId, 3L, ChargingType.NORMAL, round % 2 == 0));
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(occupancy.total(3L, ChargingType.NORMAL)).isEqualTo(8);
+        assertThat(occupancy.reserved(3L, ChargingType.NORMAL)).isZero();
+    }
+
+    private static ReservationChangedEvent reservation(ReservationStatus status) {
+        return new ReservationChangedEvent(1L, 1L, 1L, null, 30, status);
+    }
+
+    private static SlotSnapshot snapshot(Long id, Long stationId, ChargingType type, boolean reserved) {
+        return new SlotSnapshot(id, "Slot-" + id, stationId, "Station-" + stationId, null,
+                null, null, type, "50", reserved);
+    }
+}
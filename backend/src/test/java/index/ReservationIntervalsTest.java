@@ -0,0 +1,100 @@
+package index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.events.ReservationChangedEvent;
+import ua.tqs.index.ReservationIntervals;
+import ua.tqs.repositories.ReservationRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReservationIntervalsTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2025, 6, 2, 9, 0);
+
+    private ReservationRepository reservationRepository;
+    private ReservationIntervals intervals;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository = mock(ReservationRepository.class);
+        intervals = new ReservationIntervals(reservationRepository);
+        activate(1L, 10L, 100L, NINE, 60);                 // 09:00-10:00
+        activate(2L, 10L, 101L, NINE.plusHours(3), 30);    // 12:00-12:30
+        activate(3L, 10L, 102L, NINE.plusHours(1), 30);    // 10:00-10:30, touches the first
+    }
+
+    @Test
+    void slotOverlaps_shouldTreatIntervalsAsClosed() {
+        assertThat(intervals.slotOverlaps(10L, NINE.plusMinutes(30), NINE.plusMinutes(45))).isTrue();
+        assertThat(intervals.slotOverlaps(10L, NINE.minusHours(1), NINE)).isTrue();
+        assertThat(intervals.slotOverlaps(10L, NINE.plusMinutes(31 + 60), NINE.plusHours(2).plusMinutes(59))).isFalse();
+        assertThat(intervals.slotOverlaps(10L, NINE.plusHours(4), NINE.plusHours(5))).isFalse();
+        assertThat(intervals.slotOverlaps(11L, NINE, NINE.plusHours(1))).isFalse();
+    }
+
+    @Test
+    void slotOverlaps_shouldSeeLongReservationsSpanningTheQuery() {
+        activate(4L, 20L, 100L, NINE, 24 * 60);
+        activate(5L, 20L, 103L, NINE.plusHours(1), 10);
+
+        assertThat(intervals.slotOverlaps(20L, NINE.plusHours(20), NINE.plusHours(21))).isTrue();
+    }
+
+    @Test
+    void userOverlaps_shouldIndexByUserAcrossSlots() {
+        activate(6L, 30L, 100L, NINE.plusHours(6), 60);
+
+        assertThat(intervals.userOverlaps(100L, NINE.plusHours(6).plusMinutes(30), NINE.plusHours(8))).isTrue();
+        assertThat(intervals.userOverlaps(101L, NINE.plusHours(6).plusMinutes(30), NINE.plusHours(8))).isFalse();
+    }
+
+    @Test
+    void canceledAndFinishedReservations_shouldFreeTheirInterval() {
+        intervals.onReservationChanged(new ReservationChangedEvent(1L, 10L, 100L, NINE, 60, ReservationStatus.CANCELED));
+        intervals.onReservationChanged(new ReservationChangedEvent(3L, 10L, 102L, NINE.plusHours(1), 30,
+                ReservationStatus.FINISHED));
+
+        assertThat(intervals.slotOverlaps(10L, NINE, NINE.plusMinutes(59))).isFalse();
+        assertThat(intervals.userOverlaps(100L, NINE, NINE.plusMinutes(59))).isFalse();
+        assertThat(intervals.slotOverlaps(10L, NINE.plusHours(3), NINE.plusHours(3))).isTrue();
+    }
+
+    @Test
+    void forEachBusyWindow_shouldMergeTouchingReservationsAndClip() {
+        List<String> windows = new ArrayList<>();
+
+        intervals.forEachBusyWindow(10L, NINE.plusMinutes(15), NINE.plusHours(3).plusMinutes(10),
+                (start, end) -> windows.add(start.toLocalTime() + "-" + end.toLocalTime()));
+
+        assertThat(windows).containsExactly("09:15-10:30", "12:00-12:10");
+    }
+
+    @Test
+    void load_shouldSeedFromActiveReservations() {
+        ReservationRepository.ReservationInterval interval = mock(ReservationRepository.ReservationInterval.class);
+        when(interval.getId()).thenReturn(7L);
+        when(interval.getSlotId()).thenReturn(40L);
+        when(interval.getUserId()).thenReturn(104L);
+        when(interval.getStartTime()).thenReturn(NINE);
+        when(interval.getDurationMinutes()).thenReturn(45);
+        when(reservationRepository.findIntervalsByStatus(ReservationStatus.ACTIVE)).thenReturn(List.of(interval));
+
+        intervals.load();
+
+        assertThat(intervals.slotOverlaps(40L, NINE.plusMinutes(44), NINE.plusHours(1))).isTrue();
+        assertThat(intervals.slotOverlaps(10L, NINE, NINE.plusHours(1))).isFalse();
+    }
+
+    private void activate(Long id, Long slotId, Long userId, LocalDateTime start, int minutes) {
+        intervals.onReservationChanged(new ReservationChangedEvent(id, slotId, userId, start, minutes,
+                ReservationStatus.ACTIVE));
+    }
+}
@@ -0,0 +1,133 @@
+package index;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ua.tqs.dto.SlotChangesDTO;
+import ua.tqs.dto.SlotResponseDTO;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.events.ReservationChangedEvent;
+import ua.tqs.index.SlotCatalog;
+import ua.tqs.index.SlotSnapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SlotCatalogTest {
+
+    private SlotCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new SlotCatalog(new ObjectMapper());
+        catalog.rebuild(List.of(snapshot(2L, false), snapshot(1L, true)));
+    }
+
+    @Test
+    void body_shouldListSlotsOrderedByIdWithGzipVariant() throws IOException {
+        SlotCatalog.Body body = catalog.body();
+
+        String json = new String(body.json());
+        assertThat(json).startsWith("[{\"id\":1,").contains("\"stationName\":\"Station\"");
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body.gzip()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(body.json());
+        }
+        assertThat(body.etag()).startsWith("\"").endsWith("\"").isNotEqualTo(body.gzipEtag());
+    }
+
+    @Test
+    void body_whenUnchanged_shouldReuseTheSameBuffers() {
+        SlotCatalog.Body first = catalog.body();
+
+        assertThat(catalog.body()).isSameAs(first);
+    }
+
+    @Test
+    void changes_shouldBumpVersionAndRebuild() {
+        SlotCatalog.Body first = catalog.body();
+
+        catalog.put(snapshot(1L, false));
+        SlotCatalog.Body second = catalog.body();
+        assertThat(second.version()).isGreaterThan(first.version());
+        assertThat(second.etag()).isNotEqualTo(first.etag());
+        assertThat(new String(second.json())).doesNotContain("\"reserved\":true");
+
+        catalog.onReservationChanged(new ReservationChangedEvent(1L, 1L, 1L, null, 30, ReservationStatus.ACTIVE));
+        assertThat(catalog.getVersion()).isGreaterThan(second.version());
+
+        long beforeUnknownRemove = catalog.getVersion();
+        catalog.remove(42L);
+        assertThat(catalog.getVersion()).isEqualTo(beforeUnknownRemove);
+        catalog.remove(2L);
+        assertThat(new String(catalog.body().json())).doesNotContain("\"id\":2");
+    }
+
+    @Test
+    void changesSince_shouldReturnOnlyTheLatestStateOfChangedSlots() {
+        String since = catalog.changesSince(null).getVersion();
+
+        catalog.put(snapshot(1L, false));
+        catalog.put(snapshot(3L, false));
+        catalog.put(snapshot(1L, true));
+        catalog.remove(2L);
+        SlotChangesDTO changes = catalog.changesSince(since);
+
+        assertThat(changes.isFull()).isFalse();
+        assertThat(changes.getUpdated()).extracting(SlotResponseDTO::getId).containsExactly(3L, 1L);
+        assertThat(changes.getUpdated().get(1).isReserved()).isTrue();
+        assertThat(changes.getDeleted()).containsExactly(2L);
+        assertThat(catalog.changesSince(changes.getVersion()).getUpdated()).isEmpty();
+    }
+
+    @Test
+    void changesSince_shouldAcceptTheCatalogEtagsAsServed() {
+        SlotCatalog.Body body = catalog.body();
+
+        catalog.put(snapshot(3L, false));
+
+        for (String etag : List.of(body.etag(), body.gzipEtag(), "W/" + body.gzipEtag())) {
+            SlotChangesDTO changes = catalog.changesSince(etag);
+            assertThat(changes.isFull()).isFalse();
+            assertThat(changes.getUpdated()).extracting(SlotResponseDTO::getId).containsExactly(3L);
+        }
+    }
+
+    @Test
+    void changesSince_withCompactedOrForeignVersion_shouldFallBackToFullCatalog() {
+        SlotCatalog small = new SlotCatalog(new ObjectMapper(), 2);
+        small.rebuild(List.of(snapshot(1L, false), snapshot(2L, false)));
+        String since = small.changesSince(null).getVersion();
+        small.put(snapshot(1L, true));
+        small.put(snapshot(2L, true));
+        assertThat(small.changesSince(since).isFull()).isFalse();
+
+        small.put(snapshot(3L, true));
+        SlotChangesDTO compacted = small.changesSince(since);
+        assertThat(compacted.isFull()).isTrue();
+        assertThat(compacted.getUpdated()).extracting(SlotResponseDTO::getId).containsExactly(1L, 2L, 3L);
+
+        assertThat(small.changesSince("0-1").isFull()).isTrue();
+        assertThatThrownBy(() -> small.changesSince("abc-x")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void changesSince_beforeRebuild_shouldFallBackToFullCatalog() {
+        String since = catalog.changesSince(null).getVersion();
+
+        catalog.rebuild(List.of(snapshot(5L, false)));
+
+        SlotChangesDTO changes = catalog.changesSince(since);
+        assertThat(changes.isFull()).isTrue();
+        assertThat(changes.getUpdated()).extracting(SlotResponseDTO::getId).containsExactly(5L);
+    }
+
+    private static SlotSnapshot snapshot(Long id, boolean reserved) {
+        return new SlotSnapshot(id, "Slot-" + id, 1L, "Station", null, 40.0, -8.0, ChargingType.FAST, "50", reserved);
+    }
+}
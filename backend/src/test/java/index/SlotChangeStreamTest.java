@@ -0,0 +1,139 @@
+package index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ua.tqs.controllers.SlotController;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.StationStatus;
+import ua.tqs.index.SlotChangeStream;
+import ua.tqs.index.SlotSnapshot;
+import ua.tqs.services.SlotImportService;
+import ua.tqs.services.SlotService;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class SlotChangeStreamTest {
+
+    private SlotChangeStream stream;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        stream = new SlotChangeStream();
+        stream.rebuild(List.of(snapshot(1L, 40.0, -8.0, false), snapshot(2L, 41.0, -8.0, false)));
+
+        SlotService slotService = mock(SlotService.class);
+        when(slotService.subscribeToChanges(any(), any()))
+                .thenAnswer(invocation -> stream.subscribe(invocation.getArgument(0), invocation.getArgument(1)));
+        mockMvc = MockMvcBuilders.standaloneSetup(new SlotController(slotService, mock(SlotImportService.class))).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void subscribeByIds_shouldOnlyReceiveChangesOfWatchedSlots() throws Exception {
+        MockHttpServletResponse response = open("/api/slots/stream?ids=1");
+
+        stream.put(snapshot(2L, 41.0, -8.0, true));
+        stream.put(snapshot(1L, 40.0, -8.0, true));
+        stream.remove(1L);
+
+        awaitContent(response, "event:removed");
+        assertThat(response.getContentType()).startsWith("text/event-stream");
+        assertThat(response.getContentAsString())
+                .contains("event:slot\ndata:{\"id\":1,\"reserved\":true}")
+                .contains("event:removed\ndata:{\"id\":1}")
+                .doesNotContain("\"id\":2");
+    }
+
+    @Test
+    void subscribeByBbox_shouldReceiveSlotsInsideAndThoseMovingOut() throws Exception {
+        MockHttpServletResponse response = open("/api/slots/stream?bbox=39.5,-8.5,40.5,-7.5");
+
+        stream.put(snapshot(2L, 41.0, -8.0, true));
+        stream.put(snapshot(1L, 45.0, -8.0, false));
+        stream.put(snapshot(3L, 40.1, -8.1, false));
+
+        awaitContent(response, "\"id\":3");
+        assertThat(response.getContentAsString())
+                .contains("{\"id\":1,\"reserved\":false}")
+                .doesNotContain("\"id\":2");
+    }
+
+    @Test
+    void put_withUnchangedAvailability_shouldNotPublish() throws Exception {
+        MockHttpServletResponse response = open("/api/slots/stream");
+
+        stream.put(new SlotSnapshot(1L, "Renamed", 10L, "Station", StationStatus.AVAILABLE,
+                40.0, -8.0, ChargingType.NORMAL, "22", false));
+        stream.put(snapshot(2L, 41.0, -8.0, true));
+
+        awaitContent(response, "\"id\":2");
+        assertThat(response.getContentAsString()).doesNotContain("\"id\":1");
+    }
+
+    @Test
+    void rebuild_shouldTellSubscribersToRefetch() throws Exception {
+        MockHttpServletResponse response = open("/api/slots/stream");
+
+        stream.rebuild(List.of(snapshot(1L, 40.0, -8.0, true)));
+
+        awaitContent(response, "event:reset");
+    }
+
+    @Test
+    void heartbeat_shouldSendComment() throws Exception {
+        MockHttpServletResponse response = open("/api/slots/stream");
+
+        stream.heartbeat();
+
+        awaitContent(response, ":\n\n");
+    }
+
+    @Test
+    void subscribe_withInvalidFilters_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/slots/stream?bbox=41,-8,40,-7"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/slots/stream?bbox=40,-8"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(stream.subscriberCount()).isZero();
+    }
+
+    private MockHttpServletResponse open(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(stream.subscriberCount()).isEqualTo(1);
+        return result.getResponse();
+    }
+
+    private static void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!response.getContentAsString().contains(expected)) {
+            assertThat(System.currentTimeMillis()).as("waiting for %s", expected).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static SlotSnapshot snapshot(Long id, double lat, double lon, boolean reserved) {
+        return new SlotSnapshot(id, "Slot " + id, 10L, "Station", StationStatus.AVAILABLE,
+                lat, lon, ChargingType.NORMAL, "22", reserved);
+    }
+}
@@ -0,0 +1,92 @@
+package index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ua.tqs.dto.SlotClusterDTO;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.index.SlotClusterIndex;
+import ua.tqs.index.SlotSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class SlotClusterIndexTest {
+
+    private SlotClusterIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SlotClusterIndex();
+    }
+
+    @Test
+    void clusters_atLowZoomShouldMergeNearbySlots() {
+        index.put(snapshot(1L, 40.6405, -8.6538, ChargingType.FAST, false));
+        index.put(snapshot(2L, 40.6443, -8.6455, ChargingType.FAST, true));
+        index.put(snapshot(3L, 40.6420, -8.6500, ChargingType.NORMAL, false));
+
+        List<SlotClusterDTO> clusters = index.clusters(4, 35, -10, 45, -5);
+
+        assertThat(clusters).hasSize(1);
+        SlotClusterDTO cluster = clusters.get(0);
+        assertThat(cluster.getCount()).isEqualTo(3);
+        assertThat(cluster.getLatitude()).isCloseTo(40.6423, within(1e-3));
+        assertThat(cluster.getFree()).containsEntry(ChargingType.FAST, 1).containsEntry(ChargingType.NORMAL, 1);
+        assertThat(cluster.getReserved()).containsEntry(ChargingType.FAST, 1).containsEntry(ChargingType.NORMAL, 0);
+    }
+
+    @Test
+    void clusters_atHighZoomShouldSplitDistantSlots() {
+        index.put(snapshot(1L, 40.6405, -8.6538, ChargingType.FAST, false));  // Aveiro
+        index.put(snapshot(2L, 41.1579, -8.6291, ChargingType.FAST, false));  // Porto
+
+        assertThat(index.clusters(10, 40.5, -8.8, 41.2, -8.5)).hasSize(2);
+    }
+
+    @Test
+    void clusters_shouldFollowUpdatesAndDeletes() {
+        index.put(snapshot(1L, 40.6405, -8.6538, ChargingType.FAST, false));
+        index.put(snapshot(2L, 40.6443, -8.6455, ChargingType.FAST, false));
+
+        index.put(snapshot(1L, 40.6405, -8.6538, ChargingType.FAST, true));
+        index.remove(2L);
+
+        SlotClusterDTO cluster = index.clusters(4, 35, -10, 45, -5).get(0);
+        assertThat(cluster.getCount()).isEqualTo(1);
+        assertThat(cluster.getFree()).containsEntry(ChargingType.FAST, 0);
+        assertThat(cluster.getReserved()).containsEntry(ChargingType.FAST, 1);
+
+        index.remove(1L);
+        assertThat(index.clusters(4, 35, -10, 45, -5)).isEmpty();
+    }
+
+    @Test
+    void clusters_responseSizeShouldBeBoundedForAnyViewport() {
+        List<SlotSnapshot> fleet = new ArrayList<>();
+        for (long id = 1; id <= 20_000; id++) {
+            fleet.add(snapshot(id, -60 + (id % 120), -170 + (id * 7 % 340), ChargingType.FAST, false));
+        }
+        index.rebuild(fleet);
+
+        List<SlotClusterDTO> world = index.clusters(SlotClusterIndex.MAX_ZOOM, -85, -180, 85, 180);
+
+        assertThat(world).hasSizeLessThanOrEqualTo(SlotClusterIndex.MAX_CLUSTERS);
+        assertThat(world.stream().mapToInt(SlotClusterDTO::getCount).sum()).isEqualTo(20_000);
+    }
+
+    @Test
+    void clusters_invalidArgumentsShouldThrow() {
+        assertThatThrownBy(() -> index.clusters(-1, 40, -9, 41, -8))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.clusters(5, 41, -9, 40, -8))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static SlotSnapshot snapshot(Long id, double lat, double lon, ChargingType type, boolean reserved) {
+        return new SlotSnapshot(id, "Slot-" + id, 1L, "Station", null, lat, lon, type, "50", reserved);
+    }
+}
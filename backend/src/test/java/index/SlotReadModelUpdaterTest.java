@@ -0,0 +1,86 @@
+package index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.events.SlotChangedEvent;
+import ua.tqs.events.StationChangedEvent;
+import ua.tqs.index.SlotReadModel;
+import ua.tqs.index.SlotReadModelUpdater;
+import ua.tqs.models.Slot;
+import ua.tqs.models.Station;
+import ua.tqs.repositories.SlotRepository;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SlotReadModelUpdaterTest {
+
+    @Mock
+    private SlotRepository slotRepository;
+
+    @Mock
+    private SlotReadModel first;
+
+    @Mock
+    private SlotReadModel second;
+
+    private SlotReadModelUpdater updater;
+    private Slot slot;
+
+    @BeforeEach
+    void setUp() {
+        updater = new SlotReadModelUpdater(slotRepository, List.of(first, second));
+
+        Station station = new Station();
+        station.setId(1L);
+        station.setName("Station");
+
+        slot = new Slot();
+        slot.setId(1L);
+        slot.setName("Slot-1");
+        slot.setStation(station);
+        slot.setChargingType(ChargingType.FAST);
+    }
+
+    @Test
+    void load_shouldRebuildEveryModelFromOneQuery() {
+        when(slotRepository.findAllWithStation()).thenReturn(List.of(slot));
+
+        updater.load();
+
+        verify(slotRepository).findAllWithStation();
+        verify(first).rebuild(argThat(snapshots -> snapshots.size() == 1));
+        verify(second).rebuild(argThat(snapshots -> snapshots.size() == 1));
+    }
+
+    @Test
+    void onSlotChanged_shouldForwardSavesAndDeletes() {
+        updater.onSlotChanged(SlotChangedEvent.saved(slot));
+        updater.onSlotChanged(SlotChangedEvent.deleted(1L));
+
+        verify(first).put(argThat(s -> s.getId().equals(1L)));
+        verify(second).put(argThat(s -> s.getId().equals(1L)));
+        verify(first).remove(eq(1L));
+        verify(second).remove(eq(1L));
+    }
+
+    @Test
+    void onStationChanged_shouldRefreshSnapshotsOfThatStation() {
+        slot.getStation().setName("Renamed");
+        when(slotRepository.findByStation_Id(1L)).thenReturn(List.of(slot));
+
+        updater.onStationChanged(new StationChangedEvent(1L));
+
+        verify(first).put(argThat(s -> "Renamed".equals(s.getStationName())));
+        verify(second).put(argThat(s -> "Renamed".equals(s.getStationName())));
+    }
+}
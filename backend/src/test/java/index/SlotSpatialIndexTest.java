@@ -0,0 +1,184 @@
+package index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.index.SlotSnapshot;
+import ua.tqs.index.SlotSpatialIndex;
+import ua.tqs.models.Slot;
+import ua.tqs.models.Station;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SlotSpatialIndexTest {
+
+    private SlotSpatialIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SlotSpatialIndex();
+    }
+
+    @Test
+    void rebuild_shouldIndexSlotsWithCoordinates() {
+        index.rebuild(List.of(SlotSnapshot.of(slot(1L, 40.6405, -8.6538)), SlotSnapshot.of(slot(2L, null, null))));
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.within(40.0, -9.0, 41.0, -8.0))
+                .extracting(SlotSnapshot::getId)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void within_shouldOnlyReturnSlotsInsideBox() {
+        index.put(snapshot(1L, 40.6405, -8.6538));  // Aveiro
+        index.put(snapshot(2L, 41.1579, -8.6291));  // Porto
+        index.put(snapshot(3L, 38.7223, -9.1393));  // Lisboa
+
+        List<SlotSnapshot> result = index.within(40.5, -8.8, 41.2, -8.5);
+
+        assertThat(result).extracting(SlotSnapshot::getId).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void within_largeBoxShouldScanPopulatedCells() {
+        index.put(snapshot(1L, 40.6405, -8.6538));
+        index.put(snapshot(2L, -33.8688, 151.2093));
+
+        assertThat(index.within(-90, -180, 90, 180)).hasSize(2);
+    }
+
+    @Test
+    void within_boxCrossingAntimeridian() {
+        index.put(snapshot(1L, -17.7134, 178.0650));
+        index.put(snapshot(2L, -14.2756, -170.7020));
+        index.put(snapshot(3L, 40.6405, -8.6538));
+
+        List<SlotSnapshot> result = index.within(-20, 170, -10, -165);
+
+        assertThat(result).extracting(SlotSnapshot::getId).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void within_invalidBoxShouldThrow() {
+        assertThatThrownBy(() -> index.within(41, -9, 40, -8))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.within(40, -200, 41, -8))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void put_shouldMoveAndRemoveSlots() {
+        Slot slot = slot(1L, 40.6405, -8.6538);
+        index.put(SlotSnapshot.of(slot));
+
+        slot.setLatitude(38.7223);
+        slot.setLongitude(-9.1393);
+        index.put(SlotSnapshot.of(slot));
+
+        assertThat(index.within(40.0, -9.0, 41.0, -8.0)).isEmpty();
+        assertThat(index.within(38.0, -10.0, 39.0, -9.0)).hasSize(1);
+
+        index.remove(1L);
+
+        assertThat(index.size()).isZero();
+        assertThat(index.within(38.0, -10.0, 39.0, -9.0)).isEmpty();
+    }
+
+    @Test
+    void nearest_shouldReturnClosestFreeSlotsOfType() {
+        index.put(snapshot(1L, 40.6405, -8.6538));                                  // Aveiro
+        index.put(snapshot(2L, 40.6443, -8.6455));                                  // Aveiro, 800 m away
+        index.put(snapshot(3L, 41.1579, -8.6291));                                  // Porto
+        index.put(snapshot(4L, 38.7223, -9.1393));                                  // Lisboa
+        index.put(new SlotSnapshot(5L, "Slot-5", 1L, "Station", null, 40.6410, -8.6540,
+                ChargingType.FAST, "50", true));                                     // reserved
+        index.put(new SlotSnapshot(6L, "Slot-6", 1L, "Station", null, 40.6420, -8.6530,
+                ChargingType.NORMAL, "22", false));                                  // other type
+
+        List<SlotSnapshot> result = index.nearest(40.6400, -8.6540, 3, ChargingType.FAST);
+
+        assertThat(result).extracting(SlotSnapshot::getId).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void nearest_withoutTypeShouldIncludeAllTypes() {
+        index.put(snapshot(1L, 40.6405, -8.6538));
+        index.put(new SlotSnapshot(2L, "Slot-2", 1L, "Station", null, 40.6401, -8.6541,
+                ChargingType.ULTRA_FAST, "150", false));
+
+        List<SlotSnapshot> result = index.nearest(40.6400, -8.6540, 5, null);
+
+        assertThat(result).extracting(SlotSnapshot::getId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void nearest_shouldMatchBruteForceOnRandomFleet() {
+        java.util.Random random = new java.util.Random(7);
+        List<SlotSnapshot> fleet = new java.util.ArrayList<>();
+        for (long id = 1; id <= 5_000; id++) {
+            SlotSnapshot s = new SlotSnapshot(id, "Slot-" + id, 1L, "Station", null,
+                    37 + random.nextDouble() * 5, -9.5 + random.nextDouble() * 3,
+                    ChargingType.values()[(int) (id % 3)], "50", id % 4 == 0);
+            fleet.add(s);
+        }
+        index.rebuild(fleet);
+
+        for (int q = 0; q < 50; q++) {
+            double lat = 37 + random.nextDouble() * 5;
+            double lon = -9.5 + random.nextDouble() * 3;
+            List<Long> expected = fleet.stream()
+                    .filter(s -> !s.isReserved() && s.getChargingType() == ChargingType.FAST)
+                    .sorted(java.util.Comparator.comparingDouble(s -> haversine(lat, lon, s)))
+                    .limit(5)
+                    .map(SlotSnapshot::getId)
+                    .toList();
+
+            assertThat(index.nearest(lat, lon, 5, ChargingType.FAST))
+                    .extracting(SlotSnapshot::getId)
+                    .containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void nearest_shouldFollowReservationChanges() {
+        Slot slot = slot(1L, 40.6405, -8.6538);
+        index.put(SlotSnapshot.of(slot));
+        assertThat(index.nearest(40.64, -8.65, 1, null)).hasSize(1);
+
+        slot.setReserved(true);
+        index.put(SlotSnapshot.of(slot));
+
+        assertThat(index.nearest(40.64, -8.65, 1, null)).isEmpty();
+    }
+
+    private static double haversine(double lat, double lon, SlotSnapshot s) {
+        double dLat = Math.toRadians(s.getLatitude() - lat);
+        double dLon = Math.toRadians(s.getLongitude() - lon);
+        double a = Math.pow(Math.sin(dLat / 2), 2) + Math.cos(Math.toRadians(lat))
+                * Math.cos(Math.toRadians(s.getLatitude())) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * Math.asin(Math.sqrt(a));
+    }
+
+    private static SlotSnapshot snapshot(Long id, double lat, double lon) {
+        return new SlotSnapshot(id, "Slot-" + id, 1L, "Station", null, lat, lon, ChargingType.FAST, "50", false);
+    }
+
+    private static Slot slot(Long id, Double lat, Double lon) {
+        Station station = new Station();
+        station.setId(1L);
+        station.setName("Station");
+
+        Slot slot = new Slot();
+        slot.setId(id);
+        slot.setName("Slot-" + id);
+        slot.setStation(station);
+        slot.setChargingType(ChargingType.FAST);
+        slot.setLatitude(lat);
+        slot.setLongitude(lon);
+        return slot;
+    }
+}
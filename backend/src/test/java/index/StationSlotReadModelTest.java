@@ -0,0 +1,60 @@
+package index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.index.SlotSnapshot;
+import ua.tqs.index.StationSlotReadModel;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StationSlotReadModelTest {
+
+    private StationSlotReadModel readModel;
+
+    @BeforeEach
+    void setUp() {
+        readModel = new StationSlotReadModel();
+        readModel.rebuild(List.of(
+                snapshot(3L, 1L, ChargingType.FAST, false),
+                snapshot(1L, 1L, ChargingType.FAST, true),
+                snapshot(2L, 1L, ChargingType.NORMAL, false),
+                snapshot(4L, 2L, ChargingType.ULTRA_FAST, false)));
+    }
+
+    @Test
+    void getSlotsByStation_shouldReturnOnlyThatStationOrderedById() {
+        assertThat(readModel.getSlotsByStation(1L)).extracting(SlotSnapshot::getId).containsExactly(1L, 2L, 3L);
+        assertThat(readModel.getSlotsByStation(2L)).extracting(SlotSnapshot::getId).containsExactly(4L);
+        assertThat(readModel.getSlotsByStation(99L)).isEmpty();
+    }
+
+    @Test
+    void getAllSlots_shouldBeOrderedById() {
+        assertThat(readModel.getAllSlots()).extracting(SlotSnapshot::getId).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void put_shouldMoveSlotBetweenStations() {
+        readModel.put(snapshot(3L, 2L, ChargingType.FAST, true));
+
+        assertThat(readModel.getSlotsByStation(1L)).extracting(SlotSnapshot::getId).containsExactly(1L, 2L);
+        assertThat(readModel.getSlotsByStation(2L)).extracting(SlotSnapshot::getId).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void remove_shouldDropSlotAndEmptyStation() {
+        readModel.remove(4L);
+        readModel.remove(42L);
+
+        assertThat(readModel.getSlotsByStation(2L)).isEmpty();
+        assertThat(readModel.getAllSlots()).extracting(SlotSnapshot::getId).containsExactly(1L, 2L, 3L);
+    }
+
+    private static SlotSnapshot snapshot(Long id, Long stationId, ChargingType type, boolean reserved) {
+        return new SlotSnapshot(id, "Slot-" + id, stationId, "Station-" + stationId, null,
+                null, null, type, "50", reserved);
+    }
+}
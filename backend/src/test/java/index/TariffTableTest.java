@@ -0,0 +1,108 @@
+package index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.events.StationChangedEvent;
+import ua.tqs.index.SlotSnapshot;
+import ua.tqs.index.TariffTable;
+import ua.tqs.models.Station;
+import ua.tqs.repositories.StationRepository;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TariffTableTest {
+
+    private static final LocalDateTime MIDNIGHT = LocalDateTime.of(2025, 6, 3, 0, 0);
+
+    private StationRepository stationRepository;
+    private TariffTable tariffs;
+    private Station night;
+
+    @BeforeEach
+    void setUp() {
+        stationRepository = mock(StationRepository.class);
+        night = station(1L, true, 0.2, LocalTime.of(22, 0), LocalTime.of(6, 0));
+        Station allDay = station(2L, true, 0.5, null, null);
+        Station inactive = station(3L, false, 0.5, null, null);
+        when(stationRepository.findAll()).thenReturn(List.of(night, allDay, inactive));
+        tariffs = new TariffTable(stationRepository);
+        tariffs.load();
+    }
+
+    @Test
+    void quote_shouldUseTheBasePriceOfTheChargingType() {
+        TariffTable.Price price = tariffs.quote(ChargingType.ULTRA_FAST, 3L, MIDNIGHT.plusHours(12), 60, 10);
+
+        assertThat(price.pricePerKWh()).isEqualTo(0.45);
+        assertThat(price.discount()).isZero();
+        assertThat(price.totalCost()).isCloseTo(4.5, within(1e-9));
+    }
+
+    @Test
+    void quote_shouldDiscountOnlyTheShareInsideTheWindow() {
+        // 21:00-23:00: half inside a window that wraps past midnight
+        assertThat(tariffs.quote(ChargingType.FAST, 1L, MIDNIGHT.plusHours(21), 120, 10).discount())
+                .isCloseTo(0.1, within(1e-9));
+        assertThat(tariffs.quote(ChargingType.FAST, 1L, MIDNIGHT.plusHours(23), 120, 10).totalCost())
+                .isCloseTo(0.30 * 10 * 0.8, within(1e-9));
+        assertThat(tariffs.quote(ChargingType.FAST, 1L, MIDNIGHT.plusHours(12), 60, 10).discount()).isZero();
+        // Two full days: 8 of every 24 hours
+        assertThat(tariffs.quote(ChargingType.FAST, 1L, MIDNIGHT.plusHours(12), 48 * 60, 10).discount())
+                .isCloseTo(0.2 / 3, within(1e-9));
+        // Zero-length session: priced at its start minute
+        assertThat(tariffs.quote(ChargingType.FAST, 1L, MIDNIGHT.plusHours(5).plusMinutes(59), 0, 10).discount())
+                .isEqualTo(0.2);
+        assertThat(tariffs.quote(ChargingType.FAST, 1L, MIDNIGHT.plusHours(6), 0, 10).discount()).isZero();
+    }
+
+    @Test
+    void quote_withoutWindow_shouldDiscountAllDay() {
+        assertThat(tariffs.quote(ChargingType.NORMAL, 2L, MIDNIGHT.plusHours(13), 45, 4).totalCost())
+                .isCloseTo(0.15 * 4 * 0.5, within(1e-9));
+    }
+
+    @Test
+    void quote_bySlot_shouldResolveTypeAndStation() {
+        tariffs.rebuild(List.of(snapshot(10L, 1L, ChargingType.FAST), snapshot(11L, 2L, ChargingType.NORMAL)));
+        tariffs.remove(11L);
+
+        assertThat(tariffs.quote(10L, MIDNIGHT.plusHours(23), 60, 10).discount()).isEqualTo(0.2);
+        assertThat(tariffs.quote(11L, MIDNIGHT, 60, 10)).isNull();
+    }
+
+    @Test
+    void onStationChanged_shouldRecompileTheStation() {
+        night.setDiscount(false);
+        when(stationRepository.findById(1L)).thenReturn(Optional.of(night));
+        when(stationRepository.findById(2L)).thenReturn(Optional.empty());
+
+        tariffs.onStationChanged(new StationChangedEvent(1L));
+        tariffs.onStationChanged(new StationChangedEvent(2L));
+
+        assertThat(tariffs.quote(ChargingType.FAST, 1L, MIDNIGHT.plusHours(23), 60, 10).discount()).isZero();
+        assertThat(tariffs.quote(ChargingType.FAST, 2L, MIDNIGHT.plusHours(23), 60, 10).discount()).isZero();
+    }
+
+    private static Station station(Long id, boolean discount, double value, LocalTime from, LocalTime to) {
+        Station station = new Station();
+        station.setId(id);
+        station.setDiscount(discount);
+        station.setDiscountValue(value);
+        station.setDiscountStartTime(from);
+        station.setDiscountEndTime(to);
+        return station;
+    }
+
+    private static SlotSnapshot snapshot(Long id, Long stationId, ChargingType type) {
+        return new SlotSnapshot(id, "Slot-" + id, stationId, "Station-" + stationId, null, 40.0, -8.0, type, "50", false);
+    }
+}
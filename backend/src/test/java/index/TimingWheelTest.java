@@ -0,0 +1,94 @@
+package index;
+
+import org.junit.jupiter.api.Test;
+import ua.tqs.index.TimingWheel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long START = 29_000_000L;
+
+    @Test
+    void advance_shouldExpireEntriesAtTheirTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(START);
+        wheel.schedule(START + 5, "five");
+        wheel.schedule(START + 5, "also five");
+        wheel.schedule(START + 6, "six");
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(START + 4, expired::add);
+        assertThat(expired).isEmpty();
+
+        wheel.advance(START + 5, expired::add);
+        assertThat(expired).containsExactlyInAnyOrder("five", "also five");
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void schedule_atOrBeforeNow_shouldExpireOnTheNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(START);
+        wheel.schedule(START - 1_000, "long gone");
+        wheel.schedule(START, "now");
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(START, expired::add);
+
+        assertThat(expired).containsExactlyInAnyOrder("long gone", "now");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void entriesOnHigherLevels_shouldCascadeDownAndExpireOnTime() {
+        TimingWheel<Long> wheel = new TimingWheel<>(START);
+        long[] delays = {63, 64, 65, 4_095, 4_096, 4_097, 262_144, 1_000_003, 20_000_000};
+        for (long delay : delays) {
+            wheel.schedule(START + delay, START + delay);
+        }
+        Map<Long, Long> expiredAt = new HashMap<>();
+
+        for (long tick = START + 1; tick <= START + 20_000_000; tick += 997) {
+            long now = tick;
+            wheel.advance(now, due -> expiredAt.put(due, now));
+        }
+        wheel.advance(START + 20_000_000, due -> expiredAt.put(due, START + 20_000_000));
+
+        assertThat(expiredAt).hasSize(delays.length);
+        // Each entry expires on the first advance that reaches its tick
+        expiredAt.forEach((due, at) -> assertThat(at).isBetween(due, due + 996));
+    }
+
+    @Test
+    void randomSchedules_shouldMatchABruteForceModel() {
+        Random random = new Random(5);
+        TimingWheel<Integer> wheel = new TimingWheel<>(START);
+        Map<Integer, Long> pending = new HashMap<>();
+        long now = START;
+        int next = 0;
+        for (int round = 0; round < 2_000; round++) {
+            for (int i = random.nextInt(5); i > 0; i--) {
+                long tick = now + (random.nextBoolean() ? random.nextInt(200) : random.nextInt(500_000)) - 10;
+                wheel.schedule(tick, next);
+                pending.put(next++, tick);
+            }
+            now += random.nextInt(random.nextBoolean() ? 3 : 700);
+            List<Integer> expired = new ArrayList<>();
+            wheel.advance(now, expired::add);
+
+            long current = now;
+            List<Integer> expected = pending.entrySet().stream()
+                    .filter(entry -> entry.getValue() <= current)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            assertThat(expired).containsExactlyInAnyOrderElementsOf(expected);
+            expected.forEach(pending::remove);
+            assertThat(wheel.size()).isEqualTo(pending.size());
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package integration;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ua.tqs.dto.BatchReservationRequestDTO;
+import ua.tqs.dto.BatchReservationResultDTO;
+import ua.tqs.dto.ReservationRequestDTO;
+import ua.tqs.enums.BatchMode;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.models.Reservation;
+import ua.tqs.models.Slot;
+import ua.tqs.models.Station;
+import ua.tqs.services.BatchReservationService;
+import ua.tqs.services.ReservationService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchReservationTest extends BookingIntegrationTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 3, 4, 18, 0);
+
+    @Autowired
+    private BatchReservationService batchReservationService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    private Long userId;
+    private Station station;
+
+    @BeforeEach
+    void setUp() {
+        userId = newUser("Fleet").getId();
+        station = newStation("Depot");
+    }
+
+    @Test
+    void weeklySeries_shouldBookEveryOccurrenceInBatchedInserts() {
+        Long slotId = newSlot("Weekly");
+        BatchReservationRequestDTO request = request(BatchMode.ALL_OR_NOTHING);
+        BatchReservationRequestDTO.Recurrence recurrence = new BatchReservationRequestDTO.Recurrence();
+        recurrence.setSlotId(slotId);
+        recurrence.setFirstStart(START);
+        recurrence.setDurationMinutes(60);
+        recurrence.setConsumptionKWh(15.0);
+        recurrence.setOccurrences(40);
+        request.setRecurrence(recurrence);
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        BatchReservationResultDTO result = batchReservationService.book(request);
+
+        assertThat(result.getBooked()).isEqualTo(40);
+        assertThat(result.getRejected()).isZero();
+        assertThat(result.getResults()).allSatisfy(item -> {
+            assertThat(item.getReservationId()).isNotNull();
+            assertThat(item.getTotalCost()).isPositive();
+        });
+        assertThat(result.getResults().get(39).getStartTime()).isEqualTo(START.plusWeeks(39));
+        // The read, the slot update, the sequence and the inserts, however many occurrences
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+        assertThat(reservationRepository.count()).isEqualTo(40);
+        assertThat(reservationIntervals.slotOverlaps(slotId, START.plusWeeks(20), START.plusWeeks(20))).isTrue();
+        assertThat(slotRepository.findById(slotId)).get().extracting(Slot::isReserved).isEqualTo(true);
+    }
+
+    @Test
+    void allOrNothing_withOneConflict_shouldBookNothing() {
+        Long free = newSlot("Free");
+        Long busy = newSlot("Busy");
+        Long otherUser = newUser("Other").getId();
+        ReservationRequestDTO single = new ReservationRequestDTO();
+        single.setSlotId(busy);
+        single.setUserId(otherUser);
+        single.setStartTime(START);
+        single.setDurationMinutes(60);
+        single.setConsumptionKWh(10.0);
+        assertThat(reservationService.createReservation(single)).isPresent();
+
+        BatchReservationRequestDTO request = request(BatchMode.ALL_OR_NOTHING);
+        request.setItems(List.of(item(free, START), item(busy, START.plusMinutes(30))));
+
+        BatchReservationResultDTO result = batchReservationService.book(request);
+
+        assertThat(result.getBooked()).isZero();
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(result.getResults().get(0).getError()).isNull();
+        assertThat(result.getResults().get(1).getError()).isEqualTo("Slot is already reserved for that time");
+        assertThat(reservationRepository.count()).isEqualTo(1);
+        assertThat(slotRepository.findById(free)).get().extracting(Slot::isReserved).isEqualTo(false);
+    }
+
+    @Test
+    void bestEffort_shouldBookWhatFitsAndReportTheRest() {
+        List<Long> slots = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            slots.add(newSlot("Fleet " + i));
+        }
+        BatchReservationRequestDTO request = request(BatchMode.BEST_EFFORT);
+        request.setItems(List.of(
+                item(slots.get(0), START),
+                item(slots.get(1), START.plusMinutes(30)),
+                item(slots.get(2), START.plusHours(2)),
+                item(999_999L, START.plusDays(1))));
+
+        BatchReservationResultDTO result = batchReservationService.book(request);
+
+        assertThat(result.getBooked()).isEqualTo(2);
+        assertThat(result.getResults()).extracting(BatchReservationResultDTO.ItemResult::getError)
+                .containsExactly(null, "Overlaps item 0", null, "Slot not found");
+        assertThat(slotRepository.findById(slots.get(1))).get().extracting(Slot::isReserved).isEqualTo(false);
+        assertThat(slotRepository.findById(slots.get(2))).get().extracting(Slot::isReserved).isEqualTo(true);
+    }
+
+    @Test
+    void slotWithReservations_shouldTakeMoreInOtherWindows() {
+        Long slotId = newSlot("Shared");
+        ReservationRequestDTO single = new ReservationRequestDTO();
+        single.setSlotId(slotId);
+        single.setUserId(newUser("Earlier").getId());
+        single.setStartTime(START);
+        single.setDurationMinutes(60);
+        single.setConsumptionKWh(10.0);
+        assertThat(reservationService.createReservation(single)).isPresent();
+
+        BatchReservationRequestDTO request = request(BatchMode.ALL_OR_NOTHING);
+        request.setItems(List.of(item(slotId, START.plusHours(2)), item(slotId, START.plusDays(1))));
+
+        BatchReservationResultDTO result = batchReservationService.book(request);
+
+        assertThat(result.getBooked()).isEqualTo(2);
+        assertThat(reservationRepository.count()).isEqualTo(3);
+        assertThat(slotRepository.findById(slotId)).get().extracting(Slot::isReserved).isEqualTo(true);
+    }
+
+    @Test
+    void cancelingOneOccurrence_shouldKeepTheSlotReservedUntilTheLast() {
+        Long slotId = newSlot("Series");
+        BatchReservationRequestDTO request = request(BatchMode.ALL_OR_NOTHING);
+        request.setItems(List.of(item(slotId, START), item(slotId, START.plusWeeks(1))));
+        List<Long> ids = batchReservationService.book(request).getResults().stream()
+                .map(BatchReservationResultDTO.ItemResult::getReservationId)
+                .toList();
+
+        assertThat(reservationService.cancelReservation(ids.get(0))).isTrue();
+        assertThat(slotRepository.findById(slotId)).get().extracting(Slot::isReserved).isEqualTo(true);
+
+        assertThat(reservationService.cancelReservation(ids.get(1))).isTrue();
+        assertThat(slotRepository.findById(slotId)).get().extracting(Slot::isReserved).isEqualTo(false);
+        assertThat(reservationRepository.findAll()).extracting(Reservation::getStatus)
+                .containsOnly(ReservationStatus.CANCELED);
+    }
+
+    @Test
+    void malformedItem_shouldBeRejectedBeforeBooking() {
+        Long slotId = newSlot("Malformed");
+        BatchReservationRequestDTO request = request(BatchMode.BEST_EFFORT);
+        BatchReservationRequestDTO.Item bad = item(slotId, START.plusDays(1));
+        bad.setDurationMinutes(0);
+        request.setItems(List.of(item(slotId, START), bad));
+
+        assertThatThrownBy(() -> batchReservationService.book(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Item 1: durationMinutes must be positive");
+        assertThat(reservationRepository.count()).isZero();
+    }
+
+    private Long newSlot(String name) {
+        return newSlot(station, name);
+    }
+
+    private BatchReservationRequestDTO request(BatchMode mode) {
+        BatchReservationRequestDTO request = new BatchReservationRequestDTO();
+        request.setUserId(userId);
+        request.setMode(mode);
+        return request;
+    }
+
+    private static BatchReservationRequestDTO.Item item(Long slotId, LocalDateTime startTime) {
+        BatchReservationRequestDTO.Item item = new BatchReservationRequestDTO.Item();
+        item.setSlotId(slotId);
+        item.setStartTime(startTime);
+        item.setDurationMinutes(60);
+        item.setConsumptionKWh(15.0);
+        return item;
+    }
+}
@@ -0,0 +1,104 @@
+package integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.UserRole;
+import ua.tqs.index.ReservationIntervals;
+import ua.tqs.index.SlotReadModelUpdater;
+import ua.tqs.models.Slot;
+import ua.tqs.models.Station;
+import ua.tqs.models.User;
+import ua.tqs.repositories.IdempotencyKeyRepository;
+import ua.tqs.repositories.ReservationRepository;
+import ua.tqs.repositories.SlotRepository;
+import ua.tqs.repositories.StationRepository;
+import ua.tqs.repositories.UserRepository;
+import ua.tqs.services.ReservationLifecycle;
+
+/**
+ * The one context the H2 integration tests share: no seed data, Hibernate statistics on and
+ * MockMvc available. Every test starts from empty tables, with the in-memory indexes rebuilt
+ * from them, so nothing a previous test class booked is still seen as taken.
+ */
+@SpringBootTest(classes = ua.tqs.EletricNET_BackendApplication.class, properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+abstract class BookingIntegrationTest {
+
+    @Autowired
+    protected EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected StationRepository stationRepository;
+
+    @Autowired
+    protected SlotRepository slotRepository;
+
+    @Autowired
+    protected ReservationRepository reservationRepository;
+
+    @Autowired
+    protected IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    protected ReservationIntervals reservationIntervals;
+
+    @Autowired
+    protected ReservationLifecycle lifecycle;
+
+    @Autowired
+    protected SlotReadModelUpdater readModelUpdater;
+
+    @BeforeEach
+    void clearData() {
+        idempotencyKeyRepository.deleteAllInBatch();
+        reservationRepository.deleteAllInBatch();
+        slotRepository.deleteAllInBatch();
+        stationRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        reservationIntervals.load();
+        lifecycle.load();
+        readModelUpdater.load();
+    }
+
+    protected Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    protected User newUser(String name) {
+        return userRepository.save(new User(null, name.toLowerCase() + "@test.com", "hash", name, UserRole.USER));
+    }
+
+    protected Station newStation(String name) {
+        Station station = new Station();
+        station.setName(name);
+        return stationRepository.save(station);
+    }
+
+    /** A FAST slot, not yet saved, so callers can save many in one batch. */
+    protected static Slot slot(Station station, String name) {
+        Slot slot = new Slot();
+        slot.setName(name);
+        slot.setStation(station);
+        slot.setChargingType(ChargingType.FAST);
+        return slot;
+    }
+
+    protected Long newSlot(Station station, String name) {
+        return slotRepository.save(slot(station, name)).getId();
+    }
+}
@@ -0,0 +1,121 @@
+package integration;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ua.tqs.dto.ReservationRequestDTO;
+import ua.tqs.dto.ReservationResponseDTO;
+import ua.tqs.models.Slot;
+import ua.tqs.models.Station;
+import ua.tqs.services.ReservationConflictException;
+import ua.tqs.services.ReservationService;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Fails the build if booking needs more than its budget of statements: one read of the slot,
+ * its station and the user, one conditional update of the slot and the insert.
+ */
+class BookingQueryBudgetTest extends BookingIntegrationTest {
+
+    private static final int STATEMENT_BUDGET = 3;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 3, 4, 18, 0);
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private long sequence;
+    private Long userId;
+    private Station station;
+
+    @BeforeEach
+    void setUp() {
+        userId = newUser("Budget").getId();
+        station = newStation("Budgeted");
+
+        // The first insert also allocates a block of ids from the sequence
+        assertThat(reservationService.createReservation(request(newSlot("Warm-up"), START.minusDays(1)))).isPresent();
+
+        statistics = statistics();
+        clear();
+    }
+
+    @Test
+    void createReservation_shouldStayWithinTheStatementBudget() {
+        Long slotId = newSlot("Budget");
+        clear();
+
+        Optional<ReservationResponseDTO> booked = reservationService.createReservation(request(slotId, START));
+
+        assertThat(booked).isPresent();
+        assertThat(booked.get().getStationLocation()).isEqualTo("Budgeted");
+        assertThat(booked.get().getSlotLabel()).isEqualTo("Budget");
+        assertThat(statements()).isLessThanOrEqualTo(STATEMENT_BUDGET);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(slotRepository.findById(slotId)).get().extracting(Slot::isReserved).isEqualTo(true);
+    }
+
+    @Test
+    void createReservation_onAReservedSlot_shouldSkipTheUpdate() {
+        Long slotId = newSlot("Taken");
+        assertThat(reservationService.createReservation(request(slotId, START))).isPresent();
+        clear();
+
+        assertThat(reservationService.createReservation(request(slotId, START.plusDays(1)))).isPresent();
+
+        assertThat(statements()).isEqualTo(STATEMENT_BUDGET - 1);
+    }
+
+    @Test
+    void createReservation_onAnOverlappingWindow_shouldConflictAfterTheRead() {
+        Long slotId = newSlot("Overlapped");
+        assertThat(reservationService.createReservation(request(slotId, START))).isPresent();
+        clear();
+
+        assertThatThrownBy(() -> reservationService.createReservation(request(slotId, START.plusMinutes(30))))
+                .isInstanceOf(ReservationConflictException.class)
+                .hasMessage("Slot is already reserved for that time");
+
+        assertThat(statements()).isEqualTo(1);
+    }
+
+    private void clear() {
+        statistics.clear();
+        sequence = reservationSequence();
+    }
+
+    /** Statements prepared since {@link #clear()}, less the fetch of a new block of ids, if any. */
+    private long statements() {
+        return statistics.getPrepareStatementCount() - (reservationSequence() != sequence ? 1 : 0);
+    }
+
+    // Read over plain JDBC, so Hibernate does not count it
+    private long reservationSequence() {
+        return jdbcTemplate.queryForObject("select base_value from information_schema.sequences "
+                + "where sequence_name = 'RESERVATIONS_SEQ'", Long.class);
+    }
+
+    private Long newSlot(String name) {
+        return newSlot(station, name);
+    }
+
+    private ReservationRequestDTO request(Long slotId, LocalDateTime startTime) {
+        ReservationRequestDTO dto = new ReservationRequestDTO();
+        dto.setSlotId(slotId);
+        dto.setUserId(userId);
+        dto.setStartTime(startTime);
+        dto.setDurationMinutes(60);
+        dto.setConsumptionKWh(15.0);
+        return dto;
+    }
+}
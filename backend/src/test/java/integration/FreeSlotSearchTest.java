@@ -0,0 +1,65 @@
+package integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ua.tqs.dto.ReservationRequestDTO;
+import ua.tqs.dto.SlotResponseDTO;
+import ua.tqs.models.Station;
+import ua.tqs.services.ReservationService;
+import ua.tqs.services.SlotService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Every slot {@code /api/slots/free} reports must be bookable for the searched window. */
+class FreeSlotSearchTest extends BookingIntegrationTest {
+
+    private static final LocalDateTime TEN_AM = LocalDateTime.of(2030, 3, 4, 10, 0);
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    private Long first;
+    private Long second;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        Station station = newStation("Searched");
+        first = newSlot(station, "S1");
+        second = newSlot(station, "S2");
+        userId = newUser("Searcher").getId();
+        // Saved through the repository, so the search index has to be told
+        readModelUpdater.load();
+    }
+
+    @Test
+    void bookedSlot_shouldBeFreeAndBookableForADisjointWindow() {
+        assertThat(reservationService.createReservation(request(first, newUser("Early").getId(), TEN_AM))).isPresent();
+
+        List<SlotResponseDTO> free = slotService.getFreeSlots(TEN_AM.plusHours(4), TEN_AM.plusHours(5), null, null, 10);
+
+        assertThat(free).extracting(SlotResponseDTO::getId).containsExactly(first, second);
+        assertThat(reservationService.createReservation(request(first, userId, TEN_AM.plusHours(4)))).isPresent();
+        assertThat(slotService.getFreeSlots(TEN_AM.plusHours(4), TEN_AM.plusHours(5), null, null, 10))
+                .extracting(SlotResponseDTO::getId).containsExactly(second);
+        assertThat(slotService.getFreeSlots(TEN_AM, TEN_AM.plusHours(1), null, null, 10))
+                .extracting(SlotResponseDTO::getId).containsExactly(second);
+    }
+
+    private static ReservationRequestDTO request(Long slotId, Long userId, LocalDateTime startTime) {
+        ReservationRequestDTO dto = new ReservationRequestDTO();
+        dto.setSlotId(slotId);
+        dto.setUserId(userId);
+        dto.setStartTime(startTime);
+        dto.setDurationMinutes(60);
+        dto.setConsumptionKWh(15.0);
+        return dto;
+    }
+}
@@ -0,0 +1,172 @@
+package integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionTemplate;
+import ua.tqs.dto.ReservationRequestDTO;
+import ua.tqs.services.IdempotentBookings;
+import ua.tqs.services.ReservationService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IdempotentBookingTest extends BookingIntegrationTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 3, 4, 18, 0);
+    private static final int CLIENTS = 16;
+
+    @Autowired
+    private IdempotentBookings idempotentBookings;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long slotId;
+    private Long userId;
+    private Long otherUserId;
+
+    @BeforeEach
+    void setUp() {
+        userId = newUser("Retry").getId();
+        otherUserId = newUser("Other").getId();
+        slotId = newSlot(newStation("Idempotent"), "I1");
+    }
+
+    @Test
+    void book_shouldReplayARetryWithoutBookingAgain() {
+        IdempotentBookings.Outcome first = idempotentBookings.book(userId, "k-1", request(userId));
+        IdempotentBookings.Outcome retry = idempotentBookings.book(userId, "k-1", request(userId));
+
+        assertThat(first.status()).isEqualTo(IdempotentBookings.OK);
+        assertThat(first.replayed()).isFalse();
+        assertThat(retry.status()).isEqualTo(IdempotentBookings.OK);
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.reservation()).isEqualTo(first.reservation());
+        assertThat(reservationRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void book_shouldLetConcurrentDuplicatesWaitForTheFirstAttempt() throws Exception {
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<IdempotentBookings.Outcome>> futures = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            futures.add(clients.submit(() -> {
+                go.await();
+                return idempotentBookings.book(userId, "k-burst", request(userId));
+            }));
+        }
+        go.countDown();
+        List<IdempotentBookings.Outcome> outcomes = new ArrayList<>();
+        for (Future<IdempotentBookings.Outcome> future : futures) {
+            outcomes.add(future.get());
+        }
+        clients.shutdown();
+
+        assertThat(outcomes).extracting(IdempotentBookings.Outcome::status).containsOnly(IdempotentBookings.OK);
+        assertThat(outcomes).extracting(outcome -> outcome.reservation().getId()).containsOnly(
+                outcomes.get(0).reservation().getId());
+        assertThat(outcomes).filteredOn(outcome -> !outcome.replayed()).hasSize(1);
+        assertThat(reservationRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void book_shouldReplayFromTheTableAfterARestart() {
+        IdempotentBookings.Outcome first = idempotentBookings.book(userId, "k-durable", request(userId));
+        IdempotentBookings restarted = new IdempotentBookings(reservationService, idempotencyKeyRepository,
+                transactionTemplate, objectMapper, 100);
+
+        IdempotentBookings.Outcome retry = restarted.book(userId, "k-durable", request(userId));
+
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.reservation().getId()).isEqualTo(first.reservation().getId());
+        assertThat(retry.reservation().getStartTime()).isEqualTo(START);
+        assertThat(reservationRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void book_shouldRefuseAKeyReusedForAnotherRequest() {
+        idempotentBookings.book(userId, "k-reused", request(userId));
+        ReservationRequestDTO later = request(userId);
+        later.setStartTime(START.plusDays(1));
+
+        IdempotentBookings.Outcome outcome = idempotentBookings.book(userId, "k-reused", later);
+
+        assertThat(outcome.status()).isEqualTo(IdempotentBookings.UNPROCESSABLE);
+        assertThat(reservationRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void book_shouldReplayAConflictEvenOnceTheWindowIsFree() {
+        Long taken = reservationService.createReservation(request(otherUserId)).orElseThrow().getId();
+        assertThat(idempotentBookings.book(userId, "k-refused", request(userId)).status())
+                .isEqualTo(IdempotentBookings.CONFLICT);
+        reservationService.cancelReservation(taken);
+
+        IdempotentBookings.Outcome retry = idempotentBookings.book(userId, "k-refused", request(userId));
+
+        assertThat(retry.status()).isEqualTo(IdempotentBookings.CONFLICT);
+        assertThat(retry.replayed()).isTrue();
+        // The same key is per user
+        assertThat(idempotentBookings.book(otherUserId, "k-refused", request(otherUserId)).status())
+                .isEqualTo(IdempotentBookings.OK);
+    }
+
+    @Test
+    void book_shouldStoreNothingWhenTheBookingFails() {
+        ReservationService failing = mock(ReservationService.class);
+        when(failing.createReservation(any(), any())).thenThrow(new QueryTimeoutException("Pool exhausted"));
+        IdempotentBookings flaky = new IdempotentBookings(failing, idempotencyKeyRepository, transactionTemplate,
+                objectMapper, 100);
+
+        assertThatThrownBy(() -> flaky.book(userId, "k-failed", request(userId)))
+                .isInstanceOf(QueryTimeoutException.class);
+        assertThat(idempotencyKeyRepository.count()).isZero();
+
+        IdempotentBookings.Outcome retry = idempotentBookings.book(userId, "k-failed", request(userId));
+
+        assertThat(retry.status()).isEqualTo(IdempotentBookings.OK);
+        assertThat(retry.replayed()).isFalse();
+    }
+
+    @Test
+    void createReservation_shouldRollBackTheBookingWhenItsOutcomeCannotBeStored() {
+        assertThatThrownBy(() -> reservationService.createReservation(request(userId), reservation -> {
+            throw new IllegalStateException("Instance stopped");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // Nothing committed, so a stale claim can be booked again without a duplicate
+        assertThat(reservationRepository.count()).isZero();
+        assertThat(reservationService.createReservation(request(otherUserId))).isPresent();
+    }
+
+    private ReservationRequestDTO request(Long forUser) {
+        ReservationRequestDTO dto = new ReservationRequestDTO();
+        dto.setSlotId(slotId);
+        dto.setUserId(forUser);
+        dto.setStartTime(START);
+        dto.setDurationMinutes(60);
+        dto.setConsumptionKWh(15.0);
+        return dto;
+    }
+}
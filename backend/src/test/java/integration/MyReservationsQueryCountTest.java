@@ -0,0 +1,148 @@
+package integration;
+
+import com.jayway.jsonpath.JsonPath;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.login.JwtUtil;
+import ua.tqs.models.Reservation;
+import ua.tqs.models.Slot;
+import ua.tqs.models.Station;
+import ua.tqs.models.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A user with thousands of reservations over many slots and stations: every page of
+ * {@code /api/reservations/myReservations}, filtered or not and however deep, is read in one
+ * statement, slot and station included.
+ */
+class MyReservationsQueryCountTest extends BookingIntegrationTest {
+
+    private static final int STATIONS = 5;
+    private static final int SLOTS_PER_STATION = 6;
+    private static final int RESERVATIONS = 3_000;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 8, 0);
+    /** The JWT filter loads the user once per request; the page itself is the other statement. */
+    private static final long STATEMENTS_PER_REQUEST = 2;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private Statistics statistics;
+    private String authorization;
+
+    @BeforeEach
+    void setUp() {
+        User driver = newUser("Many");
+        User other = newUser("Few");
+        List<Slot> slots = new ArrayList<>();
+        for (int i = 0; i < STATIONS; i++) {
+            Station station = newStation("Station " + i);
+            for (int j = 0; j < SLOTS_PER_STATION; j++) {
+                slots.add(slot(station, "Slot " + i + "-" + j));
+            }
+        }
+        slots = slotRepository.saveAll(slots);
+
+        // One a day, cycling through the slots; every third one canceled
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < RESERVATIONS; i++) {
+            reservations.add(reservation(driver, slots.get(i % slots.size()), START.plusDays(i),
+                    i % 3 == 0 ? ReservationStatus.CANCELED : ReservationStatus.ACTIVE));
+        }
+        reservations.add(reservation(other, slots.get(0), START, ReservationStatus.ACTIVE));
+        reservationRepository.saveAll(reservations);
+
+        authorization = "Bearer " + jwtUtil.generateToken(driver.getEmail(), "USER", driver.getId());
+        statistics = statistics();
+        statistics.clear();
+    }
+
+    @Test
+    void pagingThroughAllReservations_shouldIssueTheSameStatementsPerPage() throws Exception {
+        Set<Integer> seen = new HashSet<>();
+        String cursor = null;
+        do {
+            statistics.clear();
+            MockHttpServletResponse response = page(cursor, "limit", "500");
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_REQUEST);
+            List<Integer> ids = JsonPath.read(response.getContentAsString(), "$[*].id");
+            ids.forEach(id -> assertThat(seen.add(id)).isTrue());
+            List<String> stations = JsonPath.read(response.getContentAsString(), "$[*].stationLocation");
+            assertThat(stations).doesNotContainNull();
+            cursor = response.getHeader("X-Next-Cursor");
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(RESERVATIONS);
+    }
+
+    @Test
+    void filteredPage_shouldIssueTheSameStatementsAndApplyEveryFilter() throws Exception {
+        // Days 300 to 329: 30 reservations, 20 of them ACTIVE
+        MockHttpServletResponse response = page(null, "status", "ACTIVE",
+                "from", START.plusDays(300).toLocalDate().atStartOfDay().toString(),
+                "to", START.plusDays(330).toLocalDate().atStartOfDay().toString());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_REQUEST);
+        List<String> states = JsonPath.read(response.getContentAsString(), "$[*].state");
+        assertThat(states).hasSize(20).containsOnly("ACTIVE");
+        List<String> starts = JsonPath.read(response.getContentAsString(), "$[*].startTime");
+        assertThat(starts).allSatisfy(start -> assertThat(LocalDateTime.parse(start))
+                .isBetween(START.plusDays(300), START.plusDays(329)));
+    }
+
+    @Test
+    void deepPage_shouldCostTheSameAsTheFirst() throws Exception {
+        String cursor = null;
+        for (int i = 0; i < 5; i++) {
+            cursor = page(cursor, "limit", "500").getHeader("X-Next-Cursor");
+        }
+        statistics.clear();
+
+        MockHttpServletResponse last = page(cursor, "limit", "500");
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_REQUEST);
+        assertThat((List<?>) JsonPath.read(last.getContentAsString(), "$")).hasSize(500);
+    }
+
+    private MockHttpServletResponse page(String cursor, String... params) throws Exception {
+        var request = get("/api/reservations/myReservations").header("Authorization", authorization);
+        if (cursor != null) {
+            request.param("after", cursor);
+        }
+        for (int i = 0; i < params.length; i += 2) {
+            request.param(params[i], params[i + 1]);
+        }
+        return mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse();
+    }
+
+    private static Reservation reservation(User user, Slot slot, LocalDateTime startTime, ReservationStatus status) {
+        Reservation reservation = new Reservation();
+        reservation.setUser(user);
+        reservation.setSlot(slot);
+        reservation.setStatus(status);
+        reservation.setCreationDate(START);
+        reservation.setStartTime(startTime);
+        reservation.setStartDate(startTime.toLocalDate());
+        reservation.setDurationMinutes(60);
+        reservation.setConsumptionKWh(10.0);
+        reservation.setTotalCost(3.0);
+        return reservation;
+    }
+}
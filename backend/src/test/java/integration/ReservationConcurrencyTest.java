@@ -0,0 +1,169 @@
+package integration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ua.tqs.dto.BookingTicketDTO;
+import ua.tqs.dto.ReservationRequestDTO;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.enums.TicketStatus;
+import ua.tqs.models.Reservation;
+import ua.tqs.models.Station;
+import ua.tqs.services.BookingQueue;
+import ua.tqs.services.ReservationConflictException;
+import ua.tqs.services.ReservationService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many threads book the same few slots, for the same window, as users who each try several
+ * slots: every slot and every user must end up with exactly one reservation. The same holds when
+ * the bookings go through the {@link BookingQueue}.
+ */
+@Slf4j
+class ReservationConcurrencyTest extends BookingIntegrationTest {
+
+    private static final int SLOTS = 40;
+    private static final int USERS = 40;
+    private static final int ATTEMPTS_PER_SLOT = 16;
+    private static final int THREADS = 16;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 3, 4, 18, 0);
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private BookingQueue bookingQueue;
+
+    private final List<Long> slotIds = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Station station = newStation("Contended");
+        for (int i = 0; i < SLOTS; i++) {
+            slotIds.add(newSlot(station, "C" + i));
+        }
+        for (int i = 0; i < USERS; i++) {
+            userIds.add(newUser("Driver" + i).getId());
+        }
+    }
+
+    @Test
+    void concurrentBookings_shouldNeverDoubleBookASlotOrAUser() throws Exception {
+        Random random = new Random(7);
+        List<ReservationRequestDTO> attempts = new ArrayList<>();
+        for (Long slotId : slotIds) {
+            for (int i = 0; i < ATTEMPTS_PER_SLOT; i++) {
+                attempts.add(request(slotId, userIds.get(random.nextInt(USERS)),
+                        START.plusMinutes(random.nextInt(30))));
+            }
+        }
+        Collections.shuffle(attempts, random);
+
+        AtomicInteger booked = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int first = t;
+            futures.add(pool.submit(() -> {
+                go.await();
+                for (int i = first; i < attempts.size(); i += THREADS) {
+                    try {
+                        if (reservationService.createReservation(attempts.get(i)).isPresent()) {
+                            booked.incrementAndGet();
+                        }
+                    } catch (ReservationConflictException e) {
+                        // Rejected, as expected for most attempts
+                    }
+                }
+                return null;
+            }));
+        }
+        long start = System.nanoTime();
+        go.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        log.info("{} attempts on {} slots by {} threads: {} booked, {} attempts/s",
+                attempts.size(), SLOTS, THREADS, booked.get(), Math.round(attempts.size() / seconds));
+
+        assertOneReservationPerSlotAndUser(booked.get());
+    }
+
+    @Test
+    void queuedBookings_shouldNeverDoubleBookASlotOrAUser() throws Exception {
+        Random random = new Random(11);
+        List<ReservationRequestDTO> attempts = new ArrayList<>();
+        for (Long slotId : slotIds) {
+            for (int i = 0; i < ATTEMPTS_PER_SLOT; i++) {
+                attempts.add(request(slotId, userIds.get(random.nextInt(USERS)),
+                        START.plusMinutes(random.nextInt(30))));
+            }
+        }
+        Collections.shuffle(attempts, random);
+
+        long start = System.nanoTime();
+        List<String> ticketIds = new ArrayList<>();
+        for (ReservationRequestDTO attempt : attempts) {
+            ticketIds.add(bookingQueue.submit(attempt).orElseThrow().getTicketId());
+        }
+        Map<TicketStatus, Long> outcomes = new EnumMap<>(TicketStatus.class);
+        for (int i = 0; i < ticketIds.size(); i++) {
+            BookingTicketDTO ticket = bookingQueue.find(ticketIds.get(i), attempts.get(i).getUserId(),
+                    Duration.ofSeconds(30)).orElseThrow().get();
+            outcomes.merge(ticket.getStatus(), 1L, Long::sum);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        log.info("{} queued attempts on {} slots: {}, {} attempts/s",
+                attempts.size(), SLOTS, outcomes, Math.round(attempts.size() / seconds));
+
+        assertThat(outcomes).doesNotContainKey(TicketStatus.PENDING);
+        assertOneReservationPerSlotAndUser(outcomes.getOrDefault(TicketStatus.BOOKED, 0L).intValue());
+    }
+
+    private void assertOneReservationPerSlotAndUser(int booked) {
+        List<Reservation> active = reservationRepository.findAll().stream()
+                .filter(reservation -> reservation.getStatus() == ReservationStatus.ACTIVE)
+                .toList();
+        Map<Long, Long> perSlot = active.stream()
+                .collect(Collectors.groupingBy(reservation -> reservation.getSlot().getId(), Collectors.counting()));
+        Map<Long, Long> perUser = active.stream()
+                .collect(Collectors.groupingBy(reservation -> reservation.getUser().getId(), Collectors.counting()));
+        assertThat(active).hasSize(booked);
+        assertThat(perSlot.values()).containsOnly(1L);
+        assertThat(perUser.values()).containsOnly(1L);
+        assertThat(booked).isPositive();
+    }
+
+    private static ReservationRequestDTO request(Long slotId, Long userId, LocalDateTime startTime) {
+        ReservationRequestDTO dto = new ReservationRequestDTO();
+        dto.setSlotId(slotId);
+        dto.setUserId(userId);
+        dto.setStartTime(startTime);
+        dto.setDurationMinutes(60);
+        dto.setConsumptionKWh(15.0);
+        return dto;
+    }
+}
@@ -0,0 +1,184 @@
+package integration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ua.tqs.dto.ReservationRequestDTO;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.UserRole;
+import ua.tqs.models.Slot;
+import ua.tqs.models.Station;
+import ua.tqs.models.User;
+import ua.tqs.repositories.ReservationRepository;
+import ua.tqs.repositories.SlotRepository;
+import ua.tqs.repositories.StationRepository;
+import ua.tqs.repositories.UserRepository;
+import ua.tqs.services.ReservationConflictException;
+import ua.tqs.services.ReservationService;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The {@code reservations_no_overlap} constraint against a real PostgreSQL. Two independent
+ * connection pools stand in for two backend replicas that know nothing of each other's bookings.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(classes = ua.tqs.EletricNET_BackendApplication.class, properties = {
+        "spring.jpa.show-sql=false"
+})
+class ReservationExclusionTest {
+
+    private static final int SLOTS = 10;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS = 800;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 3, 4, 18, 0);
+    private static final String INSERT = "INSERT INTO reservations (id, slot_id, user_id, status, start_time, "
+            + "duration_minutes, paid) VALUES (nextval('reservations_seq'), ?, ?, 'ACTIVE', ?, ?, false)";
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StationRepository stationRepository;
+
+    @Autowired
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private final List<HikariDataSource> replicas = new ArrayList<>();
+    private final List<Long> slotIds = new ArrayList<>();
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository.deleteAll();
+        slotRepository.deleteAll();
+        stationRepository.deleteAll();
+
+        userId = userRepository.findByEmail("replica@test.com")
+                .orElseGet(() -> userRepository.save(
+                        new User(null, "replica@test.com", "hash", "Replica", UserRole.USER)))
+                .getId();
+        Station station = new Station();
+        station.setName("Replicated");
+        station = stationRepository.save(station);
+        for (int i = 0; i < SLOTS; i++) {
+            Slot slot = new Slot();
+            slot.setName("R" + i);
+            slot.setStation(station);
+            slot.setChargingType(ChargingType.FAST);
+            slotIds.add(slotRepository.save(slot).getId());
+        }
+        for (int i = 0; i < 2; i++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(postgres.getJdbcUrl());
+            dataSource.setUsername(postgres.getUsername());
+            dataSource.setPassword(postgres.getPassword());
+            dataSource.setMaximumPoolSize(THREADS / 2);
+            replicas.add(dataSource);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void concurrentInsertsFromTwoReplicas_shouldNeverOverlapOnASlot() throws Exception {
+        AtomicInteger inserted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            JdbcTemplate replica = new JdbcTemplate(replicas.get(t % 2));
+            Random random = new Random(t);
+            futures.add(pool.submit(() -> {
+                go.await();
+                for (int i = 0; i < ATTEMPTS / THREADS; i++) {
+                    Long slotId = slotIds.get(random.nextInt(SLOTS));
+                    Timestamp start = Timestamp.valueOf(START.plusMinutes(15L * random.nextInt(16)));
+                    try {
+                        replica.update(INSERT, slotId, userId, start, 30);
+                        inserted.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        assertThat(e).hasRootCauseInstanceOf(SQLException.class);
+                        assertThat(((SQLException) rootCause(e)).getSQLState()).isEqualTo("23P01");
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        Integer overlapping = new JdbcTemplate(replicas.get(0)).queryForObject(
+                "SELECT count(*) FROM reservations a JOIN reservations b ON a.slot_id = b.slot_id AND a.id < b.id "
+                        + "WHERE a.status = 'ACTIVE' AND b.status = 'ACTIVE' AND a.period && b.period", Integer.class);
+        assertThat(overlapping).isZero();
+        assertThat(inserted.get()).isPositive();
+        assertThat(rejected.get()).isPositive();
+        assertThat(inserted.get() + rejected.get()).isEqualTo(ATTEMPTS / THREADS * THREADS);
+    }
+
+    @Test
+    void createReservation_whenAnotherReplicaBookedTheWindow_shouldThrowConflict() {
+        Long slotId = slotIds.get(0);
+        new JdbcTemplate(replicas.get(1)).update(INSERT, slotId, userId, Timestamp.valueOf(START), 60);
+
+        ReservationRequestDTO dto = new ReservationRequestDTO();
+        dto.setSlotId(slotId);
+        dto.setUserId(userId);
+        dto.setStartTime(START.plusMinutes(30));
+        dto.setDurationMinutes(60);
+        dto.setConsumptionKWh(15.0);
+
+        assertThatThrownBy(() -> reservationService.createReservation(dto))
+                .isInstanceOf(ReservationConflictException.class);
+        assertThat(slotRepository.findById(slotId)).get().extracting(Slot::isReserved).isEqualTo(false);
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
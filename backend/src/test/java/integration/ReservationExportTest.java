@@ -0,0 +1,82 @@
+package integration;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.enums.UserRole;
+import ua.tqs.models.Reservation;
+import ua.tqs.models.Slot;
+import ua.tqs.models.Station;
+import ua.tqs.models.User;
+import ua.tqs.services.ReservationExportService;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Runs the reservation exports against H2 to check the projection query and the row formats. */
+class ReservationExportTest extends BookingIntegrationTest {
+
+    private static final int RESERVATIONS = 25;
+
+    @Autowired
+    private ReservationExportService exportService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(new User(null, "driver@test.com", "hash", "Driver, \"Jr\"", UserRole.USER));
+        Station station = new Station();
+        station.setName("Aveiro");
+        station = stationRepository.save(station);
+        Slot slot = new Slot();
+        slot.setName("A1");
+        slot.setStation(station);
+        slot.setChargingType(ChargingType.FAST);
+        slot = slotRepository.save(slot);
+        for (int i = 0; i < RESERVATIONS; i++) {
+            Reservation reservation = new Reservation();
+            reservation.setUser(user);
+            reservation.setSlot(slot);
+            reservation.setStatus(ReservationStatus.ACTIVE);
+            reservation.setStartTime(LocalDateTime.of(2025, 1, 1, 10, 0).plusHours(i));
+            reservation.setDurationMinutes(30);
+            reservation.setTotalCost(1.5);
+            reservationRepository.save(reservation);
+        }
+
+        statistics = statistics();
+        statistics.clear();
+    }
+
+    @Test
+    void writeNdjson_shouldWriteOneLinePerReservationWithoutLoadingEntities() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.writeNdjson(out);
+
+        String[] lines = out.toString().split("\n", -1);
+        assertThat(lines).hasSize(RESERVATIONS + 1);
+        assertThat(lines[RESERVATIONS]).isEmpty();
+        assertThat(lines[0]).startsWith("{").contains("\"stationLocation\":\"Aveiro\"", "\"state\":\"ACTIVE\"");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void writeCsv_shouldWriteHeaderAndQuotedRows() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.writeCsv(out);
+
+        String[] lines = out.toString().split("\r\n");
+        assertThat(lines).hasSize(RESERVATIONS + 1);
+        assertThat(lines[0]).startsWith("id,userId,userEmail,userName");
+        assertThat(lines[1]).contains(",\"Driver, \"\"Jr\"\"\",", ",ACTIVE,", ",FAST,");
+    }
+}
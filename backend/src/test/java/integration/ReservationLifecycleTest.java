@@ -0,0 +1,129 @@
+package integration;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ua.tqs.dto.BatchReservationRequestDTO;
+import ua.tqs.dto.ReservationRequestDTO;
+import ua.tqs.dto.SlotResponseDTO;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.models.Reservation;
+import ua.tqs.models.Slot;
+import ua.tqs.models.Station;
+import ua.tqs.services.BatchReservationService;
+import ua.tqs.services.ReservationService;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReservationLifecycleTest extends BookingIntegrationTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 3, 4, 18, 0);
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private BatchReservationService batchReservationService;
+
+    private Station station;
+    private int users;
+
+    @BeforeEach
+    void setUp() {
+        // The tests move the schedule years ahead; the base class reloads it before each one
+        station = newStation("Lifecycle");
+    }
+
+    @Test
+    void finishDue_shouldFinishEndedReservationsAndFreeTheirSlots() {
+        Long early = newSlot("Early");
+        Long late = newSlot("Late");
+        Long first = book(early, newUser(), START, 60);
+        Long second = book(late, newUser(), START.plusMinutes(30), 90);
+
+        assertThat(lifecycle.finishDue(START.plusMinutes(59))).isZero();
+        assertThat(lifecycle.finishDue(START.plusMinutes(60))).isEqualTo(1);
+
+        assertThat(status(first)).isEqualTo(ReservationStatus.FINISHED);
+        assertThat(status(second)).isEqualTo(ReservationStatus.ACTIVE);
+        assertThat(slotRepository.findAvailableResponses()).extracting(SlotResponseDTO::getId).containsExactly(early);
+        assertThat(reservationIntervals.slotOverlaps(early, START, START.plusMinutes(60))).isFalse();
+
+        assertThat(lifecycle.finishDue(START.plusHours(2))).isEqualTo(1);
+        assertThat(status(second)).isEqualTo(ReservationStatus.FINISHED);
+        assertThat(slotRepository.findAvailableResponses()).hasSize(2);
+    }
+
+    @Test
+    void finishDue_shouldKeepASlotReservedForTheRestOfItsSeries() {
+        Long slotId = newSlot("Weekly");
+        BatchReservationRequestDTO request = new BatchReservationRequestDTO();
+        request.setUserId(newUser());
+        BatchReservationRequestDTO.Recurrence recurrence = new BatchReservationRequestDTO.Recurrence();
+        recurrence.setSlotId(slotId);
+        recurrence.setFirstStart(START);
+        recurrence.setDurationMinutes(60);
+        recurrence.setConsumptionKWh(15.0);
+        recurrence.setOccurrences(2);
+        request.setRecurrence(recurrence);
+        assertThat(batchReservationService.book(request).getBooked()).isEqualTo(2);
+
+        assertThat(lifecycle.finishDue(START.plusDays(1))).isEqualTo(1);
+        assertThat(slotRepository.findById(slotId)).get().extracting(Slot::isReserved).isEqualTo(true);
+
+        assertThat(lifecycle.finishDue(START.plusDays(8))).isEqualTo(1);
+        assertThat(slotRepository.findById(slotId)).get().extracting(Slot::isReserved).isEqualTo(false);
+    }
+
+    @Test
+    void finishDue_shouldLeaveCanceledReservationsAlone() {
+        Long reservationId = book(newSlot("Canceled"), newUser(), START, 60);
+        assertThat(reservationService.cancelReservation(reservationId)).isTrue();
+
+        assertThat(lifecycle.finishDue(START.plusDays(1))).isZero();
+        assertThat(status(reservationId)).isEqualTo(ReservationStatus.CANCELED);
+    }
+
+    @Test
+    void load_shouldRebuildTheScheduleInOneQuery() {
+        for (int i = 0; i < 3; i++) {
+            book(newSlot("Reloaded " + i), newUser(), START.plusHours(i), 60);
+        }
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        lifecycle.load();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(lifecycle.scheduledCount()).isEqualTo(3);
+        assertThat(lifecycle.finishDue(START.plusDays(1))).isEqualTo(3);
+        assertThat(reservationRepository.findAll()).extracting(Reservation::getStatus)
+                .containsOnly(ReservationStatus.FINISHED);
+    }
+
+    private Long book(Long slotId, Long userId, LocalDateTime startTime, int minutes) {
+        ReservationRequestDTO dto = new ReservationRequestDTO();
+        dto.setSlotId(slotId);
+        dto.setUserId(userId);
+        dto.setStartTime(startTime);
+        dto.setDurationMinutes(minutes);
+        dto.setConsumptionKWh(15.0);
+        return reservationService.createReservation(dto).orElseThrow().getId();
+    }
+
+    private ReservationStatus status(Long reservationId) {
+        return reservationRepository.findById(reservationId).orElseThrow().getStatus();
+    }
+
+    private Long newSlot(String name) {
+        return newSlot(station, name);
+    }
+
+    private Long newUser() {
+        users++;
+        return newUser("Ending" + users).getId();
+    }
+}
@@ -0,0 +1,38 @@
+package integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** A client that only has {@code /catalog} asks for the changes since the ETag it was served. */
+class SlotCatalogChangesTest extends BookingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        newSlot(newStation("Catalogued"), "C1");
+        readModelUpdater.load();
+    }
+
+    @Test
+    void changes_sinceTheServedEtag_shouldReturnADelta() throws Exception {
+        for (String encoding : new String[]{"gzip", "identity"}) {
+            String etag = mockMvc.perform(get("/api/slots/catalog").header(HttpHeaders.ACCEPT_ENCODING, encoding))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            mockMvc.perform(get("/api/slots/changes").param("since", etag))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.full").value(false))
+                    .andExpect(jsonPath("$.updated").isEmpty());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import ua.tqs.dto.SlotImportReportDTO;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.UserRole;
+import ua.tqs.index.SlotSpatialIndex;
+import ua.tqs.login.JwtUtil;
+import ua.tqs.models.Slot;
+import ua.tqs.models.Station;
+import ua.tqs.models.User;
+import ua.tqs.services.SlotImportService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** Runs the bulk import against H2 to check the JDBC batch insert and the per-row report. */
+class SlotImportTest extends BookingIntegrationTest {
+
+    private static final int ROWS = 2500;
+
+    @Autowired
+    private SlotImportService importService;
+
+    @Autowired
+    private SlotSpatialIndex spatialIndex;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        Station station = new Station();
+        station.setName("Aveiro");
+        station = stationRepository.save(station);
+        Slot slot = new Slot();
+        slot.setName("Existing");
+        slot.setStation(station);
+        slot.setChargingType(ChargingType.FAST);
+        slotRepository.save(slot);
+    }
+
+    @Test
+    void importCsv_shouldInsertValidRowsInChunksAndReportTheRest() throws Exception {
+        StringBuilder csv = new StringBuilder("name,stationName,chargingType,power,latitude,longitude\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append("Slot-").append(i).append(',').append(i % 2 == 0 ? "Aveiro" : "\"Porto, Centro\"")
+                    .append(",fast,50,40.").append(i % 10).append(",-8.6\n");
+        }
+        csv.append("Existing,Aveiro,FAST,50,,\n");
+        csv.append("Slot-0,Aveiro,FAST,50,,\n");
+        csv.append("Broken,Aveiro,PLASMA,50,,\n");
+        csv.append("Far,Aveiro,FAST,50,95,0\n");
+
+        SlotImportReportDTO report = importService.importCsv(stream(csv.toString()));
+
+        assertThat(report.getImported()).isEqualTo(ROWS);
+        assertThat(report.getFailed()).isEqualTo(4);
+        assertThat(report.getStationsCreated()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(SlotImportReportDTO.RowError::getLine)
+                .containsExactly((long) ROWS + 2, (long) ROWS + 3, (long) ROWS + 4, (long) ROWS + 5);
+        assertThat(report.getErrors()).extracting(SlotImportReportDTO.RowError::getMessage)
+                .containsExactly("Slot name already exists", "Slot name already exists",
+                        "Unknown chargingType: PLASMA", "Invalid coordinates");
+
+        assertThat(slotRepository.count()).isEqualTo(ROWS + 1);
+        assertThat(stationRepository.findByName("Porto, Centro")).isPresent();
+        assertThat(slotRepository.findByStation_Id(stationRepository.findByName("Porto, Centro").get().getId()))
+                .hasSize(ROWS / 2);
+        assertThat(spatialIndex.size()).isEqualTo(ROWS);
+    }
+
+    @Test
+    void importNdjson_shouldReportMalformedLines() throws Exception {
+        String ndjson = """
+                {"name":"J1","stationName":"Aveiro","chargingType":"NORMAL","latitude":40.6,"longitude":-8.6}
+                {"name":"J2","stationName":"Aveiro","chargingType":"TURBO"}
+                not json
+
+                {"name":"J3","stationName":"Braga","chargingType":"ULTRA_FAST","reserved":true}
+                """;
+
+        SlotImportReportDTO report = importService.importNdjson(stream(ndjson));
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(SlotImportReportDTO.RowError::getLine).containsExactly(2L, 3L);
+        assertThat(slotRepository.existsByIdAndReservedTrue(
+                slotRepository.findAll().stream().filter(s -> s.getName().equals("J3")).findFirst().orElseThrow().getId()))
+                .isTrue();
+    }
+
+    @Test
+    void importEndpoint_shouldBeForAdminsOnly() throws Exception {
+        User driver = newUser("Driver");
+        User admin = userRepository.save(new User(null, "admin@test.com", "hash", "Admin", UserRole.ADMIN));
+        String csv = "name,stationName,chargingType,power,latitude,longitude\nImported,Aveiro,FAST,50,,\n";
+
+        mockMvc.perform(post("/api/slots/import").contentType("text/csv").content(csv))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/slots/import").contentType("text/csv").content(csv)
+                        .header("Authorization", "Bearer " + jwtUtil.generateToken(driver.getEmail(), "USER", driver.getId())))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/slots/import").contentType("text/csv").content(csv)
+                        .header("Authorization", "Bearer " + jwtUtil.generateToken(admin.getEmail(), "ADMIN", admin.getId())))
+                .andExpect(status().isOk());
+
+        assertThat(slotRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void importCsv_withoutRequiredColumns_shouldBeRejected() {
+        assertThatThrownBy(() -> importService.importCsv(stream("name,power\nA,50\n")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
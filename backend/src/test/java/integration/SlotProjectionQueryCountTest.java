@@ -0,0 +1,147 @@
+package integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.StationStatus;
+import ua.tqs.enums.UserRole;
+import ua.tqs.models.Slot;
+import ua.tqs.models.Station;
+import ua.tqs.models.User;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies the slot read endpoints are served by a single projected query per request (per page
+ * when paging) and no longer leak the station operator through entity serialization.
+ */
+class SlotProjectionQueryCountTest extends BookingIntegrationTest {
+
+    private static final int STATIONS = 10;
+    private static final int SLOTS_PER_STATION = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+    private Long firstSlotId;
+
+    @BeforeEach
+    void setUp() {
+        User operator = userRepository.save(new User(null, "operator@test.com", "secret-hash", "Operator", UserRole.ADMIN));
+        for (int i = 0; i < STATIONS; i++) {
+            Station station = new Station();
+            station.setName("Station " + i);
+            station.setStatus(StationStatus.AVAILABLE);
+            station.setOperator(operator);
+            station = stationRepository.save(station);
+            for (int j = 0; j < SLOTS_PER_STATION; j++) {
+                Slot slot = new Slot();
+                slot.setName("Slot " + i + "-" + j);
+                slot.setStation(station);
+                slot.setReserved(j == 0);
+                slot.setChargingType(ChargingType.FAST);
+                slot.setPower("50");
+                slot.setLatitude(40.0 + i);
+                slot.setLongitude(-8.0 - j);
+                Slot saved = slotRepository.save(slot);
+                if (firstSlotId == null) {
+                    firstSlotId = saved.getId();
+                }
+            }
+        }
+
+        statistics = statistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllSlots_shouldIssueOneStatement() throws Exception {
+        String body = mockMvc.perform(get("/api/slots"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(body).contains("\"stationName\":\"Station 0\"").doesNotContain("password", "operator");
+    }
+
+    @Test
+    void pagingThroughSlots_shouldIssueOneStatementPerPageAndVisitEachSlotOnce() throws Exception {
+        Set<Integer> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            MockHttpServletResponse response = mockMvc.perform(get("/api/slots")
+                            .param("limit", "7")
+                            .param("after", cursor != null ? cursor : ""))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            List<Integer> ids = JsonPath.read(response.getContentAsString(), "$[*].id");
+            ids.forEach(id -> assertThat(seen.add(id)).isTrue());
+            cursor = response.getHeader("X-Next-Cursor");
+            pages++;
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(STATIONS * SLOTS_PER_STATION);
+        assertThat(pages).isEqualTo(8);
+    }
+
+    @Test
+    void getAvailableSlots_shouldIssueOneStatement() throws Exception {
+        mockMvc.perform(get("/api/slots/available")).andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getSlotById_shouldIssueOneStatement() throws Exception {
+        mockMvc.perform(get("/api/slots/" + firstSlotId)).andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getSlotById_acceptCbor_shouldUseTheRegisteredCompactConverter() throws Exception {
+        byte[] cbor = mockMvc.perform(get("/api/slots/" + firstSlotId).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] json = mockMvc.perform(get("/api/slots/" + firstSlotId))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(cbor.length).isLessThan(json.length);
+    }
+
+    @Test
+    void projectedPayload_shouldBeSmallerThanEntityPayload() throws Exception {
+        byte[] entityPayload = objectMapper.writeValueAsBytes(slotRepository.findAll());
+        statistics.clear();
+
+        byte[] dtoPayload = mockMvc.perform(get("/api/slots"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(dtoPayload.length).isLessThan(entityPayload.length);
+        assertThat(new String(entityPayload)).contains("secret-hash");
+        assertThat(new String(dtoPayload)).doesNotContain("secret-hash");
+    }
+}
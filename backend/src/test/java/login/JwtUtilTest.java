@@ -66,4 +66,10 @@ class JwtUtilTest {
 
         assertThat(throwsException).isTrue();
     }
+
+    @Test
+    void whenGetUserId_thenReturnClaimOrNullForTokensWithoutIt() {
+        assertThat(jwtUtil.getUserId(jwtUtil.generateToken("test@example.com", "USER", 42L))).isEqualTo(42L);
+        assertThat(jwtUtil.getUserId(jwtUtil.generateToken("test@example.com", "USER"))).isNull();
+    }
 }
@@ -0,0 +1,176 @@
+package services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ua.tqs.dto.BookingTicketDTO;
+import ua.tqs.dto.ReservationRequestDTO;
+import ua.tqs.dto.ReservationResponseDTO;
+import ua.tqs.enums.TicketStatus;
+import ua.tqs.index.ReservationIntervals;
+import ua.tqs.services.BookingQueue;
+import ua.tqs.services.ReservationConflictException;
+import ua.tqs.services.ReservationService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingQueueTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @Mock
+    private ReservationService reservationService;
+
+    @Mock
+    private ReservationIntervals reservationIntervals;
+
+    private BookingQueue bookingQueue;
+
+    @AfterEach
+    void tearDown() {
+        if (bookingQueue != null) {
+            bookingQueue.shutdown();
+        }
+    }
+
+    @Test
+    void submit_shouldBookOnTheWriterAndCompleteTheTicket() throws Exception {
+        bookingQueue = new BookingQueue(reservationService, reservationIntervals, new SimpleMeterRegistry(), 2, 100);
+        when(reservationService.createReservation(any())).thenReturn(Optional.of(response(10L)));
+
+        BookingTicketDTO queued = bookingQueue.submit(request(1L, 7L)).orElseThrow();
+        BookingTicketDTO done = await(queued.getTicketId(), 1L);
+
+        assertThat(queued.getStatus()).isEqualTo(TicketStatus.PENDING);
+        assertThat(done.getStatus()).isEqualTo(TicketStatus.BOOKED);
+        assertThat(done.getReservation().getId()).isEqualTo(10L);
+    }
+
+    @Test
+    void drainedBatch_shouldConflictLaterRequestsForAWindowBookedInIt() throws Exception {
+        bookingQueue = new BookingQueue(reservationService, reservationIntervals, new SimpleMeterRegistry(), 1, 100);
+        LocalDateTime start = LocalDateTime.of(2030, 3, 4, 18, 0);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(reservationService.createReservation(any())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            if (start.equals(invocation.<ReservationRequestDTO>getArgument(0).getStartTime())) {
+                // As the booking's event does to the real intervals
+                when(reservationIntervals.slotOverlaps(2L, start, start.plusMinutes(60))).thenReturn(true);
+            }
+            return Optional.of(response(10L));
+        });
+
+        String first = bookingQueue.submit(request(1L, 1L)).orElseThrow().getTicketId();
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        // Queued while the writer is busy, so drained together
+        String second = bookingQueue.submit(request(2L, 2L, start)).orElseThrow().getTicketId();
+        String third = bookingQueue.submit(request(3L, 2L, start)).orElseThrow().getTicketId();
+        String later = bookingQueue.submit(request(4L, 2L, start.plusHours(1))).orElseThrow().getTicketId();
+        release.countDown();
+
+        assertThat(await(first, 1L).getStatus()).isEqualTo(TicketStatus.BOOKED);
+        assertThat(await(second, 2L).getStatus()).isEqualTo(TicketStatus.BOOKED);
+        BookingTicketDTO conflicting = await(third, 3L);
+        assertThat(conflicting.getStatus()).isEqualTo(TicketStatus.CONFLICT);
+        assertThat(conflicting.getError()).isEqualTo("Slot is already reserved for that time");
+        assertThat(await(later, 4L).getStatus()).isEqualTo(TicketStatus.BOOKED);
+        verify(reservationService, times(3)).createReservation(any());
+    }
+
+    @Test
+    void conflict_shouldEndTheTicketInConflict() throws Exception {
+        bookingQueue = new BookingQueue(reservationService, reservationIntervals, new SimpleMeterRegistry(), 1, 100);
+        when(reservationService.createReservation(any()))
+                .thenThrow(new ReservationConflictException("Slot is already reserved for that time"));
+
+        String ticket = bookingQueue.submit(request(1L, 1L)).orElseThrow().getTicketId();
+
+        BookingTicketDTO done = await(ticket, 1L);
+        assertThat(done.getStatus()).isEqualTo(TicketStatus.CONFLICT);
+        assertThat(done.getError()).isEqualTo("Slot is already reserved for that time");
+    }
+
+    @Test
+    void knownOverlap_shouldConflictWithoutBooking() throws Exception {
+        bookingQueue = new BookingQueue(reservationService, reservationIntervals, new SimpleMeterRegistry(), 1, 100);
+        ReservationRequestDTO dto = request(1L, 1L);
+        dto.setStartTime(LocalDateTime.of(2030, 3, 4, 18, 0));
+        when(reservationIntervals.slotOverlaps(1L, dto.getStartTime(), dto.getStartTime().plusMinutes(60)))
+                .thenReturn(true);
+
+        String ticket = bookingQueue.submit(dto).orElseThrow().getTicketId();
+
+        assertThat(await(ticket, 1L).getStatus()).isEqualTo(TicketStatus.CONFLICT);
+        verify(reservationService, never()).createReservation(any());
+    }
+
+    @Test
+    void submit_whenShardIsFull_shouldRefuse() throws Exception {
+        bookingQueue = new BookingQueue(reservationService, reservationIntervals, new SimpleMeterRegistry(), 1, 1);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(reservationService.createReservation(any())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+
+        assertThat(bookingQueue.submit(request(1L, 1L))).isPresent();
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(bookingQueue.submit(request(2L, 1L))).isPresent();
+        assertThat(bookingQueue.submit(request(3L, 1L))).isEmpty();
+        release.countDown();
+    }
+
+    @Test
+    void find_shouldHideTicketsOfOtherUsers() {
+        bookingQueue = new BookingQueue(reservationService, reservationIntervals, new SimpleMeterRegistry(), 1, 100);
+
+        String ticket = bookingQueue.submit(request(1L, 1L)).orElseThrow().getTicketId();
+
+        assertThat(bookingQueue.find(ticket, 2L, Duration.ZERO)).isEmpty();
+        assertThat(bookingQueue.find("unknown", 1L, Duration.ZERO)).isEmpty();
+    }
+
+    private BookingTicketDTO await(String ticketId, Long userId) throws Exception {
+        return bookingQueue.find(ticketId, userId, WAIT).orElseThrow().get(10, TimeUnit.SECONDS);
+    }
+
+    private static ReservationRequestDTO request(Long userId, Long slotId, LocalDateTime startTime) {
+        ReservationRequestDTO dto = request(userId, slotId);
+        dto.setStartTime(startTime);
+        return dto;
+    }
+
+    private static ReservationRequestDTO request(Long userId, Long slotId) {
+        ReservationRequestDTO dto = new ReservationRequestDTO();
+        dto.setUserId(userId);
+        dto.setSlotId(slotId);
+        dto.setDurationMinutes(60);
+        dto.setConsumptionKWh(15.0);
+        return dto;
+    }
+
+    private static ReservationResponseDTO response(Long id) {
+        ReservationResponseDTO response = new ReservationResponseDTO();
+        response.setId(id);
+        return response;
+    }
+}
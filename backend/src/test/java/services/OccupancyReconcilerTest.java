@@ -0,0 +1,107 @@
+package services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ua.tqs.enums.ChargingType;
+import ua.tqs.enums.ReservationStatus;
+import ua.tqs.index.FleetOccupancy;
+import ua.tqs.index.SlotReadModelUpdater;
+import ua.tqs.index.SlotSnapshot;
+import ua.tqs.repositories.ReservationRepository;
+import ua.tqs.repositories.SlotRepository;
+import ua.tqs.services.OccupancyReconciler;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OccupancyReconcilerTest {
+
+    @Mock
+    private SlotRepository slotRepository;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private SlotReadModelUpdater readModelUpdater;
+
+    private FleetOccupancy occupancy;
+    private OccupancyReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        occupancy = new FleetOccupancy(new SimpleMeterRegistry());
+        occupancy.rebuild(List.of(
+                new SlotSnapshot(1L, "Slot-1", 1L, "Station-1", null, null, null, ChargingType.FAST, "50", true),
+                new SlotSnapshot(2L, "Slot-2", 1L, "Station-1", null, null, null, ChargingType.FAST, "50", false)));
+        reconciler = new OccupancyReconciler(slotRepository, reservationRepository, occupancy, readModelUpdater);
+    }
+
+    @Test
+    void reconcile_whenCountersMatch_shouldNotReload() {
+        when(slotRepository.countOccupancy()).thenReturn(List.of(
+                count(1L, ChargingType.FAST, true, 1),
+                count(1L, ChargingType.FAST, false, 1)));
+        when(reservationRepository.countByStatus(ReservationStatus.ACTIVE)).thenReturn(0L);
+
+        reconciler.reconcile();
+        reconciler.reconcile();
+
+        verify(readModelUpdater, never()).load();
+    }
+
+    @Test
+    void reconcile_shouldReloadOnlyWhenDriftPersists() {
+        when(slotRepository.countOccupancy()).thenReturn(List.of(count(1L, ChargingType.FAST, false, 2)));
+        when(reservationRepository.countByStatus(ReservationStatus.ACTIVE)).thenReturn(0L);
+
+        reconciler.reconcile();
+        verify(readModelUpdater, never()).load();
+
+        reconciler.reconcile();
+        verify(readModelUpdater).load();
+    }
+
+    @Test
+    void reconcile_shouldResetActiveReservationsWhenDriftPersists() {
+        when(slotRepository.countOccupancy()).thenReturn(List.of(
+                count(1L, ChargingType.FAST, true, 1),
+                count(1L, ChargingType.FAST, false, 1)));
+        when(reservationRepository.countByStatus(ReservationStatus.ACTIVE)).thenReturn(5L);
+
+        reconciler.reconcile();
+        assertThat(occupancy.activeReservations()).isZero();
+
+        reconciler.reconcile();
+        assertThat(occupancy.activeReservations()).isEqualTo(5);
+    }
+
+    private static SlotRepository.OccupancyCount count(Long stationId, ChargingType type, boolean reserved, long slots) {
+        return new SlotRepository.OccupancyCount() {
+            public Long getStationId() {
+                return stationId;
+            }
+
+            public ChargingType getChargingType() {
+                return type;
+            }
+
+            public Boolean getReserved() {
+                return reserved;
+            }
+
+            public Long getSlots() {
+                return slots;
+            }
+        };
+    }
+}
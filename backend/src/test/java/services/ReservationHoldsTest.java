@@ -0,0 +1,105 @@
+package services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ua.tqs.dto.ReservationHoldDTO;
+import ua.tqs.dto.ReservationRequestDTO;
+import ua.tqs.index.ReservationIntervals;
+import ua.tqs.services.BookingLocks;
+import ua.tqs.services.ReservationHolds;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationHoldsTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 3, 4, 18, 0);
+
+    @Mock
+    private ReservationIntervals reservationIntervals;
+
+    private ReservationHolds holds;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        holds = new ReservationHolds(reservationIntervals, new BookingLocks(), 300);
+        now = Instant.now();
+    }
+
+    @Test
+    void place_shouldRefuseAWindowHeldByAnotherDriverAndRenewTheUsersOwn() {
+        ReservationHoldDTO first = holds.place(request(1L, 1L, START), now).orElseThrow();
+
+        assertThat(holds.place(request(1L, 2L, START.plusMinutes(30)), now)).isEmpty();
+        assertThat(holds.place(request(1L, 2L, START.plusMinutes(61)), now)).isPresent();
+
+        ReservationHoldDTO renewed = holds.place(request(1L, 1L, START), now.plusSeconds(60)).orElseThrow();
+        assertThat(renewed.getHoldId()).isEqualTo(first.getHoldId());
+        assertThat(renewed.getExpiresAt()).isEqualTo(Instant.ofEpochSecond(now.getEpochSecond() + 360));
+        assertThat(holds.size()).isEqualTo(2);
+    }
+
+    @Test
+    void place_shouldRefuseAReservedWindow() {
+        when(reservationIntervals.slotOverlaps(1L, START, START.plusMinutes(60))).thenReturn(true);
+
+        assertThat(holds.place(request(1L, 1L, START), now)).isEmpty();
+        assertThat(holds.size()).isZero();
+    }
+
+    @Test
+    void expireDue_shouldDropHoldsOnceTheirTtlIsOver() {
+        holds.place(request(1L, 1L, START), now);
+        holds.place(request(2L, 2L, START), now);
+        // Renewed, so its first expiry no longer applies
+        holds.place(request(2L, 2L, START), now.plusSeconds(120));
+
+        assertThat(holds.expireDue(now.plusSeconds(299))).isZero();
+        assertThat(holds.expireDue(now.plusSeconds(300))).isEqualTo(1);
+        assertThat(holds.heldByOther(1L, 3L, START, START.plusMinutes(60))).isFalse();
+        assertThat(holds.heldByOther(2L, 3L, START, START.plusMinutes(60))).isTrue();
+
+        assertThat(holds.expireDue(now.plusSeconds(420))).isEqualTo(1);
+        assertThat(holds.size()).isZero();
+    }
+
+    @Test
+    void release_shouldOnlyDropTheUsersOwnHold() {
+        String holdId = holds.place(request(1L, 1L, START), now).orElseThrow().getHoldId();
+
+        assertThat(holds.release(holdId, 2L)).isFalse();
+        assertThat(holds.release(holdId, 1L)).isTrue();
+        assertThat(holds.release(holdId, 1L)).isFalse();
+        assertThat(holds.place(request(1L, 2L, START), now)).isPresent();
+    }
+
+    @Test
+    void place_shouldLimitTheHoldsOfAUser() {
+        for (long slotId = 1; slotId <= 3; slotId++) {
+            assertThat(holds.place(request(slotId, 1L, START), now)).isPresent();
+        }
+
+        assertThatThrownBy(() -> holds.place(request(4L, 1L, START), now))
+                .isInstanceOf(IllegalArgumentException.class);
+        // Renewing one of them is still allowed
+        assertThat(holds.place(request(3L, 1L, START), now)).isPresent();
+    }
+
+    private static ReservationRequestDTO request(Long slotId, Long userId, LocalDateTime startTime) {
+        ReservationRequestDTO dto = new ReservationRequestDTO();
+        dto.setSlotId(slotId);
+        dto.setUserId(userId);
+        dto.setStartTime(startTime);
+        dto.setDurationMinutes(60);
+        return dto;
+    }
+}
@@ -7,11 +7,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ua.tqs.dto.BookingTargetDTO;
 import ua.tqs.dto.ClientStatsDTO;
 import ua.tqs.dto.ReservationRequestDTO;
 import ua.tqs.dto.ReservationResponseDTO;
 import ua.tqs.enums.ChargingType;
 import ua.tqs.enums.ReservationStatus;
+import ua.tqs.events.ReservationChangedEvent;
+import ua.tqs.events.SlotChangedEvent;
+import ua.tqs.index.ReservationIntervals;
+import ua.tqs.index.TariffTable;
 import ua.tqs.login.JwtUtil;
 import ua.tqs.models.Reservation;
 import ua.tqs.models.Slot;
@@ -19,17 +29,25 @@ import ua.tqs.models.Station;
 import ua.tqs.models.User;
 import ua.tqs.repositories.ReservationRepository;
 import ua.tqs.repositories.SlotRepository;
+import ua.tqs.repositories.StationRepository;
 import ua.tqs.repositories.UserRepository;
+import ua.tqs.services.BookingLocks;
+import ua.tqs.services.ReservationConflictException;
+import ua.tqs.services.ReservationHolds;
 import ua.tqs.services.ReservationService;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -49,7 +67,20 @@ class ReservationServiceTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private StationRepository stationRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private ReservationService reservationService;
+    private ReservationIntervals reservationIntervals;
+    private TariffTable tariffTable;
+    private BookingLocks bookingLocks;
+    private ReservationHolds reservationHolds;
 
     private User user;
     private Slot slot;
@@ -60,13 +91,23 @@ class ReservationServiceTest {
     @BeforeEach
     void setUp() {
         MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        reservationIntervals = new ReservationIntervals(reservationRepository);
+        tariffTable = new TariffTable(stationRepository);
+        bookingLocks = new BookingLocks();
+        reservationHolds = new ReservationHolds(reservationIntervals, bookingLocks, 300);
 
         reservationService = new ReservationService(
                 meterRegistry,
                 reservationRepository,
                 slotRepository,
                 userRepository,
-                jwtUtil
+                jwtUtil,
+                eventPublisher,
+                reservationIntervals,
+                tariffTable,
+                bookingLocks,
+                reservationHolds,
+                new TransactionTemplate(transactionManager)
         );
 
         user = new User();
@@ -109,9 +150,8 @@ class ReservationServiceTest {
 
     @Test
     void createReservation_Success() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(slotRepository.findById(1L)).thenReturn(Optional.of(slot));
-        when(slotRepository.save(any(Slot.class))).thenReturn(slot);
+        when(slotRepository.findBookingTarget(1L, 1L)).thenReturn(Optional.of(target(slot, true)));
+        when(slotRepository.reserve(1L)).thenReturn(1);
         when(reservationRepository.save(any(Reservation.class))).thenReturn(reservation);
 
         Optional<ReservationResponseDTO> result = reservationService.createReservation(requestDTO);
@@ -119,22 +159,133 @@ class ReservationServiceTest {
         assertThat(result).isPresent();
         assertThat(result.get().getUserId()).isEqualTo(user.getId());
         assertThat(result.get().getSlotId()).isEqualTo(slot.getId());
-        verify(slotRepository).save(argThat(Slot::isReserved));
+        assertThat(result.get().getStationLocation()).isEqualTo(station.getName());
+        assertThat(result.get().getSlotLabel()).isEqualTo(slot.getName());
+        verify(slotRepository).reserve(1L);
+        verify(slotRepository, never()).findById(any());
+        verify(eventPublisher).publishEvent(any(SlotChangedEvent.class));
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof ReservationChangedEvent changed
+                && changed.getStatus() == ReservationStatus.ACTIVE));
+    }
+
+    @Test
+    void createReservation_PricesFromTariffTablesNotFromClient() {
+        station.setDiscount(true);
+        station.setDiscountStartTime(LocalTime.of(22, 0));
+        station.setDiscountEndTime(LocalTime.of(6, 0));
+        when(stationRepository.findAll()).thenReturn(List.of(station));
+        tariffTable.load();
+        requestDTO.setStartTime(LocalDateTime.of(2030, 1, 7, 5, 0));   // 05:00-06:00, inside the window
+        when(slotRepository.findBookingTarget(1L, 1L)).thenReturn(Optional.of(target(slot, true)));
+        when(slotRepository.reserve(1L)).thenReturn(1);
+        when(reservationRepository.save(any(Reservation.class))).thenReturn(reservation);
+
+        assertThat(reservationService.createReservation(requestDTO)).isPresent();
+
+        // FAST is 0.30/kWh whatever the client sent, less the station's 10%
+        verify(reservationRepository).save(argThat((Reservation saved) ->
+                Math.abs(saved.getTotalCost() - 0.30 * 10 * 0.9) < 1e-9));
+    }
+
+    @Test
+    void createReservation_OverlappingSlotReservation_ThrowsConflict() {
+        when(slotRepository.findBookingTarget(1L, 1L)).thenReturn(Optional.of(target(slot, true)));
+        reservationIntervals.onReservationChanged(new ReservationChangedEvent(
+                9L, 1L, 2L, requestDTO.getStartTime().plusMinutes(59), 30, ReservationStatus.ACTIVE));
+
+        assertThatThrownBy(() -> reservationService.createReservation(requestDTO))
+                .isInstanceOf(ReservationConflictException.class);
+        verify(slotRepository, never()).reserve(any());
+        verify(reservationRepository, never()).save(any());
+    }
+
+    @Test
+    void createReservation_OverlappingUserReservationOnOtherSlot_ThrowsConflict() {
+        when(slotRepository.findBookingTarget(1L, 1L)).thenReturn(Optional.of(target(slot, true)));
+        reservationIntervals.onReservationChanged(new ReservationChangedEvent(
+                9L, 2L, 1L, requestDTO.getStartTime().minusMinutes(30), 30, ReservationStatus.ACTIVE));
+
+        assertThatThrownBy(() -> reservationService.createReservation(requestDTO))
+                .isInstanceOf(ReservationConflictException.class);
+        verify(reservationRepository, never()).save(any());
+    }
+
+    @Test
+    void createReservation_WindowHeldByAnotherDriver_ThrowsConflict() {
+        when(slotRepository.findBookingTarget(1L, 1L)).thenReturn(Optional.of(target(slot, true)));
+        ReservationRequestDTO other = new ReservationRequestDTO();
+        other.setUserId(2L);
+        other.setSlotId(1L);
+        other.setStartTime(requestDTO.getStartTime().plusMinutes(30));
+        other.setDurationMinutes(60);
+        assertThat(reservationHolds.place(other)).isPresent();
+
+        assertThatThrownBy(() -> reservationService.createReservation(requestDTO))
+                .isInstanceOf(ReservationConflictException.class);
+        verify(slotRepository, never()).reserve(any());
+    }
+
+    @Test
+    void createReservation_ConsumesTheUsersOwnHold() {
+        when(slotRepository.findBookingTarget(1L, 1L)).thenReturn(Optional.of(target(slot, true)));
+        when(slotRepository.reserve(1L)).thenReturn(1);
+        reservation.setStartTime(requestDTO.getStartTime());
+        when(reservationRepository.save(any(Reservation.class))).thenReturn(reservation);
+        assertThat(reservationHolds.place(requestDTO)).isPresent();
+
+        assertThat(reservationService.createReservation(requestDTO)).isPresent();
+        assertThat(reservationHolds.size()).isZero();
+    }
+
+    @Test
+    void createReservation_ExclusionConstraintViolated_ThrowsConflictWithoutEvents() {
+        when(slotRepository.findBookingTarget(1L, 1L)).thenReturn(Optional.of(target(slot, true)));
+        when(slotRepository.reserve(1L)).thenReturn(1);
+        when(reservationRepository.save(any(Reservation.class))).thenReturn(reservation);
+        doThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")))
+                .when(reservationRepository).flush();
+
+        assertThatThrownBy(() -> reservationService.createReservation(requestDTO))
+                .isInstanceOf(ReservationConflictException.class);
+        verify(eventPublisher, never()).publishEvent(any());
+        assertThat(reservationIntervals.slotOverlaps(1L, requestDTO.getStartTime(),
+                requestDTO.getStartTime().plusMinutes(60))).isFalse();
+    }
+
+    @Test
+    void createReservation_AfterOverlappingReservationCanceled_Succeeds() {
+        when(slotRepository.findBookingTarget(1L, 1L)).thenReturn(Optional.of(target(slot, true)));
+        when(slotRepository.reserve(1L)).thenReturn(1);
+        when(reservationRepository.save(any(Reservation.class))).thenReturn(reservation);
+        LocalDateTime start = requestDTO.getStartTime();
+        reservationIntervals.onReservationChanged(new ReservationChangedEvent(9L, 1L, 2L, start, 60, ReservationStatus.ACTIVE));
+        reservationIntervals.onReservationChanged(new ReservationChangedEvent(9L, 1L, 2L, start, 60, ReservationStatus.CANCELED));
+
+        assertThat(reservationService.createReservation(requestDTO)).isPresent();
     }
 
     @Test
-    void createReservation_SlotAlreadyReserved_ReturnEmpty() {
+    void createReservation_SlotReservedForAnotherWindow_BooksWithoutFlaggingItAgain() {
         slot.setReserved(true);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(slotRepository.findById(1L)).thenReturn(Optional.of(slot));
-        when(slotRepository.existsByIdAndReservedTrue(1L)).thenReturn(true);
+        when(slotRepository.findBookingTarget(1L, 1L)).thenReturn(Optional.of(target(slot, true)));
+        when(reservationRepository.save(any(Reservation.class))).thenReturn(reservation);
+
+        Optional<ReservationResponseDTO> result = reservationService.createReservation(requestDTO);
 
+        assertThat(result).isPresent();
+        verify(slotRepository, never()).reserve(any());
+    }
+
+    @Test
+    void createReservation_SlotFlaggedBetweenReadAndUpdate_StillBooks() {
+        when(slotRepository.findBookingTarget(1L, 1L)).thenReturn(Optional.of(target(slot, true)));
+        when(slotRepository.reserve(1L)).thenReturn(0);
+        when(reservationRepository.save(any(Reservation.class))).thenReturn(reservation);
 
         Optional<ReservationResponseDTO> result = reservationService.createReservation(requestDTO);
 
-        assertThat(result).isEmpty();
-        verify(slotRepository, never()).save(any());
-        verify(reservationRepository, never()).save(any());
+        assertThat(result).isPresent();
     }
 
     @Test
@@ -148,6 +299,21 @@ class ReservationServiceTest {
         assertThat(result).isTrue();
         verify(slotRepository).save(argThat(s -> !s.isReserved()));
         verify(reservationRepository).save(argThat(r -> r.getStatus() == ReservationStatus.CANCELED));
+        verify(eventPublisher).publishEvent(any(SlotChangedEvent.class));
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof ReservationChangedEvent changed
+                && changed.getStatus() == ReservationStatus.CANCELED));
+    }
+
+    @Test
+    void cancelReservation_OtherActiveReservationsOnSlot_SlotStaysReserved() {
+        slot.setReserved(true);
+        when(reservationRepository.findById(1L)).thenReturn(Optional.of(reservation));
+        when(reservationRepository.existsBySlot_IdAndStatusAndIdNot(slot.getId(), ReservationStatus.ACTIVE, 1L))
+                .thenReturn(true);
+
+        assertThat(reservationService.cancelReservation(1L)).isTrue();
+
+        verify(slotRepository).save(argThat(Slot::isReserved));
     }
 
     @Test
@@ -189,23 +355,50 @@ class ReservationServiceTest {
 
     @Test
     void getReservationsByToken_Success() {
+        ReservationResponseDTO row = new ReservationResponseDTO();
+        row.setId(1L);
+        row.setUserId(user.getId());
+        row.setSlotId(slot.getId());
+        when(jwtUtil.getUserId("token")).thenReturn(null);
         when(jwtUtil.getUsername("token")).thenReturn("test@test.com");
         when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(user));
-        when(reservationRepository.findByUser(user)).thenReturn(List.of(reservation));
+        when(reservationRepository.findResponsesByUser(user.getId(), 0L, null, null, null, Limit.of(10)))
+                .thenReturn(List.of(row));
 
-        List<ReservationResponseDTO> result = reservationService.getReservationsByToken("token");
+        List<ReservationResponseDTO> result = reservationService.getReservationsByToken("token", null, null, null, 0L, 10);
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getUserId()).isEqualTo(user.getId());
         assertThat(result.get(0).getSlotId()).isEqualTo(slot.getId());
     }
 
+    @Test
+    void getReservationsByToken_WithUserIdInToken_SkipsTheUserLookup() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(jwtUtil.getUserId("token")).thenReturn(1L);
+        when(reservationRepository.findResponsesByUser(1L, 5L, ReservationStatus.ACTIVE, from, null, Limit.of(10)))
+                .thenReturn(List.of());
+
+        assertThat(reservationService.getReservationsByToken("token", ReservationStatus.ACTIVE, from, null, 5L, 10))
+                .isEmpty();
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    void getReservationsByToken_EmptyDateRange_Throws() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        assertThatThrownBy(() -> reservationService.getReservationsByToken("token", null, from, from, 0L, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     void getReservationsByToken_UserNotFound_ReturnEmptyList() {
+        when(jwtUtil.getUserId("token")).thenReturn(null);
         when(jwtUtil.getUsername("token")).thenReturn("test@test.com");
         when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.empty());
 
-        List<ReservationResponseDTO> result = reservationService.getReservationsByToken("token");
+        List<ReservationResponseDTO> result = reservationService.getReservationsByToken("token", null, null, null, 0L, 10);
 
         assertThat(result).isEmpty();
     }
@@ -221,9 +414,9 @@ class ReservationServiceTest {
 
     @Test
     void getAllReservations_Success() {
-        when(reservationRepository.findAll()).thenReturn(List.of(reservation));
+        when(reservationRepository.findPageAfter(0L, Limit.of(10))).thenReturn(List.of(reservation));
 
-        List<ReservationResponseDTO> result = reservationService.getAllReservations();
+        List<ReservationResponseDTO> result = reservationService.getAllReservations(0L, 10);
 
         assertThat(result).hasSize(1);
         ReservationResponseDTO dto = result.get(0);
@@ -236,29 +429,28 @@ class ReservationServiceTest {
 
     @Test
     void createReservation_UserNotFound_ReturnEmpty() {
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(slotRepository.findBookingTarget(1L, 1L)).thenReturn(Optional.of(target(slot, false)));
 
         Optional<ReservationResponseDTO> result = reservationService.createReservation(requestDTO);
 
         assertThat(result).isEmpty();
-        verify(slotRepository, never()).save(any());
+        verify(slotRepository, never()).reserve(any());
         verify(reservationRepository, never()).save(any());
     }
 
     @Test
     void createReservation_SlotNotFound_ReturnEmpty() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(slotRepository.findById(1L)).thenReturn(Optional.empty());
+        when(slotRepository.findBookingTarget(1L, 1L)).thenReturn(Optional.empty());
 
         Optional<ReservationResponseDTO> result = reservationService.createReservation(requestDTO);
 
         assertThat(result).isEmpty();
-        verify(slotRepository, never()).save(any());
+        verify(slotRepository, never()).reserve(any());
         verify(reservationRepository, never()).save(any());
     }
 
     @Test
-    void createReservation_ThrowsException_ReturnEmpty() {
+    void createReservation_ThrowsException_CountsAndRethrows() {
         MeterRegistry registry = new SimpleMeterRegistry();
 
         ReservationService testService = new ReservationService(
@@ -266,17 +458,22 @@ class ReservationServiceTest {
                 reservationRepository,
                 slotRepository,
                 userRepository,
-                jwtUtil
+                jwtUtil,
+                eventPublisher,
+                reservationIntervals,
+                tariffTable,
+                bookingLocks,
+                reservationHolds,
+                new TransactionTemplate(transactionManager)
         );
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(slotRepository.findById(1L)).thenReturn(Optional.of(slot));
-        when(slotRepository.save(any(Slot.class))).thenThrow(new RuntimeException("Database error"));
-
-        Optional<ReservationResponseDTO> result = testService.createReservation(requestDTO);
+        when(slotRepository.findBookingTarget(1L, 1L)).thenReturn(Optional.of(target(slot, true)));
+        when(slotRepository.reserve(1L)).thenThrow(new RuntimeException("Database error"));
 
-        assertThat(result).isEmpty();
-        verify(slotRepository).save(any());
+        assertThatThrownBy(() -> testService.createReservation(requestDTO))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Database error");
+        verify(reservationRepository, never()).save(any());
         assertThat(registry.counter("reservations.errors").count()).isEqualTo(1.0);
     }
 
@@ -405,4 +602,10 @@ class ReservationServiceTest {
         reservation1.setCreationDate(LocalDateTime.now());
         return reservation1;
     }
+
+    private static BookingTargetDTO target(Slot slot, boolean userExists) {
+        return new BookingTargetDTO(slot.getId(), slot.getName(), slot.getStation().getId(),
+                slot.getStation().getName(), slot.getStation().getStatus(), slot.getLatitude(), slot.getLongitude(),
+                slot.getChargingType(), slot.getPower(), slot.isReserved(), userExists);
+    }
 }
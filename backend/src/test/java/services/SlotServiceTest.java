@@ -6,14 +6,29 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import ua.tqs.dto.SlotAvailabilityDTO;
+import ua.tqs.dto.SlotClusterDTO;
 import ua.tqs.dto.SlotDTO;
+import ua.tqs.dto.SlotResponseDTO;
 import ua.tqs.enums.ChargingType;
+import ua.tqs.events.SlotChangedEvent;
+import ua.tqs.index.AvailabilityBitmaps;
+import ua.tqs.index.FleetOccupancy;
+import ua.tqs.index.ReservationIntervals;
+import ua.tqs.index.SlotCatalog;
+import ua.tqs.index.SlotClusterIndex;
+import ua.tqs.index.SlotSnapshot;
+import ua.tqs.index.SlotSpatialIndex;
+import ua.tqs.index.StationSlotReadModel;
 import ua.tqs.models.Slot;
 import ua.tqs.models.Station;
 import ua.tqs.repositories.SlotRepository;
 import ua.tqs.repositories.StationRepository;
 import ua.tqs.services.SlotService;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -21,6 +36,8 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +49,30 @@ class SlotServiceTest {
     @Mock
     private StationRepository stationRepository;
 
+    @Mock
+    private SlotSpatialIndex spatialIndex;
+
+    @Mock
+    private SlotClusterIndex clusterIndex;
+
+    @Mock
+    private StationSlotReadModel stationSlots;
+
+    @Mock
+    private FleetOccupancy occupancy;
+
+    @Mock
+    private SlotCatalog catalog;
+
+    @Mock
+    private ReservationIntervals reservationIntervals;
+
+    @Mock
+    private AvailabilityBitmaps availabilityBitmaps;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private SlotService slotService;
 
@@ -71,15 +112,17 @@ class SlotServiceTest {
         when(slotRepository.existsByName("Test Slot")).thenReturn(false);
         when(slotRepository.save(any(Slot.class))).thenReturn(slot);
 
-        Slot savedSlot = slotService.saveOrUpdateSlotFromDTO(slotDTO);
+        SlotResponseDTO savedSlot = slotService.saveOrUpdateSlotFromDTO(slotDTO);
 
         assertThat(savedSlot.getName()).isEqualTo(slotDTO.getName());
-        assertThat(savedSlot.getStation().getName()).isEqualTo(slotDTO.getStationName());
+        assertThat(savedSlot.getStationName()).isEqualTo(slotDTO.getStationName());
         assertThat(savedSlot.isReserved()).isEqualTo(slotDTO.isReserved());
         assertThat(savedSlot.getChargingType()).isEqualTo(slotDTO.getChargingType());
         assertThat(savedSlot.getPower()).isEqualTo(slotDTO.getPower());
         assertThat(savedSlot.getLatitude()).isEqualTo(slotDTO.getLatitude());
         assertThat(savedSlot.getLongitude()).isEqualTo(slotDTO.getLongitude());
+        verify(eventPublisher).publishEvent(argThat((Object e) ->
+                e instanceof SlotChangedEvent event && !event.isDeleted() && event.getSlotId().equals(1L)));
     }
 
     @Test
@@ -91,11 +134,11 @@ class SlotServiceTest {
         when(slotRepository.existsByNameAndIdNot("Test Slot", 1L)).thenReturn(false);
         when(slotRepository.save(any(Slot.class))).thenReturn(slot);
 
-        Slot updatedSlot = slotService.saveOrUpdateSlotFromDTO(slotDTO);
+        SlotResponseDTO updatedSlot = slotService.saveOrUpdateSlotFromDTO(slotDTO);
 
         assertThat(updatedSlot.getId()).isEqualTo(slotDTO.getId());
         assertThat(updatedSlot.getName()).isEqualTo(slotDTO.getName());
-        assertThat(updatedSlot.getStation().getName()).isEqualTo(slotDTO.getStationName());
+        assertThat(updatedSlot.getStationName()).isEqualTo(slotDTO.getStationName());
     }
 
     @Test
@@ -140,50 +183,154 @@ class SlotServiceTest {
 
         slotDTO.setStationName("New Station");
 
-        Slot savedSlot = slotService.saveOrUpdateSlotFromDTO(slotDTO);
+        SlotResponseDTO savedSlot = slotService.saveOrUpdateSlotFromDTO(slotDTO);
 
-        assertThat(savedSlot.getStation().getName()).isEqualTo("New Station");
+        assertThat(savedSlot.getStationName()).isEqualTo("New Station");
     }
 
     @Test
-    void getAllSlots_shouldReturnAllSlots() {
-        List<Slot> expectedSlots = Collections.singletonList(slot);
-        when(slotRepository.findAll()).thenReturn(expectedSlots);
+    void getAllSlots_shouldReturnProjectedSlots() {
+        List<SlotResponseDTO> expectedSlots = Collections.singletonList(slotService.convertToResponseDTO(slot));
+        when(slotRepository.findResponsesAfter(0L, Limit.of(100))).thenReturn(expectedSlots);
 
-        List<Slot> actualSlots = slotService.getAllSlots();
+        List<SlotResponseDTO> actualSlots = slotService.getAllSlots(0L, 100);
 
         assertThat(actualSlots).isEqualTo(expectedSlots);
+        verify(slotRepository, never()).findAll();
     }
 
     @Test
     void getAvailableSlots_shouldReturnNonReservedSlots() {
-        List<Slot> availableSlots = Collections.singletonList(slot);
-        when(slotRepository.findByReservedFalse()).thenReturn(availableSlots);
+        List<SlotResponseDTO> availableSlots = Collections.singletonList(slotService.convertToResponseDTO(slot));
+        when(slotRepository.findAvailableResponses()).thenReturn(availableSlots);
 
-        List<Slot> result = slotService.getAvailableSlots();
+        List<SlotResponseDTO> result = slotService.getAvailableSlots();
 
         assertThat(result).isEqualTo(availableSlots);
     }
 
     @Test
     void getSlotById_shouldReturnSlot() {
-        when(slotRepository.findById(1L)).thenReturn(Optional.of(slot));
+        SlotResponseDTO dto = slotService.convertToResponseDTO(slot);
+        when(slotRepository.findResponseById(1L)).thenReturn(Optional.of(dto));
 
-        Optional<Slot> result = slotService.getSlotById(1L);
+        Optional<SlotResponseDTO> result = slotService.getSlotById(1L);
 
         assertThat(result).isPresent()
-                .contains(slot);
+                .contains(dto);
     }
 
     @Test
     void getSlotsByStationId_shouldReturnSlotsForStation() {
-        List<Slot> allSlots = Collections.singletonList(slot);
-        when(slotRepository.findAll()).thenReturn(allSlots);
+        when(stationSlots.getSlotsByStation(1L)).thenReturn(List.of(SlotSnapshot.of(slot)));
+
+        List<SlotResponseDTO> result = slotService.getSlotsByStationId(1L);
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getId()).isEqualTo(slot.getId());
+        assertThat(result.get(0).getStationName()).isEqualTo("Test Station");
+        verify(slotRepository, never()).findAll();
+    }
+
+    @Test
+    void getAllChargers_shouldReturnReadModelSlots() {
+        when(stationSlots.getAllSlots()).thenReturn(List.of(SlotSnapshot.of(slot)));
+
+        List<SlotResponseDTO> result = slotService.getAllChargers();
+
+        assertThat(result).extracting(SlotResponseDTO::getName).containsExactly("Test Slot");
+        verify(slotRepository, never()).findAll();
+    }
+
+    @Test
+    void getNearestAvailableSlots_shouldMapIndexedSnapshots() {
+        when(spatialIndex.nearest(40.64, -8.65, 5, ChargingType.FAST)).thenReturn(List.of(SlotSnapshot.of(slot)));
+
+        List<SlotResponseDTO> result = slotService.getNearestAvailableSlots(40.64, -8.65, 5, ChargingType.FAST);
+
+        assertThat(result).extracting(SlotResponseDTO::getId).containsExactly(1L);
+        verify(slotRepository, never()).findByReservedFalse();
+    }
+
+    @Test
+    void getNearestAvailableSlots_whenKOutOfRange_thenThrowException() {
+        assertThatThrownBy(() -> slotService.getNearestAvailableSlots(40.64, -8.65, 0, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> slotService.getNearestAvailableSlots(40.64, -8.65, 500, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getAvailability_shouldListBusyWindowsAndTheGapsBetweenThem() {
+        LocalDateTime from = LocalDateTime.of(2025, 6, 2, 8, 0);
+        LocalDateTime to = from.plusHours(8);
+        when(catalog.contains(1L)).thenReturn(true);
+        doAnswer(invocation -> {
+            ReservationIntervals.BusyWindowConsumer consumer = invocation.getArgument(3);
+            consumer.accept(from, from.plusHours(1));
+            consumer.accept(from.plusHours(3), from.plusHours(4));
+            return null;
+        }).when(reservationIntervals).forEachBusyWindow(eq(1L), eq(from), eq(to), any());
+
+        SlotAvailabilityDTO availability = slotService.getAvailability(1L, from, to).orElseThrow();
+
+        assertThat(availability.getBusy()).extracting(SlotAvailabilityDTO.Window::getStart)
+                .containsExactly(from, from.plusHours(3));
+        assertThat(availability.getFree()).containsExactly(
+                new SlotAvailabilityDTO.Window(from.plusHours(1), from.plusHours(3)),
+                new SlotAvailabilityDTO.Window(from.plusHours(4), to));
+    }
+
+    @Test
+    void getAvailability_whenSlotUnknown_shouldBeEmpty() {
+        LocalDateTime from = LocalDateTime.of(2025, 6, 2, 8, 0);
+
+        assertThat(slotService.getAvailability(99L, from, from.plusHours(1))).isEmpty();
+    }
+
+    @Test
+    void getAvailability_whenRangeInvalid_thenThrowException() {
+        LocalDateTime from = LocalDateTime.of(2025, 6, 2, 8, 0);
+
+        assertThatThrownBy(() -> slotService.getAvailability(1L, from, from))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> slotService.getAvailability(1L, from, from.plusDays(32)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getFreeSlots_shouldMapBitmapMatches() {
+        LocalDateTime from = LocalDateTime.of(2025, 6, 3, 18, 0);
+        SlotSnapshot snapshot = new SlotSnapshot(1L, "Test Slot", 1L, "Test Station", null, 40.6405, -8.6538,
+                ChargingType.FAST, "50.0", false);
+        when(availabilityBitmaps.free(from, from.plusHours(1), ChargingType.FAST, null, 10)).thenReturn(List.of(snapshot));
 
-        List<Slot> result = slotService.getSlotsByStationId(1L);
+        List<SlotResponseDTO> result = slotService.getFreeSlots(from, from.plusHours(1), ChargingType.FAST, null, 10);
 
-        assertThat(result).hasSize(1)
-                .containsExactly(slot);
+        assertThat(result).extracting(SlotResponseDTO::getName).containsExactly("Test Slot");
+    }
+
+    @Test
+    void getFreeSlots_whenRangeMissing_thenThrowException() {
+        assertThatThrownBy(() -> slotService.getFreeSlots(null, LocalDateTime.now(), null, null, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getClusters_shouldDelegateToClusterIndex() {
+        SlotClusterDTO cluster = new SlotClusterDTO();
+        cluster.setCount(3);
+        when(clusterIndex.clusters(6, 40.0, -9.0, 41.0, -8.0)).thenReturn(List.of(cluster));
+
+        List<SlotClusterDTO> result = slotService.getClusters(6, new double[]{40.0, -9.0, 41.0, -8.0});
+
+        assertThat(result).containsExactly(cluster);
+    }
+
+    @Test
+    void getClusters_whenBboxMalformed_thenThrowException() {
+        assertThatThrownBy(() -> slotService.getClusters(6, new double[]{40.0, -9.0}))
+                .isInstanceOf(IllegalArgumentException.class);
     }
 
     @Test
@@ -194,6 +341,8 @@ class SlotServiceTest {
 
         assertThat(result).isTrue();
         verify(slotRepository).deleteById(1L);
+        verify(eventPublisher).publishEvent(argThat((Object e) ->
+                e instanceof SlotChangedEvent event && event.isDeleted() && event.getSlotId().equals(1L)));
     }
 
     @Test
@@ -204,11 +353,25 @@ class SlotServiceTest {
 
         assertThat(result).isFalse();
         verify(slotRepository, never()).deleteById(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void getSlotsWithin_shouldMapIndexedSnapshots() {
+        when(spatialIndex.within(40.0, -9.0, 41.0, -8.0)).thenReturn(List.of(SlotSnapshot.of(slot)));
+
+        List<SlotResponseDTO> result = slotService.getSlotsWithin(40.0, -9.0, 41.0, -8.0);
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getId()).isEqualTo(1L);
+        assertThat(result.get(0).getStationName()).isEqualTo("Test Station");
+        assertThat(result.get(0).getPricePerKwh()).isEqualTo(ChargingType.FAST.getPricePerKwh());
+        verify(slotRepository, never()).findAll();
     }
 
     @Test
     void getTotalChargers_shouldReturnCount() {
-        when(slotRepository.count()).thenReturn(1L);
+        when(occupancy.total()).thenReturn(1L);
 
         long result = slotService.getTotalChargers();
 
@@ -217,8 +380,7 @@ class SlotServiceTest {
 
     @Test
     void getActiveChargers_shouldReturnNonReservedCount() {
-        List<Slot> allSlots = Collections.singletonList(slot);
-        when(slotRepository.findAll()).thenReturn(allSlots);
+        when(occupancy.free()).thenReturn(1L);
 
         long result = slotService.getActiveChargers();
 
@@ -0,0 +1,65 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ua.tqs.dto.QuoteDTO;
+import ua.tqs.dto.QuoteRequestDTO;
+import ua.tqs.index.TariffTable;
+import ua.tqs.services.TariffService;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TariffServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 3, 18, 0);
+
+    @Mock
+    private TariffTable tariffTable;
+
+    @InjectMocks
+    private TariffService tariffService;
+
+    @Test
+    void quote_shouldPriceEachRequestInOrder() {
+        when(tariffTable.quote(1L, START, 60, 10.0)).thenReturn(new TariffTable.Price(0.30, 0.1, 2.7));
+        when(tariffTable.quote(2L, START, 60, 10.0)).thenReturn(null);
+
+        List<QuoteDTO> quotes = tariffService.quote(List.of(request(1L), request(2L)));
+
+        assertThat(quotes).extracting(QuoteDTO::getTotalCost).containsExactly(2.7, null);
+        assertThat(quotes.get(1).getError()).isEqualTo("Slot not found");
+    }
+
+    @Test
+    void quote_withMalformedOrTooManyRequests_thenThrowException() {
+        QuoteRequestDTO incomplete = request(1L);
+        incomplete.setStartTime(null);
+
+        assertThatThrownBy(() -> tariffService.quote(List.of(request(1L), incomplete)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Quote 1:");
+        assertThatThrownBy(() -> tariffService.quote(List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tariffService.quote(Collections.nCopies(TariffService.MAX_QUOTES + 1, request(1L))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static QuoteRequestDTO request(Long slotId) {
+        QuoteRequestDTO request = new QuoteRequestDTO();
+        request.setSlotId(slotId);
+        request.setStartTime(START);
+        request.setDurationMinutes(60);
+        request.setConsumptionKWh(10.0);
+        return request;
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import ua.tqs.enums.UserRole;
 import ua.tqs.models.User;
 import ua.tqs.repositories.UserRepository;
@@ -48,18 +49,18 @@ class UserServiceTest {
         log.debug("Created user2: {}", user2);
 
         List<User> expectedUsers = Arrays.asList(user1, user2);
-        when(userRepository.findAll()).thenReturn(expectedUsers);
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(10))).thenReturn(expectedUsers);
         log.debug("Mocked repository to return {} users", expectedUsers.size());
 
         log.debug("Executing getAllUsers");
-        List<User> actualUsers = userService.getAllUsers();
+        List<User> actualUsers = userService.getAllUsers(0L, 10);
 
         assertThat(actualUsers)
             .hasSize(2)
             .usingRecursiveComparison()
             .isEqualTo(expectedUsers);
 
-        verify(userRepository).findAll();
+        verify(userRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(10));
         log.info("Successfully verified getAllUsers returns correct list of users");
     }
 
@@ -67,13 +68,13 @@ class UserServiceTest {
     void whenGetAllUsers_andNoUsers_thenReturnEmptyList() {
         log.info("Testing getAllUsers with empty list");
 
-        when(userRepository.findAll()).thenReturn(Collections.emptyList());
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(5L, Limit.of(10))).thenReturn(Collections.emptyList());
         log.debug("Mocked repository to return empty list");
 
-        List<User> actualUsers = userService.getAllUsers();
+        List<User> actualUsers = userService.getAllUsers(5L, 10);
 
         assertThat(actualUsers).isEmpty();
-        verify(userRepository).findAll();
+        verify(userRepository).findByIdGreaterThanOrderByIdAsc(5L, Limit.of(10));
         log.info("Successfully verified getAllUsers returns empty list");
     }
 
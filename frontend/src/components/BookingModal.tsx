@@ -1,5 +1,5 @@
 import { X, CreditCard } from 'lucide-react'
-import { useState, useEffect } from 'react'
+import { useState, useEffect, useRef } from 'react'
 import { useNavigate } from 'react-router-dom'
 
 interface BookingModalProps {
@@ -39,6 +39,8 @@ const BookingModal = ({ isOpen, onClose, chargerDetails }: BookingModalProps) =>
   const [token, setToken] = useState<string | null>(null)
   const [userId, setUserId] = useState<string | null>(null)
   const [errorMessage, setErrorMessage] = useState<string | null>(null)
+  const [holdError, setHoldError] = useState<string | null>(null)
+  const booked = useRef(false)
 
   useEffect(() => {
     if (isOpen) {
@@ -48,9 +50,63 @@ const BookingModal = ({ isOpen, onClose, chargerDetails }: BookingModalProps) =>
       console.log('UserID:', uid)
       setToken(jwt)
       setUserId(uid)
+      booked.current = false
     }
   }, [isOpen])
 
+  // Hold the chosen window while the form is filled in, so nobody else books it meanwhile;
+  // the booking consumes the hold, and changing the window or closing releases it
+  useEffect(() => {
+    if (!isOpen || !token || !userId || !bookingData.date || !bookingData.startTime) return
+
+    const releaseHold = (id: string) => {
+      fetch(`/api/reservations/holds/${id}`, {
+        method: 'DELETE',
+        headers: { 'Authorization': `Bearer ${token}` }
+      }).catch(() => {})
+    }
+
+    // Not aborted on cleanup: the server may still place the hold, which must then be released
+    let holdId: string | null = null
+    let stale = false
+    fetch(`/api/reservations/holds`, {
+      method: 'POST',
+      headers: {
+        'Content-Type': 'application/json',
+        'Authorization': `Bearer ${token}`
+      },
+      body: JSON.stringify({
+        userId: parseInt(userId),
+        slotId: parseInt(chargerDetails.id),
+        startTime: `${bookingData.date}T${bookingData.startTime}:00`,
+        durationMinutes: parseInt(bookingData.duration),
+      })
+    })
+      .then(async (res) => {
+        const placed: string | null = res.ok ? (await res.json()).holdId : null
+        if (stale) {
+          if (placed && !booked.current) {
+            releaseHold(placed)
+          }
+          return
+        }
+        if (res.status === 409) {
+          setHoldError('Someone else is booking this slot for that time. Please choose another time.')
+          return
+        }
+        setHoldError(null)
+        holdId = placed
+      })
+      .catch(() => {})
+
+    return () => {
+      stale = true
+      if (holdId && !booked.current) {
+        releaseHold(holdId)
+      }
+    }
+  }, [isOpen, token, userId, chargerDetails.id, bookingData.date, bookingData.startTime, bookingData.duration])
+
   const handleSubmit = async (e: React.FormEvent) => {
     e.preventDefault()
 
@@ -74,13 +130,11 @@ const BookingModal = ({ isOpen, onClose, chargerDetails }: BookingModalProps) =>
     }
 
     const slotId = parseInt(chargerDetails.id)
-    const pricePerKWh = parseFloat(chargerDetails.pricePerKwh.replace(/[^\d.]/g, ''))
     const durationMinutes = parseInt(bookingData.duration)
 
     const payload = {
       userId: parseInt(userId),
       slotId,
-      pricePerKWh,
       consumptionKWh: 15.0,
       startTime,
       durationMinutes,
@@ -102,6 +156,7 @@ const BookingModal = ({ isOpen, onClose, chargerDetails }: BookingModalProps) =>
 
       const data = await res.json()
       console.log('Reservation successful:', data)
+      booked.current = true
       onClose()
       navigate('/bookings')
     } catch (err) {
@@ -174,6 +229,10 @@ const BookingModal = ({ isOpen, onClose, chargerDetails }: BookingModalProps) =>
             </select>
           </div>
 
+          {holdError && (
+            <p className="text-sm text-red-600">{holdError}</p>
+          )}
+
           <div className="border-t pt-4 mt-4">
             <div className="flex items-center gap-2 mb-4">
               <CreditCard className="text-green-700" size={20} />
@@ -1,6 +1,7 @@
 import { Calendar, ChevronUp, ChevronDown, History, Eye } from "lucide-react";
 import { useEffect, useState } from "react";
 import ReservationModalAdmin from "../../components/ReservationModalAdmin";
+import { fetchAllPages } from "../../utils/fetchAllPages";
 
 type SortDirection = "asc" | "desc" | null;
 type SortField =
@@ -42,10 +43,9 @@ const AdminReservationsPage = () => {
     useState<ReservationResponseDTO | null>(null);
 
   useEffect(() => {
-    fetch(`/api/reservations/all`, {
+    fetchAllPages<ReservationResponseDTO>(`/api/reservations/all`, {
       credentials: "include",
     })
-      .then((res) => res.json())
       .then((data) => setReservations(data))
       .catch((err) => console.error("Error fetching reservations", err));
   }, []);
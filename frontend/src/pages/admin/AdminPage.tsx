@@ -80,8 +80,8 @@ const AdminPage = () => {
                 const chargers = slots.map((slot: any) => ({
                     id: slot.id,
                     name: slot.name ?? `Slot ${slot.id}`,
-                    location: slot.station?.name ?? 'Unknown',
-                    status: slot.station?.status === 'UNAVAILABLE' ? 'Inactive' : 'Active',
+                    location: slot.stationName ?? 'Unknown',
+                    status: slot.stationStatus === 'UNAVAILABLE' ? 'Inactive' : 'Active',
                     type: slot.chargingType,
                     power: slot.power,
                 }))
@@ -281,8 +281,8 @@ const AdminPage = () => {
                 const formattedCharger: Charger = {
                     id: newSlot.id,
                     name: newSlot.name || `Slot ${newSlot.id}`,
-                    location: newSlot.station?.name || 'Unknown',
-                    status: newSlot.station?.status === 'UNAVAILABLE' ? 'Inactive' : 'Active',
+                    location: newSlot.stationName || 'Unknown',
+                    status: newSlot.stationStatus === 'UNAVAILABLE' ? 'Inactive' : 'Active',
                     type: newSlot.chargingType,
                     power: newSlot.power
                 };
@@ -1,6 +1,7 @@
 import { Calendar, Plus, History, Eye, Trash2 } from 'lucide-react'
 import { useState, useEffect } from 'react'
 import {useLocation, useNavigate} from 'react-router-dom'
+import { fetchAllPages } from '../../utils/fetchAllPages'
 
 interface ReservationResponseDTO {
     id: number
@@ -71,15 +72,14 @@ const BookingPage = () => {
             return
         }
 
-        const res = await fetch(`/api/reservations/myReservations`, {
-            headers: {
-                'Authorization': `Bearer ${token}`
-            }
-        })
-        if (res.ok) {
-            const data = await res.json()
+        try {
+            const data = await fetchAllPages<ReservationResponseDTO>(`/api/reservations/myReservations`, {
+                headers: {
+                    'Authorization': `Bearer ${token}`
+                }
+            })
             setBookings(data)
-        } else {
+        } catch {
             console.error('Failed to fetch bookings')
         }
     }
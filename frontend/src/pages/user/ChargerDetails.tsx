@@ -95,6 +95,24 @@ const ChargerDetails = () => {
     }
   }, [id, location.state]);
 
+  useEffect(() => {
+    const markerData = location.state as LocationState | null
+    if (!id || markerData?.isExternal) return
+
+    // Availability changes are pushed by the server instead of polled
+    const events = new EventSource(`/api/slots/stream?ids=${id}`)
+    events.addEventListener('slot', (event) => {
+      const change = JSON.parse((event as MessageEvent).data)
+      setChargerDetails((prev: any) =>
+        prev ? { ...prev, status: change.reserved ? 'Occupied' : 'Available' } : prev
+      )
+    })
+    events.addEventListener('removed', () => {
+      setChargerDetails((prev: any) => (prev ? { ...prev, status: 'Unavailable' } : prev))
+    })
+    return () => events.close()
+  }, [id, location.state]);
+
   if (!chargerDetails) return <div className="p-6">Loading charger details...</div>
 
   return (
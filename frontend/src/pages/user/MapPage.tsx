@@ -224,7 +224,7 @@ const MapPage = () => {
     const loadInternalSlots = async () => {
         if (!mapInstance || !location) return;
         try {
-            const response = await fetch(`/api/slots`);
+            const response = await fetch(`/api/slots/catalog`);
             const slots = await response.json();
 
             const { google } = window as typeof window & { google: any };
@@ -0,0 +1,25 @@
+const NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+/**
+ * Follows the keyset cursors of a paginated list endpoint until the last page
+ * and returns every item. Each page is a plain JSON array; the cursor for the
+ * next one comes back in the X-Next-Cursor header.
+ */
+export const fetchAllPages = async <T>(url: string, init?: RequestInit, limit = 500): Promise<T[]> => {
+  const items: T[] = [];
+  let cursor: string | null = null;
+
+  do {
+    const params = new URLSearchParams({ limit: String(limit) });
+    if (cursor) params.set("after", cursor);
+    const separator = url.includes("?") ? "&" : "?";
+
+    const res = await fetch(`${url}${separator}${params}`, init);
+    if (!res.ok) throw new Error(`Request failed with status ${res.status}`);
+
+    items.push(...((await res.json()) as T[]));
+    cursor = res.headers.get(NEXT_CURSOR_HEADER);
+  } while (cursor);
+
+  return items;
+};
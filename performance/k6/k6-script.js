@@ -6,8 +6,14 @@ export let options = {
   duration: '30s',
 };
 
+const CATALOG_URL = 'http://deti-tqs-05.ua.pt:8081/api/slots/catalog';
+
 export default function () {
-  let res = http.get('http://deti-tqs-05.ua.pt:8081/api/slots');
+  let res = http.get(CATALOG_URL);
   check(res, { 'status was 200': (r) => r.status == 200 });
+
+  // Revalidate like a browser holding the cached catalog
+  let revalidated = http.get(CATALOG_URL, { headers: { 'If-None-Match': res.headers['Etag'] } });
+  check(revalidated, { 'unchanged catalog was 304': (r) => r.status == 304 });
   sleep(1);
-}
\ No newline at end of file
+}